@@ -0,0 +1,18 @@
+package com.eshop.app.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits concurrent calls of the annotated method with the adaptive limiter of
+ * its endpoint group. Methods sharing a group share one limit.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdaptiveConcurrency {
+
+    /** Endpoint group, e.g. "dashboard". */
+    String value();
+}
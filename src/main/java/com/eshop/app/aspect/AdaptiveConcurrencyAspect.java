@@ -0,0 +1,55 @@
+package com.eshop.app.aspect;
+
+import com.eshop.app.exception.ConcurrencyLimitExceededException;
+import com.eshop.app.exception.ServiceTimeoutException;
+import com.eshop.app.service.concurrency.AdaptiveConcurrencyLimiter;
+import com.eshop.app.service.concurrency.AdaptiveConcurrencyLimiters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Applies the adaptive concurrency limit of methods annotated with
+ * {@link AdaptiveConcurrency}.
+ *
+ * <p>Completed calls feed their latency to the limiter. Timeouts and connection
+ * failures count as drops and lower the limit; other exceptions are not sampled.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdaptiveConcurrencyAspect {
+
+    private final AdaptiveConcurrencyLimiters limiters;
+
+    @Around("@annotation(adaptiveConcurrency)")
+    public Object limit(ProceedingJoinPoint joinPoint, AdaptiveConcurrency adaptiveConcurrency) throws Throwable {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(adaptiveConcurrency.value());
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        if (permit == null) {
+            log.warn("Concurrency limit reached: group={}, limit={}", adaptiveConcurrency.value(), limiter.getLimit());
+            throw new ConcurrencyLimitExceededException(adaptiveConcurrency.value(), limiter.getLimit());
+        }
+
+        try {
+            Object result = joinPoint.proceed();
+            permit.success();
+            return result;
+        } catch (TransientDataAccessException | CannotGetJdbcConnectionException
+                 | ServiceTimeoutException | TimeoutException e) {
+            permit.dropped();
+            throw e;
+        } catch (Throwable t) {
+            permit.ignore();
+            throw t;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.eshop.app.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks reporting code whose read-only transactions should use the analytics
+ * connection pool instead of the pools serving checkout and browsing.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AnalyticsWorkload {
+}
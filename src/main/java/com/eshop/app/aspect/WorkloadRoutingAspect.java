@@ -0,0 +1,31 @@
+package com.eshop.app.aspect;
+
+import com.eshop.app.config.WorkloadContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs {@link AnalyticsWorkload} methods under the analytics workload.
+ *
+ * <p>Ordered ahead of the transaction advice so the workload is set before a
+ * connection is obtained.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadRoutingAspect {
+
+    @Around("@within(com.eshop.app.aspect.AnalyticsWorkload) || @annotation(com.eshop.app.aspect.AnalyticsWorkload)")
+    public Object analytics(ProceedingJoinPoint joinPoint) throws Throwable {
+        WorkloadContext.Workload previous = WorkloadContext.enter(WorkloadContext.Workload.ANALYTICS);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
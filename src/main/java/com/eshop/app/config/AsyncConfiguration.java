@@ -27,6 +27,8 @@ import java.util.concurrent.Executor;
  * tasks</li>
  * <li><b>dashboardExecutor</b> - Dedicated executor for dashboard data
  * aggregation</li>
+ * <li><b>imageProcessingExecutor</b> - Virtual threads for image uploads and
+ * thumbnail generation</li>
  * </ul>
  * 
  * <p>
@@ -140,6 +142,8 @@ public class AsyncConfiguration implements AsyncConfigurer {
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("Dashboard-");
+        // Keep parallel report queries on the analytics pool
+        executor.setTaskDecorator(WorkloadContext.taskDecorator());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(15);
         executor.initialize();
@@ -148,6 +152,22 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Virtual thread executor for image uploads and thumbnail generation.
+     *
+     * <p>
+     * Each image upload and each derivative size gets its own virtual thread so
+     * a multi-image product upload runs in roughly the time of its slowest image.
+     * CPU-heavy resizing is additionally bounded inside
+     * {@code ImageDerivativeService}.
+     */
+    @Bean(name = "imageProcessingExecutor")
+    @ConditionalOnMissingBean(name = "imageProcessingExecutor")
+    public TaskExecutor imageProcessingExecutor() {
+        log.info("Initializing virtual thread executor for image processing");
+        return new VirtualThreadTaskExecutor("image-vt-");
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return (Executor) virtualThreadExecutor();
@@ -1,5 +1,15 @@
 package com.eshop.app.config;
 
+import com.eshop.app.config.serializer.CompactRedisSerializer;
+import com.eshop.app.dto.response.ProductResponse;
+import com.eshop.app.service.cache.BatchCache;
+import com.eshop.app.service.cache.CacheInstrumentation;
+import com.eshop.app.service.cache.CacheTuner;
+import com.eshop.app.service.cache.InstrumentedCacheManager;
+import com.eshop.app.service.cache.NearCache;
+import com.eshop.app.service.cache.NearCacheInvalidationListener;
+import com.eshop.app.service.cache.NearCacheManager;
+import com.eshop.app.service.cache.ResilientRedisCacheService;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
@@ -8,14 +18,20 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -34,6 +50,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Unified Cache Configuration with Caffeine (L1) and Redis (L2) support.
@@ -145,6 +162,24 @@ public class CacheConfig {
     // Utility Caches
     public static final String SHORT_LIVED_CACHE = "shortLivedCache";
 
+    // Caches holding product prices, cleared together after bulk repricing
+    public static final List<String> PRODUCT_PRICE_CACHES = List.of(
+            PRODUCT_CACHE, PRODUCT_LIST_CACHE, PRODUCT_BY_SLUG_CACHE, PRODUCTS_CACHE,
+            PRODUCT_SEARCH_CACHE, PRODUCT_SUMMARIES_CACHE, FEATURED_PRODUCTS_CACHE,
+            TOP_PRODUCTS_CACHE, PRODUCTS_BY_CATEGORY_CACHE, ACTIVE_PRODUCTS_CACHE);
+
+    // Caches holding pages of products with their stock, cleared when any product's stock changes
+    public static final List<String> PRODUCT_LIST_CACHES = List.of(
+            PRODUCT_LIST_CACHE, PRODUCT_SEARCH_CACHE, PRODUCT_SUMMARIES_CACHE, FEATURED_PRODUCTS_CACHE,
+            TOP_PRODUCTS_CACHE, PRODUCTS_BY_CATEGORY_CACHE, ACTIVE_PRODUCTS_CACHE, LOW_STOCK_PRODUCTS_CACHE);
+
+    // Redis TTL of the product caches, shared with the batch product cache
+    private static final Duration PRODUCT_REDIS_TTL = Duration.ofMinutes(30);
+
+    // Near caches (L1 invalidated through Redis) and how their Redis key suffix maps back to the L1 key
+    private static final Map<String, Function<String, Object>> NEAR_CACHE_KEYS = Map.of(
+            PRODUCTS_CACHE, Long::valueOf);
+
     // All cache names consolidated
     private static final List<String> ALL_CACHE_NAMES = List.of(
             // Product caches
@@ -196,6 +231,26 @@ public class CacheConfig {
     @Value("${cache.redis.enabled:true}")
     private boolean redisEnabled;
 
+    /**
+     * {@code json} or {@code compact}. Roll out {@code compact} in two deploys: first
+     * ship this version everywhere with {@code json} (every node can then read both
+     * formats), then switch the property.
+     */
+    @Value("${cache.redis.serializer:json}")
+    private String redisSerializer;
+
+    @Value("${cache.redis.compression-threshold:2048}")
+    private int redisCompressionThreshold;
+
+    @Value("${cache.near-cache.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    /**
+     * L1 and L2 TTL of the near caches; safe to keep long since changes are pushed.
+     */
+    @Value("${cache.near-cache.ttl:PT6H}")
+    private Duration nearCacheTtl;
+
     // ==================== JSON SERIALIZER ====================
 
     /**
@@ -269,6 +324,35 @@ public class CacheConfig {
         };
     }
 
+    /**
+     * Value serializer for Redis: JSON, or {@link CompactRedisSerializer} when
+     * {@code cache.redis.serializer=compact}. The compact serializer reads JSON too.
+     */
+    private RedisSerializer<Object> createRedisValueSerializer() {
+        RedisSerializer<Object> jsonSerializer = createJsonRedisSerializer();
+        if ("compact".equalsIgnoreCase(redisSerializer)) {
+            return new CompactRedisSerializer(jsonSerializer, redisCompressionThreshold);
+        }
+        return jsonSerializer;
+    }
+
+    // ==================== INSTRUMENTATION ====================
+
+    /**
+     * Per-cache hit/miss, load time, eviction cause, entry size and hot key
+     * statistics, exposed as {@code eshop.cache.*} metrics and by the
+     * {@code cachestats} actuator endpoint.
+     */
+    @Bean
+    public CacheInstrumentation cacheInstrumentation(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${cache.metrics.key-sample-rate:16}") int keySampleRate,
+            @Value("${cache.metrics.size-sample-rate:64}") int sizeSampleRate,
+            @Value("${cache.metrics.top-keys:20}") int topKeys) {
+        return new CacheInstrumentation(meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                createRedisValueSerializer(), keySampleRate, sizeSampleRate, topKeys);
+    }
+
     // ==================== CAFFEINE CACHE BUILDERS ====================
 
     /**
@@ -352,12 +436,33 @@ public class CacheConfig {
      *   <li>No network overhead</li>
      *   <li>Automatic eviction based on size and TTL</li>
      * </ul>
+     *
+     * <p>Each cache counts its removals by cause in {@link CacheInstrumentation}.
+     * Unless {@code cache.tuning.enabled=false}, the {@link CacheTuner} sets a
+     * per-entry TTL around the configured one and resizes caches that evict
+     * for size.
      */
     @Bean
-    public CaffeineCacheManager caffeineCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(defaultCaffeineBuilder());
+    public CaffeineCacheManager caffeineCacheManager(CacheInstrumentation cacheInstrumentation,
+                                                     CacheTuner cacheTuner) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected com.github.benmanes.caffeine.cache.Cache<Object, Object> createNativeCaffeineCache(String name) {
+                return buildL1Cache(name, Duration.ofMinutes(caffeineTtlMinutes), false, defaultCaffeineBuilder(),
+                        cacheInstrumentation, cacheTuner);
+            }
+        };
         cacheManager.setCacheNames(ALL_CACHE_NAMES);
+        if (nearCachesActive()) {
+            NEAR_CACHE_KEYS.keySet().forEach(name -> cacheManager.registerCustomCache(name, buildL1Cache(name,
+                    nearCacheTtl,
+                    true,
+                    Caffeine.newBuilder()
+                            .maximumSize(caffeineMaxSize)
+                            .expireAfterWrite(nearCacheTtl)
+                            .recordStats(),
+                    cacheInstrumentation, cacheTuner)));
+        }
 
         log.info("✅ Initialized Caffeine CacheManager (L1) with {} caches, TTL: {} min, MaxSize: {}",
                 ALL_CACHE_NAMES.size(), caffeineTtlMinutes, caffeineMaxSize);
@@ -365,6 +470,50 @@ public class CacheConfig {
         return cacheManager;
     }
 
+    /**
+     * Builds an L1 cache with the tuner's expiry, or from the fixed builder when
+     * tuning is off. A custom expiry replaces expire-after-write and -access.
+     * Only near caches, which other nodes invalidate, may extend TTLs.
+     */
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildL1Cache(
+            String name, Duration ttl, boolean invalidatedRemotely, Caffeine<Object, Object> fixedBuilder,
+            CacheInstrumentation cacheInstrumentation, CacheTuner cacheTuner) {
+        RemovalListener<Object, Object> instrumented = cacheInstrumentation.removalListener(name);
+        if (!cacheTuner.isEnabled()) {
+            return fixedBuilder.removalListener(instrumented).build();
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = Caffeine.newBuilder()
+                .initialCapacity(100)
+                .maximumSize(caffeineMaxSize)
+                .expireAfter(cacheTuner.expiry(name, ttl, invalidatedRemotely))
+                .removalListener((key, value, cause) -> {
+                    instrumented.onRemoval(key, value, cause);
+                    cacheTuner.recordRemoval(name, key, cause);
+                })
+                .recordStats()
+                .build();
+        cacheTuner.register(name, cache);
+        return cache;
+    }
+
+    // ==================== BATCH CACHES ====================
+
+    /**
+     * Multi-key access to the {@code products} cache for batch lookups: L1 from
+     * {@link #caffeineCacheManager}, then one Redis MGET, then one database query.
+     */
+    @Bean
+    public BatchCache<Long, ProductResponse> productBatchCache(
+            CaffeineCacheManager caffeineCacheManager,
+            ObjectProvider<ResilientRedisCacheService> redisCacheService,
+            NearCacheManager nearCacheManager) {
+        return new BatchCache<>(PRODUCTS_CACHE, ProductResponse.class,
+                nearCachesActive() ? nearCacheTtl : PRODUCT_REDIS_TTL,
+                caffeineCacheManager.getCache(PRODUCTS_CACHE),
+                redisEnabled ? redisCacheService.getIfAvailable() : null,
+                (NearCache) nearCacheManager.getCache(PRODUCTS_CACHE));
+    }
+
     // ==================== REDIS TEMPLATE ====================
 
     /**
@@ -391,14 +540,14 @@ public class CacheConfig {
         template.setKeySerializer(stringSerializer);
         template.setHashKeySerializer(stringSerializer);
 
-        // JSON serializer for values (human-readable, supports complex objects)
-        RedisSerializer<Object> jsonSerializer = createJsonRedisSerializer();
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        // JSON for values (human-readable); optionally compact binary for hot DTOs
+        RedisSerializer<Object> valueSerializer = createRedisValueSerializer();
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
 
         template.afterPropertiesSet();
 
-        log.info("✅ Initialized RedisTemplate with JSON serialization");
+        log.info("✅ Initialized RedisTemplate with {} serialization", redisSerializer);
         return template;
     }
 
@@ -421,8 +570,7 @@ public class CacheConfig {
     @ConditionalOnClass(RedisConnectionFactory.class)
     @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true", matchIfMissing = true)
     public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
-        // Create JSON serializer
-        RedisSerializer<Object> jsonSerializer = createJsonRedisSerializer();
+        RedisSerializer<Object> valueSerializer = createRedisValueSerializer();
 
         // Default Redis cache configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
@@ -432,7 +580,7 @@ public class CacheConfig {
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
                 )
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer)
+                        RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer)
                 );
 
         // Build per-cache configurations with custom TTLs
@@ -442,6 +590,7 @@ public class CacheConfig {
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .transactionAware()
+                .enableStatistics()
                 .build();
 
         log.info("✅ Initialized Redis CacheManager (L2) with {} cache configurations, default TTL: {} min",
@@ -459,7 +608,7 @@ public class CacheConfig {
         Map<String, RedisCacheConfiguration> configs = new HashMap<>();
 
         // ===== Product Caches - 30 min TTL =====
-        Duration productTtl = Duration.ofMinutes(30);
+        Duration productTtl = PRODUCT_REDIS_TTL;
         configs.put(PRODUCT_CACHE, defaultConfig.entryTtl(productTtl));
         configs.put(PRODUCT_LIST_CACHE, defaultConfig.entryTtl(productTtl));
         configs.put(PRODUCTS_CACHE, defaultConfig.entryTtl(productTtl));
@@ -470,6 +619,11 @@ public class CacheConfig {
         configs.put(PRODUCTS_BY_CATEGORY_CACHE, defaultConfig.entryTtl(productTtl));
         configs.put(ACTIVE_PRODUCTS_CACHE, defaultConfig.entryTtl(productTtl));
 
+        // Near caches are invalidated on change, so their entries can live longer
+        if (nearCachesActive()) {
+            NEAR_CACHE_KEYS.keySet().forEach(name -> configs.put(name, defaultConfig.entryTtl(nearCacheTtl)));
+        }
+
         // ===== Search Cache - 15 min TTL =====
         configs.put(PRODUCT_SEARCH_CACHE, defaultConfig.entryTtl(Duration.ofMinutes(15)));
 
@@ -527,6 +681,41 @@ public class CacheConfig {
         return configs;
     }
 
+    // ==================== NEAR CACHES (L1 backed by L2) ====================
+
+    /**
+     * Near caches: L1 entries mirrored in Redis and invalidated on every node when
+     * the Redis key changes (see {@link NearCacheInvalidationListener}). Empty when
+     * Redis or {@code cache.near-cache.enabled} is off.
+     */
+    @Bean
+    public NearCacheManager nearCacheManager(
+            CaffeineCacheManager caffeineCacheManager,
+            ObjectProvider<RedisCacheManager> redisCacheManager) {
+        RedisCacheManager redis = redisCacheManager.getIfAvailable();
+        if (!nearCachesActive() || redis == null) {
+            return new NearCacheManager(List.of());
+        }
+        List<NearCache> caches = NEAR_CACHE_KEYS.entrySet().stream()
+                .map(entry -> new NearCache(caffeineCacheManager.getCache(entry.getKey()),
+                        undecorated(redis.getCache(entry.getKey())), entry.getValue()))
+                .toList();
+        log.info("✅ Initialized near caches {} with TTL {}", NEAR_CACHE_KEYS.keySet(), nearCacheTtl);
+        return new NearCacheManager(caches);
+    }
+
+    /**
+     * The Redis caches are transaction-aware; near caches defer their own Redis
+     * writes to commit, so they need the plain cache to see what failed.
+     */
+    private static Cache undecorated(Cache cache) {
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+
+    private boolean nearCachesActive() {
+        return redisEnabled && nearCacheEnabled;
+    }
+
     // ==================== COMPOSITE CACHE MANAGER (Primary) ====================
 
     /**
@@ -534,6 +723,7 @@ public class CacheConfig {
      * 
      * <p>Lookup order:
      * <ol>
+     *   <li>Near caches - L1 backed by L2 with pushed invalidation</li>
      *   <li>Caffeine (L1) - Fast local cache</li>
      *   <li>Redis (L2) - Distributed cache</li>
      * </ol>
@@ -544,6 +734,8 @@ public class CacheConfig {
     @Primary
     public CacheManager cacheManager(
             CaffeineCacheManager caffeineCacheManager,
+            NearCacheManager nearCacheManager,
+            CacheInstrumentation cacheInstrumentation,
             @org.springframework.beans.factory.annotation.Autowired(required = false) 
             RedisCacheManager redisCacheManager) {
 
@@ -552,6 +744,7 @@ public class CacheConfig {
         if (redisCacheManager != null && redisEnabled) {
             // Multi-level caching: L1 (Caffeine) first, then L2 (Redis)
             compositeCacheManager.setCacheManagers(Arrays.asList(
+                    nearCacheManager,
                     caffeineCacheManager,
                     redisCacheManager
             ));
@@ -564,7 +757,7 @@ public class CacheConfig {
 
         compositeCacheManager.setFallbackToNoOpCache(false);
 
-        return compositeCacheManager;
+        return new InstrumentedCacheManager(compositeCacheManager, cacheInstrumentation);
     }
 
     // ==================== UTILITY METHODS ====================
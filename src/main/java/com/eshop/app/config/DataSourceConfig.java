@@ -1,8 +1,10 @@
 package com.eshop.app.config;
 
+import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 // Avoid direct dependency on DataSourceProperties (varies across Spring Boot versions)
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -10,9 +12,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
 
 import javax.sql.DataSource;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -34,6 +38,20 @@ import java.util.Map;
  * Connection Pools:
  * - Write pool: 20 connections (limited by single writer)
  * - Read pool: 50 connections per replica (scales horizontally)
+ *
+ * Replicas:
+ * - spring.datasource.read-replicas.urls: comma-separated JDBC URLs, one pool each;
+ *   without it the single read-replicas pool is used
+ * - spring.datasource.read-replicas.max-lag=PT5S
+ * - spring.datasource.read-replicas.lag-probe-interval=PT2S
+ * - spring.datasource.read-replicas.read-after-write-window=PT5S
+ *
+ * Analytics pool (@AnalyticsWorkload):
+ * - spring.datasource.analytics.enabled=true
+ * - spring.datasource.analytics.url: defaults to the first replica
+ * - spring.datasource.analytics.maximum-pool-size=5
+ * - spring.datasource.analytics.statement-timeout=PT30S
+ * - spring.datasource.analytics.fetch-size=1000
  */
 @Slf4j
 @Configuration
@@ -45,7 +63,6 @@ public class DataSourceConfig {
      * Binds properties to HikariDataSource directly to avoid DataSourceProperties type.
      */
     @Bean
-    @Primary
     @ConfigurationProperties(prefix = "spring.datasource")
     public HikariDataSource writeDataSource() {
         HikariDataSource dataSource = new HikariDataSource();
@@ -64,12 +81,8 @@ public class DataSourceConfig {
 
     /**
      * Read datasource (read replicas)
-     * Handles SELECT operations with round-robin load balancing
-     * 
-     * Note: For multiple read replicas, configure comma-separated URLs:
-     * spring.datasource.read-replicas.url=jdbc:postgresql://read-replica-1:5432,read-replica-2:5432,read-replica-3:5432/eshop_db
-     * 
-     * HikariCP will automatically load balance across replicas.
+     * Handles SELECT operations; also the template for the pools of
+     * spring.datasource.read-replicas.urls, which share its credentials and pool settings.
      */
     @Bean
     @ConfigurationProperties(prefix = "spring.datasource.read-replicas")
@@ -89,39 +102,100 @@ public class DataSourceConfig {
         return dataSource;
     }
 
+    /**
+     * Router over the write datasource and one pool per read replica
+     */
+    @Bean
+    public RoutingDataSource replicaRoutingDataSource(
+            @Qualifier("writeDataSource") DataSource writeDataSource,
+            @Qualifier("readDataSource") HikariDataSource readDataSource,
+            @Value("${spring.datasource.read-replicas.urls:}") String[] replicaUrls,
+            @Value("${spring.datasource.read-replicas.max-lag:PT5S}") Duration maxLag,
+            @Value("${spring.datasource.read-replicas.read-after-write-window:PT5S}") Duration readAfterWriteWindow,
+            @Value("${spring.datasource.analytics.enabled:true}") boolean analyticsEnabled,
+            @Value("${spring.datasource.analytics.url:}") String analyticsUrl,
+            @Value("${spring.datasource.analytics.maximum-pool-size:5}") int analyticsPoolSize,
+            @Value("${spring.datasource.analytics.statement-timeout:PT30S}") Duration analyticsStatementTimeout,
+            @Value("${spring.datasource.analytics.fetch-size:1000}") int analyticsFetchSize) {
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        if (replicaUrls.length == 0) {
+            replicas.put(readDataSource.getPoolName(), readDataSource);
+        }
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariConfig config = new HikariConfig();
+            readDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls[i].trim());
+            config.setPoolName("ReadPool-" + (i + 1));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+
+        HikariDataSource analytics = null;
+        if (analyticsEnabled) {
+            HikariConfig config = new HikariConfig();
+            readDataSource.copyStateTo(config);
+            if (!analyticsUrl.isBlank()) {
+                config.setJdbcUrl(analyticsUrl);
+            } else if (replicaUrls.length > 0) {
+                config.setJdbcUrl(replicaUrls[0].trim());
+            }
+            config.setPoolName("AnalyticsPool");
+            config.setMaximumPoolSize(analyticsPoolSize);
+            config.setMinimumIdle(1);
+            // Reports queue for a connection briefly, then fail instead of piling up
+            config.setConnectionTimeout(10000);
+            config.setConnectionInitSql("SET statement_timeout = " + analyticsStatementTimeout.toMillis());
+            config.addDataSourceProperty("defaultRowFetchSize", analyticsFetchSize);
+            analytics = new HikariDataSource(config);
+        }
+
+        log.info("Routing DataSource configured with WRITE, {} READ and {} ANALYTICS datasources",
+                replicas.size(), analytics != null ? 1 : 0);
+        return new RoutingDataSource(writeDataSource, replicas, analytics, maxLag, readAfterWriteWindow);
+    }
+
     /**
      * Routing datasource that selects write or read based on transaction context
      * 
      * Routing Logic:
-     * - @Transactional(readOnly = true) → Read replica
+     * - @Transactional(readOnly = true) → Least busy read replica within the lag limit
      * - @Transactional or @Transactional(readOnly = false) → Write database
      */
     @Bean
     @Primary
-    public DataSource routingDataSource(
-            @Qualifier("writeDataSource") DataSource writeDataSource,
-            @Qualifier("readDataSource") DataSource readDataSource) {
-        
-        RoutingDataSource routingDataSource = new RoutingDataSource();
-        
-        Map<Object, Object> dataSources = new HashMap<>();
-        dataSources.put(DataSourceType.WRITE, writeDataSource);
-        dataSources.put(DataSourceType.READ, readDataSource);
-        
-        routingDataSource.setTargetDataSources(dataSources);
-        routingDataSource.setDefaultTargetDataSource(writeDataSource); // Default to write for safety
-        
-        log.info("Routing DataSource configured with WRITE and READ datasources");
-        
+    public DataSource routingDataSource(@Qualifier("replicaRoutingDataSource") RoutingDataSource routingDataSource) {
         // Wrap with LazyConnectionDataSourceProxy to ensure routing happens after transaction starts
         return new LazyConnectionDataSourceProxy(routingDataSource);
     }
 
+    /**
+     * Keeps replica lag current on this node
+     */
+    @Bean
+    public ReplicaLagProbe replicaLagProbe(RoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaLagProbe(replicaRoutingDataSource);
+    }
+
+    public static class ReplicaLagProbe {
+
+        private final RoutingDataSource routingDataSource;
+
+        ReplicaLagProbe(RoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${spring.datasource.read-replicas.lag-probe-interval:PT2S}")
+        public void probe() {
+            routingDataSource.probeReplicas();
+        }
+    }
+
     /**
      * DataSource type enum
      */
     public enum DataSourceType {
         WRITE,
-        READ
+        READ,
+        ANALYTICS
     }
 }
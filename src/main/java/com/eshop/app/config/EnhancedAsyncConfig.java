@@ -35,6 +35,7 @@ import java.util.concurrent.ThreadPoolExecutor;
  *   <li><b>analyticsExecutor</b>: Background analytics processing</li>
  *   <li><b>auditExecutor</b>: Audit logging</li>
  *   <li><b>reportExecutor</b>: Report generation</li>
+ *   <li><b>webhookExecutor</b>: Payment webhook inbox lanes</li>
  * </ul>
  * 
  * @author E-Shop Team
@@ -174,6 +175,27 @@ public class EnhancedAsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Executor for payment webhook processing: one thread per inbox lane. The
+     * dispatcher never submits more tasks than there are lanes.
+     */
+    @Bean(name = "webhookExecutor")
+    public Executor webhookExecutor(@Value("${app.payment.webhook.lanes:8}") int lanes) {
+        log.info("Configuring webhook executor with {} lanes", lanes);
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(lanes);
+        executor.setMaxPoolSize(lanes);
+        executor.setQueueCapacity(lanes);
+        executor.setThreadNamePrefix("webhook-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        
+        return executor;
+    }
+
     /**
      * MEDIUM-003 FIX: Enhanced exception handler for uncaught async exceptions.
      * Ensures errors don't get silently swallowed and provides comprehensive error tracking.
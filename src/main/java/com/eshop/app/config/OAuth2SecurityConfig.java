@@ -141,6 +141,7 @@ public class OAuth2SecurityConfig {
         auth.requestMatchers(HttpMethod.GET, ApiConstants.BASE_PATH + "/categories/**").permitAll();
         auth.requestMatchers(HttpMethod.GET, ApiConstants.BASE_PATH + "/brands/**").permitAll();
         auth.requestMatchers(HttpMethod.GET, ApiConstants.BASE_PATH + "/shops/**").permitAll();
+        auth.requestMatchers(HttpMethod.GET, ApiConstants.Endpoints.MEDIA + "/**").permitAll();
         auth.requestMatchers(ApiConstants.BASE_PATH + "/cart/**").permitAll();
         // CRITICAL: Seller Dashboard - MUST be called to prove seller authentication
         auth.requestMatchers(ApiConstants.BASE_PATH + "/dashboard/seller/**").hasRole("SELLER");
@@ -1,38 +1,288 @@
 package com.eshop.app.config;
 
+import com.eshop.app.util.SecurityUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Dynamic DataSource Router
- * 
- * Routes database connections based on transaction read-only status:
- * - Read-only transactions → Read replicas
+ *
+ * Routes database connections based on transaction context:
+ * - Read-only transactions → the available replica with the fewest open connections
  * - Read-write transactions → Primary database
- * 
- * Thread-safe routing using Spring's TransactionSynchronizationManager
+ * - Read-only transactions of a user who wrote within the read-after-write window → Primary database
+ * - Read-only transactions under the analytics workload → Analytics pool, if configured
+ *
+ * Replica lag is measured with {@code pg_last_xact_replay_timestamp()} by {@link #probeReplicas()}.
+ * A replica lagging more than {@code maxLag}, or failing to connect, is taken out of rotation
+ * until it has caught up to half of {@code maxLag}. Without an available replica reads go to
+ * the primary.
+ *
+ * The read-after-write window is tracked per username on this node, so a user should be
+ * routed to the same node (or accept that another node may briefly serve older data).
+ *
+ * The analytics pool is sized separately so long reports queue for their own connections
+ * instead of the ones checkout needs. It has no fallback: if it is unavailable, reports fail
+ * rather than move their load onto the other pools.
  */
 @Slf4j
-public class RoutingDataSource extends AbstractRoutingDataSource {
+public class RoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // An idle primary sends no WAL, so an up-to-date replica reports zero lag
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) END";
+
+    private static final int PROBE_TIMEOUT_SECONDS = 2;
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * One read replica and its routing state.
+     */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean available = true;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final DataSource analytics;
+    private final long maxLagMillis;
+    private final Cache<String, Boolean> recentWriters;
 
     /**
-     * Determine current datasource based on transaction context
-     * 
-     * @return DataSourceType.READ for read-only transactions, DataSourceType.WRITE otherwise
+     * @param primary              write datasource
+     * @param replicas             read datasources by name
+     * @param analytics            pool for the analytics workload, or {@code null} to use the replicas
+     * @param maxLag               replication lag above which a replica is taken out of rotation
+     * @param readAfterWriteWindow how long a user's reads go to the primary after a committed write
      */
+    public RoutingDataSource(DataSource primary, Map<String, DataSource> replicas, DataSource analytics,
+                             Duration maxLag, Duration readAfterWriteWindow) {
+        this.primary = primary;
+        this.analytics = analytics;
+        List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource)));
+        this.replicas = List.copyOf(list);
+        this.maxLagMillis = maxLag.toMillis();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readAfterWriteWindow)
+                .build();
+    }
+
     @Override
-    protected Object determineCurrentLookupKey() {
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Current routing state of the replicas, for monitoring.
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Every pool behind this router, keyed by role and replica name.
+     */
+    public Map<String, DataSource> getPools() {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        pools.put(DataSourceConfig.DataSourceType.WRITE.name(), primary);
+        replicas.forEach(replica -> pools.put(replica.name, replica.dataSource));
+        if (analytics != null) {
+            pools.put(DataSourceConfig.DataSourceType.ANALYTICS.name(), analytics);
+        }
+        return pools;
+    }
+
+    /**
+     * Measures the lag of every replica and updates the rotation.
+     */
+    public void probeReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(PROBE_TIMEOUT_SECONDS);
+                try (ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                    rs.next();
+                    long lag = Math.round(rs.getDouble(1) * 1000);
+                    replica.lagMillis = lag;
+                    if (lag > maxLagMillis) {
+                        markUnavailable(replica, "replication lag " + lag + " ms");
+                    } else if (!replica.available && lag <= maxLagMillis / 2) {
+                        replica.available = true;
+                        log.info("Read replica {} back in rotation (lag {} ms)", replica.name, lag);
+                    }
+                }
+            } catch (SQLException e) {
+                markUnavailable(replica, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        getPools().forEach((name, dataSource) -> {
+            if (dataSource != primary && dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close datasource {}: {}", name, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
         boolean isReadOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
-        
-        DataSourceConfig.DataSourceType dataSourceType = isReadOnly 
-            ? DataSourceConfig.DataSourceType.READ 
-            : DataSourceConfig.DataSourceType.WRITE;
-        
+        Optional<String> user = SecurityUtils.getCurrentUsername();
+
+        if (!isReadOnly) {
+            user.ifPresent(this::trackWrite);
+            return open(source, DataSourceConfig.DataSourceType.WRITE);
+        }
+        if (analytics != null && WorkloadContext.current() == WorkloadContext.Workload.ANALYTICS) {
+            if (log.isTraceEnabled()) {
+                log.trace("Routing to {} datasource", DataSourceConfig.DataSourceType.ANALYTICS);
+            }
+            return source.open(analytics);
+        }
+        if (user.isPresent() && recentWriters.getIfPresent(user.get()) != null) {
+            // Read-your-writes: the replicas may not have the user's last commit yet
+            return open(source, DataSourceConfig.DataSourceType.WRITE);
+        }
+        Replica replica = leastOutstanding();
+        if (replica == null) {
+            return open(source, DataSourceConfig.DataSourceType.WRITE);
+        }
+
+        replica.inFlight.incrementAndGet();
+        try {
+            Connection connection = tracked(source.open(replica.dataSource), replica);
+            if (log.isTraceEnabled()) {
+                log.trace("Routing to {} datasource {}", DataSourceConfig.DataSourceType.READ, replica.name);
+            }
+            return connection;
+        } catch (SQLException e) {
+            replica.inFlight.decrementAndGet();
+            markUnavailable(replica, e.getMessage());
+            return open(source, DataSourceConfig.DataSourceType.WRITE);
+        }
+    }
+
+    private Connection open(ConnectionSource source, DataSourceConfig.DataSourceType dataSourceType) throws SQLException {
         if (log.isTraceEnabled()) {
-            log.trace("Routing to {} datasource (readOnly={})", dataSourceType, isReadOnly);
+            log.trace("Routing to {} datasource", dataSourceType);
+        }
+        return source.open(primary);
+    }
+
+    private Replica leastOutstanding() {
+        int n = replicas.size();
+        if (n == 0) {
+            return null;
+        }
+        // Random start so ties do not all land on the first replica
+        int start = ThreadLocalRandom.current().nextInt(n);
+        Replica best = null;
+        for (int i = 0; i < n; i++) {
+            Replica candidate = replicas.get((start + i) % n);
+            if (candidate.available && (best == null || candidate.inFlight.get() < best.inFlight.get())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private void trackWrite(String user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    private void markUnavailable(Replica replica, String reason) {
+        if (replica.available) {
+            replica.available = false;
+            log.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
         }
-        
-        return dataSourceType;
+    }
+
+    /**
+     * Decrements the replica's in-flight count when the connection is closed.
+     */
+    private static Connection tracked(Connection connection, Replica replica) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(RoutingDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        replica.inFlight.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
     }
 }
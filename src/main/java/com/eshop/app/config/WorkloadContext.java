@@ -0,0 +1,64 @@
+package com.eshop.app.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Workload of the current thread, used by {@link RoutingDataSource} to pick a
+ * connection pool.
+ *
+ * Set by {@code @AnalyticsWorkload} and carried to executor threads by
+ * {@link #taskDecorator()}.
+ */
+public final class WorkloadContext {
+
+    public enum Workload {
+        OLTP,
+        ANALYTICS
+    }
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.OLTP;
+    }
+
+    /**
+     * Switches the current thread to {@code workload}.
+     *
+     * @return the previous workload, to pass to {@link #restore(Workload)}
+     */
+    public static Workload enter(Workload workload) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    public static void restore(Workload previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Runs tasks under the workload of the thread that submitted them.
+     */
+    public static TaskDecorator taskDecorator() {
+        return runnable -> {
+            Workload workload = CURRENT.get();
+            return () -> {
+                Workload previous = enter(workload);
+                try {
+                    runnable.run();
+                } finally {
+                    restore(previous);
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package com.eshop.app.config.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer that writes hot cache types in a compact binary layout
+ * and everything else as JSON.
+ *
+ * <p>A type with a registered {@link CompactCodec} is written as
+ * {@code [MAGIC][FORMAT_VERSION][flags][payload]}, where the payload is the codec
+ * id followed by the fields in the codec's order. Nested values without a codec
+ * of their own are embedded as JSON. Payloads of at least
+ * {@code compressionThreshold} bytes are deflated when that makes them smaller.
+ *
+ * <p>Every other type is written by the JSON serializer unchanged, byte for byte,
+ * so counters and entries shared with older nodes keep working. Reading accepts
+ * both: bytes without the magic prefix are JSON. An envelope of another format
+ * version or with an unknown codec id is read as {@code null} (a cache miss), so
+ * nodes of different versions can share Redis during a rolling deploy.
+ *
+ * @since 2.0
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * First byte of every compact value; JSON never starts with it.
+     */
+    static final byte MAGIC = (byte) 0xEC;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int DEFLATED = 1;
+    private static final int JSON_CODEC = 0;
+    private static final int NULL_VALUE = -1;
+
+    private final RedisSerializer<Object> json;
+    private final int compressionThreshold;
+    private final Map<Class<?>, CompactCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Integer, CompactCodec<?>> codecsById = new HashMap<>();
+
+    public CompactRedisSerializer(RedisSerializer<Object> json, int compressionThreshold) {
+        this(json, compressionThreshold, List.of(new ProductResponseCodec(), new PageResponseCodec()));
+    }
+
+    public CompactRedisSerializer(RedisSerializer<Object> json, int compressionThreshold,
+                                  List<CompactCodec<?>> codecs) {
+        this.json = json;
+        this.compressionThreshold = compressionThreshold;
+        for (CompactCodec<?> codec : codecs) {
+            if (codec.id() <= JSON_CODEC || codec.id() > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Codec id out of range: " + codec.id());
+            }
+            if (codecsById.putIfAbsent(codec.id(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate codec id: " + codec.id());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        if (!codecsByType.containsKey(value.getClass())) {
+            return json.serialize(value);
+        }
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+            writeValue(new DataOutputStream(payload), value);
+            byte[] body = payload.toByteArray();
+            int flags = 0;
+            if (body.length >= compressionThreshold) {
+                byte[] deflated = deflate(body);
+                if (deflated.length < body.length) {
+                    body = deflated;
+                    flags |= DEFLATED;
+                }
+            }
+            byte[] bytes = new byte[body.length + 3];
+            bytes[0] = MAGIC;
+            bytes[1] = FORMAT_VERSION;
+            bytes[2] = (byte) flags;
+            System.arraycopy(body, 0, bytes, 3, body.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Failed to serialize " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return json.deserialize(bytes);
+        }
+        if (bytes.length < 3 || bytes[1] != FORMAT_VERSION) {
+            return null;
+        }
+        try {
+            byte[] body = Arrays.copyOfRange(bytes, 3, bytes.length);
+            if ((bytes[2] & DEFLATED) != 0) {
+                body = inflate(body);
+            }
+            return readValue(new DataInputStream(new ByteArrayInputStream(body)));
+        } catch (UnknownCodecException e) {
+            return null;
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Failed to deserialize compact value", e);
+        }
+    }
+
+    /**
+     * Writes a nested value: a codec id and its fields, or JSON when its type has no codec.
+     */
+    @SuppressWarnings("unchecked")
+    public void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+            return;
+        }
+        CompactCodec<Object> codec = (CompactCodec<Object>) codecsByType.get(value.getClass());
+        if (codec != null) {
+            out.writeByte(codec.id());
+            codec.write(out, value, this);
+            return;
+        }
+        byte[] bytes = json.serialize(value);
+        out.writeByte(JSON_CODEC);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public Object readValue(DataInput in) throws IOException {
+        int id = in.readByte();
+        if (id == NULL_VALUE) {
+            return null;
+        }
+        if (id == JSON_CODEC) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return json.deserialize(bytes);
+        }
+        CompactCodec<?> codec = codecsById.get(id);
+        if (codec == null) {
+            throw new UnknownCodecException(id);
+        }
+        return codec.read(in, this);
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflated value");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Value written by a newer node with a codec this node does not know.
+     */
+    private static final class UnknownCodecException extends IOException {
+        UnknownCodecException(int id) {
+            super("Unknown compact codec id: " + id);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.eshop.app.config.serializer;
+
+import com.eshop.app.dto.response.PageResponse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.eshop.app.config.serializer.CompactCodec.*;
+
+/**
+ * Layout of {@link PageResponse}, the value of the product list, search and
+ * featured caches. Items are written one by one through
+ * {@link CompactRedisSerializer#writeValue}, so pages of a type with a codec of
+ * its own (such as {@code ProductResponse}) are compact throughout, and other
+ * item types are embedded as JSON.
+ *
+ * @since 2.0
+ */
+public class PageResponseCodec implements CompactCodec<PageResponse<?>> {
+
+    @Override
+    public int id() {
+        return 2;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<PageResponse<?>> type() {
+        return (Class<PageResponse<?>>) (Class<?>) PageResponse.class;
+    }
+
+    @Override
+    public void write(DataOutput out, PageResponse<?> page, CompactRedisSerializer values) throws IOException {
+        List<?> data = page.getData();
+        if (data == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(data.size());
+            for (Object item : data) {
+                values.writeValue(out, item);
+            }
+        }
+
+        PageResponse.PageMetadata m = page.getPagination();
+        out.writeBoolean(m != null);
+        if (m != null) {
+            out.writeInt(m.getPage());
+            out.writeInt(m.getSize());
+            out.writeLong(m.getTotalElements());
+            out.writeInt(m.getTotalPages());
+            out.writeBoolean(m.isHasNext());
+            out.writeBoolean(m.isHasPrevious());
+            out.writeBoolean(m.isFirst());
+            out.writeBoolean(m.isLast());
+            out.writeBoolean(m.isEmpty());
+            writeString(out, m.getSort());
+            out.writeInt(m.getNumberOfElements());
+        }
+    }
+
+    @Override
+    public PageResponse<?> read(DataInput in, CompactRedisSerializer values) throws IOException {
+        int size = in.readInt();
+        List<Object> data = null;
+        if (size >= 0) {
+            data = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                data.add(values.readValue(in));
+            }
+        }
+
+        PageResponse.PageMetadata metadata = null;
+        if (in.readBoolean()) {
+            metadata = PageResponse.PageMetadata.builder()
+                    .page(in.readInt())
+                    .size(in.readInt())
+                    .totalElements(in.readLong())
+                    .totalPages(in.readInt())
+                    .hasNext(in.readBoolean())
+                    .hasPrevious(in.readBoolean())
+                    .isFirst(in.readBoolean())
+                    .isLast(in.readBoolean())
+                    .isEmpty(in.readBoolean())
+                    .sort(readString(in))
+                    .numberOfElements(in.readInt())
+                    .build();
+        }
+        return PageResponse.builder()
+                .data(data)
+                .pagination(metadata)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.eshop.app.config.serializer;
+
+import com.eshop.app.dto.response.AvailabilityDto;
+import com.eshop.app.dto.response.BaseInfoDto;
+import com.eshop.app.dto.response.InventoryDto;
+import com.eshop.app.dto.response.LocationPricingDto;
+import com.eshop.app.dto.response.PricingDto;
+import com.eshop.app.dto.response.ProductImageResponse;
+import com.eshop.app.dto.response.ProductResponse;
+import com.eshop.app.dto.response.ProductReviewResponse;
+import com.eshop.app.dto.response.ShippingRestrictionsDto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import static com.eshop.app.config.serializer.CompactCodec.*;
+
+/**
+ * Layout of {@link ProductResponse}, the value of the batch product cache. The
+ * flat fields are written directly; the nested and rarely populated ones go
+ * through {@link CompactRedisSerializer#writeValue}.
+ *
+ * @since 2.0
+ */
+public class ProductResponseCodec implements CompactCodec<ProductResponse> {
+
+    @Override
+    public int id() {
+        return 1;
+    }
+
+    @Override
+    public Class<ProductResponse> type() {
+        return ProductResponse.class;
+    }
+
+    @Override
+    public void write(DataOutput out, ProductResponse p, CompactRedisSerializer values) throws IOException {
+        writeLong(out, p.getId());
+        writeString(out, p.getName());
+        writeString(out, p.getDescription());
+        writeString(out, p.getSku());
+        writeString(out, p.getFriendlyUrl());
+        writeDecimal(out, p.getPrice());
+        writeDecimal(out, p.getDiscountPrice());
+        writeInt(out, p.getStockQuantity());
+        writeString(out, p.getImageUrl());
+        writeBoolean(out, p.getActive());
+        writeBoolean(out, p.getFeatured());
+        writeLong(out, p.getCategoryId());
+        writeString(out, p.getCategoryName());
+        writeLong(out, p.getBrandId());
+        writeString(out, p.getBrandName());
+        writeLong(out, p.getStoreId());
+        writeString(out, p.getStoreName());
+        values.writeValue(out, p.getImages());
+        values.writeValue(out, p.getReviews());
+        writeStrings(out, p.getTags());
+        writeDouble(out, p.getAverageRating());
+        writeLong(out, p.getReviewCount());
+        writeDateTime(out, p.getCreatedAt());
+        writeDateTime(out, p.getUpdatedAt());
+        writeString(out, p.getCategoryType());
+        writeString(out, p.getSubCategory());
+        values.writeValue(out, p.getBaseInfo());
+        values.writeValue(out, p.getPricing());
+        values.writeValue(out, p.getLocationBasedPricing());
+        values.writeValue(out, p.getAvailability());
+        values.writeValue(out, p.getShippingRestrictions());
+        values.writeValue(out, p.getInventory());
+        values.writeValue(out, p.getCategoryAttributes());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ProductResponse read(DataInput in, CompactRedisSerializer values) throws IOException {
+        ProductResponse p = new ProductResponse();
+        p.setId(readLong(in));
+        p.setName(readString(in));
+        p.setDescription(readString(in));
+        p.setSku(readString(in));
+        p.setFriendlyUrl(readString(in));
+        p.setPrice(readDecimal(in));
+        p.setDiscountPrice(readDecimal(in));
+        p.setStockQuantity(readInt(in));
+        p.setImageUrl(readString(in));
+        p.setActive(readBoolean(in));
+        p.setFeatured(readBoolean(in));
+        p.setCategoryId(readLong(in));
+        p.setCategoryName(readString(in));
+        p.setBrandId(readLong(in));
+        p.setBrandName(readString(in));
+        p.setStoreId(readLong(in));
+        p.setStoreName(readString(in));
+        p.setImages((List<ProductImageResponse>) values.readValue(in));
+        p.setReviews((List<ProductReviewResponse>) values.readValue(in));
+        p.setTags(readStrings(in));
+        p.setAverageRating(readDouble(in));
+        p.setReviewCount(readLong(in));
+        p.setCreatedAt(readDateTime(in));
+        p.setUpdatedAt(readDateTime(in));
+        p.setCategoryType(readString(in));
+        p.setSubCategory(readString(in));
+        p.setBaseInfo((BaseInfoDto) values.readValue(in));
+        p.setPricing((PricingDto) values.readValue(in));
+        p.setLocationBasedPricing((List<LocationPricingDto>) values.readValue(in));
+        p.setAvailability((AvailabilityDto) values.readValue(in));
+        p.setShippingRestrictions((ShippingRestrictionsDto) values.readValue(in));
+        p.setInventory((InventoryDto) values.readValue(in));
+        p.setCategoryAttributes(values.readValue(in));
+        return p;
+    }
+}
@@ -72,7 +72,9 @@ public final class ApiConstants {
         public static final String PAYMENT_ANALYTICS = BASE_PATH + "/paymentAnalytics";
         public static final String SELLER_CATEGORY = BASE_PATH + "/seller/categories";
         public static final String SHIPPING = BASE_PATH + "/shipping";
+        public static final String INVENTORY_ALLOCATIONS = BASE_PATH + "/inventory/allocations";
         public static final String SHOPPING_CART = BASE_PATH + "/shoppingCart";
+        public static final String MEDIA = BASE_PATH + "/public/media";
         // public static final String WISHLIST = BASE_PATH + "/wishlist";
         // public static final String TestAdminProbe = BASE_PATH + "/admin/probe";
         
@@ -165,6 +165,16 @@ public class CouponController {
         return ResponseEntity.ok(coupons);
     }
     
+    @GetMapping("/applicable/cart")
+    @Operation(summary = "Evaluate Cart Coupons", 
+               description = "Evaluate the user's cart against all active coupons and return applicable ones, best discount first")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<List<CouponResponse.ValidationResult>> evaluateCart(
+            @Parameter(description = "User ID") @RequestParam Long userId) {
+        List<CouponResponse.ValidationResult> results = couponService.evaluateCart(userId);
+        return ResponseEntity.ok(results);
+    }
+    
     @GetMapping("/global/active")
     @Operation(summary = "Get Global Active Coupons", 
                description = "Get global coupons that are currently active")
@@ -26,7 +26,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import com.eshop.app.aspect.AdaptiveConcurrency;
 import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -136,7 +136,7 @@ public class DashboardController {
     @GetMapping("/admin")
     @PreAuthorize("hasRole('ADMIN')")
     @RateLimiter(name = "dashboard")
-    @Bulkhead(name = "dashboard")
+    @AdaptiveConcurrency("dashboard")
     @Operation(
         summary = "Get Admin Dashboard",
         description = "Comprehensive admin dashboard with system overview, user stats, and health metrics",
@@ -227,7 +227,7 @@ public class DashboardController {
     @GetMapping("/admin/analytics/daily-sales")
     @PreAuthorize("hasRole('ADMIN')")
     @RateLimiter(name = "analytics")
-    @Bulkhead(name = "analytics")
+    @AdaptiveConcurrency("analytics")
     @Operation(
         summary = "Get Daily Sales Analytics",
         description = "Daily sales trend data with revenue breakdown and pagination"
@@ -323,7 +323,7 @@ public class DashboardController {
     @GetMapping("/seller")
     @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
     @RateLimiter(name = "dashboard")
-    @Bulkhead(name = "dashboard")
+    @AdaptiveConcurrency("dashboard")
     @Operation(
         summary = "Get Seller Dashboard",
         description = "Seller-specific dashboard with shop metrics and product management data. Accessible by SELLER and ADMIN roles.",
@@ -425,7 +425,7 @@ public class DashboardController {
     @GetMapping("/seller/analytics/top-products")
     @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
     @RateLimiter(name = "analytics")
-    @Bulkhead(name = "analytics")
+    @AdaptiveConcurrency("analytics")
     @Operation(
         summary = "Get Top Selling Products",
         description = "Seller's top performing products by sales volume with pagination. Accessible by SELLER and ADMIN roles."
@@ -455,6 +455,35 @@ public class DashboardController {
                 .body(ApiResponse.success("Top products retrieved", pageResult));
     }
     
+    /**
+     * Reorder Suggestions for Seller
+     * 
+     * <p>Served from the in-memory low-stock state; no aggregate queries.</p>
+     * 
+     * <p><strong>Security:</strong></p>
+     * <ul>
+     *   <li>Roles: SELLER or ADMIN</li>
+     * </ul>
+     * 
+     * @return low-stock products with suggested reorder quantities, most urgent first
+     */
+    @GetMapping("/seller/reorder-suggestions")
+    @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
+    @Operation(
+        summary = "Get Reorder Suggestions",
+        description = "Seller's low-stock products with reorder quantities sized from recent sell-through. Accessible by SELLER and ADMIN roles."
+    )
+    public ResponseEntity<ApiResponse<java.util.List<com.eshop.app.dto.response.ReorderSuggestionResponse>>> getReorderSuggestions(
+            org.springframework.security.core.Authentication authentication) {
+
+        Long sellerId = sellerService.resolveUserId(authentication);
+        log.debug("Reorder suggestions requested for seller ID: {}", sellerId);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES).cachePrivate())
+                .body(ApiResponse.success("Reorder suggestions retrieved", sellerDashboardService.getReorderSuggestions(sellerId)));
+    }
+    
     // ============================================================================
     // CUSTOMER ENDPOINTS
     // ============================================================================
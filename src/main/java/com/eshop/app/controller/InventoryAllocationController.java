@@ -0,0 +1,73 @@
+package com.eshop.app.controller;
+
+import com.eshop.app.constants.ApiConstants;
+import com.eshop.app.dto.request.InventoryAllocationRequest;
+import com.eshop.app.dto.response.ApiResponse;
+import com.eshop.app.dto.response.InventoryAllocationResponse;
+import com.eshop.app.service.InventoryAllocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Inventory Allocation Controller - Splits orders across warehouses
+ * 
+ * Preview an allocation, hold stock during checkout and release holds.
+ * A hold id can be passed to checkout as reservationId.
+ */
+@Tag(name = "Inventory Allocation", description = "Multi-warehouse allocation and stock holds")
+@RestController
+@RequestMapping(ApiConstants.Endpoints.INVENTORY_ALLOCATIONS)
+public class InventoryAllocationController {
+    
+    private final InventoryAllocationService inventoryAllocationService;
+    
+    public InventoryAllocationController(InventoryAllocationService inventoryAllocationService) {
+        this.inventoryAllocationService = inventoryAllocationService;
+    }
+    
+    @PostMapping("/preview")
+    @Operation(
+        summary = "Preview allocation",
+        description = "Split items across warehouses without reserving stock (Public access)"
+    )
+    public ResponseEntity<ApiResponse<InventoryAllocationResponse>> preview(
+            @Valid @RequestBody InventoryAllocationRequest request) {
+        InventoryAllocationResponse response = inventoryAllocationService.preview(request);
+        return ResponseEntity.ok(ApiResponse.success("Allocation calculated", response));
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    @Operation(
+        summary = "Hold stock",
+        description = "Allocate items across warehouses and reserve them until the hold expires",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ApiResponse<InventoryAllocationResponse>> hold(
+            @Valid @RequestBody InventoryAllocationRequest request) {
+        InventoryAllocationResponse response = inventoryAllocationService.hold(request);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Stock held", response));
+    }
+    
+    @DeleteMapping("/{holdId}")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    @Operation(
+        summary = "Release hold",
+        description = "Release a stock hold before it expires",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ApiResponse<Void>> release(
+            @Parameter(description = "Hold ID") @PathVariable String holdId) {
+        inventoryAllocationService.release(holdId);
+        return ResponseEntity.ok(ApiResponse.success("Stock hold released", null));
+    }
+}
@@ -0,0 +1,56 @@
+package com.eshop.app.controller;
+
+import com.eshop.app.constants.ApiConstants;
+import com.eshop.app.storage.LocalDerivativeCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+@Tag(name = "Media", description = "Public image derivative delivery")
+@RestController
+@RequestMapping(ApiConstants.Endpoints.MEDIA)
+public class MediaController {
+
+    private final LocalDerivativeCache derivativeCache;
+
+    public MediaController(LocalDerivativeCache derivativeCache) {
+        this.derivativeCache = derivativeCache;
+    }
+
+    @GetMapping("/derivatives/{name:.+}")
+    @Operation(
+        summary = "Get image derivative",
+        description = "Serve a generated thumbnail from the local derivative cache. "
+                + "Names are content-addressed (<sha256>_<size>.<ext>) and therefore immutable."
+    )
+    public ResponseEntity<StreamingResponseBody> getDerivative(
+            @Parameter(description = "Derivative name") @PathVariable String name) {
+        return derivativeCache.get(name)
+                .map(buffer -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                        .contentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                        .contentLength(buffer.remaining())
+                        .body(out -> writeFully(buffer, Channels.newChannel(out))))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static void writeFully(ByteBuffer buffer, WritableByteChannel channel) throws java.io.IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
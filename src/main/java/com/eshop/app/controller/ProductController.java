@@ -5,7 +5,9 @@ import com.eshop.app.common.util.ETagGenerator;
 import com.eshop.app.constants.ApiConstants;
 import com.eshop.app.dto.request.*;
 import com.eshop.app.dto.response.*;
+import com.eshop.app.service.CurrencyService;
 import com.eshop.app.service.ProductService;
+import com.eshop.app.service.pricing.PriceHistoryService;
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.micrometer.observation.annotation.Observed;
@@ -79,6 +81,8 @@ public class ProductController extends BaseController {
     
     private final ProductService productService;
     private final ETagGenerator etagGenerator;
+    private final CurrencyService currencyService;
+    private final PriceHistoryService priceHistoryService;
     
     // ==================== CREATE OPERATIONS ====================
     
@@ -343,6 +347,20 @@ public class ProductController extends BaseController {
                 .body(ApiResponse.success(response));
     }
     
+    @GetMapping("/{id}/price-history")
+    @Operation(
+        summary = "Get product price history",
+        description = "Daily lowest, highest and closing price of the product over the last N days (default 90, max 365)."
+    )
+    public ResponseEntity<ApiResponse<PriceSeriesResponse>> getPriceHistory(
+            @PathVariable @Positive Long id,
+            @RequestParam(defaultValue = "90") @Min(1) @Max(365) int days) {
+        PriceSeriesResponse response = priceHistoryService.series(id, days);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(ApiResponse.success(response));
+    }
+
     @GetMapping("/sku/{sku}")
     @Operation(
         summary = "Get product by SKU",
@@ -375,9 +393,10 @@ public class ProductController extends BaseController {
         description = "Retrieve paginated list of all active products. Automatic pagination validation applied."
     )
     public ResponseEntity<ApiResponse<PageResponse<ProductListResponse>>> getAllProducts(
-            @Valid @ParameterObject Pageable pageable) {
+            @Valid @ParameterObject Pageable pageable,
+            @Parameter(description = "ISO currency code to display prices in") @RequestParam(required = false) @Pattern(regexp = "^[A-Z]{3}$") String currency) {
         PageResponse<ProductListResponse> response = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok(ApiResponse.success(inCurrency(response, currency)));
     }
     
     @GetMapping("/search")
@@ -393,9 +412,10 @@ public class ProductController extends BaseController {
     })
     public ResponseEntity<ApiResponse<PageResponse<ProductListResponse>>> searchProducts(
             @RequestParam(required = false) @Size(min = 2, max = 100) String keyword,
-            @ParameterObject Pageable pageable) {
+            @ParameterObject Pageable pageable,
+            @Parameter(description = "ISO currency code to display prices in") @RequestParam(required = false) @Pattern(regexp = "^[A-Z]{3}$") String currency) {
         PageResponse<ProductListResponse> response = productService.searchProducts(keyword, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok(ApiResponse.success(inCurrency(response, currency)));
     }
     
     @GetMapping("/category/{categoryId}")
@@ -405,9 +425,10 @@ public class ProductController extends BaseController {
     )
     public ResponseEntity<ApiResponse<PageResponse<ProductListResponse>>> getProductsByCategory(
             @PathVariable @Positive Long categoryId,
-            @ParameterObject Pageable pageable) {
+            @ParameterObject Pageable pageable,
+            @Parameter(description = "ISO currency code to display prices in") @RequestParam(required = false) @Pattern(regexp = "^[A-Z]{3}$") String currency) {
         PageResponse<ProductListResponse> response = productService.getProductsByCategory(categoryId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok(ApiResponse.success(inCurrency(response, currency)));
     }
     
     @GetMapping("/brand/{brandId}")
@@ -417,9 +438,10 @@ public class ProductController extends BaseController {
     )
     public ResponseEntity<ApiResponse<PageResponse<ProductListResponse>>> getProductsByBrand(
             @PathVariable @Positive Long brandId,
-            @ParameterObject Pageable pageable) {
+            @ParameterObject Pageable pageable,
+            @Parameter(description = "ISO currency code to display prices in") @RequestParam(required = false) @Pattern(regexp = "^[A-Z]{3}$") String currency) {
         PageResponse<ProductListResponse> response = productService.getProductsByBrand(brandId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok(ApiResponse.success(inCurrency(response, currency)));
     }
     
     @GetMapping("/store/{storeId}")
@@ -429,9 +451,10 @@ public class ProductController extends BaseController {
     )
     public ResponseEntity<ApiResponse<PageResponse<ProductListResponse>>> getProductsByStore(
             @PathVariable @Positive Long storeId,
-            @ParameterObject Pageable pageable) {
+            @ParameterObject Pageable pageable,
+            @Parameter(description = "ISO currency code to display prices in") @RequestParam(required = false) @Pattern(regexp = "^[A-Z]{3}$") String currency) {
         PageResponse<ProductListResponse> response = productService.getProductsByStore(storeId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok(ApiResponse.success(inCurrency(response, currency)));
     }
     
     @GetMapping("/featured")
@@ -473,4 +496,11 @@ public class ProductController extends BaseController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
         }
     }
+
+    /**
+     * Re-prices a listing page for display when a currency other than the default is requested.
+     */
+    private PageResponse<ProductListResponse> inCurrency(PageResponse<ProductListResponse> page, String currency) {
+        return currency == null ? page : currencyService.convertProductPage(page, currency);
+    }
 }
@@ -56,7 +56,23 @@ public class ProductImageController {
         ProductImageResponse response = imageService.uploadProductImage(productId, file, altText, isPrimary);
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Product image uploaded", response));
     }
-    
+
+    @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
+    @Operation(
+        summary = "Upload multiple product images",
+        description = "Upload several images for a product in parallel (SELLER and ADMIN only)",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ApiResponse<List<ProductImageResponse>>> uploadImages(
+            @RequestParam("productId") Long productId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "altText", required = false) String altText
+    ) {
+        List<ProductImageResponse> response = imageService.uploadProductImages(productId, files, altText);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Product images uploaded", response));
+    }
+
     @PutMapping("/{imageId}")
     @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
     @Operation(
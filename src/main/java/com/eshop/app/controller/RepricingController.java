@@ -0,0 +1,71 @@
+package com.eshop.app.controller;
+
+import com.eshop.app.constants.ApiConstants;
+import com.eshop.app.dto.request.RepricingRequest;
+import com.eshop.app.dto.response.ApiResponse;
+import com.eshop.app.dto.response.RepricingJobResponse;
+import com.eshop.app.service.SellerService;
+import com.eshop.app.service.pricing.RepricingService;
+import com.eshop.app.util.SecurityUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Repricing Controller - Bulk price changes
+ *
+ * Sellers reprice their own products; admins may target any seller or, without
+ * a seller id, the whole catalog. Jobs run in the background and are polled by id.
+ */
+@Tag(name = "Repricing", description = "Rule-based bulk repricing jobs")
+@RestController
+@RequestMapping(ApiConstants.Endpoints.PRODUCTS + "/repricing-jobs")
+@PreAuthorize("hasRole('SELLER') or hasRole('ADMIN')")
+public class RepricingController {
+
+    private final RepricingService repricingService;
+    private final SellerService sellerService;
+
+    public RepricingController(RepricingService repricingService, SellerService sellerService) {
+        this.repricingService = repricingService;
+        this.sellerService = sellerService;
+    }
+
+    @PostMapping
+    @Operation(
+        summary = "Start repricing job",
+        description = "Apply a price rule to the matching products in the background",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ApiResponse<RepricingJobResponse>> submit(
+            @Valid @RequestBody RepricingRequest request,
+            Authentication authentication) {
+        Long sellerId = SecurityUtils.hasRole("ADMIN")
+                ? request.sellerId()
+                : sellerService.resolveUserId(authentication);
+        RepricingJobResponse response = repricingService.submit(request, sellerId);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Repricing job started", response));
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(
+        summary = "Get repricing job",
+        description = "Progress and result of a repricing job",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ApiResponse<RepricingJobResponse>> status(
+            @Parameter(description = "Job ID") @PathVariable String jobId,
+            Authentication authentication) {
+        Long sellerId = SecurityUtils.hasRole("ADMIN") ? null : sellerService.resolveUserId(authentication);
+        return ResponseEntity.ok(ApiResponse.success(repricingService.status(jobId, sellerId)));
+    }
+}
@@ -4,6 +4,7 @@ import com.eshop.app.dto.request.ShippingRequest;
 import com.eshop.app.dto.request.TrackingUpdateRequest;
 import com.eshop.app.dto.response.ApiResponse;
 import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ShippingQuoteResponse;
 import com.eshop.app.dto.response.ShippingResponse;
 import com.eshop.app.entity.Shipping;
 import com.eshop.app.service.ShippingService;
@@ -248,7 +249,7 @@ public class ShippingController {
             @RequestParam Shipping.ShippingMethod method,
             @Parameter(description = "Package weight in kg", example = "2.5") 
             @RequestParam BigDecimal weight,
-            @Parameter(description = "Destination address") 
+            @Parameter(description = "Destination as country[,state[,city[,postalCode]]]") 
             @RequestParam String destination) {
         BigDecimal cost = shippingService.calculateShippingCost(method, weight, destination);
         return ResponseEntity.ok(ApiResponse.success("Shipping cost calculated", cost));
@@ -282,6 +283,38 @@ public class ShippingController {
         return ResponseEntity.ok(ApiResponse.success("Available shipping methods retrieved", methods));
     }
     
+    @GetMapping("/quotes")
+    @Operation(
+        summary = "Quote all shipping methods",
+        description = "Quote every available shipping method from every active warehouse, cheapest first (Public access)"
+    )
+    public ResponseEntity<ApiResponse<List<ShippingQuoteResponse>>> quoteShipping(
+            @Parameter(description = "Destination as country[,state[,city[,postalCode]]]", example = "US,CA,Los Angeles,90012") 
+            @RequestParam String destination,
+            @Parameter(description = "Package weight in kg", example = "1.5") 
+            @RequestParam BigDecimal weight,
+            @Parameter(description = "Shipping class ID (optional)") 
+            @RequestParam(required = false) Long shippingClassId) {
+        List<ShippingQuoteResponse> quotes = shippingService.quoteShipping(destination, weight, shippingClassId);
+        return ResponseEntity.ok(ApiResponse.success("Shipping quotes calculated", quotes));
+    }
+    
+    @GetMapping("/quotes/cart")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    @Operation(
+        summary = "Quote shipping for cart",
+        description = "Quote every available shipping method for the user's cart from every active warehouse",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ApiResponse<List<ShippingQuoteResponse>>> quoteCart(
+            @Parameter(description = "User ID") 
+            @RequestParam Long userId,
+            @Parameter(description = "Destination as country[,state[,city[,postalCode]]]", example = "US,CA,Los Angeles,90012") 
+            @RequestParam String destination) {
+        List<ShippingQuoteResponse> quotes = shippingService.quoteCart(userId, destination);
+        return ResponseEntity.ok(ApiResponse.success("Cart shipping quotes calculated", quotes));
+    }
+    
     // ==================== Analytics & Statistics ====================
     
     @GetMapping("/statistics")
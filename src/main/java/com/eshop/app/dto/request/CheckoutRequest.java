@@ -152,4 +152,22 @@ public class CheckoutRequest {
      * - No sensitive payment data stored in this request
      */
     private String paymentMethod;
-}
\ No newline at end of file
+    
+    /**
+     * Structured destination used to pick the nearest warehouses.
+     * 
+     * Format: "country[,state[,city[,postalCode]]]", e.g. "US,CA,Los Angeles,90012".
+     * Optional - without it, warehouses are chosen by priority only.
+     */
+    @Size(max = 255, message = "Destination must not exceed 255 characters")
+    private String destination;
+    
+    /**
+     * Inventory hold taken earlier in the checkout flow.
+     * 
+     * Optional - when still active and matching the cart, the held units are
+     * used for the order; otherwise the cart is allocated again.
+     */
+    @Size(max = 64, message = "Reservation ID must not exceed 64 characters")
+    private String reservationId;
+}
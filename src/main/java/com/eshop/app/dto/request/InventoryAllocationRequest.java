@@ -0,0 +1,47 @@
+package com.eshop.app.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request to allocate (and optionally hold) order lines across warehouses
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAllocationRequest {
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 200, message = "Cannot allocate more than 200 items at once")
+    @Valid
+    private List<Item> items;
+
+    /**
+     * Buyer destination as "country[,state[,city[,postalCode]]]"; used to prefer nearer warehouses.
+     */
+    @Size(max = 255, message = "Destination cannot exceed 255 characters")
+    private String destination;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+    }
+}
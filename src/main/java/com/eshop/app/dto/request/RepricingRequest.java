@@ -0,0 +1,83 @@
+package com.eshop.app.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Bulk repricing rule: which products to reprice and how to compute their new price.
+ *
+ * <p>The new price is computed from the current list price: the adjustment is
+ * applied first, then the rounding, then the floor and ceiling. Filters combine
+ * with AND; a category includes its subcategories.
+ *
+ * @param categoryId   only products in this category or below it
+ * @param brandId      only products of this brand
+ * @param sellerId     seller whose products to reprice (admins only; sellers always reprice their own)
+ * @param productIds   only these products
+ * @param adjustment   how {@code value} changes the price
+ * @param value        percentage (e.g. {@code -10} for 10% off), amount, or fixed price
+ * @param floorPrice   lowest allowed result, e.g. a competitor's price floor
+ * @param ceilingPrice highest allowed result
+ * @param rounding     price-point rounding, {@code NONE} if omitted
+ * @param target       field that receives the result, {@code PRICE} if omitted
+ * @param reason       recorded in the price history
+ * @since 2.0
+ */
+public record RepricingRequest(
+    Long categoryId,
+
+    Long brandId,
+
+    Long sellerId,
+
+    @Size(max = 10000, message = "At most 10000 product ids per job")
+    List<Long> productIds,
+
+    @NotNull(message = "Adjustment is required")
+    Adjustment adjustment,
+
+    @NotNull(message = "Value is required")
+    BigDecimal value,
+
+    @DecimalMin(value = "0.01", message = "Floor price must be positive")
+    BigDecimal floorPrice,
+
+    @DecimalMin(value = "0.01", message = "Ceiling price must be positive")
+    BigDecimal ceilingPrice,
+
+    Rounding rounding,
+
+    Target target,
+
+    @Size(max = 500, message = "Reason must not exceed 500 characters")
+    String reason
+) {
+
+    public enum Adjustment {
+        /** Add {@code value} percent of the list price. */
+        PERCENT,
+        /** Add {@code value} to the list price. */
+        AMOUNT,
+        /** Set the price to {@code value}. */
+        SET
+    }
+
+    public enum Rounding {
+        NONE,
+        /** Round half up to a whole amount. */
+        WHOLE,
+        /** Round up to the next price ending in .99; whole amounts become the .99 below them. */
+        ENDING_99
+    }
+
+    public enum Target {
+        /** The list price. */
+        PRICE,
+        /** The discount price, which must stay below the list price. */
+        DISCOUNT_PRICE
+    }
+}
@@ -0,0 +1,42 @@
+package com.eshop.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Warehouse allocation of an order, grouped into one shipment per warehouse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAllocationResponse {
+    private String holdId;
+    private LocalDateTime expiresAt;
+    private Integer shipmentCount;
+    private List<Shipment> shipments;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shipment {
+        private Long warehouseId;
+        private String warehouseName;
+        private List<Item> items;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,37 @@
+package com.eshop.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily price series of a product: the lowest, highest and closing list price of
+ * each day, with days without changes carrying the previous price forward
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceSeriesResponse {
+    private Long productId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate day;
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private BigDecimal lastPrice;
+        private Integer changes;
+    }
+}
@@ -20,7 +20,7 @@ import java.math.BigDecimal;
  * For full product details, use GET /api/v1/products/{id} which returns ProductResponse.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductListResponse {
@@ -0,0 +1,43 @@
+package com.eshop.app.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Restock suggestion for a low-stock product, sized from its recent sell-through.
+ *
+ * @since 2.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Reorder suggestion for a low-stock product")
+public class ReorderSuggestionResponse {
+
+    @Schema(description = "Product ID", example = "42")
+    private Long productId;
+
+    @Schema(description = "Units in stock", example = "3")
+    private Integer stockQuantity;
+
+    @Schema(description = "Stock level below which the product counts as low stock", example = "10")
+    private Integer lowStockThreshold;
+
+    @Schema(description = "Average units sold per day over the velocity window", example = "1.5")
+    private Double unitsPerDay;
+
+    @Schema(description = "Days until the current stock runs out at that rate; null without recent sales", example = "2.0")
+    private Double daysOfCover;
+
+    @Schema(description = "When the product last sold within the velocity window", example = "2026-01-11T10:30:00")
+    private LocalDateTime lastSoldAt;
+
+    @Schema(description = "Suggested units to reorder", example = "50")
+    private Integer suggestedQuantity;
+}
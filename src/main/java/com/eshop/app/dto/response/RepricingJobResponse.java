@@ -0,0 +1,28 @@
+package com.eshop.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk repricing job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepricingJobResponse {
+    private String jobId;
+    private String status;
+    private Integer totalProducts;
+    private Integer processedProducts;
+    private Integer repricedProducts;
+    private Integer skippedProducts;
+    private Integer failedProducts;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,28 @@
+package com.eshop.app.dto.response;
+
+import com.eshop.app.entity.Shipping;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Shipping quote for one method from one origin warehouse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShippingQuoteResponse {
+    private Shipping.ShippingMethod method;
+    private Long warehouseId;
+    private String warehouseName;
+    private Long geoZoneId;
+    private BigDecimal billableWeightKg;
+    private BigDecimal cost;
+    private Integer transitDays;
+    private LocalDateTime estimatedDeliveryDate;
+}
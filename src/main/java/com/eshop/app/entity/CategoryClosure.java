@@ -0,0 +1,60 @@
+package com.eshop.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Closure table row for the category hierarchy: one row per (ancestor, descendant)
+ * pair, including the self pair at depth 0.
+ *
+ * <p>All descendants of a category are the rows with its {@code ancestor_id}, which
+ * is a prefix range scan on the primary key. Rows are maintained by
+ * {@link com.eshop.app.service.CategoryClosureService} whenever categories are
+ * created, moved or removed.
+ */
+@Entity
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id")
+})
+@IdClass(CategoryClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+
+    @Id
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+
+    /**
+     * Number of edges between ancestor and descendant (0 for the self pair).
+     */
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.eshop.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held for one order line until its payment completes.
+ *
+ * <p>Checkout creates one row per product and warehouse (warehouse {@code null}
+ * when the product is not stocked in any warehouse). A row stays {@code ACTIVE}
+ * until payment confirms it or {@code expiresAt} passes and the expiry sweep
+ * returns its units to stock.
+ */
+@Entity
+@Table(name = "inventory_reservations", indexes = {
+    @Index(name = "idx_inventory_reservation_status_expires", columnList = "status, expires_at"),
+    @Index(name = "idx_inventory_reservation_order", columnList = "order_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryReservation extends BaseEntity {
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Status status = Status.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        ACTIVE,
+        CONFIRMED,
+        RELEASED
+    }
+}
@@ -0,0 +1,71 @@
+package com.eshop.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment gateway webhook delivery, stored before it is processed.
+ *
+ * <p>{@code (gateway, eventId)} is unique, so a retried delivery of the same
+ * event is dropped on insert. Events are applied in id order per
+ * {@code reference} (the gateway's payment or transaction id); a failed event is
+ * retried with backoff and holds back later events of the same reference.
+ */
+@Entity
+@Table(name = "payment_webhook_inbox",
+    indexes = {
+        @Index(name = "idx_webhook_inbox_due", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_webhook_inbox_reference", columnList = "gateway, reference")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_webhook_inbox_gateway_event", columnNames = {"gateway", "event_id"})
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentWebhookEvent extends BaseEntity {
+
+    @Column(nullable = false, length = 20)
+    private String gateway;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "event_type", length = 100)
+    private String eventType;
+
+    @Column(length = 255)
+    private String reference;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Status status = Status.RECEIVED;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum Status {
+        RECEIVED,
+        PROCESSED,
+        FAILED
+    }
+}
@@ -11,7 +11,8 @@ import lombok.*;
 @Table(name = "product_images", indexes = {
     @Index(name = "idx_image_product", columnList = "product_id"),
     @Index(name = "idx_image_primary", columnList = "is_primary"),
-    @Index(name = "idx_image_sort", columnList = "sort_order")
+    @Index(name = "idx_image_sort", columnList = "sort_order"),
+    @Index(name = "idx_product_images_content_hash", columnList = "content_hash")
 })
 @Getter
 @Setter
@@ -47,6 +48,12 @@ public class ProductImage extends BaseEntity {
 
     @Column(name = "file_size")
     private Long fileSize;
+
+    /**
+     * Hex SHA-256 of the uploaded bytes; identical uploads share one stored object.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
     
     @Column(name = "is_primary", nullable = false)
     @Builder.Default
@@ -0,0 +1,64 @@
+package com.eshop.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One weight break of a shipping rate card.
+ *
+ * <p>A row prices {@code method} for packages from {@code minWeightKg} up to the
+ * next break (or {@code maxWeightKg}) as {@code baseCost + perKgCost * weight}.
+ * Zone, origin warehouse and shipping class are optional; a {@code null} matches
+ * any value, and the most specific matching rows win.
+ */
+@Entity
+@Table(name = "shipping_rates", indexes = {
+    @Index(name = "idx_shipping_rate_zone", columnList = "geo_zone_id"),
+    @Index(name = "idx_shipping_rate_active", columnList = "active")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShippingRate extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "geo_zone_id")
+    private GeoZone geoZone;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "warehouse_id")
+    private Warehouse warehouse;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "shipping_class_id")
+    private ShippingClass shippingClass;
+
+    @Column(name = "method", nullable = false, length = 50)
+    @Enumerated(EnumType.STRING)
+    private Shipping.ShippingMethod method;
+
+    @Column(name = "min_weight_kg", nullable = false, precision = 8, scale = 3)
+    @Builder.Default
+    private BigDecimal minWeightKg = BigDecimal.ZERO;
+
+    @Column(name = "max_weight_kg", precision = 8, scale = 3)
+    private BigDecimal maxWeightKg;
+
+    @Column(name = "base_cost", nullable = false, precision = 10, scale = 2)
+    private BigDecimal baseCost;
+
+    @Column(name = "per_kg_cost", nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal perKgCost = BigDecimal.ZERO;
+
+    @Column(name = "transit_days")
+    private Integer transitDays;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+}
@@ -0,0 +1,24 @@
+package com.eshop.app.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when a category is created, updated, moved or deleted.
+ * Consumers use it to rebuild derived category structures after commit.
+ *
+ * @since 2.0
+ */
+@Getter
+public class CategoryChangedEvent extends ApplicationEvent {
+
+    /**
+     * Affected category, or {@code null} for bulk changes.
+     */
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Object source, Long categoryId) {
+        super(source);
+        this.categoryId = categoryId;
+    }
+}
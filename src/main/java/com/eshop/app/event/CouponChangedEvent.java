@@ -0,0 +1,24 @@
+package com.eshop.app.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when a coupon is created, updated, deactivated or exhausted.
+ * Consumers use it to rebuild the in-memory coupon rule index after commit.
+ *
+ * @since 2.0
+ */
+@Getter
+public class CouponChangedEvent extends ApplicationEvent {
+
+    /**
+     * Affected coupon, or {@code null} for bulk changes.
+     */
+    private final Long couponId;
+
+    public CouponChangedEvent(Object source, Long couponId) {
+        super(source);
+        this.couponId = couponId;
+    }
+}
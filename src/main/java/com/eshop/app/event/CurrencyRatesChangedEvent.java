@@ -0,0 +1,16 @@
+package com.eshop.app.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when currencies or their exchange rates change.
+ * Consumers use it to publish a new currency rate table after commit.
+ *
+ * @since 2.0
+ */
+public class CurrencyRatesChangedEvent extends ApplicationEvent {
+
+    public CurrencyRatesChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,24 @@
+package com.eshop.app.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when an order transaction takes over an inventory hold.
+ * After commit the units stay reserved for the order; a hold created for the
+ * transaction is released on rollback, a pre-existing one is handed back.
+ *
+ * @since 2.0
+ */
+@Getter
+public class InventoryReservedEvent extends ApplicationEvent {
+
+    private final String holdId;
+    private final boolean createdForOrder;
+
+    public InventoryReservedEvent(Object source, String holdId, boolean createdForOrder) {
+        super(source);
+        this.holdId = holdId;
+        this.createdForOrder = createdForOrder;
+    }
+}
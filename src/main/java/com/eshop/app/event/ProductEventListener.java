@@ -1,82 +1,93 @@
 package com.eshop.app.event;
 
+import com.eshop.app.event.outbox.OutboxEventHandler;
+import com.eshop.app.event.outbox.OutboxMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
  * Listener for product-related domain events.
- * All listeners are async and execute after transaction commit.
- * 
+ * Events arrive from the outbox relay after commit, once per cluster and at least once.
+ *
  * @since 2.0
  */
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class ProductEventListener {
-    
+public class ProductEventListener implements OutboxEventHandler {
+
+    @Override
+    public boolean supports(String eventType) {
+        return switch (eventType) {
+            case OutboxMessage.PRODUCT_CREATED, OutboxMessage.STOCK_CHANGED, OutboxMessage.LOW_STOCK -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public void handle(OutboxMessage message) {
+        switch (message.eventType()) {
+            case OutboxMessage.PRODUCT_CREATED -> onProductCreated(message);
+            case OutboxMessage.STOCK_CHANGED -> onStockChanged(message);
+            case OutboxMessage.LOW_STOCK -> onLowStock(message);
+            default -> log.debug("Ignoring product event {}", message.eventType());
+        }
+    }
+
     /**
      * Handle product creation events.
      * Triggers indexing, notifications, etc.
      */
-    @Async
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    public void onProductCreated(ProductCreatedEvent event) {
-        log.info("Product created: ID={}, SKU={}, Name={}", 
-            event.getProduct().getId(),
-            event.getProduct().getSku(),
-            event.getProduct().getName());
-        
+    private void onProductCreated(OutboxMessage message) {
+        log.info("Product created: ID={}, SKU={}, Name={}",
+            message.longValue("productId"),
+            message.stringValue("sku"),
+            message.stringValue("name"));
+
         // Trigger search index update (integrate with Elasticsearch/Solr/OpenSearch)
-        log.debug("Search index update required for product ID: {}", event.getProduct().getId());
-        // Example: searchIndexService.indexProduct(event.getProduct());
-        
+        log.debug("Search index update required for product ID: {}", message.longValue("productId"));
+        // Example: searchIndexService.indexProduct(productId);
+
         // Send notifications to relevant parties (sellers, admins, subscribers)
-        log.debug("Notifications to be sent for new product: {}", event.getProduct().getSku());
-        // Example: notificationService.notifyProductCreated(event.getProduct());
+        log.debug("Notifications to be sent for new product: {}", message.stringValue("sku"));
+        // Example: notificationService.notifyProductCreated(productId);
     }
-    
+
     /**
      * Handle stock change events.
      * Records audit trail and triggers alerts if needed.
      */
-    @Async
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    public void onStockChanged(StockChangedEvent event) {
+    private void onStockChanged(OutboxMessage message) {
         log.info("Stock changed for product {}: {} -> {} (delta: {}, reason: {})",
-            event.getProductId(),
-            event.getPreviousStock(),
-            event.getNewStock(),
-            event.getDelta(),
-            event.getReason());
-        
+            message.longValue("productId"),
+            message.intValue("previousStock"),
+            message.intValue("newStock"),
+            message.intValue("delta"),
+            message.stringValue("reason"));
+
         // Record in stock movement audit table for compliance and analytics
-        log.debug("Recording stock movement audit: productId={}, delta={}", 
-            event.getProductId(), event.getDelta());
-        // Example: stockAuditRepository.save(new StockMovement(event));
+        log.debug("Recording stock movement audit: productId={}, delta={}",
+            message.longValue("productId"), message.intValue("delta"));
+        // Example: stockAuditRepository.save(new StockMovement(message)), keyed by message.id() to stay idempotent
     }
-    
+
     /**
      * Handle low stock alerts.
      * Sends notifications to sellers/admins.
      */
-    @Async
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    public void onLowStock(LowStockEvent event) {
+    private void onLowStock(OutboxMessage message) {
         log.warn("Low stock alert for product: ID={}, SKU={}, Stock={}",
-            event.getProduct().getId(),
-            event.getProduct().getSku(),
-            event.getProduct().getStockQuantity());
-        
+            message.longValue("productId"),
+            message.stringValue("sku"),
+            message.intValue("stockQuantity"));
+
         // Send email/SMS notifications to sellers and admins
-        log.info("Sending low stock notifications for product: {}", event.getProduct().getSku());
-        // Example: notificationService.sendLowStockAlert(event.getProduct());
-        
+        log.info("Sending low stock notifications for product: {}", message.stringValue("sku"));
+        // Example: notificationService.sendLowStockAlert(productId);
+
         // Create low stock report entry for dashboard and analytics
-        log.debug("Creating low stock report entry for product ID: {}", event.getProduct().getId());
-        // Example: reportService.createLowStockEntry(event.getProduct());
+        log.debug("Creating low stock report entry for product ID: {}", message.longValue("productId"));
+        // Example: reportService.createLowStockEntry(productId);
     }
 }
@@ -0,0 +1,24 @@
+package com.eshop.app.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when a bulk repricing job has changed product prices.
+ * 
+ * @since 2.0
+ */
+@Getter
+public class ProductsRepricedEvent extends ApplicationEvent {
+
+    private final String jobId;
+    private final Long sellerId;
+    private final int repricedCount;
+
+    public ProductsRepricedEvent(Object source, String jobId, Long sellerId, int repricedCount) {
+        super(source);
+        this.jobId = jobId;
+        this.sellerId = sellerId;
+        this.repricedCount = repricedCount;
+    }
+}
@@ -0,0 +1,16 @@
+package com.eshop.app.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when a tax class, tax rate, tax rule or geo zone changes.
+ * Consumers use it to rebuild the compiled tax rule matrix after commit.
+ *
+ * @since 2.0
+ */
+public class TaxConfigurationChangedEvent extends ApplicationEvent {
+
+    public TaxConfigurationChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,25 @@
+package com.eshop.app.event.outbox;
+
+/**
+ * Consumer of outbox events.
+ *
+ * <p>By default a handler runs once per event, on the node whose relay delivered
+ * it (search indexing, notifications, audit). Handlers of node-local state such as
+ * L1 caches return {@code true} from {@link #onEveryNode()} and also receive the
+ * events relayed by other nodes through the Redis stream.
+ *
+ * @since 2.0
+ */
+public interface OutboxEventHandler {
+
+    boolean supports(String eventType);
+
+    /**
+     * Handles one event. Throwing makes the relay retry the event later.
+     */
+    void handle(OutboxMessage message);
+
+    default boolean onEveryNode() {
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+package com.eshop.app.event.outbox;
+
+import com.eshop.app.entity.OutboxEvent;
+import com.eshop.app.entity.Product;
+import com.eshop.app.event.LowStockEvent;
+import com.eshop.app.event.ProductCreatedEvent;
+import com.eshop.app.event.ProductsRepricedEvent;
+import com.eshop.app.event.StockChangedEvent;
+import com.eshop.app.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes product domain events to the outbox.
+ *
+ * <p>The listeners are synchronous, so the row is inserted in the publisher's
+ * transaction and commits or rolls back with the change itself. Nothing is sent
+ * here; {@link OutboxRelay} delivers committed rows.
+ *
+ * @since 2.0
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventRecorder {
+
+    private static final String PRODUCT = "Product";
+    private static final String REPRICING_JOB = "RepricingJob";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onProductCreated(ProductCreatedEvent event) {
+        Product product = event.getProduct();
+        Map<String, Object> payload = productPayload(product);
+        payload.put("name", product.getName());
+        record(OutboxMessage.PRODUCT_CREATED, product.getId(), payload);
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", event.getProductId());
+        payload.put("previousStock", event.getPreviousStock());
+        payload.put("newStock", event.getNewStock());
+        payload.put("delta", event.getDelta());
+        payload.put("reason", event.getReason());
+        record(OutboxMessage.STOCK_CHANGED, event.getProductId(), payload);
+    }
+
+    @EventListener
+    public void onLowStock(LowStockEvent event) {
+        Product product = event.getProduct();
+        record(OutboxMessage.LOW_STOCK, product.getId(), productPayload(product));
+    }
+
+    @EventListener
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("jobId", event.getJobId());
+        payload.put("sellerId", event.getSellerId());
+        payload.put("repricedCount", event.getRepricedCount());
+        record(OutboxMessage.PRODUCTS_REPRICED, REPRICING_JOB, event.getJobId(), payload);
+    }
+
+    private static Map<String, Object> productPayload(Product product) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", product.getId());
+        payload.put("sku", product.getSku());
+        payload.put("stockQuantity", product.getStockQuantity());
+        return payload;
+    }
+
+    private void record(String eventType, Long productId, Map<String, Object> payload) {
+        record(eventType, PRODUCT, String.valueOf(productId), payload);
+    }
+
+    private void record(String eventType, String aggregateType, String aggregateId, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + eventType + " event", e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
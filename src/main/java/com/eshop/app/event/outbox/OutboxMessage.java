@@ -0,0 +1,40 @@
+package com.eshop.app.event.outbox;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A domain event as delivered from the outbox, locally or through the Redis
+ * stream. Delivery is at least once, so handlers must be idempotent.
+ *
+ * @param id            outbox row id, increasing in insert order
+ * @param eventType     event type, e.g. {@link #PRODUCT_CREATED}
+ * @param aggregateType type of the changed entity, e.g. {@code Product}
+ * @param aggregateId   id of the changed entity
+ * @param payload       event fields
+ * @param occurredAt    when the event was recorded
+ * @since 2.0
+ */
+public record OutboxMessage(long id, String eventType, String aggregateType, String aggregateId,
+                            Map<String, Object> payload, LocalDateTime occurredAt) {
+
+    public static final String PRODUCT_CREATED = "ProductCreated";
+    public static final String STOCK_CHANGED = "StockChanged";
+    public static final String LOW_STOCK = "LowStock";
+    public static final String PRODUCTS_REPRICED = "ProductsRepriced";
+
+    public Long longValue(String field) {
+        Object value = payload.get(field);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    public Integer intValue(String field) {
+        Object value = payload.get(field);
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    public String stringValue(String field) {
+        Object value = payload.get(field);
+        return value != null ? value.toString() : null;
+    }
+}
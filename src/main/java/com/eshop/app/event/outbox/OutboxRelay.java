@@ -0,0 +1,150 @@
+package com.eshop.app.event.outbox;
+
+import com.eshop.app.entity.OutboxEvent;
+import com.eshop.app.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delivers committed outbox events.
+ *
+ * <p>Each round locks a batch of undelivered rows with {@code FOR UPDATE SKIP LOCKED},
+ * runs the local handlers, appends the events to the {@link OutboxStream} for the
+ * other nodes and marks the rows published, all in one transaction. Relays on
+ * different nodes lock disjoint rows, so no ShedLock is needed.
+ *
+ * <p>Delivery is at least once: if the node dies or the stream append fails, the
+ * transaction rolls back and the whole batch is delivered again. An event whose
+ * handler throws is retried with exponential backoff until {@code max-attempts}
+ * is reached; later events do not wait for it.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.outbox.relay-interval=PT0.5S
+ * app.outbox.batch-size=200
+ * app.outbox.max-attempts=10
+ * app.outbox.retention=P7D
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_ROUNDS_PER_RUN = 20;
+    private static final Duration STREAM_FAILURE_PAUSE = Duration.ofSeconds(5);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxStream outboxStream;
+    private final List<OutboxEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private volatile long pausedUntil;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxStream outboxStream,
+                       List<OutboxEventHandler> handlers,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxStream = outboxStream;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT0.5S}")
+    public void relay() {
+        if (System.currentTimeMillis() < pausedUntil) {
+            return;
+        }
+        for (int round = 0; round < MAX_ROUNDS_PER_RUN; round++) {
+            Integer relayed;
+            try {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } catch (RuntimeException e) {
+                pausedUntil = System.currentTimeMillis() + STREAM_FAILURE_PAUSE.toMillis();
+                log.warn("Outbox relay failed, batch will be redelivered: {}", e.getMessage());
+                return;
+            }
+            if (relayed == null || relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes delivered events once they are no longer useful for troubleshooting.
+     */
+    @Scheduled(cron = "${app.outbox.purge-cron:0 45 3 * * *}")
+    @SchedulerLock(name = "outboxPurge", lockAtMostFor = "PT30M")
+    public void purgePublished() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> pending = outboxEventRepository.lockPending(batchSize, now);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<OutboxMessage> delivered = new ArrayList<>(pending.size());
+        for (OutboxEvent event : pending) {
+            OutboxMessage message = new OutboxMessage(event.getId(), event.getEventType(), event.getAggregateType(),
+                    event.getAggregateId(), outboxStream.fromJson(event.getPayload()), event.getCreatedAt());
+            try {
+                for (OutboxEventHandler handler : handlers) {
+                    if (handler.supports(message.eventType())) {
+                        handler.handle(message);
+                    }
+                }
+                delivered.add(message);
+            } catch (RuntimeException e) {
+                recordFailure(event, e, now);
+            }
+        }
+
+        outboxStream.publish(delivered);
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.markPublished(delivered.stream().map(OutboxMessage::id).toList(), now);
+        }
+        return pending.size();
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException cause, LocalDateTime now) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        int attempt = event.getAttempts() + 1;
+        Duration backoff = Duration.ofSeconds(1L << Math.min(attempt, 10));
+        outboxEventRepository.markFailed(event.getId(), error, maxAttempts, now, now.plus(backoff));
+        if (attempt >= maxAttempts) {
+            log.error("Outbox event {} ({} {}) failed {} times, giving up: {}",
+                    event.getId(), event.getEventType(), event.getAggregateId(), attempt, error);
+        } else {
+            log.warn("Outbox event {} ({} {}) failed, retrying in {}s: {}",
+                    event.getId(), event.getEventType(), event.getAggregateId(), backoff.toSeconds(), error);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.eshop.app.event.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis stream that carries relayed outbox events to the other nodes.
+ *
+ * <p>Every node reads the stream through its own consumer group, named after the
+ * node, so each node sees every event once and Redis keeps its read offset and
+ * its unacknowledged entries. A node that restarts joins at the stream tail; its
+ * node-local state starts empty, so there is nothing to catch up on. The stream is
+ * trimmed to about {@code max-length} entries.
+ *
+ * <p>Without {@code app.outbox.node-id} the group is named after the process
+ * ({@code pid@host}), so a node that dies without {@link #leave() leaving} strands
+ * its group. Groups whose consumers have all been idle for {@code abandoned-after},
+ * or that have had no consumer for that long, are destroyed when a node joins and
+ * every {@code reap-interval}. A live node
+ * whose group was reaped by mistake creates it again on its next read.
+ *
+ * <p>Without a {@link StringRedisTemplate} bean, or with
+ * {@code app.outbox.stream.enabled=false}, events are only delivered locally.
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class OutboxStream {
+
+    /**
+     * An event read from the stream, with the node that relayed it.
+     */
+    public record Delivery(RecordId recordId, String origin, OutboxMessage message) {
+    }
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String key;
+    private final long maxLength;
+    private final String nodeId;
+    private final Duration abandonedAfter;
+    // A group has no consumer until its first read; when this node first saw each such group empty
+    private final Map<String, Long> emptySince = new ConcurrentHashMap<>();
+    private volatile boolean groupReady;
+
+    public OutboxStream(ObjectProvider<StringRedisTemplate> redisTemplate,
+                        ObjectMapper objectMapper,
+                        @Value("${app.outbox.stream.enabled:true}") boolean enabled,
+                        @Value("${app.outbox.stream.key:eshop:outbox}") String key,
+                        @Value("${app.outbox.stream.max-length:100000}") long maxLength,
+                        @Value("${app.outbox.node-id:}") String nodeId,
+                        @Value("${app.outbox.stream.abandoned-after:PT1H}") Duration abandonedAfter) {
+        this.redisTemplate = enabled ? redisTemplate.getIfAvailable() : null;
+        this.objectMapper = objectMapper;
+        this.key = key;
+        this.maxLength = maxLength;
+        // RuntimeMXBean name is pid@host, unique per running instance
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : ManagementFactory.getRuntimeMXBean().getName();
+        this.abandonedAfter = abandonedAfter;
+    }
+
+    public boolean isEnabled() {
+        return redisTemplate != null;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public void publish(List<OutboxMessage> messages) {
+        if (!isEnabled() || messages.isEmpty()) {
+            return;
+        }
+        for (OutboxMessage message : messages) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("id", String.valueOf(message.id()));
+            fields.put("type", message.eventType());
+            fields.put("aggregateType", message.aggregateType());
+            fields.put("aggregateId", message.aggregateId());
+            fields.put("payload", toJson(message.payload()));
+            fields.put("occurredAt", message.occurredAt().toString());
+            fields.put("origin", nodeId);
+            redisTemplate.opsForStream().add(StreamRecords.mapBacked(fields).withStreamKey(key));
+        }
+        redisTemplate.opsForStream().trim(key, maxLength, true);
+    }
+
+    /**
+     * Reads up to {@code count} entries this node has not seen yet.
+     */
+    public List<Delivery> readNew(int count) {
+        return read(count, ReadOffset.lastConsumed());
+    }
+
+    /**
+     * Reads up to {@code count} of this node's unacknowledged entries with ids
+     * after {@code after}, or from the start when it is {@code null}.
+     */
+    public List<Delivery> readPending(int count, RecordId after) {
+        return read(count, ReadOffset.from(after != null ? after.getValue() : "0"));
+    }
+
+    private List<Delivery> read(int count, ReadOffset offset) {
+        ensureGroup();
+        List<MapRecord<String, Object, Object>> records;
+        try {
+            records = redisTemplate.opsForStream().read(
+                    Consumer.from(nodeId, nodeId),
+                    StreamReadOptions.empty().count(count),
+                    StreamOffset.create(key, offset));
+        } catch (RuntimeException e) {
+            // NOGROUP after the group was reaped or the stream deleted: join again on the next read
+            groupReady = false;
+            throw e;
+        }
+        if (records == null || records.isEmpty()) {
+            return List.of();
+        }
+        List<Delivery> deliveries = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> fields = record.getValue();
+            OutboxMessage message = new OutboxMessage(
+                    Long.parseLong((String) fields.get("id")),
+                    (String) fields.get("type"),
+                    (String) fields.get("aggregateType"),
+                    (String) fields.get("aggregateId"),
+                    fromJson((String) fields.get("payload")),
+                    LocalDateTime.parse((String) fields.get("occurredAt")));
+            deliveries.add(new Delivery(record.getId(), (String) fields.get("origin"), message));
+        }
+        return deliveries;
+    }
+
+    public void acknowledge(List<RecordId> recordIds) {
+        if (!recordIds.isEmpty()) {
+            redisTemplate.opsForStream().acknowledge(key, nodeId, recordIds.toArray(RecordId[]::new));
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (isEnabled() && groupReady) {
+            try {
+                redisTemplate.opsForStream().destroyGroup(key, nodeId);
+            } catch (RuntimeException e) {
+                log.debug("Could not remove outbox consumer group {}: {}", nodeId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Destroys the consumer groups of other nodes that are gone: groups whose
+     * consumers have all been idle for {@code abandoned-after}, or that have been
+     * seen without consumers for that long.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.stream.reap-interval:PT15M}",
+            initialDelayString = "${app.outbox.stream.reap-interval:PT15M}")
+    public void reapAbandonedGroups() {
+        if (!isEnabled()) {
+            return;
+        }
+        StreamInfo.XInfoGroups groups;
+        try {
+            groups = redisTemplate.opsForStream().groups(key);
+        } catch (RuntimeException e) {
+            log.debug("Could not list outbox consumer groups: {}", e.getMessage());
+            return;
+        }
+        Set<String> names = new HashSet<>();
+        groups.stream().forEach(group -> {
+            String name = group.groupName();
+            names.add(name);
+            if (nodeId.equals(name) || !isAbandoned(name, group.consumerCount())) {
+                return;
+            }
+            emptySince.remove(name);
+            try {
+                redisTemplate.opsForStream().destroyGroup(key, name);
+                log.info("Removed abandoned outbox consumer group {} ({} pending entries)", name, group.pendingCount());
+            } catch (RuntimeException e) {
+                log.debug("Could not remove outbox consumer group {}: {}", name, e.getMessage());
+            }
+        });
+        emptySince.keySet().retainAll(names);
+    }
+
+    private boolean isAbandoned(String group, long consumerCount) {
+        if (consumerCount == 0) {
+            // A group created a moment ago has no consumer yet either
+            long now = System.currentTimeMillis();
+            return now - emptySince.computeIfAbsent(group, g -> now) >= abandonedAfter.toMillis();
+        }
+        emptySince.remove(group);
+        StreamInfo.XInfoConsumers consumers = redisTemplate.opsForStream().consumers(key, group);
+        return consumers.stream().allMatch(consumer -> consumer.idleTimeMs() >= abandonedAfter.toMillis());
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        reapAbandonedGroups();
+        try {
+            redisTemplate.opsForStream().createGroup(key, ReadOffset.latest(), nodeId);
+            log.info("Joined outbox stream {} as consumer group {}", key, nodeId);
+        } catch (RuntimeException e) {
+            // BUSYGROUP: the group survived a restart with the same node id
+            log.debug("Outbox consumer group {} already exists: {}", nodeId, e.getMessage());
+        }
+        groupReady = true;
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+
+    Map<String, Object> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot parse outbox payload", e);
+        }
+    }
+}
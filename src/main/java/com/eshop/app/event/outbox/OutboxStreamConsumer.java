@@ -0,0 +1,130 @@
+package com.eshop.app.event.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies events relayed by other nodes to this node's {@link OutboxEventHandler#onEveryNode()}
+ * handlers.
+ *
+ * <p>Entries are acknowledged once handled; an entry whose handler throws stays in
+ * the consumer group's pending list and is read again with exponential backoff,
+ * from {@code RETRY_DELAY} doubling up to {@code MAX_RETRY_DELAY}, and back to the
+ * start once a retry pass succeeds. Events this node relayed itself were already
+ * handled locally and are only acknowledged.
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class OutboxStreamConsumer {
+
+    private static final Duration FAILURE_PAUSE = Duration.ofSeconds(5);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
+    private final OutboxStream outboxStream;
+    private final List<OutboxEventHandler> handlers;
+    private final int batchSize;
+    // Start with the entries left pending by a previous run under the same node id
+    private volatile long retryPendingAt = 1;
+    private volatile long retryDelay = RETRY_DELAY.toMillis();
+    // Where the current retry pass continues when the pending list is longer than a batch
+    private volatile RecordId retryFrom;
+    private volatile boolean retryPassFailed;
+    private volatile long pausedUntil;
+
+    public OutboxStreamConsumer(OutboxStream outboxStream,
+                                List<OutboxEventHandler> handlers,
+                                @Value("${app.outbox.stream.batch-size:100}") int batchSize) {
+        this.outboxStream = outboxStream;
+        this.handlers = handlers.stream().filter(OutboxEventHandler::onEveryNode).toList();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.stream.poll-interval:PT0.2S}")
+    public void poll() {
+        long now = System.currentTimeMillis();
+        if (!outboxStream.isEnabled() || handlers.isEmpty() || now < pausedUntil) {
+            return;
+        }
+        try {
+            // Failed entries are retried on a delay, so one bad entry does not hold up new ones
+            if (retryPendingAt != 0 && now >= retryPendingAt) {
+                retryPending(now);
+            } else {
+                boolean handled = handle(outboxStream.readNew(batchSize));
+                if (!handled && retryPendingAt == 0) {
+                    scheduleRetry(now);
+                }
+            }
+        } catch (RuntimeException e) {
+            pausedUntil = System.currentTimeMillis() + FAILURE_PAUSE.toMillis();
+            log.warn("Reading the outbox stream failed: {}", e.getMessage());
+        }
+    }
+
+    private void retryPending(long now) {
+        List<OutboxStream.Delivery> deliveries = outboxStream.readPending(batchSize, retryFrom);
+        if (!handle(deliveries)) {
+            retryPassFailed = true;
+        }
+        if (deliveries.size() == batchSize) {
+            // More pending entries after this batch: continue the pass on the next poll
+            retryFrom = deliveries.get(deliveries.size() - 1).recordId();
+            retryPendingAt = now;
+            return;
+        }
+        retryFrom = null;
+        if (retryPassFailed) {
+            retryPassFailed = false;
+            scheduleRetry(now);
+        } else {
+            retryPendingAt = 0;
+            retryDelay = RETRY_DELAY.toMillis();
+        }
+    }
+
+    private void scheduleRetry(long now) {
+        retryPendingAt = now + retryDelay;
+        retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY.toMillis());
+    }
+
+    /**
+     * Applies and acknowledges the deliveries.
+     *
+     * @return whether every delivery was handled
+     */
+    private boolean handle(List<OutboxStream.Delivery> deliveries) {
+        List<RecordId> handled = new ArrayList<>(deliveries.size());
+        for (OutboxStream.Delivery delivery : deliveries) {
+            if (outboxStream.nodeId().equals(delivery.origin()) || apply(delivery.message())) {
+                handled.add(delivery.recordId());
+            }
+        }
+        outboxStream.acknowledge(handled);
+        return handled.size() == deliveries.size();
+    }
+
+    private boolean apply(OutboxMessage message) {
+        try {
+            for (OutboxEventHandler handler : handlers) {
+                if (handler.supports(message.eventType())) {
+                    handler.handle(message);
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Outbox event {} ({}) from the stream failed, will retry: {}",
+                    message.id(), message.eventType(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.eshop.app.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a call is shed by an adaptive concurrency limiter.
+ * 
+ * @since 2.0
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final String group;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String group, int limit) {
+        super(String.format("Too many concurrent %s requests. Please try again shortly.", group));
+        this.group = group;
+        this.limit = limit;
+    }
+}
@@ -55,6 +55,21 @@ public class DashboardExceptionHandler {
             .body(ApiResponse.error("Request timed out: " + ex.getMessage()));
     }
 
+    /**
+     * Handle calls shed by the adaptive concurrency limiter
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException ex, WebRequest request) {
+        
+        log.warn("Request shed: group={}, limit={}", ex.getGroup(), ex.getLimit());
+        
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header("Retry-After", "1")
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
     /**
      * Handle Unauthorized exceptions
      */
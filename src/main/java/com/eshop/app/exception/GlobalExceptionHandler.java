@@ -110,6 +110,26 @@ public class GlobalExceptionHandler {
                         .body(error);
         }
         
+        @ExceptionHandler(ConcurrencyLimitExceededException.class)
+        public ResponseEntity<ApiError> handleConcurrencyLimitExceeded(
+                ConcurrencyLimitExceededException ex, HttpServletRequest request) {
+                log.warn("Request shed: group={}, limit={}", ex.getGroup(), ex.getLimit());
+                
+                ApiError error = ApiError.builder()
+                        .timestamp(Instant.now())
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                        .message(ex.getMessage())
+                        .path(getRequestPath(request))
+                        .correlationId(getCorrelationId())
+                        .errorCode("CONCURRENCY_LIMIT_EXCEEDED")
+                        .build();
+                
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", "1")
+                        .body(error);
+        }
+        
         // ═══════════════════════════════════════════════════════════════
         // Business Exceptions
         // ═══════════════════════════════════════════════════════════════
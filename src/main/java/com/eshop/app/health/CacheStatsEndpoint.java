@@ -0,0 +1,98 @@
+package com.eshop.app.health;
+
+import com.eshop.app.service.cache.CacheInstrumentation;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Usage of each logical cache across tiers, recorded by {@link CacheInstrumentation}:
+ * overall hits and misses, load times, L1 and L2 hits and misses, L1 removals by
+ * cause, sampled entry sizes and the sampled hottest keys.
+ *
+ * <h2>Access Endpoint:</h2>
+ * <pre>
+ * GET /actuator/cachestats
+ * GET /actuator/cachestats/{cache}
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private final CacheInstrumentation instrumentation;
+    private final CaffeineCacheManager caffeineCacheManager;
+    private final ObjectProvider<RedisCacheManager> redisCacheManager;
+
+    public CacheStatsEndpoint(CacheInstrumentation instrumentation,
+                              @Qualifier("caffeineCacheManager") CaffeineCacheManager caffeineCacheManager,
+                              ObjectProvider<RedisCacheManager> redisCacheManager) {
+        this.instrumentation = instrumentation;
+        this.caffeineCacheManager = caffeineCacheManager;
+        this.redisCacheManager = redisCacheManager;
+    }
+
+    @ReadOperation
+    public Map<String, Object> caches() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(instrumentation.cacheNames())) {
+            body.put(name, cache(name));
+        }
+        return body;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        CacheInstrumentation.Snapshot usage = instrumentation.snapshot(name);
+        if (usage != null) {
+            body.put("usage", usage);
+        }
+        Cache local = caffeineCacheManager.getCache(name);
+        if (local != null
+                && local.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            CacheStats stats = caffeine.stats();
+            Map<String, Object> l1 = new LinkedHashMap<>();
+            l1.put("hits", stats.hitCount());
+            l1.put("misses", stats.missCount());
+            l1.put("hitRatio", stats.hitRate());
+            l1.put("evictions", stats.evictionCount());
+            l1.put("size", caffeine.estimatedSize());
+            caffeine.policy().eviction().ifPresent(eviction -> l1.put("maximum", eviction.getMaximum()));
+            body.put("l1", l1);
+        }
+        RedisCacheManager redis = redisCacheManager.getIfAvailable();
+        if (redis != null && redis.getCacheNames().contains(name)
+                && undecorated(redis.getCache(name)) instanceof RedisCache redisCache) {
+            CacheStatistics stats = redisCache.getStatistics();
+            Map<String, Object> l2 = new LinkedHashMap<>();
+            l2.put("hits", stats.getHits());
+            l2.put("misses", stats.getMisses());
+            l2.put("puts", stats.getPuts());
+            l2.put("deletes", stats.getDeletes());
+            body.put("l2", l2);
+        }
+        return body;
+    }
+
+    // The Redis caches are transaction-aware, so the RedisCache sits behind a decorator
+    private static Cache undecorated(Cache cache) {
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+}
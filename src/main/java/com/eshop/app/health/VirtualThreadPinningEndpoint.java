@@ -0,0 +1,42 @@
+package com.eshop.app.health;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Virtual thread pinning sites recorded by {@link VirtualThreadPinningMonitor}.
+ *
+ * <h2>Access Endpoint:</h2>
+ * <pre>
+ * GET /actuator/pinning
+ * </pre>
+ *
+ * <p>{@code baseline} lists every site seen, in the format of the baseline
+ * resource, so accepted sites can be copied into it.
+ *
+ * @since 2.0
+ */
+@Component
+@Endpoint(id = "pinning")
+@RequiredArgsConstructor
+public class VirtualThreadPinningEndpoint {
+
+    private final VirtualThreadPinningMonitor monitor;
+
+    @ReadOperation
+    public Map<String, Object> pinning() {
+        List<VirtualThreadPinningMonitor.Site> sites = monitor.sites();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("totalEvents", sites.stream().mapToLong(VirtualThreadPinningMonitor.Site::count).sum());
+        body.put("newSites", sites.stream().filter(site -> !site.known()).count());
+        body.put("sites", sites);
+        body.put("baseline", sites.stream().map(VirtualThreadPinningMonitor.Site::site).sorted().toList());
+        return body;
+    }
+}
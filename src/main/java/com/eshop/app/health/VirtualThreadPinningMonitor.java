@@ -0,0 +1,287 @@
+package com.eshop.app.health;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Records where virtual threads get pinned to their carrier thread.
+ *
+ * <p>Consumes the JFR {@code jdk.VirtualThreadPinned} event in-process with a
+ * {@link RecordingStream}. The JVM emits it when a virtual thread blocks for
+ * longer than {@code threshold} while it cannot unmount, typically inside a
+ * {@code synchronized} block or a native frame. Events are grouped by pinning
+ * site: the top {@code stack-depth} frames below the JDK's parking frames.
+ *
+ * <p>Sites listed in the baseline resource, one per line in the format of
+ * {@link Site#site()}, are known; any other site is new. {@link #newSites()}
+ * lets a test fail when code starts pinning somewhere new.
+ *
+ * <p>Only events above the threshold are recorded and the number of distinct
+ * sites is capped, so the cost stays flat under thousands of concurrent virtual
+ * threads.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.virtual-threads.pinning.enabled=true
+ * app.virtual-threads.pinning.threshold=PT0.02S
+ * app.virtual-threads.pinning.stack-depth=8
+ * app.virtual-threads.pinning.max-sites=200
+ * app.virtual-threads.pinning.baseline=classpath:virtual-thread-pinning-baseline.txt
+ * </pre>
+ *
+ * <h2>Metrics:</h2>
+ * <pre>
+ * eshop.virtual_threads.pinned{frame}  pinned time per top application frame
+ * eshop.virtual_threads.pinning_sites  distinct sites seen
+ * eshop.virtual_threads.pinning_sites.new  sites missing from the baseline
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String OVERFLOW_SITE = "(other sites)";
+
+    /**
+     * Aggregated pinning events of one site.
+     */
+    public record Site(String site, String frame, long count, long totalMillis, long maxMillis,
+                       Instant firstSeen, Instant lastSeen, String lastThread, boolean known) {
+    }
+
+    private static final class Stats {
+        private final String frame;
+        private final Instant firstSeen = Instant.now();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile Instant lastSeen;
+        private volatile String lastThread;
+        private Timer timer;
+
+        private Stats(String frame) {
+            this.frame = frame;
+        }
+    }
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final int stackDepth;
+    private final int maxSites;
+    private final String baselineLocation;
+    private final ResourceLoader resourceLoader;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Stats> sites = new ConcurrentHashMap<>();
+    private volatile Set<String> baseline = Set.of();
+    private volatile RecordingStream stream;
+    private Counter overflow;
+
+    public VirtualThreadPinningMonitor(ResourceLoader resourceLoader,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.virtual-threads.pinning.enabled:true}") boolean enabled,
+                                       @Value("${app.virtual-threads.pinning.threshold:PT0.02S}") Duration threshold,
+                                       @Value("${app.virtual-threads.pinning.stack-depth:8}") int stackDepth,
+                                       @Value("${app.virtual-threads.pinning.max-sites:200}") int maxSites,
+                                       @Value("${app.virtual-threads.pinning.baseline:classpath:virtual-thread-pinning-baseline.txt}") String baselineLocation) {
+        this.resourceLoader = resourceLoader;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.stackDepth = Math.max(1, stackDepth);
+        this.maxSites = Math.max(1, maxSites);
+        this.baselineLocation = baselineLocation;
+    }
+
+    @PostConstruct
+    public void start() {
+        baseline = loadBaseline();
+        Gauge.builder("eshop.virtual_threads.pinning_sites", sites, Map::size)
+                .description("Distinct virtual thread pinning sites seen")
+                .register(meterRegistry);
+        Gauge.builder("eshop.virtual_threads.pinning_sites.new", this, monitor -> monitor.newSites().size())
+                .description("Pinning sites missing from the baseline")
+                .register(meterRegistry);
+        overflow = Counter.builder("eshop.virtual_threads.pinned.untracked")
+                .description("Pinning events beyond the tracked site limit")
+                .register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(EVENT, this::onPinned);
+            recording.setReuse(true);
+            recording.startAsync();
+            stream = recording;
+            log.info("Virtual thread pinning monitor started (threshold {} ms, {} baseline sites)",
+                    threshold.toMillis(), baseline.size());
+        } catch (RuntimeException e) {
+            // JFR may be unavailable (e.g. a native image or a restricted JVM)
+            log.warn("Virtual thread pinning monitor not started: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Sites seen since startup, most pinned time first.
+     */
+    public List<Site> sites() {
+        return sites.entrySet().stream()
+                .map(entry -> toSite(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(Site::totalMillis).reversed())
+                .toList();
+    }
+
+    /**
+     * Sites seen since startup that are not in the baseline.
+     */
+    public List<Site> newSites() {
+        return sites().stream().filter(site -> !site.known()).toList();
+    }
+
+    /**
+     * Drops the recorded sites, e.g. between test phases.
+     */
+    public void reset() {
+        sites.clear();
+    }
+
+    void onPinned(RecordedEvent event) {
+        record(event.getStackTrace(), event.getDuration(), event.getThread() != null
+                ? event.getThread().getJavaName() : null);
+    }
+
+    void record(RecordedStackTrace stackTrace, Duration duration, String threadName) {
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        List<String> siteFrames = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(VirtualThreadPinningMonitor::describe)
+                .dropWhile(VirtualThreadPinningMonitor::isParkingFrame)
+                .limit(stackDepth)
+                .toList();
+        String site = siteFrames.isEmpty() ? "(no stack trace)" : String.join(" <- ", siteFrames);
+
+        Stats stats = sites.get(site);
+        if (stats == null) {
+            if (sites.size() >= maxSites) {
+                overflow.increment();
+                site = OVERFLOW_SITE;
+            }
+            stats = sites.computeIfAbsent(site, key -> newStats(key,
+                    OVERFLOW_SITE.equals(key) ? "other" : topApplicationFrame(siteFrames)));
+        }
+
+        long nanos = duration.toNanos();
+        stats.count.increment();
+        stats.totalNanos.add(nanos);
+        stats.maxNanos.accumulateAndGet(nanos, Math::max);
+        stats.lastSeen = Instant.now();
+        stats.lastThread = threadName;
+        stats.timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Stats newStats(String site, String frame) {
+        Stats stats = new Stats(frame);
+        stats.timer = Timer.builder("eshop.virtual_threads.pinned")
+                .tag("frame", frame)
+                .description("Time virtual threads spent blocked while pinned")
+                .register(meterRegistry);
+        if (!OVERFLOW_SITE.equals(site) && !baseline.contains(site)) {
+            log.warn("New virtual thread pinning site: {}", site);
+        }
+        return stats;
+    }
+
+    private Site toSite(String site, Stats stats) {
+        return new Site(site, stats.frame, stats.count.sum(),
+                TimeUnit.NANOSECONDS.toMillis(stats.totalNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(stats.maxNanos.get()),
+                stats.firstSeen, stats.lastSeen, stats.lastThread,
+                OVERFLOW_SITE.equals(site) || baseline.contains(site));
+    }
+
+    private Set<String> loadBaseline() {
+        Resource resource = resourceLoader.getResource(baselineLocation);
+        if (!resource.exists()) {
+            return Set.of();
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toUnmodifiableSet());
+        } catch (IOException e) {
+            log.warn("Could not read pinning baseline {}: {}", baselineLocation, e.getMessage());
+            return Set.of();
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Frames of the JDK's park/yield path, above the code that actually blocked.
+     */
+    private static boolean isParkingFrame(String frame) {
+        return frame.startsWith("java.lang.VirtualThread.")
+                || frame.startsWith("java.lang.System$")
+                || frame.startsWith("jdk.internal.")
+                || frame.startsWith("java.util.concurrent.locks.LockSupport.");
+    }
+
+    /**
+     * Metric tag for a site: its first non-JDK frame without the line number.
+     */
+    private static String topApplicationFrame(List<String> frames) {
+        String frame = frames.stream()
+                .filter(f -> !f.startsWith("java.") && !f.startsWith("javax.") && !f.startsWith("sun."))
+                .findFirst()
+                .orElse(frames.isEmpty() ? "unknown" : frames.get(0));
+        int line = frame.lastIndexOf(':');
+        return line > 0 ? frame.substring(0, line) : frame;
+    }
+}
@@ -0,0 +1,71 @@
+package com.eshop.app.mapper;
+
+import com.eshop.app.dto.response.CouponResponse;
+import com.eshop.app.entity.Coupon;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Coupon mapper for entity-DTO conversions
+ */
+@Component
+public class CouponMapper {
+
+    /**
+     * Convert Coupon entity to CouponResponse DTO, including computed display fields
+     */
+    public CouponResponse toResponse(Coupon coupon) {
+        if (coupon == null) {
+            return null;
+        }
+
+        Long storeId = coupon.getStore() != null ? coupon.getStore().getId() : null;
+        String storeName = coupon.getStore() != null ? coupon.getStore().getStoreName() : null;
+        Long categoryId = coupon.getCategory() != null ? coupon.getCategory().getId() : null;
+        String categoryName = coupon.getCategory() != null ? coupon.getCategory().getName() : null;
+
+        Integer remainingUses = null;
+        if (coupon.getUsageLimit() != null && coupon.getUsedCount() != null) {
+            remainingUses = Math.max(0, coupon.getUsageLimit() - coupon.getUsedCount());
+        }
+
+        boolean isExpiringSoon = coupon.getValidUntil() != null &&
+                coupon.getValidUntil().isBefore(LocalDateTime.now().plusDays(7));
+
+        String discountDisplay;
+        if (coupon.getDiscountType() == Coupon.DiscountType.PERCENTAGE) {
+            discountDisplay = coupon.getDiscountValue().stripTrailingZeros().toPlainString() + "% OFF";
+        } else {
+            discountDisplay = coupon.getDiscountValue().stripTrailingZeros().toPlainString() + " OFF";
+        }
+
+        return CouponResponse.builder()
+                .id(coupon.getId())
+                .code(coupon.getCode())
+                .name(coupon.getName())
+                .description(coupon.getDescription())
+                .discountType(coupon.getDiscountType())
+                .discountValue(coupon.getDiscountValue())
+                .minimumOrderAmount(coupon.getMinimumOrderAmount())
+                .maximumDiscountAmount(coupon.getMaximumDiscountAmount())
+                .usageLimit(coupon.getUsageLimit())
+                .usageLimitPerUser(coupon.getUsageLimitPerUser())
+                .usedCount(coupon.getUsedCount())
+                .validFrom(coupon.getValidFrom())
+                .validUntil(coupon.getValidUntil())
+                .isActive(coupon.getIsActive())
+                .appliesTo(coupon.getAppliesTo())
+                .storeId(storeId)
+                .storeName(storeName)
+                .categoryId(categoryId)
+                .categoryName(categoryName)
+                .firstTimeOnly(coupon.getFirstTimeOnly())
+                .createdAt(coupon.getCreatedAt())
+                .updatedAt(coupon.getUpdatedAt())
+                .remainingUses(remainingUses)
+                .isExpiringSoon(isExpiringSoon)
+                .discountDisplay(discountDisplay)
+                .build();
+    }
+}
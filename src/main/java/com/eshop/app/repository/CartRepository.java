@@ -1,7 +1,10 @@
 package com.eshop.app.repository;
 
 import com.eshop.app.entity.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,6 +14,10 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     
     Optional<Cart> findByUserId(Long userId);
     
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    @Query("SELECT c FROM Cart c WHERE c.user.id = :userId")
+    Optional<Cart> findWithItemsByUserId(@Param("userId") Long userId);
+    
     Optional<Cart> findByCartCode(String cartCode);
     
     boolean existsByCartCode(String cartCode);
@@ -0,0 +1,92 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Maintenance and lookup queries for the {@code category_closure} table.
+ *
+ * <p>Writes are set-based native statements so that moving a subtree costs a
+ * constant number of round trips regardless of its size.
+ */
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    long countByDepth(Integer depth);
+
+    @Query("SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :ancestorId")
+    List<Long> findDescendantIds(@Param("ancestorId") Long ancestorId);
+
+    /**
+     * Inserts the depth-0 self pair for a new category.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+            VALUES (:id, :id, 0)
+            """, nativeQuery = true)
+    int insertSelf(@Param("id") Long id);
+
+    /**
+     * Links every node of the subtree rooted at {@code id} to {@code parentId} and
+     * all of its ancestors (cross product of the two closures).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+            SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1
+            FROM category_closure a
+            JOIN category_closure d ON d.ancestor_id = :id
+            WHERE a.descendant_id = :parentId
+            """, nativeQuery = true)
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Removes the links between the subtree rooted at {@code id} and its current
+     * ancestors, keeping the links inside the subtree.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM category_closure
+            WHERE descendant_id IN (SELECT s.descendant_id FROM category_closure s WHERE s.ancestor_id = :id)
+              AND ancestor_id NOT IN (SELECT s.descendant_id FROM category_closure s WHERE s.ancestor_id = :id)
+            """, nativeQuery = true)
+    int detachSubtree(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "DELETE FROM category_closure WHERE ancestor_id = :id OR descendant_id = :id", nativeQuery = true)
+    int deleteNode(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "DELETE FROM category_closure", nativeQuery = true)
+    int deleteAllRows();
+
+    /**
+     * Recomputes the whole table from {@code categories.parent_id}. The depth guard
+     * stops the recursion on parent cycles.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+            WITH RECURSIVE tree (ancestor_id, descendant_id, depth) AS (
+                SELECT id, id, 0 FROM categories
+                UNION ALL
+                SELECT t.ancestor_id, c.id, t.depth + 1
+                FROM tree t
+                JOIN categories c ON c.parent_id = t.descendant_id
+                WHERE t.depth < 64
+            )
+            SELECT ancestor_id, descendant_id, MIN(depth)
+            FROM tree
+            GROUP BY ancestor_id, descendant_id
+            """, nativeQuery = true)
+    int insertFromParentLinks();
+}
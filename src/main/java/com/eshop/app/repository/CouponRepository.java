@@ -4,6 +4,7 @@ import com.eshop.app.entity.Coupon;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,6 +32,32 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
            "AND c.validFrom <= :now AND c.validUntil >= :now")
     Optional<Coupon> findActiveByCode(@Param("code") String code, @Param("now") LocalDateTime now);
     
+    /**
+     * Load active, not yet expired coupons with store and category for the in-memory rule index
+     */
+    @Query("SELECT c FROM Coupon c LEFT JOIN FETCH c.store LEFT JOIN FETCH c.category " +
+           "WHERE c.isActive = true AND c.validUntil >= :now")
+    List<Coupon> findIndexableCoupons(@Param("now") LocalDateTime now);
+    
+    /**
+     * Atomically redeem one use of a coupon. The row is only updated while the coupon is
+     * active, within its validity window and below its usage limit, so concurrent
+     * redemptions can never exceed the limit. Returns 1 if redeemed, 0 otherwise.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.usedCount = COALESCE(c.usedCount, 0) + 1, c.version = c.version + 1 " +
+           "WHERE c.id = :id AND c.isActive = true AND c.validFrom <= :now AND c.validUntil >= :now " +
+           "AND (c.usageLimit IS NULL OR COALESCE(c.usedCount, 0) < c.usageLimit)")
+    int incrementUsageIfAvailable(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    /**
+     * Deactivate a coupon once its usage limit is reached. Returns 1 if it was deactivated.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.isActive = false, c.version = c.version + 1 " +
+           "WHERE c.id = :id AND c.isActive = true AND c.usageLimit IS NOT NULL AND c.usedCount >= c.usageLimit")
+    int deactivateIfExhausted(@Param("id") Long id);
+    
     /**
      * Find active coupons - O(log n) with index
      */
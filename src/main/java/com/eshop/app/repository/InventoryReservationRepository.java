@@ -0,0 +1,128 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.InventoryReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
+
+    @Query("SELECT r.orderId AS orderId, MIN(r.expiresAt) AS expiresAt FROM InventoryReservation r " +
+           "WHERE r.status = :status GROUP BY r.orderId")
+    List<PendingOrder> findAllPendingOrders(@Param("status") InventoryReservation.Status status);
+
+    /**
+     * Earliest expiry of each order with active reservations created at or after
+     * {@code since}; the timing wheel schedules one entry per order.
+     */
+    @Query("SELECT r.orderId AS orderId, MIN(r.expiresAt) AS expiresAt FROM InventoryReservation r " +
+           "WHERE r.status = :status AND r.createdAt >= :since GROUP BY r.orderId")
+    List<PendingOrder> findPendingOrders(@Param("status") InventoryReservation.Status status,
+                                         @Param("since") LocalDateTime since);
+
+    /**
+     * Confirms the active reservations of a paid order: the held warehouse units
+     * leave both {@code quantity} and {@code reserved_quantity}, so availability
+     * does not change. Returns the number of warehouse rows updated.
+     */
+    @Modifying
+    @Query(value = """
+            WITH confirmed AS (
+                UPDATE inventory_reservations SET status = 'CONFIRMED', updated_at = CURRENT_TIMESTAMP,
+                       version = COALESCE(version, 0) + 1
+                WHERE order_id = :orderId AND status = 'ACTIVE'
+                RETURNING product_id, warehouse_id, quantity
+            )
+            UPDATE product_inventory pi
+            SET quantity = pi.quantity - c.quantity, reserved_quantity = pi.reserved_quantity - c.quantity,
+                version = COALESCE(pi.version, 0) + 1, updated_at = CURRENT_TIMESTAMP
+            FROM (SELECT product_id, warehouse_id, SUM(quantity) AS quantity FROM confirmed
+                  WHERE warehouse_id IS NOT NULL GROUP BY product_id, warehouse_id) c
+            WHERE pi.product_id = c.product_id AND pi.warehouse_id = c.warehouse_id
+            """, nativeQuery = true)
+    int confirmOrder(@Param("orderId") Long orderId);
+
+    /**
+     * Releases the expired active reservations of the given orders in one
+     * statement: marks them released, returns the units to the warehouse rows and
+     * to {@code products.stock_quantity}, and cancels the orders. Only orders still
+     * placed and awaiting payment, or already cancelled, are released; the reservations of orders that
+     * moved on (confirmed, shipped) keep their stock until they are confirmed.
+     * Rows confirmed or extended since they were scheduled are left untouched.
+     * Returns the number of orders cancelled.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH released AS (
+                UPDATE inventory_reservations ir SET status = 'RELEASED', updated_at = CURRENT_TIMESTAMP,
+                       version = COALESCE(ir.version, 0) + 1
+                FROM orders o
+                WHERE ir.order_id IN (:orderIds) AND ir.status = 'ACTIVE' AND ir.expires_at <= :now
+                  AND o.id = ir.order_id
+                  AND (o.order_status = 'PLACED' AND o.payment_status = 'PENDING' OR o.order_status = 'CANCELLED')
+                RETURNING ir.order_id, ir.product_id, ir.warehouse_id, ir.quantity
+            ), warehouse_stock AS (
+                UPDATE product_inventory pi
+                SET reserved_quantity = pi.reserved_quantity - r.quantity,
+                    version = COALESCE(pi.version, 0) + 1, updated_at = CURRENT_TIMESTAMP
+                FROM (SELECT product_id, warehouse_id, SUM(quantity) AS quantity FROM released
+                      WHERE warehouse_id IS NOT NULL GROUP BY product_id, warehouse_id) r
+                WHERE pi.product_id = r.product_id AND pi.warehouse_id = r.warehouse_id
+                RETURNING pi.id
+            ), product_stock AS (
+                UPDATE products p
+                SET stock_quantity = COALESCE(p.stock_quantity, 0) + r.quantity, version = COALESCE(p.version, 0) + 1
+                FROM (SELECT product_id, SUM(quantity) AS quantity FROM released GROUP BY product_id) r
+                WHERE p.id = r.product_id
+                RETURNING p.id
+            )
+            UPDATE orders o
+            SET order_status = 'CANCELLED', version = COALESCE(o.version, 0) + 1, updated_at = CURRENT_TIMESTAMP
+            FROM (SELECT DISTINCT order_id FROM released) r
+            WHERE o.id = r.order_id AND o.order_status = 'PLACED' AND o.payment_status = 'PENDING'
+            """, nativeQuery = true)
+    int releaseExpired(@Param("orderIds") Collection<Long> orderIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Releases the active reservations of a cancelled order, whatever their expiry:
+     * marks them released and returns the units to the warehouse rows and to
+     * {@code products.stock_quantity}. Returns the number of products restocked.
+     */
+    @Modifying
+    @Query(value = """
+            WITH released AS (
+                UPDATE inventory_reservations SET status = 'RELEASED', updated_at = CURRENT_TIMESTAMP,
+                       version = COALESCE(version, 0) + 1
+                WHERE order_id = :orderId AND status = 'ACTIVE'
+                RETURNING product_id, warehouse_id, quantity
+            ), warehouse_stock AS (
+                UPDATE product_inventory pi
+                SET reserved_quantity = pi.reserved_quantity - r.quantity,
+                    version = COALESCE(pi.version, 0) + 1, updated_at = CURRENT_TIMESTAMP
+                FROM (SELECT product_id, warehouse_id, SUM(quantity) AS quantity FROM released
+                      WHERE warehouse_id IS NOT NULL GROUP BY product_id, warehouse_id) r
+                WHERE pi.product_id = r.product_id AND pi.warehouse_id = r.warehouse_id
+                RETURNING pi.id
+            )
+            UPDATE products p
+            SET stock_quantity = COALESCE(p.stock_quantity, 0) + r.quantity, version = COALESCE(p.version, 0) + 1
+            FROM (SELECT product_id, SUM(quantity) AS quantity FROM released GROUP BY product_id) r
+            WHERE p.id = r.product_id
+            """, nativeQuery = true)
+    int releaseOrder(@Param("orderId") Long orderId);
+
+    interface PendingOrder {
+        Long getOrderId();
+
+        LocalDateTime getExpiresAt();
+    }
+}
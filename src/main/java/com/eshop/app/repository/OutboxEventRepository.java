@@ -0,0 +1,57 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest undelivered events that are due. Rows locked by another
+     * relay are skipped, so several nodes can drain the outbox side by side.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_events
+            WHERE published_at IS NULL AND dead_at IS NULL
+              AND (next_attempt_at IS NULL OR next_attempt_at <= :now)
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockPending(@Param("limit") int limit, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET published_at = :now WHERE id IN (:ids)", nativeQuery = true)
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Records a failed delivery and when to try again; once {@code maxAttempts} is
+     * reached the event is dead-lettered so it no longer holds up the relay.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE outbox_events
+            SET attempts = attempts + 1, last_error = :error, next_attempt_at = :nextAttemptAt,
+                dead_at = CASE WHEN attempts + 1 >= :maxAttempts THEN :now ELSE NULL END
+            WHERE id = :id
+            """, nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("error") String error, @Param("maxAttempts") int maxAttempts,
+                   @Param("now") LocalDateTime now, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Purges delivered events only; dead letters stay until handled by hand.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE published_at < :cutoff", nativeQuery = true)
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,85 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.PaymentWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+
+    /**
+     * Stores a delivery unless the same gateway event is already stored.
+     * Returns 1 if inserted, 0 for a duplicate.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO payment_webhook_inbox (gateway, event_id, event_type, reference, payload, status, attempts,
+                                               next_attempt_at, created_at, version)
+            VALUES (:gateway, :eventId, :eventType, :reference, :payload, 'RECEIVED', 0,
+                    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)
+            ON CONFLICT (gateway, event_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("gateway") String gateway,
+                       @Param("eventId") String eventId,
+                       @Param("eventType") String eventType,
+                       @Param("reference") String reference,
+                       @Param("payload") String payload);
+
+    /**
+     * Due events in arrival order. An event is held back while an earlier event of
+     * the same reference is waiting for a retry, so each reference is applied in order.
+     */
+    @Query(value = """
+            SELECT w.* FROM payment_webhook_inbox w
+            WHERE w.status = 'RECEIVED' AND w.next_attempt_at <= :now
+              AND NOT EXISTS (
+                  SELECT 1 FROM payment_webhook_inbox e
+                  WHERE e.gateway = w.gateway AND e.reference = w.reference
+                    AND e.status = 'RECEIVED' AND e.id < w.id AND e.next_attempt_at > :now)
+            ORDER BY w.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<PaymentWebhookEvent> findDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            UPDATE payment_webhook_inbox
+            SET status = 'PROCESSED', attempts = attempts + 1, processed_at = :now, last_error = NULL,
+                updated_at = CURRENT_TIMESTAMP, version = COALESCE(version, 0) + 1
+            WHERE id = :id
+            """, nativeQuery = true)
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Records a failed attempt: the event is retried at {@code nextAttemptAt}, or
+     * parked as {@code FAILED} once {@code maxAttempts} is reached.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE payment_webhook_inbox
+            SET attempts = attempts + 1,
+                status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'RECEIVED' END,
+                next_attempt_at = :nextAttemptAt, last_error = :error,
+                updated_at = CURRENT_TIMESTAMP, version = COALESCE(version, 0) + 1
+            WHERE id = :id
+            """, nativeQuery = true)
+    int markFailed(@Param("id") Long id,
+                   @Param("maxAttempts") int maxAttempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM payment_webhook_inbox WHERE status = 'PROCESSED' AND processed_at < :cutoff",
+           nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,9 +2,11 @@ package com.eshop.app.repository;
 
 import com.eshop.app.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,4 +24,24 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     Optional<ProductImage> findPrimaryImageByProductId(@Param("productId") Long productId);
     
     boolean existsByProductIdAndIsPrimaryTrueAndActiveTrue(Long productId);
+
+    /**
+     * Finds an active image whose stored object can be reused for an identical upload.
+     */
+    Optional<ProductImage> findFirstByContentHashAndProviderAndActiveTrue(String contentHash, String provider);
+
+    long countByPublicIdAndActiveTrue(String publicId);
+
+    /**
+     * Sets the thumbnail on every active image sharing the given content in one
+     * storage backend once background derivative generation has finished.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE ProductImage pi SET pi.thumbnailUrl = :thumbnailUrl
+            WHERE pi.contentHash = :contentHash AND pi.provider = :provider AND pi.active = true
+            """)
+    int updateThumbnailUrlByContentHash(@Param("contentHash") String contentHash, @Param("provider") String provider,
+                                        @Param("thumbnailUrl") String thumbnailUrl);
 }
\ No newline at end of file
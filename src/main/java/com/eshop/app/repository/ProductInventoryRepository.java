@@ -0,0 +1,21 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.ProductInventory;
+import com.eshop.app.repository.projection.WarehouseStockProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductInventoryRepository extends JpaRepository<ProductInventory, Long> {
+
+    /**
+     * Stock levels of every product in every active warehouse, without loading entities.
+     */
+    @Query("SELECT pi.product.id AS productId, pi.warehouse.id AS warehouseId, " +
+           "pi.quantity AS quantity, pi.reservedQuantity AS reservedQuantity " +
+           "FROM ProductInventory pi WHERE pi.warehouse.active = true")
+    List<WarehouseStockProjection> findActiveStockLevels();
+}
@@ -0,0 +1,63 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.ProductPriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductPriceHistoryRepository extends JpaRepository<ProductPriceHistory, Long> {
+
+    /**
+     * Price changes of one product since {@code from}, one row per day that had
+     * changes, oldest first.
+     */
+    @Query(value = """
+            SELECT CAST(date_trunc('day', changed_at) AS date) AS day,
+                   MIN(new_price) AS minPrice,
+                   MAX(new_price) AS maxPrice,
+                   (array_agg(new_price ORDER BY changed_at DESC, id DESC))[1] AS lastPrice,
+                   (array_agg(old_price ORDER BY changed_at, id))[1] AS openingPrice,
+                   COUNT(*) AS changes
+            FROM product_price_history
+            WHERE product_id = :productId AND changed_at >= :from AND new_price IS NOT NULL
+            GROUP BY 1
+            ORDER BY 1
+            """, nativeQuery = true)
+    List<DailyPrice> findDailyPrices(@Param("productId") Long productId, @Param("from") LocalDateTime from);
+
+    /**
+     * Price in effect at {@code before}, if the product changed price earlier.
+     */
+    @Query(value = """
+            SELECT new_price FROM product_price_history
+            WHERE product_id = :productId AND changed_at < :before AND new_price IS NOT NULL
+            ORDER BY changed_at DESC, id DESC
+            LIMIT 1
+            """, nativeQuery = true)
+    Optional<BigDecimal> findPriceBefore(@Param("productId") Long productId, @Param("before") LocalDateTime before);
+
+    @Query(value = "SELECT price FROM products WHERE id = :productId AND deleted = false", nativeQuery = true)
+    Optional<BigDecimal> findCurrentPrice(@Param("productId") Long productId);
+
+    interface DailyPrice {
+        LocalDate getDay();
+
+        BigDecimal getMinPrice();
+
+        BigDecimal getMaxPrice();
+
+        BigDecimal getLastPrice();
+
+        BigDecimal getOpeningPrice();
+
+        Long getChanges();
+    }
+}
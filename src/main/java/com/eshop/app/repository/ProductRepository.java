@@ -50,6 +50,38 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
      */
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.deleted = false AND p.status = com.eshop.app.entity.enums.ProductStatus.ACTIVE")
     Page<ProductSummaryProjection> findSummariesByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    /**
+     * Find product summaries in a category and all of its descendants.
+     * Descendants come from one primary-key range scan on the category closure table,
+     * each joined to products through idx_product_category_status. A subcategory is
+     * left out when it, or a category between it and {@code categoryId}, is inactive.
+     */
+    @Query(value = """
+        SELECT p FROM Product p
+        WHERE p.category.id IN (
+            SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId
+            AND NOT EXISTS (
+                SELECT 1 FROM CategoryClosure up, Category c
+                WHERE up.descendantId = cc.descendantId AND up.depth < cc.depth
+                AND c.id = up.ancestorId AND c.active = false
+            )
+        )
+        AND p.deleted = false AND p.status = com.eshop.app.entity.enums.ProductStatus.ACTIVE
+        """,
+        countQuery = """
+        SELECT COUNT(p) FROM Product p
+        WHERE p.category.id IN (
+            SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId
+            AND NOT EXISTS (
+                SELECT 1 FROM CategoryClosure up, Category c
+                WHERE up.descendantId = cc.descendantId AND up.depth < cc.depth
+                AND c.id = up.ancestorId AND c.active = false
+            )
+        )
+        AND p.deleted = false AND p.status = com.eshop.app.entity.enums.ProductStatus.ACTIVE
+        """)
+    Page<ProductSummaryProjection> findSummariesByCategorySubtree(@Param("categoryId") Long categoryId, Pageable pageable);
     
     /**
      * Find product detail by ID using DTO projection.
@@ -200,6 +232,12 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
        long countByStockQuantity(int stockQuantity);
        long countByStockQuantityLessThan(int stockQuantity);
 
+       /**
+        * Products below their reorder level, or below {@code defaultThreshold} when they have none.
+        */
+       @Query("SELECT COUNT(p) FROM Product p WHERE p.stockQuantity < COALESCE(p.reorderLevel, :defaultThreshold)")
+       long countLowStock(@Param("defaultThreshold") int defaultThreshold);
+
        @Query("SELECT COALESCE(SUM(p.stockQuantity),0) FROM Product p")
        Long sumStockQuantity();
 
@@ -287,6 +325,107 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
            nativeQuery = true)
     Page<Product> fullTextSearch(@Param("query") String query, Pageable pageable);
 
+    /**
+     * Stock position of every tracked product with its seller and the units sold
+     * since {@code since}; feeds the in-memory low-stock detector.
+     */
+    @Query(value = """
+            SELECT p.id AS productId, s.seller_id AS sellerId, COALESCE(p.stock_quantity, 0) AS stockQuantity,
+                   p.reorder_level AS reorderLevel, p.reorder_quantity AS reorderQuantity,
+                   COALESCE(sold.units, 0) AS unitsSold, sold.last_sold_at AS lastSoldAt
+            FROM products p
+            JOIN stores s ON s.id = p.store_id
+            LEFT JOIN (
+                SELECT oi.product_id, SUM(oi.quantity) AS units, MAX(o.created_at) AS last_sold_at
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                WHERE o.created_at >= :since AND o.order_status <> 'CANCELLED'
+                GROUP BY oi.product_id
+            ) sold ON sold.product_id = p.id
+            WHERE p.deleted = false AND p.track_inventory = true
+            """, nativeQuery = true)
+    List<StockPosition> findStockPositions(@Param("since") LocalDateTime since);
+
+    @Query(value = """
+            SELECT p.id AS productId, s.seller_id AS sellerId, COALESCE(p.stock_quantity, 0) AS stockQuantity,
+                   p.reorder_level AS reorderLevel, p.reorder_quantity AS reorderQuantity,
+                   COALESCE(sold.units, 0) AS unitsSold, sold.last_sold_at AS lastSoldAt
+            FROM products p
+            JOIN stores s ON s.id = p.store_id
+            LEFT JOIN (
+                SELECT oi.product_id, SUM(oi.quantity) AS units, MAX(o.created_at) AS last_sold_at
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                WHERE oi.product_id = :productId AND o.created_at >= :since AND o.order_status <> 'CANCELLED'
+                GROUP BY oi.product_id
+            ) sold ON sold.product_id = p.id
+            WHERE p.id = :productId AND p.deleted = false AND p.track_inventory = true
+            """, nativeQuery = true)
+    Optional<StockPosition> findStockPosition(@Param("productId") Long productId, @Param("since") LocalDateTime since);
+
+    /**
+     * Current prices of the products matched by a repricing rule; a category
+     * includes its subcategories. Null filters match everything.
+     */
+    @Query(value = """
+            SELECT p.id AS productId, p.price AS price, p.discount_price AS discountPrice
+            FROM products p
+            JOIN stores s ON s.id = p.store_id
+            WHERE p.deleted = false
+              AND (CAST(:sellerId AS BIGINT) IS NULL OR s.seller_id = :sellerId)
+              AND (CAST(:brandId AS BIGINT) IS NULL OR p.brand_id = :brandId)
+              AND (CAST(:categoryId AS BIGINT) IS NULL OR p.category_id IN (
+                    SELECT c.descendant_id FROM category_closure c WHERE c.ancestor_id = :categoryId))
+            ORDER BY p.id
+            """, nativeQuery = true)
+    List<PricePosition> findPricePositions(@Param("sellerId") Long sellerId,
+                                           @Param("brandId") Long brandId,
+                                           @Param("categoryId") Long categoryId);
+
+    /**
+     * {@link #findPricePositions} restricted to the given products.
+     */
+    @Query(value = """
+            SELECT p.id AS productId, p.price AS price, p.discount_price AS discountPrice
+            FROM products p
+            JOIN stores s ON s.id = p.store_id
+            WHERE p.deleted = false
+              AND p.id IN (:productIds)
+              AND (CAST(:sellerId AS BIGINT) IS NULL OR s.seller_id = :sellerId)
+              AND (CAST(:brandId AS BIGINT) IS NULL OR p.brand_id = :brandId)
+              AND (CAST(:categoryId AS BIGINT) IS NULL OR p.category_id IN (
+                    SELECT c.descendant_id FROM category_closure c WHERE c.ancestor_id = :categoryId))
+            ORDER BY p.id
+            """, nativeQuery = true)
+    List<PricePosition> findPricePositionsIn(@Param("productIds") Set<Long> productIds,
+                                             @Param("sellerId") Long sellerId,
+                                             @Param("brandId") Long brandId,
+                                             @Param("categoryId") Long categoryId);
+
+    interface PricePosition {
+        Long getProductId();
+
+        BigDecimal getPrice();
+
+        BigDecimal getDiscountPrice();
+    }
+
+    interface StockPosition {
+        Long getProductId();
+
+        Long getSellerId();
+
+        Integer getStockQuantity();
+
+        Integer getReorderLevel();
+
+        Integer getReorderQuantity();
+
+        Long getUnitsSold();
+
+        LocalDateTime getLastSoldAt();
+    }
+
 
 
 
@@ -0,0 +1,19 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.ShippingRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ShippingRateRepository extends JpaRepository<ShippingRate, Long> {
+
+    /**
+     * Active rate rows for the in-memory rate card. Zone, warehouse and class are
+     * only read by id, so their lazy proxies are never initialized.
+     */
+    @Query("SELECT r FROM ShippingRate r WHERE r.active = true ORDER BY r.method, r.minWeightKg")
+    List<ShippingRate> findActiveForRateCard();
+}
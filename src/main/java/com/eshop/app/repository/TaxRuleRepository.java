@@ -3,6 +3,7 @@ package com.eshop.app.repository;
 import com.eshop.app.entity.TaxClass;
 import com.eshop.app.entity.TaxRule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +12,8 @@ import java.util.List;
 public interface TaxRuleRepository extends JpaRepository<TaxRule, Long> {
     List<TaxRule> findByTaxClass(TaxClass taxClass);
     List<TaxRule> findByTaxClassAndActiveTrueOrderByPriorityAsc(TaxClass taxClass);
+    
+    @Query("SELECT r FROM TaxRule r JOIN FETCH r.taxRate tr " +
+           "WHERE r.active = true AND tr.active = true ORDER BY r.priority ASC, r.id ASC")
+    List<TaxRule> findActiveWithRates();
 }
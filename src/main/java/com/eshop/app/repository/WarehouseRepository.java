@@ -0,0 +1,13 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+
+    List<Warehouse> findByActiveTrueOrderByPriorityAscIdAsc();
+}
@@ -0,0 +1,8 @@
+package com.eshop.app.repository.projection;
+
+public interface WarehouseStockProjection {
+    Long getProductId();
+    Long getWarehouseId();
+    Integer getQuantity();
+    Integer getReservedQuantity();
+}
@@ -0,0 +1,190 @@
+package com.eshop.app.scheduler;
+
+import com.eshop.app.entity.InventoryReservation;
+import com.eshop.app.repository.InventoryReservationRepository;
+import com.eshop.app.service.InventoryAllocationService;
+import com.eshop.app.service.inventory.HierarchicalTimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Releases inventory reservations whose payment did not complete in time.
+ *
+ * <p>Pending orders are kept in a {@link HierarchicalTimingWheel} keyed by order
+ * id, so each sweep touches only the orders that are due instead of scanning the
+ * reservation table. The wheel is rebuilt from the database on startup and every
+ * resync interval, and new reservations are picked up incrementally by creation
+ * time (with a lookback that covers transactions still committing).
+ *
+ * <p>The sweep runs under a ShedLock lock, so only one node releases at a time.
+ * Due orders are released in chunks of {@code release-batch-size}, one set-based
+ * statement per chunk; 100k expired orders are about twenty statements. The
+ * statement re-checks status and expiry, so orders confirmed in the meantime
+ * or already released by another node are skipped.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.inventory.reservation.payment-window=PT30M
+ * app.inventory.reservation.sweep-interval=PT1S
+ * app.inventory.reservation.release-batch-size=5000
+ * app.inventory.reservation.sync-lookback=PT2M
+ * app.inventory.reservation.resync-interval=PT15M
+ * </pre>
+ */
+@Slf4j
+@Component
+public class ReservationExpiryScheduler {
+
+    private static final long TICK_MILLIS = 1000L;
+
+    private final InventoryReservationRepository reservationRepository;
+    private final InventoryAllocationService inventoryAllocationService;
+    private final int batchSize;
+    private final Duration syncLookback;
+    private final Duration resyncInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Long> scheduled = new HashSet<>();
+    private HierarchicalTimingWheel wheel;
+    private LocalDateTime syncedAt;
+    private LocalDateTime rebuiltAt;
+
+    public ReservationExpiryScheduler(InventoryReservationRepository reservationRepository,
+                                      InventoryAllocationService inventoryAllocationService,
+                                      @Value("${app.inventory.reservation.release-batch-size:5000}") int batchSize,
+                                      @Value("${app.inventory.reservation.sync-lookback:PT2M}") Duration syncLookback,
+                                      @Value("${app.inventory.reservation.resync-interval:PT15M}") Duration resyncInterval) {
+        this.reservationRepository = reservationRepository;
+        this.inventoryAllocationService = inventoryAllocationService;
+        this.batchSize = Math.max(1, batchSize);
+        this.syncLookback = syncLookback;
+        this.resyncInterval = resyncInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        lock.lock();
+        try {
+            rebuild(LocalDateTime.now());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.reservation.sweep-interval:PT1S}")
+    @SchedulerLock(name = "reservationExpirySweep", lockAtMostFor = "PT5M")
+    public void sweep() {
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // A node that has not swept for a while (another node held the lock) starts over
+            if (wheel == null || rebuiltAt.plus(resyncInterval).isBefore(now)) {
+                rebuild(now);
+            } else {
+                sync(now);
+            }
+
+            long[] due = wheel.advance(toMillis(now));
+            if (due.length == 0) {
+                return;
+            }
+            for (long orderId : due) {
+                scheduled.remove(orderId);
+            }
+            release(due, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a confirmed or released order off the wheel, so the sweep does not
+     * issue a release that would find nothing to do.
+     */
+    public void cancel(long orderId) {
+        lock.lock();
+        try {
+            if (scheduled.remove(orderId)) {
+                wheel.cancel(orderId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuild(LocalDateTime now) {
+        long start = System.nanoTime();
+        HierarchicalTimingWheel fresh = new HierarchicalTimingWheel(TICK_MILLIS, toMillis(now));
+        scheduled.clear();
+        List<InventoryReservationRepository.PendingOrder> pending =
+                reservationRepository.findAllPendingOrders(InventoryReservation.Status.ACTIVE);
+        for (InventoryReservationRepository.PendingOrder order : pending) {
+            scheduled.add(order.getOrderId());
+            fresh.schedule(order.getOrderId(), toMillis(order.getExpiresAt()));
+        }
+        wheel = fresh;
+        syncedAt = now;
+        rebuiltAt = now;
+        log.info("Rebuilt reservation expiry wheel with {} pending orders in {} ms",
+                pending.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void sync(LocalDateTime now) {
+        List<InventoryReservationRepository.PendingOrder> pending = reservationRepository.findPendingOrders(
+                InventoryReservation.Status.ACTIVE, syncedAt.minus(syncLookback));
+        for (InventoryReservationRepository.PendingOrder order : pending) {
+            if (scheduled.add(order.getOrderId())) {
+                wheel.schedule(order.getOrderId(), toMillis(order.getExpiresAt()));
+            }
+        }
+        syncedAt = now;
+    }
+
+    private void release(long[] orderIds, LocalDateTime now) {
+        long start = System.nanoTime();
+        int cancelled = 0;
+        int failed = 0;
+        for (int from = 0; from < orderIds.length; from += batchSize) {
+            int to = Math.min(orderIds.length, from + batchSize);
+            List<Long> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(orderIds[i]);
+            }
+            try {
+                cancelled += reservationRepository.releaseExpired(chunk, now);
+            } catch (DataAccessException e) {
+                // Retried on the next sweep
+                for (Long orderId : chunk) {
+                    scheduled.add(orderId);
+                    wheel.schedule(orderId, toMillis(now));
+                }
+                failed += chunk.size();
+                log.warn("Failed to release {} expired reservations, will retry: {}", chunk.size(), e.getMessage());
+            }
+        }
+        log.info("Released expired reservations of {} orders ({} cancelled, {} failed) in {} ms",
+                orderIds.length - failed, cancelled, failed, (System.nanoTime() - start) / 1_000_000);
+        if (failed < orderIds.length) {
+            inventoryAllocationService.refresh();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,11 +1,14 @@
 package com.eshop.app.seed.service;
 
 import com.eshop.app.entity.Category;
+import com.eshop.app.event.CategoryChangedEvent;
+import com.eshop.app.service.CategoryClosureService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,6 +49,9 @@ public class CategoryPersistenceService {
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryClosureService categoryClosureService;
+
     @Value("${app.seeding.categories.batch-size:50}")
     private int batchSize;
 
@@ -87,6 +93,9 @@ public class CategoryPersistenceService {
 
         // Final flush for remaining entities
         flushAndClear();
+        // Parents were persisted before children, so one set-based pass covers the whole import
+        categoryClosureService.rebuild();
+        eventPublisher.publishEvent(new CategoryChangedEvent(this, null));
 
         long duration = System.currentTimeMillis() - startTime;
         log.info("Persisted {} categories in {}ms (~{} ms/category)",
@@ -1,12 +1,16 @@
 package com.eshop.app.service;
 
 import com.eshop.app.dto.response.AdminDashboardResponse;
+import com.eshop.app.service.concurrency.FanOut;
+import com.eshop.app.service.concurrency.FanOuts;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -19,18 +23,27 @@ public class AdminDashboardService {
     private final com.eshop.app.service.ActivityService activityService;
     private final java.util.concurrent.Executor dashboardExecutor;
     private final com.eshop.app.service.analytics.AdminAggregationService adminAggregationService;
+    private final FanOuts fanOuts;
+
+    @Value("${app.dashboard.fan-out-deadline:PT10S}")
+    private Duration fanOutDeadline = Duration.ofSeconds(10);
 
     @Cacheable(value = "adminDashboard", key = "'overview'")
     public AdminDashboardResponse getDashboard() {
         long start = System.currentTimeMillis();
-        try {
-                AdminDashboardResponse.OverviewStats overview = adminAggregationService.getOverviewStats();
-                AdminDashboardResponse.UserStats userStats = adminAggregationService.getUserStats();
+        try (FanOut fanOut = fanOuts.open("admin-dashboard", fanOutDeadline)) {
+                FanOut.Subtask<AdminDashboardResponse.OverviewStats> overview = fanOut.fork("overview",
+                        adminAggregationService::getOverviewStats, AdminDashboardResponse.OverviewStats.builder().build());
+                FanOut.Subtask<AdminDashboardResponse.UserStats> userStats = fanOut.fork("user-stats",
+                        adminAggregationService::getUserStats, AdminDashboardResponse.UserStats.builder().build());
+                FanOut.Subtask<List<AdminDashboardResponse.ActivityItem>> recentActivities = fanOut.fork("recent-activities",
+                        () -> activityService.getRecentActivities(10), List.of());
+                fanOut.join();
 
                 AdminDashboardResponse response = AdminDashboardResponse.builder()
-                    .overview(overview)
-                    .userStats(userStats)
-                    .recentActivities(activityService.getRecentActivities(10))
+                    .overview(overview.get())
+                    .userStats(userStats.get())
+                    .recentActivities(recentActivities.get())
                     .systemHealth(AdminDashboardResponse.SystemHealth.builder().status(AdminDashboardResponse.HealthStatus.HEALTHY).build())
                     .role("ADMIN")
                     .timestamp(Instant.now())
@@ -0,0 +1,130 @@
+package com.eshop.app.service;
+
+import com.eshop.app.entity.Category;
+import com.eshop.app.repository.CategoryClosureRepository;
+import com.eshop.app.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps the {@code category_closure} table in step with {@code categories.parent_id}.
+ *
+ * <p>Every method joins the caller's transaction, so closure rows commit or roll
+ * back together with the category write that caused them. Category writers must
+ * call the matching method after the category row has been flushed:
+ * <ul>
+ *   <li>{@link #link(Category)} after a category is created</li>
+ *   <li>{@link #move(Long, Long)} when its parent changes</li>
+ *   <li>{@link #unlink(Long)} before it is hard-deleted</li>
+ *   <li>{@link #rebuild()} after bulk imports</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class CategoryClosureService {
+
+    private static final String REBUILD_LOCK = "categoryClosureRebuild";
+
+    private final CategoryClosureRepository closureRepository;
+    private final CategoryRepository categoryRepository;
+    private final LockProvider lockProvider;
+    private final TransactionTemplate transactionTemplate;
+
+    public CategoryClosureService(CategoryClosureRepository closureRepository,
+                                  CategoryRepository categoryRepository,
+                                  LockProvider lockProvider,
+                                  PlatformTransactionManager transactionManager) {
+        this.closureRepository = closureRepository;
+        this.categoryRepository = categoryRepository;
+        this.lockProvider = lockProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Backfills the table when it was created empty by Hibernate DDL (dev profiles
+     * without Flyway) or has fewer self pairs than there are categories.
+     *
+     * <p>Nodes starting together would otherwise rebuild side by side and fail on
+     * each other's rows, so the check runs under a ShedLock lock held until the
+     * rebuild has committed. A node that does not get the lock skips the check;
+     * the node holding it brings the table in sync.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void ensureInitialized() {
+        Optional<SimpleLock> lock = lockProvider.lock(
+                new LockConfiguration(Instant.now(), REBUILD_LOCK, Duration.ofMinutes(10), Duration.ZERO));
+        if (lock.isEmpty()) {
+            log.debug("Category closure check already running on another node");
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long categories = categoryRepository.count();
+                long selfPairs = closureRepository.countByDepth(0);
+                if (selfPairs != categories) {
+                    log.info("Category closure out of sync ({} self pairs for {} categories), rebuilding",
+                            selfPairs, categories);
+                    rebuild();
+                }
+            });
+        } finally {
+            lock.get().unlock();
+        }
+    }
+
+    public void link(Category category) {
+        closureRepository.insertSelf(category.getId());
+        if (category.getParent() != null) {
+            closureRepository.attachSubtree(category.getId(), category.getParent().getId());
+        }
+    }
+
+    /**
+     * Re-parents the subtree rooted at {@code id}; {@code newParentId == null} makes it a root.
+     */
+    public void move(Long id, Long newParentId) {
+        if (!closureRepository.existsByAncestorIdAndDescendantId(id, id)) {
+            // Category predates the closure table or was written outside this service
+            rebuild();
+            return;
+        }
+        int detached = closureRepository.detachSubtree(id);
+        int attached = newParentId != null ? closureRepository.attachSubtree(id, newParentId) : 0;
+        log.debug("Moved category {} under {}: {} links removed, {} added", id, newParentId, detached, attached);
+    }
+
+    public void unlink(Long id) {
+        closureRepository.deleteNode(id);
+    }
+
+    /**
+     * {@code true} if {@code ancestorId} is {@code descendantId} or one of its ancestors.
+     */
+    @Transactional(readOnly = true)
+    public boolean isAncestorOrSelf(Long ancestorId, Long descendantId) {
+        return closureRepository.existsByAncestorIdAndDescendantId(ancestorId, descendantId);
+    }
+
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        closureRepository.deleteAllRows();
+        int rows = closureRepository.insertFromParentLinks();
+        log.info("Rebuilt category closure: {} rows in {}ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+}
@@ -5,11 +5,13 @@ import com.eshop.app.dto.request.ReviewRequest;
 import com.eshop.app.entity.CategoryRequest;
 import com.eshop.app.entity.RequestStatus;
 import com.eshop.app.entity.User;
+import com.eshop.app.event.CategoryChangedEvent;
 import com.eshop.app.exception.ResourceNotFoundException;
 import com.eshop.app.repository.CategoryRepository;
 import com.eshop.app.repository.CategoryRequestRepository;
 import com.eshop.app.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -23,6 +25,8 @@ public class CategoryRequestService {
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryClosureService categoryClosureService;
 
     public CategoryRequest createRequest(com.eshop.app.dto.request.CategoryRequest dto, Long sellerId) {
         if (categoryRepository.existsByNameIgnoreCase(dto.getCategoryName())) {
@@ -72,6 +76,8 @@ public class CategoryRequestService {
             category.setName(request.getCategoryName());
             category.setDescription(request.getDescription());
             categoryRepository.save(category);
+            categoryClosureService.link(category);
+            eventPublisher.publishEvent(new CategoryChangedEvent(this, category.getId()));
             request.setStatus(RequestStatus.APPROVED);
         } else {
             request.setStatus(RequestStatus.REJECTED);
@@ -107,6 +107,12 @@ public interface CouponService {
     List<CouponResponse> getApplicableCoupons(Long userId, BigDecimal orderTotal, 
                                             Long storeId, Long categoryId);
     
+    /**
+     * Evaluate the user's current cart against all active coupon rules in one pass
+     * Returns the applicable coupons with their discount, largest discount first
+     */
+    List<CouponResponse.ValidationResult> evaluateCart(Long userId);
+    
     /**
      * Get global active coupons (not store/category specific)
      */
@@ -1,17 +1,25 @@
 package com.eshop.app.service;
 
 import com.eshop.app.dto.response.CurrencyDTO;
+import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ProductListResponse;
 import com.eshop.app.entity.Currency;
+import com.eshop.app.event.CurrencyRatesChangedEvent;
+import com.eshop.app.exception.ResourceNotFoundException;
 import com.eshop.app.repository.CurrencyRepository;
+import com.eshop.app.service.cache.CurrencyRateTable;
+import com.eshop.app.service.cache.CurrencyRateTableCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,6 +30,8 @@ import java.util.stream.Collectors;
 public class CurrencyService {
     
     private final CurrencyRepository currencyRepository;
+    private final CurrencyRateTableCache currencyRateTableCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     public Currency createCurrency(Currency currency) {
         if (currencyRepository.existsByCode(currency.getCode())) {
@@ -33,7 +43,9 @@ public class CurrencyService {
         }
         
         currency.setLastUpdated(LocalDateTime.now());
-        return currencyRepository.save(currency);
+        Currency saved = currencyRepository.save(currency);
+        publishRatesChanged();
+        return saved;
     }
     
     public Currency updateCurrency(Long id, Currency currency) {
@@ -55,7 +67,9 @@ public class CurrencyService {
             existing.setIsDefault(true);
         }
         
-        return currencyRepository.save(existing);
+        Currency saved = currencyRepository.save(existing);
+        publishRatesChanged();
+        return saved;
     }
     
     @Cacheable("currencies")
@@ -101,7 +115,7 @@ public class CurrencyService {
     // Non-cached methods still return entities for internal use
     public Currency getCurrencyByCode(String code) {
         return currencyRepository.findByCode(code)
-            .orElseThrow(() -> new RuntimeException("Currency not found: " + code));
+            .orElseThrow(() -> new ResourceNotFoundException("Currency", "code", code));
     }
     
     public Currency getDefaultCurrency() {
@@ -136,19 +150,62 @@ public class CurrencyService {
         );
     }
     
+    /**
+     * Converts using the current rate table; no repository access.
+     */
     public BigDecimal convertAmount(BigDecimal amount, String fromCurrency, String toCurrency) {
         if (fromCurrency.equals(toCurrency)) {
             return amount;
         }
-        
-        Currency from = getCurrencyByCode(fromCurrency);
-        Currency to = getCurrencyByCode(toCurrency);
-        
-        // Convert to base currency first, then to target
-        BigDecimal amountInBase = amount.divide(from.getExchangeRate(), 8, RoundingMode.HALF_UP);
-        BigDecimal convertedAmount = amountInBase.multiply(to.getExchangeRate());
-        
-        return convertedAmount.setScale(to.getDecimalPlaces(), RoundingMode.HALF_UP);
+        return rateTableFor(fromCurrency, toCurrency).convert(amount, fromCurrency, toCurrency);
+    }
+    
+    /**
+     * Converts the prices of a whole product listing in one pass with a single
+     * resolved cross-rate. The input page (which may be a cached instance) is not
+     * modified; converted copies of the items are returned.
+     */
+    public PageResponse<ProductListResponse> convertProductPage(PageResponse<ProductListResponse> page,
+                                                                String fromCurrency, String toCurrency) {
+        if (page == null || page.getData() == null || fromCurrency.equals(toCurrency)) {
+            return page;
+        }
+        CurrencyRateTable.Conversion conversion = rateTableFor(fromCurrency, toCurrency).conversion(fromCurrency, toCurrency);
+        List<ProductListResponse> converted = new ArrayList<>(page.getData().size());
+        for (ProductListResponse item : page.getData()) {
+            converted.add(item.toBuilder()
+                .price(conversion.apply(item.getPrice()))
+                .discountPrice(conversion.apply(item.getDiscountPrice()))
+                .build());
+        }
+        return PageResponse.<ProductListResponse>builder()
+            .data(converted)
+            .pagination(page.getPagination())
+            .build();
+    }
+    
+    /**
+     * Converts a product listing priced in the default currency into {@code toCurrency}.
+     */
+    public PageResponse<ProductListResponse> convertProductPage(PageResponse<ProductListResponse> page, String toCurrency) {
+        String baseCode = currencyRateTableCache.table().baseCode();
+        if (baseCode == null) {
+            baseCode = getDefaultCurrency().getCode();
+        }
+        return convertProductPage(page, baseCode, toCurrency);
+    }
+    
+    /**
+     * Current rate table, republished once if a currency was added on another node since it was built.
+     * Throws {@link ResourceNotFoundException} for a code no currency has.
+     */
+    private CurrencyRateTable rateTableFor(String fromCurrency, String toCurrency) {
+        CurrencyRateTable table = currencyRateTableCache.table();
+        if (!table.contains(fromCurrency) || !table.contains(toCurrency)) {
+            getCurrencyByCode(table.contains(fromCurrency) ? toCurrency : fromCurrency);
+            table = currencyRateTableCache.rebuild();
+        }
+        return table;
     }
     
     public String formatAmount(BigDecimal amount, Currency currency) {
@@ -179,6 +236,7 @@ public class CurrencyService {
         currency.setExchangeRate(newRate);
         currency.setLastUpdated(LocalDateTime.now());
         currencyRepository.save(currency);
+        publishRatesChanged();
         log.info("Updated exchange rate for {}: {}", code, newRate);
     }
     
@@ -198,5 +256,10 @@ public class CurrencyService {
         }
         
         currencyRepository.delete(currency);
+        publishRatesChanged();
+    }
+    
+    private void publishRatesChanged() {
+        eventPublisher.publishEvent(new CurrencyRatesChangedEvent(this));
     }
 }
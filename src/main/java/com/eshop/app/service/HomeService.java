@@ -8,14 +8,18 @@ import com.eshop.app.repository.OrderRepository;
 import com.eshop.app.repository.ProductRepository;
 import com.eshop.app.repository.StoreRepository;
 import com.eshop.app.repository.UserRepository;
+import com.eshop.app.service.concurrency.FanOut;
+import com.eshop.app.service.concurrency.FanOuts;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -31,6 +35,10 @@ public class HomeService {
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
     private final OrderRepository orderRepository;
+    private final FanOuts fanOuts;
+
+    @Value("${app.dashboard.fan-out-deadline:PT10S}")
+    private Duration fanOutDeadline = Duration.ofSeconds(10);
 
     @Transactional(readOnly = true)
     public HomeResponse getHomePageData(Authentication authentication) {
@@ -71,14 +79,33 @@ public class HomeService {
     }
 
     private Map<String, Object> getAdminDashboardData(User user) {
-        long totalUsers = userRepository != null ? userRepository.count() : 0L;
-        long totalProducts = productRepository != null ? productRepository.count() : 0L;
-        long totalShops = storeRepository != null ? storeRepository.count() : 0L;
-        long totalOrders = orderRepository != null ? orderRepository.count() : 0L;
-
         LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
         LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
-        long todayOrders = orderRepository != null ? orderRepository.countOrdersBetweenDates(startOfDay, endOfDay) : 0L;
+
+        long totalUsers;
+        long totalProducts;
+        long totalShops;
+        long totalOrders;
+        long todayOrders;
+        try (FanOut fanOut = fanOuts.open("home-admin", fanOutDeadline)) {
+            FanOut.Subtask<Long> users = fanOut.fork("users",
+                    () -> userRepository != null ? userRepository.count() : 0L, 0L);
+            FanOut.Subtask<Long> products = fanOut.fork("products",
+                    () -> productRepository != null ? productRepository.count() : 0L, 0L);
+            FanOut.Subtask<Long> shops = fanOut.fork("shops",
+                    () -> storeRepository != null ? storeRepository.count() : 0L, 0L);
+            FanOut.Subtask<Long> orders = fanOut.fork("orders",
+                    () -> orderRepository != null ? orderRepository.count() : 0L, 0L);
+            FanOut.Subtask<Long> today = fanOut.fork("today-orders",
+                    () -> orderRepository != null ? orderRepository.countOrdersBetweenDates(startOfDay, endOfDay) : 0L, 0L);
+            fanOut.join();
+
+            totalUsers = users.get();
+            totalProducts = products.get();
+            totalShops = shops.get();
+            totalOrders = orders.get();
+            todayOrders = today.get();
+        }
 
         Map<String, Object> data = new HashMap<>();
         data.put("totalUsers", totalUsers);
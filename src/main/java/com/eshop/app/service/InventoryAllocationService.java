@@ -0,0 +1,46 @@
+package com.eshop.app.service;
+
+import com.eshop.app.dto.request.InventoryAllocationRequest;
+import com.eshop.app.dto.response.InventoryAllocationResponse;
+import com.eshop.app.entity.Cart;
+
+/**
+ * Multi-warehouse inventory allocation.
+ *
+ * Orders are split across the warehouses that stock them, using as few
+ * shipments as possible and preferring warehouses near the buyer. Holds reserve
+ * the allocated units for a limited time on the node that took them; an order's
+ * reservation is written to product_inventory with the order.
+ */
+public interface InventoryAllocationService {
+
+    /**
+     * Allocate without reserving anything
+     */
+    InventoryAllocationResponse preview(InventoryAllocationRequest request);
+
+    /**
+     * Allocate and reserve the units until the hold expires, for the current user
+     */
+    InventoryAllocationResponse hold(InventoryAllocationRequest request);
+
+    /**
+     * Release a hold of the current user (any hold for admins) before it expires
+     */
+    void release(String holdId);
+
+    /**
+     * Reserve the warehouse-stocked items of a cart for the current order transaction.
+     * Reuses the given hold when it is still active and belongs to the cart's user. After commit the units stay
+     * reserved as the order's inventory reservations until payment confirms or
+     * expires them.
+     *
+     * @return the allocation, or {@code null} if no cart item is stocked in a warehouse
+     */
+    InventoryAllocationResponse reserveForOrder(Cart cart, String destination, String holdId);
+
+    /**
+     * Re-read stock levels after they were changed outside the allocator
+     */
+    void refresh();
+}
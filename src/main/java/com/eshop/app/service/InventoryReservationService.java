@@ -0,0 +1,120 @@
+package com.eshop.app.service;
+
+import com.eshop.app.dto.response.InventoryAllocationResponse;
+import com.eshop.app.entity.InventoryReservation;
+import com.eshop.app.entity.Order;
+import com.eshop.app.entity.OrderItem;
+import com.eshop.app.repository.InventoryReservationRepository;
+import com.eshop.app.scheduler.ReservationExpiryScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the stock a checkout holds until its payment completes.
+ *
+ * <p>All methods join the caller's transaction, so reservations commit or roll
+ * back with the order (or payment) write that caused them. Units that are still
+ * {@code ACTIVE} after the payment window are released in bulk by
+ * {@link com.eshop.app.scheduler.ReservationExpiryScheduler}.
+ */
+@Slf4j
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class InventoryReservationService {
+
+    private final InventoryReservationRepository reservationRepository;
+    private final ObjectProvider<ReservationExpiryScheduler> expiryScheduler;
+    private final Duration paymentWindow;
+
+    public InventoryReservationService(InventoryReservationRepository reservationRepository,
+                                       ObjectProvider<ReservationExpiryScheduler> expiryScheduler,
+                                       @Value("${app.inventory.reservation.payment-window:PT30M}") Duration paymentWindow) {
+        this.reservationRepository = reservationRepository;
+        this.expiryScheduler = expiryScheduler;
+        this.paymentWindow = paymentWindow;
+    }
+
+    /**
+     * Reserves the items of a saved order: one row per warehouse shipment of the
+     * allocation, and one warehouse-less row for the units not allocated to a
+     * warehouse (products without warehouse stock records).
+     *
+     * @param allocation warehouse allocation of the order, or {@code null} if none of its products is tracked
+     */
+    public void track(Order order, InventoryAllocationResponse allocation) {
+        Map<Long, Integer> unallocated = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            unallocated.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(paymentWindow);
+        List<InventoryReservation> reservations = new ArrayList<>();
+        if (allocation != null && allocation.getShipments() != null) {
+            for (InventoryAllocationResponse.Shipment shipment : allocation.getShipments()) {
+                for (InventoryAllocationResponse.Item item : shipment.getItems()) {
+                    reservations.add(reservation(order.getId(), item.getProductId(), shipment.getWarehouseId(),
+                            item.getQuantity(), expiresAt));
+                    unallocated.computeIfPresent(item.getProductId(),
+                            (productId, quantity) -> quantity > item.getQuantity() ? quantity - item.getQuantity() : null);
+                }
+            }
+        }
+        unallocated.forEach((productId, quantity) ->
+                reservations.add(reservation(order.getId(), productId, null, quantity, expiresAt)));
+
+        reservationRepository.saveAll(reservations);
+        log.debug("Reserved {} lines for order {} until {}", reservations.size(), order.getId(), expiresAt);
+    }
+
+    /**
+     * Confirms the active reservations of a paid order so the expiry sweep leaves
+     * them alone; held warehouse units become shipped units.
+     */
+    public void confirm(Long orderId) {
+        reservationRepository.confirmOrder(orderId);
+        unscheduleAfterCommit(orderId);
+    }
+
+    /**
+     * Releases the active reservations of a cancelled order; the expiry sweep only
+     * handles orders still awaiting payment, so nothing else would return the units.
+     */
+    public void release(Long orderId) {
+        int restocked = reservationRepository.releaseOrder(orderId);
+        log.debug("Released reservations of cancelled order {}: {} products restocked", orderId, restocked);
+        unscheduleAfterCommit(orderId);
+    }
+
+    private void unscheduleAfterCommit(Long orderId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiryScheduler.ifAvailable(scheduler -> scheduler.cancel(orderId));
+            }
+        });
+    }
+
+    private static InventoryReservation reservation(Long orderId, Long productId, Long warehouseId, int quantity,
+                                                    LocalDateTime expiresAt) {
+        return InventoryReservation.builder()
+                .orderId(orderId)
+                .productId(productId)
+                .warehouseId(warehouseId)
+                .quantity(quantity)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
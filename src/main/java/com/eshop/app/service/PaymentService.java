@@ -75,6 +75,7 @@ public interface PaymentService {
     
     /**
      * Handle payment webhook from gateway
+     * Stored in the webhook inbox and applied asynchronously
      */
     void handlePaymentWebhook(String payload, String signature, Payment.PaymentGateway gateway);
     
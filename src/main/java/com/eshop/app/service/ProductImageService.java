@@ -11,6 +11,8 @@ public interface ProductImageService {
     
     ProductImageResponse uploadProductImage(Long productId, org.springframework.web.multipart.MultipartFile file, String altText, Boolean isPrimary);
     
+    List<ProductImageResponse> uploadProductImages(Long productId, List<org.springframework.web.multipart.MultipartFile> files, String altText);
+    
     ProductImageResponse updateProductImage(Long imageId, ProductImageRequest request);
     
     void deleteProductImage(Long imageId);
@@ -159,6 +159,11 @@ public interface ProductService {
 
     long getLowStockCountBySellerId(@NotNull @Positive Long sellerId);
 
+    /**
+     * Restock suggestions for the seller's low-stock products, most urgent first.
+     */
+    List<ReorderSuggestionResponse> getReorderSuggestionsBySellerId(@NotNull @Positive Long sellerId);
+
     List<Map<String, Object>> getProductPerformanceBySellerId(@NotNull @Positive Long sellerId);
 
     default List<TopSellingProductResponse> getTopSellingProductsBySellerId(@NotNull @Positive Long sellerId, @Min(1) @Max(MAX_TOP_PRODUCTS) int limit) {
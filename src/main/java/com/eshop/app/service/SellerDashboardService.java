@@ -1,10 +1,15 @@
 package com.eshop.app.service;
 
 import com.eshop.app.dto.response.SellerDashboardResponse;
+import com.eshop.app.service.concurrency.FanOut;
+import com.eshop.app.service.concurrency.FanOuts;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
@@ -18,21 +23,45 @@ public class SellerDashboardService {
     private final com.eshop.app.service.StoreService storeService;
         private final Executor dashboardExecutor;
         private final com.eshop.app.service.analytics.SellerAggregationService sellerAggregationService;
+        private final FanOuts fanOuts;
+
+    @Value("${app.dashboard.fan-out-deadline:PT10S}")
+    private Duration fanOutDeadline = Duration.ofSeconds(10);
 
     public SellerDashboardResponse getDashboard(Long sellerId) {
-        SellerDashboardResponse.StoreOverview storeOverview = sellerAggregationService.buildStoreOverview(sellerId);
-        SellerDashboardResponse.SalesMetrics sales = sellerAggregationService.buildSalesMetrics(sellerId);
-        SellerDashboardResponse.OrderManagement om = sellerAggregationService.buildOrderManagement(sellerId);
-
-        return SellerDashboardResponse.builder()
-                .storeOverview(storeOverview)
-                .salesMetrics(sales)
-                .orderManagement(om)
-                .topProducts(productService.getTopSellingProductsBySellerId(sellerId, 5))
-                .recentOrders(orderService.getRecentOrdersBySellerId(sellerId, 10))
-                .role("SELLER")
-                .timestamp(Instant.now())
-                .build();
+        try (FanOut fanOut = fanOuts.open("seller-dashboard", fanOutDeadline)) {
+            FanOut.Subtask<SellerDashboardResponse.StoreOverview> storeOverview =
+                    fanOut.fork("store-overview", () -> sellerAggregationService.buildStoreOverview(sellerId),
+                            SellerDashboardResponse.StoreOverview.builder().build());
+            FanOut.Subtask<SellerDashboardResponse.SalesMetrics> sales =
+                    fanOut.fork("sales-metrics", () -> sellerAggregationService.buildSalesMetrics(sellerId),
+                            SellerDashboardResponse.SalesMetrics.builder().build());
+            FanOut.Subtask<SellerDashboardResponse.OrderManagement> om =
+                    fanOut.fork("order-management", () -> sellerAggregationService.buildOrderManagement(sellerId),
+                            SellerDashboardResponse.OrderManagement.builder().build());
+            FanOut.Subtask<List<?>> topProducts =
+                    fanOut.fork("top-products", () -> productService.getTopSellingProductsBySellerId(sellerId, 5), List.of());
+            FanOut.Subtask<List<?>> recentOrders =
+                    fanOut.fork("recent-orders", () -> orderService.getRecentOrdersBySellerId(sellerId, 10), List.of());
+            fanOut.join();
+
+            return SellerDashboardResponse.builder()
+                    .storeOverview(storeOverview.get())
+                    .salesMetrics(sales.get())
+                    .orderManagement(om.get())
+                    .topProducts(topProducts.get())
+                    .recentOrders(recentOrders.get())
+                    .role("SELLER")
+                    .timestamp(Instant.now())
+                    .build();
+        }
+    }
+
+    /**
+     * Low-stock products of the seller with suggested reorder quantities.
+     */
+    public java.util.List<com.eshop.app.dto.response.ReorderSuggestionResponse> getReorderSuggestions(Long sellerId) {
+        return productService.getReorderSuggestionsBySellerId(sellerId);
     }
 
         /**
@@ -3,6 +3,7 @@ package com.eshop.app.service;
 import com.eshop.app.dto.request.ShippingRequest;
 import com.eshop.app.dto.request.TrackingUpdateRequest;
 import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ShippingQuoteResponse;
 import com.eshop.app.dto.response.ShippingResponse;
 import com.eshop.app.entity.Shipping;
 import org.springframework.data.domain.Pageable;
@@ -128,4 +129,20 @@ public interface ShippingService {
      * Get available shipping methods for destination
      */
     List<Object> getAvailableShippingMethods(String destination, BigDecimal weight);
-}
\ No newline at end of file
+    
+    /**
+     * Quote every available shipping method from every active warehouse
+     * 
+     * @param destination Destination as "country[,state[,city[,postalCode]]]"
+     * @param weight Package weight in kg
+     * @param shippingClassId Shipping class (optional)
+     * @return Available quotes, cheapest first
+     */
+    List<ShippingQuoteResponse> quoteShipping(String destination, BigDecimal weight, Long shippingClassId);
+    
+    /**
+     * Quote every available shipping method for the user's cart from every active warehouse.
+     * Items are weighed by billable weight and priced per shipping class.
+     */
+    List<ShippingQuoteResponse> quoteCart(Long userId, String destination);
+}
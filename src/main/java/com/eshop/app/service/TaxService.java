@@ -1,16 +1,21 @@
 package com.eshop.app.service;
 
 import com.eshop.app.entity.*;
+import com.eshop.app.event.TaxConfigurationChangedEvent;
 import com.eshop.app.repository.*;
+import com.eshop.app.service.cache.TaxRuleMatrix;
+import com.eshop.app.service.cache.TaxRuleMatrixCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -23,21 +28,31 @@ public class TaxService {
     private final TaxRuleRepository taxRuleRepository;
     private final GeoZoneRepository geoZoneRepository;
     private final OrderTaxRepository orderTaxRepository;
+    private final TaxRuleMatrixCache taxRuleMatrixCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     public TaxClass createTaxClass(TaxClass taxClass) {
-        return taxClassRepository.save(taxClass);
+        TaxClass saved = taxClassRepository.save(taxClass);
+        publishTaxConfigurationChanged();
+        return saved;
     }
     
     public TaxRate createTaxRate(TaxRate taxRate) {
-        return taxRateRepository.save(taxRate);
+        TaxRate saved = taxRateRepository.save(taxRate);
+        publishTaxConfigurationChanged();
+        return saved;
     }
     
     public TaxRule createTaxRule(TaxRule taxRule) {
-        return taxRuleRepository.save(taxRule);
+        TaxRule saved = taxRuleRepository.save(taxRule);
+        publishTaxConfigurationChanged();
+        return saved;
     }
     
     public GeoZone createGeoZone(GeoZone geoZone) {
-        return geoZoneRepository.save(geoZone);
+        GeoZone saved = geoZoneRepository.save(geoZone);
+        publishTaxConfigurationChanged();
+        return saved;
     }
     
     public List<TaxClass> getAllTaxClasses() {
@@ -53,103 +68,56 @@ public class TaxService {
     }
     
     /**
-     * Calculate tax for a product based on customer location
-     * Time Complexity: O(n*m) where n = number of geo zones, m = number of tax rules
+     * Calculate tax for a product based on customer location.
+     * Resolved against the precompiled {@link TaxRuleMatrix}; no queries are issued.
+     * Time Complexity: O(k) where k = number of rates in the matching chain
      */
+    @Transactional(readOnly = true)
     public BigDecimal calculateProductTax(Product product, String country, String state, String city, BigDecimal amount) {
         if (product.getTaxClass() == null) {
             return BigDecimal.ZERO;
         }
-        
-        // Find matching geo zones
-        List<GeoZone> geoZones = getMatchingGeoZones(country, state, city);
-        if (geoZones.isEmpty()) {
-            log.debug("No geo zones found for location: {}, {}, {}", country, state, city);
-            return BigDecimal.ZERO;
-        }
-        
-        // Get tax rules for this product's tax class
-        List<TaxRule> taxRules = taxRuleRepository.findByTaxClassAndActiveTrueOrderByPriorityAsc(product.getTaxClass());
-        if (taxRules.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal baseAmount = amount;
-        
-        // Apply taxes in order of priority
-        for (TaxRule rule : taxRules) {
-            TaxRate taxRate = rule.getTaxRate();
-            
-            // Check if tax rate applies to this geo zone
-            if (geoZones.contains(taxRate.getGeoZone()) && taxRate.getActive()) {
-                BigDecimal taxAmount;
-                
-                if (taxRate.getType() == TaxRate.TaxType.PERCENTAGE) {
-                    // Calculate percentage tax
-                    taxAmount = baseAmount.multiply(taxRate.getRate())
-                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                } else {
-                    // Fixed tax amount
-                    taxAmount = taxRate.getRate();
-                }
-                
-                totalTax = totalTax.add(taxAmount);
-                
-                // If compound tax, add to base for next calculation
-                if (taxRate.getCompound()) {
-                    baseAmount = baseAmount.add(taxAmount);
-                }
-                
-                log.debug("Applied tax {}: {} ({})", taxRate.getName(), taxAmount, taxRate.getType());
-            }
+        TaxRuleMatrix.TaxResult result = taxRuleMatrixCache.matrix()
+                .calculate(product.getTaxClass().getId(), country, state, city, amount);
+        if (result.taxes().isEmpty()) {
+            log.debug("No tax rates apply for tax class {} at {}, {}, {}",
+                    product.getTaxClass().getId(), country, state, city);
         }
-        
-        return totalTax.setScale(2, RoundingMode.HALF_UP);
+        return result.total();
     }
     
     /**
-     * Calculate and save taxes for an order
-     * Time Complexity: O(n) where n = number of order items
+     * Calculate and save taxes for an order: one {@link OrderTax} row per applied tax rate,
+     * summed over all items. Items are taxed against a single matrix snapshot, so the
+     * only queries are the batched insert of the resulting rows.
+     * Time Complexity: O(n*k) where n = number of order items, k = rates per chain
      */
     public List<OrderTax> calculateOrderTaxes(Order order, String country, String state, String city) {
-        List<OrderTax> orderTaxes = new ArrayList<>();
+        TaxRuleMatrix matrix = taxRuleMatrixCache.matrix();
+        Map<Long, TaxRuleMatrix.AppliedTax> totalsByRate = new LinkedHashMap<>();
         
         for (OrderItem item : order.getItems()) {
             Product product = item.getProduct();
+            if (product.getTaxClass() == null) {
+                continue;
+            }
             BigDecimal itemTotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            
-            BigDecimal taxAmount = calculateProductTax(product, country, state, city, itemTotal);
-            
-            if (taxAmount.compareTo(BigDecimal.ZERO) > 0) {
-                // Find applied tax rates to create order tax records
-                if (product.getTaxClass() != null) {
-                    List<GeoZone> geoZones = getMatchingGeoZones(country, state, city);
-                    List<TaxRule> taxRules = taxRuleRepository.findByTaxClassAndActiveTrueOrderByPriorityAsc(product.getTaxClass());
-                    
-                    for (TaxRule rule : taxRules) {
-                        TaxRate taxRate = rule.getTaxRate();
-                        if (geoZones.contains(taxRate.getGeoZone()) && taxRate.getActive()) {
-                            BigDecimal itemTaxAmount;
-                            
-                            if (taxRate.getType() == TaxRate.TaxType.PERCENTAGE) {
-                                itemTaxAmount = itemTotal.multiply(taxRate.getRate())
-                                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                            } else {
-                                itemTaxAmount = taxRate.getRate();
-                            }
-                            
-                            OrderTax orderTax = OrderTax.builder()
-                                .order(order)
-                                .taxRate(taxRate)
-                                .title(taxRate.getName())
-                                .amount(itemTaxAmount)
-                                .build();
-                            
-                            orderTaxes.add(orderTax);
-                        }
-                    }
-                }
+            TaxRuleMatrix.TaxResult result = matrix.calculate(product.getTaxClass().getId(), country, state, city, itemTotal);
+            for (TaxRuleMatrix.AppliedTax tax : result.taxes()) {
+                totalsByRate.merge(tax.taxRateId(), tax, (a, b) ->
+                        new TaxRuleMatrix.AppliedTax(a.taxRateId(), a.name(), a.amount().add(b.amount())));
+            }
+        }
+        
+        List<OrderTax> orderTaxes = new ArrayList<>(totalsByRate.size());
+        for (TaxRuleMatrix.AppliedTax tax : totalsByRate.values()) {
+            if (tax.amount().signum() > 0) {
+                orderTaxes.add(OrderTax.builder()
+                    .order(order)
+                    .taxRate(taxRateRepository.getReferenceById(tax.taxRateId()))
+                    .title(tax.name())
+                    .amount(tax.amount())
+                    .build());
             }
         }
         
@@ -178,6 +146,7 @@ public class TaxService {
         existing.setDescription(taxClass.getDescription());
         existing.setActive(taxClass.getActive());
         taxClassRepository.save(existing);
+        publishTaxConfigurationChanged();
     }
     
     public void updateTaxRate(Long id, TaxRate taxRate) {
@@ -190,5 +159,10 @@ public class TaxService {
         existing.setCompound(taxRate.getCompound());
         existing.setActive(taxRate.getActive());
         taxRateRepository.save(existing);
+        publishTaxConfigurationChanged();
+    }
+    
+    private void publishTaxConfigurationChanged() {
+        eventPublisher.publishEvent(new TaxConfigurationChangedEvent(this));
     }
 }
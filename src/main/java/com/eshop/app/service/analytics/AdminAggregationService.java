@@ -5,13 +5,16 @@ import com.eshop.app.service.OrderService;
 import com.eshop.app.service.ProductService;
 import com.eshop.app.service.StoreService;
 import com.eshop.app.service.UserService;
+import com.eshop.app.service.concurrency.FanOut;
+import com.eshop.app.service.concurrency.FanOuts;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.math.BigDecimal;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
@@ -22,31 +25,33 @@ public class AdminAggregationService {
     private final ProductService productService;
     private final StoreService storeService;
     private final OrderService orderService;
-    private final Executor dashboardExecutor;
+    private final FanOuts fanOuts;
 
-    public AdminDashboardResponse.OverviewStats getOverviewStats() {
-        try {
-            CompletableFuture<Long> totalUsers = CompletableFuture.supplyAsync(userService::getTotalUserCount, dashboardExecutor);
-            CompletableFuture<Long> totalProducts = CompletableFuture.supplyAsync(productService::getTotalProductCount, dashboardExecutor);
-            CompletableFuture<Long> totalStores = CompletableFuture.supplyAsync(storeService::getTotalStoreCount, dashboardExecutor);
-            CompletableFuture<Long> totalOrders = CompletableFuture.supplyAsync(orderService::getTotalOrderCount, dashboardExecutor);
-            CompletableFuture<Long> pendingOrders = CompletableFuture.supplyAsync(orderService::getPendingOrderCount, dashboardExecutor);
-            CompletableFuture<Long> todayOrders = CompletableFuture.supplyAsync(orderService::getTodayOrderCount, dashboardExecutor);
+    @Value("${app.dashboard.fan-out-deadline:PT10S}")
+    private Duration fanOutDeadline = Duration.ofSeconds(10);
 
-            CompletableFuture.allOf(totalUsers, totalProducts, totalStores, totalOrders, pendingOrders, todayOrders).join();
+    public AdminDashboardResponse.OverviewStats getOverviewStats() {
+        try (FanOut fanOut = fanOuts.open("admin-overview", fanOutDeadline)) {
+            FanOut.Subtask<Long> totalUsers = fanOut.fork("total-users", userService::getTotalUserCount, 0L);
+            FanOut.Subtask<Long> totalProducts = fanOut.fork("total-products", productService::getTotalProductCount, 0L);
+            FanOut.Subtask<Long> totalStores = fanOut.fork("total-stores", storeService::getTotalStoreCount, 0L);
+            FanOut.Subtask<Long> totalOrders = fanOut.fork("total-orders", orderService::getTotalOrderCount, 0L);
+            FanOut.Subtask<Long> pendingOrders = fanOut.fork("pending-orders", orderService::getPendingOrderCount, 0L);
+            FanOut.Subtask<Long> todayOrders = fanOut.fork("today-orders", orderService::getTodayOrderCount, 0L);
+            FanOut.Subtask<BigDecimal> totalRevenue = fanOut.fork("total-revenue", orderService::getTotalRevenue, BigDecimal.ZERO);
+            FanOut.Subtask<BigDecimal> monthlyRevenue = fanOut.fork("monthly-revenue", orderService::getMonthlyRevenue, BigDecimal.ZERO);
+            fanOut.join();
 
-            AdminDashboardResponse.OverviewStats overview = AdminDashboardResponse.OverviewStats.builder()
-                    .totalUsers(safeGet(totalUsers, 0L))
-                    .totalProducts(safeGet(totalProducts, 0L))
-                    .totalStores(safeGet(totalStores, 0L))
-                    .totalOrders(safeGet(totalOrders, 0L))
-                    .pendingOrders(safeGet(pendingOrders, 0L))
-                    .todayOrders(safeGet(todayOrders, 0L))
-                    .totalRevenue(orderService.getTotalRevenue())
-                    .monthlyRevenue(orderService.getMonthlyRevenue())
+            return AdminDashboardResponse.OverviewStats.builder()
+                    .totalUsers(totalUsers.get())
+                    .totalProducts(totalProducts.get())
+                    .totalStores(totalStores.get())
+                    .totalOrders(totalOrders.get())
+                    .pendingOrders(pendingOrders.get())
+                    .todayOrders(todayOrders.get())
+                    .totalRevenue(totalRevenue.get())
+                    .monthlyRevenue(monthlyRevenue.get())
                     .build();
-
-            return overview;
         } catch (Exception e) {
             log.error("Failed to build overview stats: {}", e.getMessage(), e);
             return AdminDashboardResponse.OverviewStats.builder().build();
@@ -54,21 +59,24 @@ public class AdminAggregationService {
     }
 
     public AdminDashboardResponse.UserStats getUserStats() {
-        try {
+        try (FanOut fanOut = fanOuts.open("admin-user-stats", fanOutDeadline)) {
+            FanOut.Subtask<Long> customers = fanOut.fork("customers", userService::getCustomerCount, 0L);
+            FanOut.Subtask<Long> sellers = fanOut.fork("sellers", userService::getSellerCount, 0L);
+            FanOut.Subtask<Long> deliveryAgents = fanOut.fork("delivery-agents", userService::getDeliveryAgentCount, 0L);
+            FanOut.Subtask<Long> activeUsers = fanOut.fork("active-users", userService::getActiveUserCount, 0L);
+            FanOut.Subtask<Long> newUsers = fanOut.fork("new-users", userService::getNewUsersThisMonth, 0L);
+            fanOut.join();
+
             return AdminDashboardResponse.UserStats.builder()
-                    .customers(userService.getCustomerCount())
-                    .sellers(userService.getSellerCount())
-                    .deliveryAgents(userService.getDeliveryAgentCount())
-                    .activeUsers(userService.getActiveUserCount())
-                    .newUsersThisMonth(userService.getNewUsersThisMonth())
+                    .customers(customers.get())
+                    .sellers(sellers.get())
+                    .deliveryAgents(deliveryAgents.get())
+                    .activeUsers(activeUsers.get())
+                    .newUsersThisMonth(newUsers.get())
                     .build();
         } catch (Exception e) {
             log.error("Failed to build user stats: {}", e.getMessage(), e);
             return AdminDashboardResponse.UserStats.builder().build();
         }
     }
-
-    private <T> T safeGet(CompletableFuture<T> f, T fallback) {
-        try { return f.join(); } catch (Exception e) { return fallback; }
-    }
 }
@@ -1,16 +1,21 @@
 package com.eshop.app.service.analytics;
 
+import com.eshop.app.aspect.AnalyticsWorkload;
 import com.eshop.app.dto.analytics.AdminStatistics;
 import com.eshop.app.repository.ProductRepositoryEnhanced;
 import com.eshop.app.repository.StoreRepository;
 import com.eshop.app.repository.UserRepositoryEnhanced;
 import com.eshop.app.repository.analytics.AnalyticsOrderRepository;
+import com.eshop.app.service.concurrency.FanOut;
+import com.eshop.app.service.concurrency.FanOuts;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
@@ -30,7 +35,7 @@ import org.slf4j.LoggerFactory;
  * parallel)</li>
  * <li>Single aggregate queries instead of multiple counts</li>
  * <li>Proper caching with TTL</li>
- * <li>CompletableFuture for async coordination</li>
+ * <li>{@link FanOut} on virtual threads: a failed query cancels the others</li>
  * </ul>
  * 
  * <p>
@@ -44,6 +49,7 @@ import org.slf4j.LoggerFactory;
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@AnalyticsWorkload
 public class AdminAnalyticsService {
     private static final Logger log = LoggerFactory.getLogger(AdminAnalyticsService.class);
 
@@ -52,6 +58,10 @@ public class AdminAnalyticsService {
     private final AnalyticsOrderRepository analyticsOrderRepository;
     private final StoreRepository storeRepository;
     private final Executor dashboardExecutor;
+    private final FanOuts fanOuts;
+
+    @Value("${app.dashboard.fan-out-deadline:PT10S}")
+    private Duration fanOutDeadline = Duration.ofSeconds(10);
 
     /**
      * HIGH-001 FIX: Gets comprehensive admin statistics with parallel execution.
@@ -67,75 +77,57 @@ public class AdminAnalyticsService {
 
         long startTime = System.currentTimeMillis();
 
-        try {
-            // Parallel execution for independent queries
-            CompletableFuture<Map<String, Object>> userStatsFuture = CompletableFuture.supplyAsync(() -> {
+        try (FanOut fanOut = fanOuts.open("admin-statistics", fanOutDeadline)) {
+            FanOut.Subtask<Map<String, Object>> userStats = fanOut.fork("users", () -> {
                 log.trace("Fetching user statistics");
                 return userRepository.getUserStatistics();
-            }, dashboardExecutor);
+            });
 
-            CompletableFuture<Map<String, Object>> productStatsFuture = CompletableFuture.supplyAsync(() -> {
+            FanOut.Subtask<Map<String, Object>> productStats = fanOut.fork("products", () -> {
                 log.trace("Fetching product statistics");
                 return productRepository.getProductStatistics();
-            }, dashboardExecutor);
+            });
 
-            CompletableFuture<Map<String, Object>> orderStatsFuture = CompletableFuture.supplyAsync(() -> {
+            FanOut.Subtask<Map<String, Object>> orderStats = fanOut.fork("orders", () -> {
                 LocalDateTime startOfMonth = YearMonth.now().atDay(1).atStartOfDay();
                 LocalDateTime now = LocalDateTime.now();
                 log.trace("Fetching order statistics from {} to {}", startOfMonth, now);
                 return analyticsOrderRepository.getOrderStatistics(startOfMonth, now);
-            }, dashboardExecutor);
+            });
 
-            CompletableFuture<Map<String, Object>> storeStatsFuture = CompletableFuture.supplyAsync(() -> {
+            FanOut.Subtask<Map<String, Object>> storeStats = fanOut.fork("stores", () -> {
                 log.trace("Fetching store statistics");
                 return storeRepository.getStoreStatistics();
-            }, dashboardExecutor);
-
-            // Wait for all to complete with proper error handling
-            CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                    userStatsFuture,
-                    productStatsFuture,
-                    orderStatsFuture,
-                    storeStatsFuture);
+            });
 
-            // Block with timeout
-            allFutures.get(10, java.util.concurrent.TimeUnit.SECONDS);
-
-            // Extract results
-            Map<String, Object> userStats = userStatsFuture.join();
-            Map<String, Object> productStats = productStatsFuture.join();
-            Map<String, Object> orderStats = orderStatsFuture.join();
-            Map<String, Object> storeStats = storeStatsFuture.join();
+            // All required: a failed query cancels the others, and nothing partial gets cached
+            fanOut.join();
 
             AdminStatistics statistics = AdminStatistics.builder()
-                    .totalUsers(getLong(userStats, "totalUsers"))
-                    .totalCustomers(getLong(userStats, "totalCustomers"))
-                    .totalSellers(getLong(userStats, "totalSellers"))
-                    .totalDeliveryAgents(getLong(userStats, "totalDeliveryAgents"))
-                    .activeUsers(getLong(userStats, "activeUsers"))
-                    .newUsersThisMonth(getLong(userStats, "newUsersThisMonth"))
-                    .totalProducts(getLong(productStats, "totalProducts"))
-                    .activeProducts(getLong(productStats, "activeProducts"))
-                    .outOfStockProducts(getLong(productStats, "outOfStockProducts"))
-                    .totalOrders(getLong(orderStats, "totalOrders"))
-                    .pendingOrders(getLong(orderStats, "pendingOrders"))
-                    .completedOrders(getLong(orderStats, "completedOrders"))
-                    .todayOrders(getLong(orderStats, "todayOrders"))
-                    .totalRevenue(getBigDecimal(orderStats, "totalRevenue"))
-                    .monthlyRevenue(getBigDecimal(orderStats, "monthlyRevenue"))
-                    .todayRevenue(getBigDecimal(orderStats, "todayRevenue"))
-                    .totalShops(getLong(storeStats, "totalShops"))
-                    .activeShops(getLong(storeStats, "activeShops"))
+                    .totalUsers(getLong(userStats.get(), "totalUsers"))
+                    .totalCustomers(getLong(userStats.get(), "totalCustomers"))
+                    .totalSellers(getLong(userStats.get(), "totalSellers"))
+                    .totalDeliveryAgents(getLong(userStats.get(), "totalDeliveryAgents"))
+                    .activeUsers(getLong(userStats.get(), "activeUsers"))
+                    .newUsersThisMonth(getLong(userStats.get(), "newUsersThisMonth"))
+                    .totalProducts(getLong(productStats.get(), "totalProducts"))
+                    .activeProducts(getLong(productStats.get(), "activeProducts"))
+                    .outOfStockProducts(getLong(productStats.get(), "outOfStockProducts"))
+                    .totalOrders(getLong(orderStats.get(), "totalOrders"))
+                    .pendingOrders(getLong(orderStats.get(), "pendingOrders"))
+                    .completedOrders(getLong(orderStats.get(), "completedOrders"))
+                    .todayOrders(getLong(orderStats.get(), "todayOrders"))
+                    .totalRevenue(getBigDecimal(orderStats.get(), "totalRevenue"))
+                    .monthlyRevenue(getBigDecimal(orderStats.get(), "monthlyRevenue"))
+                    .todayRevenue(getBigDecimal(orderStats.get(), "todayRevenue"))
+                    .totalShops(getLong(storeStats.get(), "totalShops"))
+                    .activeShops(getLong(storeStats.get(), "activeShops"))
                     .build();
 
             long executionTime = System.currentTimeMillis() - startTime;
             log.info("Admin statistics calculated in {}ms (parallel execution)", executionTime);
 
             return statistics;
-
-        } catch (Exception e) {
-            log.error("Error calculating admin statistics", e);
-            throw new RuntimeException("Failed to calculate admin statistics", e);
         }
     }
 
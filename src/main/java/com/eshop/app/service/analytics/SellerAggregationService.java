@@ -4,11 +4,16 @@ import com.eshop.app.dto.response.SellerDashboardResponse;
 import com.eshop.app.service.OrderService;
 import com.eshop.app.service.ProductService;
 import com.eshop.app.service.StoreService;
+import com.eshop.app.service.concurrency.FanOut;
+import com.eshop.app.service.concurrency.FanOuts;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
@@ -21,16 +26,27 @@ public class SellerAggregationService {
     private final OrderService orderService;
     private final StoreService storeService;
     private final Executor dashboardExecutor;
+    private final FanOuts fanOuts;
+
+    @Value("${app.dashboard.fan-out-deadline:PT10S}")
+    private Duration fanOutDeadline = Duration.ofSeconds(10);
 
     public SellerDashboardResponse.StoreOverview buildStoreOverview(Long sellerId) {
-        try {
+        try (FanOut fanOut = fanOuts.open("seller-store-overview", fanOutDeadline)) {
+            FanOut.Subtask<String> storeName = fanOut.fork("store-name", () -> storeService.getStoreNameBySellerId(sellerId), null);
+            FanOut.Subtask<Long> totalProducts = fanOut.fork("total-products", () -> productService.getProductCountBySellerId(sellerId), 0L);
+            FanOut.Subtask<Long> activeProducts = fanOut.fork("active-products", () -> productService.getActiveProductCountBySellerId(sellerId), 0L);
+            FanOut.Subtask<Long> outOfStock = fanOut.fork("out-of-stock", () -> productService.getOutOfStockCountBySellerId(sellerId), 0L);
+            FanOut.Subtask<Double> storeRating = fanOut.fork("store-rating", () -> storeService.getStoreRatingBySellerId(sellerId), null);
+            fanOut.join();
+
             return SellerDashboardResponse.StoreOverview.builder()
-                    .storeName(storeService.getStoreNameBySellerId(sellerId))
+                    .storeName(storeName.get())
                     .storeStatus("Active")
-                    .totalProducts(productService.getProductCountBySellerId(sellerId))
-                    .activeProducts(productService.getActiveProductCountBySellerId(sellerId))
-                    .outOfStockProducts(productService.getOutOfStockCountBySellerId(sellerId))
-                    .storeRating(storeService.getStoreRatingBySellerId(sellerId))
+                    .totalProducts(totalProducts.get())
+                    .activeProducts(activeProducts.get())
+                    .outOfStockProducts(outOfStock.get())
+                    .storeRating(storeRating.get())
                     .build();
         } catch (Exception e) {
             log.error("Failed to build store overview for {}: {}", sellerId, e.getMessage(), e);
@@ -39,12 +55,18 @@ public class SellerAggregationService {
     }
 
     public SellerDashboardResponse.SalesMetrics buildSalesMetrics(Long sellerId) {
-        try {
+        try (FanOut fanOut = fanOuts.open("seller-sales-metrics", fanOutDeadline)) {
+            FanOut.Subtask<BigDecimal> today = fanOut.fork("today", () -> orderService.getTodayRevenueBySellerId(sellerId), BigDecimal.ZERO);
+            FanOut.Subtask<BigDecimal> weekly = fanOut.fork("weekly", () -> orderService.getWeeklyRevenueBySellerId(sellerId), BigDecimal.ZERO);
+            FanOut.Subtask<BigDecimal> monthly = fanOut.fork("monthly", () -> orderService.getMonthlyRevenueBySellerId(sellerId), BigDecimal.ZERO);
+            FanOut.Subtask<BigDecimal> total = fanOut.fork("total", () -> orderService.getTotalRevenueBySellerId(sellerId), BigDecimal.ZERO);
+            fanOut.join();
+
             return SellerDashboardResponse.SalesMetrics.builder()
-                    .todaySales(orderService.getTodayRevenueBySellerId(sellerId))
-                    .weeklySales(orderService.getWeeklyRevenueBySellerId(sellerId))
-                    .monthlySales(orderService.getMonthlyRevenueBySellerId(sellerId))
-                    .totalSales(orderService.getTotalRevenueBySellerId(sellerId))
+                    .todaySales(today.get())
+                    .weeklySales(weekly.get())
+                    .monthlySales(monthly.get())
+                    .totalSales(total.get())
                     .build();
         } catch (Exception e) {
             log.error("Failed to build sales metrics for {}: {}", sellerId, e.getMessage(), e);
@@ -53,12 +75,18 @@ public class SellerAggregationService {
     }
 
     public SellerDashboardResponse.OrderManagement buildOrderManagement(Long sellerId) {
-        try {
+        try (FanOut fanOut = fanOuts.open("seller-order-management", fanOutDeadline)) {
+            FanOut.Subtask<Long> newOrders = fanOut.fork("new", () -> orderService.getNewOrderCountBySellerId(sellerId), 0L);
+            FanOut.Subtask<Long> processing = fanOut.fork("processing", () -> orderService.getProcessingOrderCountBySellerId(sellerId), 0L);
+            FanOut.Subtask<Long> shipped = fanOut.fork("shipped", () -> orderService.getShippedOrderCountBySellerId(sellerId), 0L);
+            FanOut.Subtask<Long> completed = fanOut.fork("completed", () -> orderService.getCompletedOrderCountBySellerId(sellerId), 0L);
+            fanOut.join();
+
             return SellerDashboardResponse.OrderManagement.builder()
-                    .newOrders(orderService.getNewOrderCountBySellerId(sellerId))
-                    .processingOrders(orderService.getProcessingOrderCountBySellerId(sellerId))
-                    .shippedOrders(orderService.getShippedOrderCountBySellerId(sellerId))
-                    .completedOrders(orderService.getCompletedOrderCountBySellerId(sellerId))
+                    .newOrders(newOrders.get())
+                    .processingOrders(processing.get())
+                    .shippedOrders(shipped.get())
+                    .completedOrders(completed.get())
                     .build();
         } catch (Exception e) {
             log.error("Failed to build order management for {}: {}", sellerId, e.getMessage(), e);
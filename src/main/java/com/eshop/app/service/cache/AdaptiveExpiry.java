@@ -0,0 +1,142 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-entry time to live of one Caffeine cache, derived from how often each key
+ * changes and how often it is read.
+ *
+ * <p>A change is an explicit eviction or replacement of the key (invalidation
+ * after a product or stock event, {@code @CacheEvict}, {@code @CachePut}), fed in
+ * by {@link CacheTuner}. For each recently seen key it keeps a moving average of
+ * the time between changes and a sampled, decaying read count:
+ * <ul>
+ *   <li>a volatile key, one whose half change interval is below {@code baseTtl},
+ *       gets that half interval but at least {@code minTtl}, so it is usually
+ *       reloaded before its next change;</li>
+ *   <li>a stable key read at least {@code hotReads} times per tuning interval gets
+ *       up to {@code maxTtl}, still at most half its change interval;</li>
+ *   <li>any other key gets {@code baseTtl}.</li>
+ * </ul>
+ * Reads do not extend an entry's lifetime. {@link #limitTtl} caps all of these,
+ * for when changes can no longer be observed.
+ *
+ * @since 2.0
+ */
+public class AdaptiveExpiry implements Expiry<Object, Object> {
+
+    /**
+     * Weight of the newest interval in the moving average.
+     */
+    private static final double ALPHA = 0.3;
+
+    static final class KeyStats {
+        private long lastChangeNanos;
+        private long intervalNanos;
+        private final AtomicLong sampledReads = new AtomicLong();
+    }
+
+    private final long baseTtlNanos;
+    private final long minTtlNanos;
+    private final long maxTtlNanos;
+    private final int readSampleRate;
+    private final long hotSampledReads;
+    private final Cache<Object, KeyStats> keys;
+    private volatile long ceilingNanos = Long.MAX_VALUE;
+
+    /**
+     * @param trackedKeys    most keys to keep statistics for
+     * @param readSampleRate one read in this many is counted
+     * @param hotReads       reads per tuning interval from which an unchanged key counts as hot
+     */
+    public AdaptiveExpiry(Duration baseTtl, Duration minTtl, Duration maxTtl,
+                          long trackedKeys, int readSampleRate, long hotReads) {
+        this.baseTtlNanos = baseTtl.toNanos();
+        this.minTtlNanos = Math.min(minTtl.toNanos(), baseTtlNanos);
+        this.maxTtlNanos = Math.max(maxTtl.toNanos(), baseTtlNanos);
+        this.readSampleRate = Math.max(1, readSampleRate);
+        this.hotSampledReads = Math.max(1, hotReads / this.readSampleRate);
+        this.keys = Caffeine.newBuilder().maximumSize(trackedKeys).build();
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return ttlNanos(key);
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return ttlNanos(key);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        if (ThreadLocalRandom.current().nextInt(readSampleRate) == 0) {
+            keys.get(key, k -> new KeyStats()).sampledReads.incrementAndGet();
+        }
+        return currentDuration;
+    }
+
+    /**
+     * Records that the key's value changed.
+     */
+    public void recordChange(Object key) {
+        KeyStats stats = keys.get(key, k -> new KeyStats());
+        long now = System.nanoTime();
+        synchronized (stats) {
+            if (stats.lastChangeNanos != 0) {
+                long interval = now - stats.lastChangeNanos;
+                stats.intervalNanos = stats.intervalNanos == 0
+                        ? interval
+                        : (long) (ALPHA * interval + (1 - ALPHA) * stats.intervalNanos);
+            }
+            stats.lastChangeNanos = now;
+        }
+    }
+
+    /**
+     * Halves the read counts, so hotness reflects the recent tuning intervals.
+     */
+    public void decayReads() {
+        keys.asMap().values().forEach(stats -> stats.sampledReads.updateAndGet(reads -> reads / 2));
+    }
+
+    /**
+     * Caps the TTL of entries written from now on.
+     */
+    public void limitTtl(Duration ttl) {
+        ceilingNanos = Math.min(ceilingNanos, ttl.toNanos());
+    }
+
+    long ttlNanos(Object key) {
+        return Math.min(ceilingNanos, adaptiveTtlNanos(key));
+    }
+
+    private long adaptiveTtlNanos(Object key) {
+        KeyStats stats = keys.getIfPresent(key);
+        if (stats == null) {
+            return baseTtlNanos;
+        }
+        long interval;
+        long lastChange;
+        synchronized (stats) {
+            interval = stats.intervalNanos;
+            lastChange = stats.lastChangeNanos;
+        }
+        long changeTtl = Long.MAX_VALUE;
+        if (lastChange != 0) {
+            // One change so far: the time since it is a lower bound of the interval
+            changeTtl = (interval != 0 ? interval : System.nanoTime() - lastChange) / 2;
+        }
+        if (changeTtl < baseTtlNanos) {
+            return Math.max(minTtlNanos, changeTtl);
+        }
+        return stats.sampledReads.get() >= hotSampledReads ? Math.min(maxTtlNanos, changeTtl) : baseTtlNanos;
+    }
+}
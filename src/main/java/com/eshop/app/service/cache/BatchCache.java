@@ -0,0 +1,159 @@
+package com.eshop.app.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-key view of a cache, so a page of entities costs one lookup per tier
+ * instead of one per entity.
+ *
+ * <p>{@link #getAll} reads the local (L1) Spring cache, then fetches the misses
+ * from Redis (L2) with one MGET, then loads what is still missing with one call
+ * to the loader and writes it back to Redis in one pipeline. Redis keys use the
+ * {@code RedisCacheManager} format ({@code name::key}), so clearing the Redis
+ * cache of the same name also drops them.
+ *
+ * <p>Both tiers are optional; without Redis the adapter is L1 plus the loader.
+ * When the cache is also a {@link NearCache}, the Redis writes are announced to
+ * it, so their invalidation echoes do not drop the L1 entries just stored.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @since 2.0
+ */
+public class BatchCache<K, V> {
+
+    private final String name;
+    private final Class<V> type;
+    private final Duration ttl;
+    private final Cache local;
+    private final ResilientRedisCacheService redis;
+    private final NearCache nearCache;
+
+    /**
+     * @param name  cache name, also the Redis key prefix
+     * @param type  value type
+     * @param ttl   time to live of Redis entries
+     * @param local L1 cache, or {@code null}
+     * @param redis Redis access, or {@code null}
+     */
+    public BatchCache(String name, Class<V> type, Duration ttl, Cache local, ResilientRedisCacheService redis) {
+        this(name, type, ttl, local, redis, null);
+    }
+
+    /**
+     * @param nearCache near cache of the same name, or {@code null}
+     */
+    public BatchCache(String name, Class<V> type, Duration ttl, Cache local, ResilientRedisCacheService redis,
+                      NearCache nearCache) {
+        this.name = name;
+        this.type = type;
+        this.ttl = ttl;
+        this.local = local;
+        this.redis = redis;
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * Looks up every key, loading the misses in one call.
+     *
+     * @param keys   keys to look up
+     * @param loader loads the given keys; keys it does not return are not cached
+     * @return the values found or loaded, in key order
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> found = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            V value = local != null ? local.get(key, type) : null;
+            if (value != null) {
+                found.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty() && redis != null) {
+            Map<String, K> byRedisKey = missing.stream()
+                    .collect(Collectors.toMap(this::redisKey, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+            redis.getAll(byRedisKey.keySet(), type).forEach((redisKey, value) -> {
+                K key = byRedisKey.get(redisKey);
+                found.put(key, value);
+                missing.remove(key);
+                putLocal(key, value);
+            });
+        }
+
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = loader.apply(missing);
+            found.putAll(loaded);
+            loaded.forEach(this::putLocal);
+            if (redis != null && !loaded.isEmpty()) {
+                Map<String, V> entries = new LinkedHashMap<>();
+                loaded.forEach((key, value) -> entries.put(redisKey(key), value));
+                if (nearCache != null) {
+                    nearCache.expectOwnWrites(loaded.keySet());
+                }
+                if (!redis.putAll(entries, ttl) && nearCache != null) {
+                    nearCache.cancelOwnWrites(loaded.keySet());
+                }
+            }
+        }
+
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Drops the keys from Redis, after the current transaction commits if there is one,
+     * so a concurrent read cannot put the old value back before the change is visible.
+     * L1 entries are left to the {@code @CacheEvict}/{@code @CachePut} of the caller.
+     */
+    public void evictAll(Collection<K> keys) {
+        if (redis == null || keys.isEmpty()) {
+            return;
+        }
+        List<String> redisKeys = keys.stream().map(this::redisKey).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    redis.evictAll(redisKeys);
+                }
+            });
+        } else {
+            redis.evictAll(redisKeys);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void putLocal(K key, V value) {
+        if (local != null) {
+            local.put(key, value);
+        }
+    }
+
+    private String redisKey(K key) {
+        return name + "::" + key;
+    }
+}
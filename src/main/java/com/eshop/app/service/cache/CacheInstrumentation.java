@@ -0,0 +1,180 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-cache usage statistics across tiers, recorded by the {@link InstrumentedCache}
+ * decorators of the primary cache manager and the removal listeners of the
+ * Caffeine (L1) caches.
+ *
+ * <p>Reads and load times are counted on every call. Hot keys are sampled, one
+ * read in {@code keySampleRate}, and entry sizes too, one put in
+ * {@code sizeSampleRate}, measured as the bytes the Redis serializer writes.
+ *
+ * <h2>Metrics:</h2>
+ * <pre>
+ * eshop.cache.gets{cache,result}       reads through the primary cache manager, hit or miss
+ * eshop.cache.load{cache}              time to compute a missing value (histogram)
+ * eshop.cache.evictions{cache,cause}   L1 removals by Caffeine removal cause
+ * eshop.cache.entry.size{cache}        sampled serialized entry size in bytes
+ * </pre>
+ * Per-tier hits and misses come from Spring Boot's cache metrics of the
+ * Caffeine and Redis cache managers ({@code cache.gets{cacheManager}}).
+ *
+ * @since 2.0
+ */
+public class CacheInstrumentation {
+
+    /**
+     * Usage of one cache since startup. Hot key counts are estimated reads, i.e.
+     * sampled reads times the sample rate.
+     */
+    public record Snapshot(String cache, long hits, long misses, double hitRatio,
+                           long loads, double loadMeanMillis, double loadMaxMillis,
+                           Map<String, Long> evictions,
+                           long sizeSamples, double entryMeanBytes, double entryMaxBytes,
+                           List<HotKeySampler.HotKey> hotKeys) {
+    }
+
+    private final MeterRegistry registry;
+    private final RedisSerializer<Object> sizer;
+    private final int keySampleRate;
+    private final int sizeSampleRate;
+    private final int topKeys;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param sizer measures entry sizes, or {@code null} to skip them
+     */
+    public CacheInstrumentation(MeterRegistry registry, RedisSerializer<Object> sizer,
+                                int keySampleRate, int sizeSampleRate, int topKeys) {
+        this.registry = registry;
+        this.sizer = sizer;
+        this.keySampleRate = Math.max(1, keySampleRate);
+        this.sizeSampleRate = Math.max(1, sizeSampleRate);
+        this.topKeys = topKeys;
+    }
+
+    public Cache instrument(Cache cache) {
+        return new InstrumentedCache(cache, stats(cache.getName()));
+    }
+
+    /**
+     * Listener for the Caffeine builder of the named cache, counting removals by cause.
+     */
+    public RemovalListener<Object, Object> removalListener(String cacheName) {
+        Stats cacheStats = stats(cacheName);
+        return (key, value, cause) -> cacheStats.evictions.get(cause).increment();
+    }
+
+    public Collection<String> cacheNames() {
+        return stats.keySet();
+    }
+
+    /**
+     * @return usage of the named cache, or {@code null} if it was never used
+     */
+    public Snapshot snapshot(String cacheName) {
+        Stats cacheStats = stats.get(cacheName);
+        return cacheStats != null ? cacheStats.snapshot() : null;
+    }
+
+    private Stats stats(String cacheName) {
+        return stats.computeIfAbsent(cacheName, Stats::new);
+    }
+
+    final class Stats {
+        private final String name;
+        private final Counter hits;
+        private final Counter misses;
+        private final Timer load;
+        private final DistributionSummary entrySize;
+        private final Map<RemovalCause, Counter> evictions = new EnumMap<>(RemovalCause.class);
+        private final HotKeySampler hotKeys;
+        private volatile boolean sizeable = true;
+
+        private Stats(String name) {
+            this.name = name;
+            this.hits = registry.counter("eshop.cache.gets", "cache", name, "result", "hit");
+            this.misses = registry.counter("eshop.cache.gets", "cache", name, "result", "miss");
+            this.load = Timer.builder("eshop.cache.load")
+                    .description("Time to compute a value missing from the cache")
+                    .tag("cache", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.entrySize = DistributionSummary.builder("eshop.cache.entry.size")
+                    .description("Sampled serialized size of cache entries")
+                    .baseUnit("bytes")
+                    .tag("cache", name)
+                    .register(registry);
+            for (RemovalCause cause : RemovalCause.values()) {
+                evictions.put(cause, registry.counter("eshop.cache.evictions",
+                        "cache", name, "cause", cause.name().toLowerCase(Locale.ROOT)));
+            }
+            this.hotKeys = new HotKeySampler(topKeys * 4);
+        }
+
+        void recordGet(Object key, boolean hit) {
+            (hit ? hits : misses).increment();
+            if (ThreadLocalRandom.current().nextInt(keySampleRate) == 0) {
+                hotKeys.record(key);
+            }
+        }
+
+        void recordLoad(long nanos) {
+            load.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void recordPut(Object value) {
+            if (sizer == null || !sizeable || value == null
+                    || ThreadLocalRandom.current().nextInt(sizeSampleRate) != 0) {
+                return;
+            }
+            try {
+                byte[] bytes = sizer.serialize(value);
+                if (bytes != null) {
+                    entrySize.record(bytes.length);
+                }
+            } catch (RuntimeException e) {
+                // Values of this cache cannot be written to Redis; stop trying
+                sizeable = false;
+            }
+        }
+
+        private Snapshot snapshot() {
+            long hitCount = (long) hits.count();
+            long missCount = (long) misses.count();
+            long total = hitCount + missCount;
+            Map<String, Long> evictionCounts = new LinkedHashMap<>();
+            evictions.forEach((cause, counter) -> {
+                if (counter.count() > 0) {
+                    evictionCounts.put(cause.name().toLowerCase(Locale.ROOT), (long) counter.count());
+                }
+            });
+            List<HotKeySampler.HotKey> top = hotKeys.top(topKeys).stream()
+                    .map(hot -> new HotKeySampler.HotKey(hot.key(), hot.count() * keySampleRate,
+                            hot.maxError() * keySampleRate))
+                    .toList();
+            return new Snapshot(name, hitCount, missCount, total == 0 ? 0 : (double) hitCount / total,
+                    load.count(), load.mean(TimeUnit.MILLISECONDS), load.max(TimeUnit.MILLISECONDS),
+                    evictionCounts, entrySize.count(), entrySize.mean(), entrySize.max(), top);
+        }
+    }
+}
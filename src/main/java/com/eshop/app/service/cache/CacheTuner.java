@@ -0,0 +1,242 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tunes the Caffeine (L1) caches of the cache manager from what they observe,
+ * instead of hand-picked TTLs and sizes.
+ *
+ * <p>TTL: each cache gets an {@link AdaptiveExpiry} around its configured TTL.
+ * Explicit evictions and replacements, which is how product and stock events
+ * and {@code @CacheEvict}/{@code @CachePut} reach L1, count as changes of the key.
+ * Only caches whose entries are invalidated from other nodes may keep hot keys
+ * longer than the configured TTL; in the others a key unchanged here may have
+ * changed elsewhere, so their TTLs are only ever shortened.
+ *
+ * <p>Size: every {@code interval}, a cache that evicted entries for size is
+ * resized one step along its hit-ratio curve: it keeps growing while growing
+ * raises the hit ratio, shrinks back when it does not, and grows again when
+ * shrinking costs hits. The maximum stays between half and
+ * {@code max-growth} times the configured size. All growth above the configured
+ * sizes shares {@code growth-budget}, weighed with each cache's sampled entry
+ * size; a cache that would exceed it does not grow and shrinks next time.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * cache.tuning.enabled=true
+ * cache.tuning.interval=PT1M
+ * cache.tuning.min-ttl=PT30S
+ * cache.tuning.max-ttl-factor=4
+ * cache.tuning.hot-reads=100
+ * cache.tuning.tracked-keys=10000
+ * cache.tuning.max-growth=4
+ * cache.tuning.growth-budget=64MB
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class CacheTuner {
+
+    private static final int READ_SAMPLE_RATE = 16;
+    private static final long MIN_REQUESTS = 1_000;
+    private static final double MIN_GAIN = 0.01;
+    private static final double STEP = 1.25;
+
+    /**
+     * Assumed entry size of a cache without size samples.
+     */
+    private static final double DEFAULT_ENTRY_BYTES = 2_048;
+
+    private static final class Tuned {
+        private final String name;
+        private final AdaptiveExpiry expiry;
+        private final LongAdder sizeEvictions = new LongAdder();
+        private Cache<Object, Object> cache;
+        private long baseMaximum;
+        private CacheStats lastStats = CacheStats.empty();
+        private long lastSizeEvictions;
+        private double lastHitRatio = -1;
+        private int direction = 1;
+
+        private Tuned(String name, AdaptiveExpiry expiry) {
+            this.name = name;
+            this.expiry = expiry;
+        }
+    }
+
+    private final boolean enabled;
+    private final Duration minTtl;
+    private final int maxTtlFactor;
+    private final long hotReads;
+    private final long trackedKeys;
+    private final int maxGrowth;
+    private final long growthBudgetBytes;
+    private final CacheInstrumentation instrumentation;
+    private final Map<String, Tuned> caches = new ConcurrentHashMap<>();
+    private double grownBytes;
+
+    public CacheTuner(CacheInstrumentation instrumentation,
+                      @Value("${cache.tuning.enabled:true}") boolean enabled,
+                      @Value("${cache.tuning.min-ttl:PT30S}") Duration minTtl,
+                      @Value("${cache.tuning.max-ttl-factor:4}") int maxTtlFactor,
+                      @Value("${cache.tuning.hot-reads:100}") long hotReads,
+                      @Value("${cache.tuning.tracked-keys:10000}") long trackedKeys,
+                      @Value("${cache.tuning.max-growth:4}") int maxGrowth,
+                      @Value("${cache.tuning.growth-budget:64MB}") DataSize growthBudget) {
+        this.instrumentation = instrumentation;
+        this.enabled = enabled;
+        this.minTtl = minTtl;
+        this.maxTtlFactor = Math.max(1, maxTtlFactor);
+        this.hotReads = hotReads;
+        this.trackedKeys = trackedKeys;
+        this.maxGrowth = Math.max(1, maxGrowth);
+        this.growthBudgetBytes = growthBudget.toBytes();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Expiry for the named cache; pass the built cache to {@link #register} afterwards.
+     *
+     * @param allowExtend whether hot keys may outlive {@code baseTtl}; only for
+     *                    caches invalidated when another node changes the key
+     */
+    public AdaptiveExpiry expiry(String cacheName, Duration baseTtl, boolean allowExtend) {
+        Duration maxTtl = allowExtend ? baseTtl.multipliedBy(maxTtlFactor) : baseTtl;
+        AdaptiveExpiry expiry = new AdaptiveExpiry(baseTtl, minTtl, maxTtl,
+                trackedKeys, READ_SAMPLE_RATE, hotReads);
+        caches.put(cacheName, new Tuned(cacheName, expiry));
+        return expiry;
+    }
+
+    public void register(String cacheName, Cache<Object, Object> cache) {
+        Tuned tuned = caches.get(cacheName);
+        if (tuned != null) {
+            tuned.cache = cache;
+            tuned.baseMaximum = cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L);
+        }
+    }
+
+    /**
+     * Feeds a removal from the cache's removal listener.
+     */
+    public void recordRemoval(String cacheName, Object key, RemovalCause cause) {
+        Tuned tuned = caches.get(cacheName);
+        if (tuned == null) {
+            return;
+        }
+        switch (cause) {
+            case EXPLICIT, REPLACED -> tuned.expiry.recordChange(key);
+            case SIZE -> tuned.sizeEvictions.increment();
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Caps the TTL the named cache gives new entries.
+     */
+    public void limitTtl(String cacheName, Duration ttl) {
+        Tuned tuned = caches.get(cacheName);
+        if (tuned != null) {
+            tuned.expiry.limitTtl(ttl);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.tuning.interval:PT1M}")
+    public synchronized void tune() {
+        if (!enabled) {
+            return;
+        }
+        // Entry sizes drift, so the budget is recounted every round
+        grownBytes = 0;
+        caches.values().forEach(tuned -> grownBytes += growthBytes(tuned, currentMaximum(tuned)));
+        caches.values().forEach(tuned -> {
+            tuned.expiry.decayReads();
+            if (tuned.cache != null) {
+                resize(tuned);
+            }
+        });
+    }
+
+    private long currentMaximum(Tuned tuned) {
+        if (tuned.cache == null) {
+            return 0;
+        }
+        return tuned.cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L);
+    }
+
+    private double growthBytes(Tuned tuned, long maximum) {
+        return Math.max(0, maximum - tuned.baseMaximum) * entryBytes(tuned.name);
+    }
+
+    private double entryBytes(String cacheName) {
+        CacheInstrumentation.Snapshot snapshot = instrumentation.snapshot(cacheName);
+        return snapshot != null && snapshot.sizeSamples() > 0 ? snapshot.entryMeanBytes() : DEFAULT_ENTRY_BYTES;
+    }
+
+    private void resize(Tuned tuned) {
+        Policy.Eviction<Object, Object> eviction = tuned.cache.policy().eviction().orElse(null);
+        if (eviction == null || tuned.baseMaximum == 0) {
+            return;
+        }
+        CacheStats stats = tuned.cache.stats();
+        CacheStats delta = stats.minus(tuned.lastStats);
+        long sizeEvictions = tuned.sizeEvictions.sum();
+        long newSizeEvictions = sizeEvictions - tuned.lastSizeEvictions;
+        if (delta.requestCount() < MIN_REQUESTS) {
+            return;
+        }
+        tuned.lastStats = stats;
+        tuned.lastSizeEvictions = sizeEvictions;
+        double hitRatio = delta.hitRate();
+        if (newSizeEvictions == 0) {
+            // Everything fits; size does not limit the hit ratio
+            tuned.lastHitRatio = hitRatio;
+            return;
+        }
+        if (tuned.lastHitRatio >= 0) {
+            double gain = hitRatio - tuned.lastHitRatio;
+            if (tuned.direction > 0 && gain < MIN_GAIN) {
+                tuned.direction = -1;
+            } else if (tuned.direction < 0 && gain < -MIN_GAIN) {
+                tuned.direction = 1;
+            }
+        }
+        tuned.lastHitRatio = hitRatio;
+
+        long current = eviction.getMaximum();
+        long target = tuned.direction > 0 ? (long) (current * STEP) : (long) (current / STEP);
+        target = Math.max(tuned.baseMaximum / 2, Math.min(tuned.baseMaximum * maxGrowth, target));
+        double extraBytes = growthBytes(tuned, target) - growthBytes(tuned, current);
+        if (extraBytes > 0 && grownBytes + extraBytes > growthBudgetBytes) {
+            log.debug("L1 cache {} stays at {} entries: growth budget of {} bytes used up",
+                    tuned.name, current, growthBudgetBytes);
+            tuned.direction = -1;
+            return;
+        }
+        grownBytes += extraBytes;
+        if (target != current) {
+            eviction.setMaximum(target);
+            log.info("Resized L1 cache {} from {} to {} entries (hit ratio {}, {} size evictions)",
+                    tuned.name, current, target, String.format("%.3f", hitRatio), newSizeEvictions);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.Category;
+import com.eshop.app.event.CategoryChangedEvent;
+import com.eshop.app.mapper.CategoryMapper;
+import com.eshop.app.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Holds the current {@link CategoryTreeSnapshot} in a {@link VersionedSnapshot}
+ * expiring after the taxonomy TTL.
+ *
+ * <p>The snapshot is loaded with a single query and rebuilt after every
+ * committed category write ({@link CategoryChangedEvent}).
+ */
+@Slf4j
+@Component
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final VersionedSnapshot<CategoryTreeSnapshot> snapshot;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository,
+                             CategoryMapper categoryMapper,
+                             @Qualifier("taxonomyCaffeineBuilder") Caffeine<Object, Object> taxonomyCaffeineBuilder) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.snapshot = new VersionedSnapshot<>(taxonomyCaffeineBuilder, CategoryTreeSnapshot::version, this::load);
+    }
+
+    /**
+     * Current snapshot, loading it on first use or after expiry.
+     */
+    public CategoryTreeSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        log.debug("Category {} changed, rebuilding category tree", event.getCategoryId());
+        rebuild();
+    }
+
+    /**
+     * Loads a fresh snapshot and publishes it unless a newer one is already present.
+     */
+    public CategoryTreeSnapshot rebuild() {
+        return snapshot.rebuild();
+    }
+
+    private CategoryTreeSnapshot load(long version) {
+        long start = System.nanoTime();
+        List<Category> categories = categoryRepository.findAll();
+        List<CategoryTreeSnapshot.Node> nodes = categories.stream()
+                .map(c -> new CategoryTreeSnapshot.Node(
+                        c.getId(),
+                        // Reading the id of a lazy proxy does not initialize it, so this stays one query
+                        c.getParent() != null ? c.getParent().getId() : null,
+                        c.getDisplayOrder() != null ? c.getDisplayOrder() : 0,
+                        Boolean.TRUE.equals(c.getActive()),
+                        categoryMapper.toCategoryResponse(c)))
+                .toList();
+        CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(nodes, version);
+        log.info("Built category tree snapshot v{} with {} categories in {} ms",
+                version, tree.size(), (System.nanoTime() - start) / 1_000_000);
+        return tree;
+    }
+}
@@ -0,0 +1,326 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.dto.response.CategoryResponse;
+import com.eshop.app.dto.response.CategoryTreeResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, array-backed snapshot of the whole category hierarchy.
+ *
+ * <p>Nodes are numbered densely and laid out in depth-first (Euler tour)
+ * order. Each node stores its pre-order position ({@code left}) and the
+ * position of its last descendant ({@code right}), i.e. nested-set bounds, so:
+ * <ul>
+ *   <li>ancestor/descendant checks are O(1) interval comparisons</li>
+ *   <li>a subtree is one contiguous slice of the pre-order array</li>
+ *   <li>paths walk the parent array, O(depth)</li>
+ * </ul>
+ *
+ * <p>Siblings are ordered by display order, then name, then id. Nodes whose
+ * parent is missing, or that sit on a parent cycle, are promoted to roots so
+ * bad data cannot break the traversal.
+ */
+public final class CategoryTreeSnapshot {
+
+    public static final CategoryTreeSnapshot EMPTY = build(List.of(), 0L);
+
+    /**
+     * Builder input: one row per category.
+     */
+    public record Node(long id, Long parentId, int displayOrder, boolean active, CategoryResponse category) {
+    }
+
+    /**
+     * Nested-set bounds of a subtree in pre-order positions (both inclusive).
+     */
+    public record SubtreeRange(int left, int right) {
+        public int size() {
+            return right - left + 1;
+        }
+    }
+
+    private final long version;
+    private final Map<Long, Integer> indexById;
+    private final long[] ids;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] left;
+    private final int[] right;
+    private final int[] preorder;
+    private final long[] preorderIds;
+    private final int[] childOffsets;
+    private final int[] childIndex;
+    private final int[] roots;
+    private final boolean[] active;
+    private final CategoryResponse[] categories;
+
+    private CategoryTreeSnapshot(long version, Map<Long, Integer> indexById, long[] ids, int[] parent, int[] depth,
+                                 int[] left, int[] right, int[] preorder, long[] preorderIds, int[] childOffsets, int[] childIndex,
+                                 int[] roots, boolean[] active, CategoryResponse[] categories) {
+        this.version = version;
+        this.indexById = indexById;
+        this.ids = ids;
+        this.parent = parent;
+        this.depth = depth;
+        this.left = left;
+        this.right = right;
+        this.preorder = preorder;
+        this.preorderIds = preorderIds;
+        this.childOffsets = childOffsets;
+        this.childIndex = childIndex;
+        this.roots = roots;
+        this.active = active;
+        this.categories = categories;
+    }
+
+    /**
+     * Builds a snapshot in O(n log n) (sibling sort) and O(n) memory.
+     *
+     * @param version monotonically increasing build number; newer snapshots win when published concurrently
+     */
+    public static CategoryTreeSnapshot build(List<Node> input, long version) {
+        List<Node> nodes = new ArrayList<>(input);
+        nodes.sort(Comparator.comparingInt(Node::displayOrder)
+                .thenComparing(n -> n.category() != null && n.category().getName() != null ? n.category().getName() : "")
+                .thenComparingLong(Node::id));
+        int n = nodes.size();
+
+        Map<Long, Integer> indexById = new HashMap<>(n * 2);
+        long[] ids = new long[n];
+        boolean[] active = new boolean[n];
+        CategoryResponse[] categories = new CategoryResponse[n];
+        for (int i = 0; i < n; i++) {
+            Node node = nodes.get(i);
+            indexById.put(node.id(), i);
+            ids[i] = node.id();
+            active[i] = node.active();
+            categories[i] = node.category();
+        }
+
+        int[] parent = new int[n];
+        int[] childCount = new int[n];
+        for (int i = 0; i < n; i++) {
+            Long parentId = nodes.get(i).parentId();
+            Integer p = parentId != null ? indexById.get(parentId) : null;
+            parent[i] = p != null && p != i ? p : -1;
+            if (parent[i] >= 0) {
+                childCount[parent[i]]++;
+            }
+        }
+
+        // Children in compressed sparse row form; sibling order follows the sorted node order
+        int[] childOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            childOffsets[i + 1] = childOffsets[i] + childCount[i];
+        }
+        int[] fill = Arrays.copyOf(childOffsets, n);
+        int[] childIndex = new int[childOffsets[n]];
+        for (int i = 0; i < n; i++) {
+            if (parent[i] >= 0) {
+                childIndex[fill[parent[i]]++] = i;
+            }
+        }
+
+        int[] depth = new int[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int[] preorder = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        List<Integer> rootList = new ArrayList<>();
+        int position = 0;
+
+        // Two passes: true roots first, then anything unreachable (parent cycles) promoted to root
+        for (int pass = 0; pass < 2; pass++) {
+            for (int r = 0; r < n; r++) {
+                if (visited[r] || (pass == 0 && parent[r] >= 0)) {
+                    continue;
+                }
+                parent[r] = -1;
+                rootList.add(r);
+                int sp = 0;
+                visited[r] = true;
+                depth[r] = 0;
+                left[r] = position;
+                preorder[position++] = r;
+                stack[sp++] = r;
+                while (sp > 0) {
+                    int v = stack[sp - 1];
+                    int next = childOffsets[v] + cursor[v];
+                    if (next < childOffsets[v + 1]) {
+                        cursor[v]++;
+                        int c = childIndex[next];
+                        if (visited[c] || parent[c] != v) {
+                            continue;
+                        }
+                        visited[c] = true;
+                        depth[c] = depth[v] + 1;
+                        left[c] = position;
+                        preorder[position++] = c;
+                        stack[sp++] = c;
+                    } else {
+                        right[v] = position - 1;
+                        sp--;
+                    }
+                }
+            }
+        }
+
+        long[] preorderIds = new long[n];
+        for (int pos = 0; pos < n; pos++) {
+            preorderIds[pos] = ids[preorder[pos]];
+        }
+        int[] roots = rootList.stream().mapToInt(Integer::intValue).toArray();
+        return new CategoryTreeSnapshot(version, Collections.unmodifiableMap(indexById), ids, parent, depth,
+                left, right, preorder, preorderIds, childOffsets, childIndex, roots, active, categories);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(long id) {
+        return indexById.containsKey(id);
+    }
+
+    public Optional<CategoryResponse> get(long id) {
+        Integer i = indexById.get(id);
+        return i != null ? Optional.of(categories[i]) : Optional.empty();
+    }
+
+    public int depthOf(long id) {
+        return depth[indexOf(id)];
+    }
+
+    /**
+     * O(1): {@code true} if {@code ancestorId} is {@code descendantId} or one of its ancestors.
+     */
+    public boolean isAncestorOrSelf(long ancestorId, long descendantId) {
+        Integer a = indexById.get(ancestorId);
+        Integer d = indexById.get(descendantId);
+        return a != null && d != null && left[a] <= left[d] && right[d] <= right[a];
+    }
+
+    /**
+     * Ids from {@code id} up to its root (both inclusive); empty if {@code id} is unknown.
+     */
+    public long[] ancestorIdsOrSelf(long id) {
+        Integer i = indexById.get(id);
+        if (i == null) {
+            return new long[0];
+        }
+        long[] result = new long[depth[i] + 1];
+        for (int k = 0, node = i; node >= 0; node = parent[node], k++) {
+            result[k] = ids[node];
+        }
+        return result;
+    }
+
+    /**
+     * Nested-set bounds of the subtree rooted at {@code id}.
+     */
+    public SubtreeRange subtreeRange(long id) {
+        int i = indexOf(id);
+        return new SubtreeRange(left[i], right[i]);
+    }
+
+    /**
+     * Ids of {@code id} and all of its descendants, in pre-order. O(subtree size).
+     */
+    public long[] subtreeIds(long id) {
+        int i = indexOf(id);
+        return Arrays.copyOfRange(preorderIds, left[i], right[i] + 1);
+    }
+
+    /**
+     * Active ids of {@code id} and its descendants; a subtree under an inactive node is excluded entirely.
+     */
+    public List<Long> activeSubtreeIds(long id) {
+        int i = indexOf(id);
+        List<Long> result = new ArrayList<>(right[i] - left[i] + 1);
+        int pos = left[i];
+        while (pos <= right[i]) {
+            int node = preorder[pos];
+            if (!active[node]) {
+                pos = right[node] + 1;
+                continue;
+            }
+            result.add(ids[node]);
+            pos++;
+        }
+        return result;
+    }
+
+    public List<CategoryResponse> roots(boolean activeOnly) {
+        List<CategoryResponse> result = new ArrayList<>(roots.length);
+        for (int r : roots) {
+            if (!activeOnly || active[r]) {
+                result.add(categories[r]);
+            }
+        }
+        return result;
+    }
+
+    public List<CategoryResponse> children(long id, boolean activeOnly) {
+        int i = indexOf(id);
+        List<CategoryResponse> result = new ArrayList<>(childOffsets[i + 1] - childOffsets[i]);
+        for (int k = childOffsets[i]; k < childOffsets[i + 1]; k++) {
+            int c = childIndex[k];
+            if (parent[c] == i && (!activeOnly || active[c])) {
+                result.add(categories[c]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Categories from the root down to {@code id} (inclusive).
+     */
+    public List<CategoryResponse> path(long id) {
+        int i = indexOf(id);
+        CategoryResponse[] path = new CategoryResponse[depth[i] + 1];
+        for (int k = depth[i]; i >= 0; i = parent[i], k--) {
+            path[k] = categories[i];
+        }
+        return List.of(path);
+    }
+
+    /**
+     * Materializes the full tree as response DTOs in a single pre-order pass.
+     */
+    public List<CategoryTreeResponse> toTree() {
+        CategoryTreeResponse[] nodes = new CategoryTreeResponse[ids.length];
+        List<CategoryTreeResponse> result = new ArrayList<>(roots.length);
+        for (int i : preorder) {
+            CategoryTreeResponse response = new CategoryTreeResponse(ids[i], categories[i].getName());
+            nodes[i] = response;
+            if (parent[i] < 0) {
+                result.add(response);
+            } else {
+                nodes[parent[i]].getChildren().add(response);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long id) {
+        Integer i = indexById.get(id);
+        if (i == null) {
+            throw new IllegalArgumentException("Category not in snapshot: " + id);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,276 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.dto.response.CouponResponse;
+import com.eshop.app.entity.Coupon;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable in-memory index of the active coupon rules, keyed by code, store and category.
+ *
+ * <p>Each rule lives in exactly one bucket: its category if it has one, else its
+ * store, else the global list. A cart is evaluated in one pass: line amounts are
+ * aggregated once per store and per category ancestor, and then only the buckets
+ * the cart actually touches are scored. Category coupons apply to the whole
+ * subtree of their category.
+ *
+ * <p>The {@code usedCount} held here is informational; redemption is decided by
+ * an atomic conditional update in the database.
+ */
+public final class CouponRuleIndex {
+
+    public static final CouponRuleIndex EMPTY = build(List.of(), 0L);
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * Immutable copy of the fields of a {@link Coupon} that rule evaluation needs.
+     */
+    public record Rule(long id, String code, Coupon.DiscountType discountType, BigDecimal discountValue,
+                       BigDecimal minimumOrderAmount, BigDecimal maximumDiscountAmount,
+                       Integer usageLimit, int usedCount, LocalDateTime validFrom, LocalDateTime validUntil,
+                       Coupon.AppliesTo appliesTo, Long storeId, Long categoryId, CouponResponse response) {
+
+        public static Rule of(Coupon coupon, CouponResponse response) {
+            return new Rule(
+                    coupon.getId(),
+                    coupon.getCode(),
+                    coupon.getDiscountType(),
+                    coupon.getDiscountValue(),
+                    coupon.getMinimumOrderAmount(),
+                    coupon.getMaximumDiscountAmount(),
+                    coupon.getUsageLimit(),
+                    coupon.getUsedCount() != null ? coupon.getUsedCount() : 0,
+                    coupon.getValidFrom(),
+                    coupon.getValidUntil(),
+                    coupon.getAppliesTo(),
+                    coupon.getStore() != null ? coupon.getStore().getId() : null,
+                    coupon.getCategory() != null ? coupon.getCategory().getId() : null,
+                    response);
+        }
+
+        public boolean isWithinValidity(LocalDateTime now) {
+            return !now.isBefore(validFrom) && !now.isAfter(validUntil);
+        }
+
+        public boolean isExhausted() {
+            return usageLimit != null && usedCount >= usageLimit;
+        }
+
+        /**
+         * Same arithmetic as {@link Coupon#calculateDiscount(BigDecimal)}, applied to the eligible amount.
+         */
+        public BigDecimal discountFor(BigDecimal eligibleAmount) {
+            BigDecimal discount = discountType == Coupon.DiscountType.PERCENTAGE
+                    ? eligibleAmount.multiply(discountValue).divide(HUNDRED)
+                    : discountValue;
+            if (maximumDiscountAmount != null && discount.compareTo(maximumDiscountAmount) > 0) {
+                discount = maximumDiscountAmount;
+            }
+            return discount.compareTo(eligibleAmount) > 0 ? eligibleAmount : discount;
+        }
+    }
+
+    /**
+     * One cart line; {@code amount} is the line total (unit price times quantity).
+     */
+    public record CartLine(Long storeId, Long categoryId, BigDecimal amount) {
+    }
+
+    /**
+     * Cart to evaluate. {@code shippingAmount} may be {@code null} when shipping
+     * has not been quoted yet, in which case shipping-only coupons do not apply.
+     */
+    public record CartContext(List<CartLine> lines, BigDecimal orderTotal, BigDecimal shippingAmount) {
+
+        /**
+         * Single-line cart for callers that only know an order total and optional store/category.
+         */
+        public static CartContext of(BigDecimal orderTotal, Long storeId, Long categoryId) {
+            return new CartContext(List.of(new CartLine(storeId, categoryId, orderTotal)), orderTotal, null);
+        }
+    }
+
+    /**
+     * Outcome of scoring one rule against one cart.
+     */
+    public record Evaluation(Rule rule, BigDecimal eligibleAmount, BigDecimal discount, String errorCode, String message) {
+
+        public boolean isApplicable() {
+            return errorCode == null && discount.signum() > 0;
+        }
+    }
+
+    private final long version;
+    private final Map<String, Rule> byCode;
+    private final List<Rule> global;
+    private final Map<Long, List<Rule>> byStore;
+    private final Map<Long, List<Rule>> byCategory;
+
+    private CouponRuleIndex(long version, Map<String, Rule> byCode, List<Rule> global,
+                            Map<Long, List<Rule>> byStore, Map<Long, List<Rule>> byCategory) {
+        this.version = version;
+        this.byCode = byCode;
+        this.global = global;
+        this.byStore = byStore;
+        this.byCategory = byCategory;
+    }
+
+    public static CouponRuleIndex build(List<Rule> rules, long version) {
+        Map<String, Rule> byCode = new HashMap<>(rules.size() * 2);
+        List<Rule> global = new ArrayList<>();
+        Map<Long, List<Rule>> byStore = new HashMap<>();
+        Map<Long, List<Rule>> byCategory = new HashMap<>();
+        for (Rule rule : rules) {
+            byCode.put(rule.code(), rule);
+            if (rule.categoryId() != null) {
+                byCategory.computeIfAbsent(rule.categoryId(), k -> new ArrayList<>()).add(rule);
+            } else if (rule.storeId() != null) {
+                byStore.computeIfAbsent(rule.storeId(), k -> new ArrayList<>()).add(rule);
+            } else {
+                global.add(rule);
+            }
+        }
+        byStore.replaceAll((k, v) -> List.copyOf(v));
+        byCategory.replaceAll((k, v) -> List.copyOf(v));
+        return new CouponRuleIndex(version, Collections.unmodifiableMap(byCode), List.copyOf(global),
+                Collections.unmodifiableMap(byStore), Collections.unmodifiableMap(byCategory));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return byCode.size();
+    }
+
+    public Optional<Rule> byCode(String code) {
+        return code != null ? Optional.ofNullable(byCode.get(code)) : Optional.empty();
+    }
+
+    /**
+     * Scores a single rule against a cart.
+     */
+    public Evaluation evaluate(Rule rule, CartContext cart, CategoryTreeSnapshot tree, LocalDateTime now) {
+        return evaluate(rule, CartTotals.of(cart, tree), now);
+    }
+
+    /**
+     * Scores every rule that can touch the cart and returns the applicable ones,
+     * largest discount first.
+     */
+    public List<Evaluation> applicable(CartContext cart, CategoryTreeSnapshot tree, LocalDateTime now) {
+        CartTotals totals = CartTotals.of(cart, tree);
+        List<Evaluation> result = new ArrayList<>();
+        collect(global, totals, now, result);
+        for (Long storeId : totals.byStore.keySet()) {
+            collect(byStore.getOrDefault(storeId, List.of()), totals, now, result);
+        }
+        for (Long categoryId : totals.byCategory.keySet()) {
+            collect(byCategory.getOrDefault(categoryId, List.of()), totals, now, result);
+        }
+        result.sort(Comparator.comparing(Evaluation::discount).reversed());
+        return result;
+    }
+
+    private static void collect(List<Rule> rules, CartTotals totals, LocalDateTime now, List<Evaluation> out) {
+        for (Rule rule : rules) {
+            Evaluation evaluation = evaluate(rule, totals, now);
+            if (evaluation.isApplicable()) {
+                out.add(evaluation);
+            }
+        }
+    }
+
+    private static Evaluation evaluate(Rule rule, CartTotals totals, LocalDateTime now) {
+        if (!rule.isWithinValidity(now)) {
+            return rejected(rule, "COUPON_NOT_ACTIVE", "Coupon is not valid at this time");
+        }
+        if (rule.isExhausted()) {
+            return rejected(rule, "USAGE_LIMIT_REACHED", "Coupon usage limit reached");
+        }
+        if (rule.minimumOrderAmount() != null && totals.orderTotal.compareTo(rule.minimumOrderAmount()) < 0) {
+            return rejected(rule, "MIN_ORDER_NOT_MET", "Order total is below minimum amount required");
+        }
+        BigDecimal eligible = totals.eligibleAmount(rule);
+        if (eligible == null || eligible.signum() <= 0) {
+            return rejected(rule, "NOT_APPLICABLE", "Coupon does not apply to the items in this order");
+        }
+        return new Evaluation(rule, eligible, rule.discountFor(eligible), null, "Coupon validated");
+    }
+
+    private static Evaluation rejected(Rule rule, String errorCode, String message) {
+        return new Evaluation(rule, BigDecimal.ZERO, BigDecimal.ZERO, errorCode, message);
+    }
+
+    /**
+     * Cart amounts aggregated once per store, per category ancestor and per
+     * (store, category ancestor) pair.
+     */
+    private static final class CartTotals {
+
+        private record StoreCategory(Long storeId, long categoryId) {
+        }
+
+        private final BigDecimal orderTotal;
+        private final BigDecimal shippingAmount;
+        private final Map<Long, BigDecimal> byStore = new HashMap<>();
+        private final Map<Long, BigDecimal> byCategory = new HashMap<>();
+        private final Map<StoreCategory, BigDecimal> byStoreCategory = new HashMap<>();
+
+        private CartTotals(BigDecimal orderTotal, BigDecimal shippingAmount) {
+            this.orderTotal = orderTotal;
+            this.shippingAmount = shippingAmount;
+        }
+
+        static CartTotals of(CartContext cart, CategoryTreeSnapshot tree) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (CartLine line : cart.lines()) {
+                sum = sum.add(line.amount());
+            }
+            CartTotals totals = new CartTotals(cart.orderTotal() != null ? cart.orderTotal() : sum, cart.shippingAmount());
+            for (CartLine line : cart.lines()) {
+                if (line.storeId() != null) {
+                    totals.byStore.merge(line.storeId(), line.amount(), BigDecimal::add);
+                }
+                if (line.categoryId() == null) {
+                    continue;
+                }
+                long[] ancestors = tree.ancestorIdsOrSelf(line.categoryId());
+                if (ancestors.length == 0) {
+                    ancestors = new long[] {line.categoryId()};
+                }
+                for (long categoryId : ancestors) {
+                    totals.byCategory.merge(categoryId, line.amount(), BigDecimal::add);
+                    totals.byStoreCategory.merge(new StoreCategory(line.storeId(), categoryId), line.amount(), BigDecimal::add);
+                }
+            }
+            return totals;
+        }
+
+        BigDecimal eligibleAmount(Rule rule) {
+            if (rule.appliesTo() == Coupon.AppliesTo.SHIPPING_ONLY) {
+                return shippingAmount;
+            }
+            if (rule.categoryId() != null && rule.storeId() != null) {
+                return byStoreCategory.get(new StoreCategory(rule.storeId(), rule.categoryId()));
+            }
+            if (rule.categoryId() != null) {
+                return byCategory.get(rule.categoryId());
+            }
+            if (rule.storeId() != null) {
+                return byStore.get(rule.storeId());
+            }
+            return orderTotal;
+        }
+    }
+}
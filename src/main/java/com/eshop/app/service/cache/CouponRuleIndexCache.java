@@ -0,0 +1,69 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.Coupon;
+import com.eshop.app.event.CouponChangedEvent;
+import com.eshop.app.mapper.CouponMapper;
+import com.eshop.app.repository.CouponRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Holds the current {@link CouponRuleIndex} in a {@link VersionedSnapshot}.
+ *
+ * <p>The index is loaded with one fetch-joined query and rebuilt after every
+ * committed coupon change ({@link CouponChangedEvent}). Its TTL is short, since
+ * coupons also start and end by date.
+ */
+@Slf4j
+@Component
+public class CouponRuleIndexCache {
+
+    private final CouponRepository couponRepository;
+    private final CouponMapper couponMapper;
+    private final VersionedSnapshot<CouponRuleIndex> index;
+
+    public CouponRuleIndexCache(CouponRepository couponRepository,
+                                CouponMapper couponMapper,
+                                @Value("${app.coupons.index-ttl:PT2M}") Duration ttl) {
+        this.couponRepository = couponRepository;
+        this.couponMapper = couponMapper;
+        this.index = new VersionedSnapshot<>(Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats(), CouponRuleIndex::version, this::load);
+    }
+
+    public CouponRuleIndex index() {
+        return index.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCouponChanged(CouponChangedEvent event) {
+        log.debug("Coupon {} changed, rebuilding coupon rule index", event.getCouponId());
+        rebuild();
+    }
+
+    public CouponRuleIndex rebuild() {
+        return index.rebuild();
+    }
+
+    private CouponRuleIndex load(long version) {
+        long start = System.nanoTime();
+        List<Coupon> coupons = couponRepository.findIndexableCoupons(LocalDateTime.now());
+        List<CouponRuleIndex.Rule> rules = coupons.stream()
+                .map(c -> CouponRuleIndex.Rule.of(c, couponMapper.toResponse(c)))
+                .toList();
+        CouponRuleIndex built = CouponRuleIndex.build(rules, version);
+        log.info("Built coupon rule index v{} with {} coupons in {} ms",
+                version, built.size(), (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+}
@@ -0,0 +1,192 @@
+package com.eshop.app.service.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable exchange-rate table with precomputed cross-rates.
+ *
+ * <p>Every {@code from -> to} pair is stored once as a fixed-point long
+ * ({@code to.rate / from.rate} scaled by 10^{@value #CROSS_SCALE}), so a
+ * conversion is a map lookup, one multiply and one rounding division. Amounts
+ * are taken at scale {@value #AMOUNT_SCALE}; the rare product that overflows a
+ * long (very large amounts into very weak currencies) falls back to
+ * {@link BigDecimal} arithmetic with the same cross-rate.
+ *
+ * <p>A table is never mutated. Rate updates build a new table that replaces the
+ * old one in a single reference swap, so a page is always converted with one
+ * consistent set of rates.
+ */
+public final class CurrencyRateTable {
+
+    public static final CurrencyRateTable EMPTY = build(List.of(), null, 0L);
+
+    static final int CROSS_SCALE = 10;
+    static final int AMOUNT_SCALE = 4;
+
+    /**
+     * Marks a cross-rate too large for a fixed-point long; such pairs convert with BigDecimal.
+     */
+    private static final long NO_FIXED_POINT = Long.MIN_VALUE;
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L
+    };
+
+    /**
+     * Builder input: one currency and its rate against the base currency.
+     */
+    public record Rate(String code, BigDecimal exchangeRate, int decimalPlaces) {
+    }
+
+    /**
+     * Resolved conversion between two currencies; reuse it to convert many amounts.
+     */
+    public static final class Conversion {
+        private final long crossRate;
+        private final BigDecimal exactCrossRate;
+        private final int targetDecimals;
+        private final boolean identity;
+
+        private Conversion(long crossRate, BigDecimal exactCrossRate, int targetDecimals, boolean identity) {
+            this.crossRate = crossRate;
+            this.exactCrossRate = exactCrossRate;
+            this.targetDecimals = targetDecimals;
+            this.identity = identity;
+        }
+
+        public BigDecimal apply(BigDecimal amount) {
+            if (amount == null || identity) {
+                return amount;
+            }
+            if (crossRate == NO_FIXED_POINT) {
+                return amount.multiply(exactCrossRate).setScale(targetDecimals, RoundingMode.HALF_UP);
+            }
+            return convert(amount, crossRate, targetDecimals);
+        }
+    }
+
+    private final long version;
+    private final String baseCode;
+    private final Map<String, Integer> indexByCode;
+    private final BigDecimal[] rates;
+    private final int[] decimalPlaces;
+    private final long[] crossRates;
+
+    private CurrencyRateTable(long version, String baseCode, Map<String, Integer> indexByCode, BigDecimal[] rates,
+                              int[] decimalPlaces, long[] crossRates) {
+        this.version = version;
+        this.baseCode = baseCode;
+        this.indexByCode = indexByCode;
+        this.rates = rates;
+        this.decimalPlaces = decimalPlaces;
+        this.crossRates = crossRates;
+    }
+
+    /**
+     * Builds the n x n cross-rate matrix in O(n^2). Currencies without a positive
+     * rate are left out, so they cannot be converted but do not block the others.
+     *
+     * @param baseCode code of the default currency that catalog prices are stored in, may be {@code null}
+     */
+    public static CurrencyRateTable build(List<Rate> allRates, String baseCode, long version) {
+        List<Rate> rates = allRates.stream()
+                .filter(rate -> rate.exchangeRate() != null && rate.exchangeRate().signum() > 0)
+                .toList();
+        int n = rates.size();
+        Map<String, Integer> indexByCode = new HashMap<>(n * 2);
+        BigDecimal[] exchangeRates = new BigDecimal[n];
+        int[] decimalPlaces = new int[n];
+        long[] crossRates = new long[n * n];
+        for (int i = 0; i < n; i++) {
+            Rate rate = rates.get(i);
+            indexByCode.put(rate.code(), i);
+            exchangeRates[i] = rate.exchangeRate();
+            decimalPlaces[i] = rate.decimalPlaces();
+        }
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                BigDecimal cross = exchangeRates[to].divide(exchangeRates[from], CROSS_SCALE, RoundingMode.HALF_UP);
+                crossRates[from * n + to] = cross.unscaledValue().bitLength() < Long.SIZE
+                        ? cross.unscaledValue().longValue()
+                        : NO_FIXED_POINT;
+            }
+        }
+        return new CurrencyRateTable(version, baseCode, Collections.unmodifiableMap(indexByCode), exchangeRates,
+                decimalPlaces, crossRates);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Code of the default (base) currency, or {@code null} if none is flagged.
+     */
+    public String baseCode() {
+        return baseCode;
+    }
+
+    public int size() {
+        return decimalPlaces.length;
+    }
+
+    public boolean contains(String code) {
+        return indexByCode.containsKey(code);
+    }
+
+    /**
+     * Resolves a conversion once; throws {@link IllegalArgumentException} for unknown codes.
+     */
+    public Conversion conversion(String fromCode, String toCode) {
+        int from = indexOf(fromCode);
+        int to = indexOf(toCode);
+        long crossRate = crossRates[from * decimalPlaces.length + to];
+        BigDecimal exact = crossRate == NO_FIXED_POINT
+                ? rates[to].divide(rates[from], CROSS_SCALE, RoundingMode.HALF_UP)
+                : null;
+        return new Conversion(crossRate, exact, decimalPlaces[to], from == to);
+    }
+
+    public BigDecimal convert(BigDecimal amount, String fromCode, String toCode) {
+        return conversion(fromCode, toCode).apply(amount);
+    }
+
+    private int indexOf(String code) {
+        Integer i = indexByCode.get(code);
+        if (i == null) {
+            throw new IllegalArgumentException("Currency not found: " + code);
+        }
+        return i;
+    }
+
+    static BigDecimal convert(BigDecimal amount, long crossRate, int targetDecimals) {
+        int shift = AMOUNT_SCALE + CROSS_SCALE - targetDecimals;
+        if (amount.scale() <= AMOUNT_SCALE && shift >= 0 && shift < POW10.length) {
+            try {
+                long scaledAmount = amount.movePointRight(AMOUNT_SCALE).longValueExact();
+                long product = Math.multiplyExact(scaledAmount, crossRate);
+                return BigDecimal.valueOf(divideHalfUp(product, POW10[shift]), targetDecimals);
+            } catch (ArithmeticException overflow) {
+                // fall through to BigDecimal
+            }
+        }
+        return amount.multiply(BigDecimal.valueOf(crossRate, CROSS_SCALE))
+                .setScale(targetDecimals, RoundingMode.HALF_UP);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
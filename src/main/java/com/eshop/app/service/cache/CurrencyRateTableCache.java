@@ -0,0 +1,72 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.Currency;
+import com.eshop.app.event.CurrencyRatesChangedEvent;
+import com.eshop.app.repository.CurrencyRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Holds the current {@link CurrencyRateTable} in a {@link VersionedSnapshot}.
+ *
+ * <p>The table is loaded with one query and republished after every committed
+ * {@link CurrencyRatesChangedEvent}. Since the whole table is swapped at once, a
+ * batch of rate updates committed together becomes visible all at once.
+ */
+@Slf4j
+@Component
+public class CurrencyRateTableCache {
+
+    private final CurrencyRepository currencyRepository;
+    private final VersionedSnapshot<CurrencyRateTable> table;
+
+    public CurrencyRateTableCache(CurrencyRepository currencyRepository,
+                                  @Value("${app.currency.rate-table-ttl:PT5M}") Duration ttl) {
+        this.currencyRepository = currencyRepository;
+        this.table = new VersionedSnapshot<>(Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats(), CurrencyRateTable::version, this::load);
+    }
+
+    public CurrencyRateTable table() {
+        return table.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCurrencyRatesChanged(CurrencyRatesChangedEvent event) {
+        log.debug("Currency rates changed, publishing new rate table");
+        rebuild();
+    }
+
+    public CurrencyRateTable rebuild() {
+        return table.rebuild();
+    }
+
+    private CurrencyRateTable load(long version) {
+        List<Currency> currencies = currencyRepository.findAll();
+        List<CurrencyRateTable.Rate> rates = currencies.stream()
+                .map(c -> new CurrencyRateTable.Rate(c.getCode(), c.getExchangeRate(),
+                        c.getDecimalPlaces() != null ? c.getDecimalPlaces() : 2))
+                .toList();
+        String baseCode = currencies.stream()
+                .filter(c -> Boolean.TRUE.equals(c.getIsDefault()))
+                .map(Currency::getCode)
+                .findFirst()
+                .orElse(null);
+        CurrencyRateTable built = CurrencyRateTable.build(rates, baseCode, version);
+        if (built.size() < rates.size()) {
+            log.warn("Left {} currencies without a positive exchange rate out of rate table v{}",
+                    rates.size() - built.size(), version);
+        }
+        log.info("Published currency rate table v{} with {} currencies", version, built.size());
+        return built;
+    }
+}
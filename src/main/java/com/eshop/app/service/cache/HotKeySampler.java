@@ -0,0 +1,65 @@
+package com.eshop.app.service.cache;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate most-read keys of one cache, from a sample of the reads.
+ *
+ * <p>Space-Saving: at most {@code capacity} keys are counted; a new key replaces
+ * the one with the lowest count and inherits that count, so counts can only be
+ * overestimated, by at most the inherited part. Keys read often enough to matter
+ * stay in the table.
+ *
+ * @since 2.0
+ */
+public class HotKeySampler {
+
+    private static final int MAX_KEY_LENGTH = 120;
+
+    /**
+     * A hot key; {@code count} and {@code maxError} are in sampled reads.
+     */
+    public record HotKey(String key, long count, long maxError) {
+    }
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+
+    public HotKeySampler(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void record(Object key) {
+        String name = String.valueOf(key);
+        if (name.length() > MAX_KEY_LENGTH) {
+            name = name.substring(0, MAX_KEY_LENGTH);
+        }
+        long[] counter = counters.get(name);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(name, new long[] {1, 0});
+            return;
+        }
+        Map.Entry<String, long[]> min = counters.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue()[0]))
+                .orElseThrow();
+        long floor = min.getValue()[0];
+        counters.remove(min.getKey());
+        counters.put(name, new long[] {floor + 1, floor});
+    }
+
+    public synchronized List<HotKey> top(int limit) {
+        return counters.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(limit)
+                .map(entry -> new HotKey(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .toList();
+    }
+}
@@ -0,0 +1,139 @@
+package com.eshop.app.service.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records reads, load times and entry sizes of a cache into {@link CacheInstrumentation}.
+ *
+ * <p>A load is the time from a miss in {@link #get(Object)} or
+ * {@link #get(Object, Class)} to the {@link #put}
+ * of the same key on the same thread, which is how {@code @Cacheable} fills a
+ * cache, or the run time of the loader passed to {@link #get(Object, Callable)}.
+ * The pending miss is dropped by the thread's next read or put of the cache, and
+ * one older than {@code MAX_LOAD} is not counted, so a miss that was never filled
+ * (loader threw, {@code unless} matched) neither keeps its key nor skews the timer.
+ *
+ * @since 2.0
+ */
+class InstrumentedCache implements Cache {
+
+    private record PendingLoad(Object key, long startNanos) {
+    }
+
+    private static final long MAX_LOAD = TimeUnit.MINUTES.toNanos(1);
+
+    private final Cache delegate;
+    private final CacheInstrumentation.Stats stats;
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    InstrumentedCache(Cache delegate, CacheInstrumentation.Stats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = delegate.get(key);
+        recordGet(key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        recordGet(key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            long start = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                stats.recordLoad(System.nanoTime() - start);
+            }
+        });
+        stats.recordGet(key, !loaded[0]);
+        if (loaded[0]) {
+            stats.recordPut(value);
+        }
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PendingLoad pending = pendingLoad.get();
+        if (pending != null) {
+            long elapsed = System.nanoTime() - pending.startNanos();
+            if (pending.key().equals(key) && elapsed <= MAX_LOAD) {
+                stats.recordLoad(elapsed);
+            }
+            pendingLoad.remove();
+        }
+        stats.recordPut(value);
+        delegate.put(key, value);
+    }
+
+    private void recordGet(Object key, boolean hit) {
+        stats.recordGet(key, hit);
+        if (hit) {
+            pendingLoad.remove();
+        } else {
+            pendingLoad.set(new PendingLoad(key, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,345 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local (L1) cache kept coherent with a Redis (L2) cache of the same name.
+ *
+ * <p>Every local entry has a Redis twin: reads fall through to Redis and copy the
+ * value locally, writes and evictions go to both. Any change to a Redis key (a
+ * put or evict on another node, or its Redis TTL running out) is pushed to every
+ * node by {@link NearCacheInvalidationListener}, which calls {@link #invalidateLocal}.
+ * The local TTL can therefore be much longer than without invalidation.
+ *
+ * <p>With client tracking, this node's own puts come back as invalidations too;
+ * each put is counted and its echo skipped, so a put does not drop the copy it
+ * just stored. Echoes not seen within {@code OWN_WRITE_WINDOW} are forgotten.
+ * Writes to the same Redis keys made elsewhere on this node (e.g. the pipelined
+ * backfill of {@link BatchCache}) are counted through {@link #expectOwnWrites}.
+ *
+ * <p>Inside a transaction, Redis puts, evicts and clears run after commit, like
+ * a transaction-aware Redis cache, so the remote cache must be the undecorated
+ * one: the outcome of the deferred operation is seen here, not swallowed by the
+ * decorator, and a failure never reaches the committed request.
+ *
+ * <p>A Redis evict or clear that fails is remembered: the key is no longer read
+ * from Redis on this node, and the evict is retried through
+ * {@link #retryFailedEvictions()} until it succeeds or a put replaces the entry.
+ *
+ * @since 2.0
+ */
+@Slf4j
+public class NearCache implements Cache {
+
+    private static final Duration OWN_WRITE_WINDOW = Duration.ofSeconds(10);
+
+    private final Cache local;
+    private final Cache remote;
+    private final Function<String, Object> keyParser;
+    /**
+     * Bumped on every invalidation, so a Redis read racing with one is not copied locally.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, AtomicInteger> ownWrites = Caffeine.newBuilder()
+            .expireAfterWrite(OWN_WRITE_WINDOW)
+            .maximumSize(100_000)
+            .build();
+    private final Set<Object> failedEvictions = ConcurrentHashMap.newKeySet();
+    private volatile boolean clearFailed;
+    private volatile boolean ownWritesEchoed;
+
+    /**
+     * @param local     Caffeine cache
+     * @param remote    Redis cache of the same name
+     * @param keyParser turns the Redis key suffix back into the local key
+     */
+    public NearCache(Cache local, Cache remote, Function<String, Object> keyParser) {
+        this.local = local;
+        this.remote = remote;
+        this.keyParser = keyParser;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    public Cache getLocal() {
+        return local;
+    }
+
+    /**
+     * Whether invalidations arrive for this node's own writes too (client tracking
+     * on a connection other than the writing one), so their echoes are skipped.
+     */
+    public void setOwnWritesEchoed(boolean ownWritesEchoed) {
+        this.ownWritesEchoed = ownWritesEchoed;
+        ownWrites.invalidateAll();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (clearFailed || failedEvictions.contains(key)) {
+            // Redis may still hold the value this node tried to evict
+            return null;
+        }
+        long seen = invalidations.get();
+        value = remoteGet(key);
+        if (value != null && value.get() != null && invalidations.get() == seen) {
+            local.put(key, value.get());
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object stored = value != null ? value.get() : null;
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        return local.get(key, () -> {
+            T loaded = valueLoader.call();
+            if (loaded != null) {
+                remotePut(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        afterCommit(() -> remotePut(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        afterCommit(() -> remoteEvict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.evictIfPresent(key);
+        remoteEvict(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        afterCommit(this::remoteClear);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = local.invalidate();
+        remoteClear();
+        return present;
+    }
+
+    /**
+     * Retries the Redis evicts and clears that failed.
+     *
+     * @return the number of keys still waiting for their evict
+     */
+    public int retryFailedEvictions() {
+        if (clearFailed) {
+            if (!remote(remote::clear, "clear", "*")) {
+                return failedEvictions.size();
+            }
+            clearFailed = false;
+            failedEvictions.clear();
+            return 0;
+        }
+        for (Object key : failedEvictions) {
+            if (!remote(() -> remote.evict(key), "evict", key)) {
+                break;
+            }
+            failedEvictions.remove(key);
+        }
+        return failedEvictions.size();
+    }
+
+    /**
+     * Counts writes of these keys that this node is about to make to Redis
+     * without going through this cache, so their echoes keep the local copies.
+     */
+    public void expectOwnWrites(Collection<?> keys) {
+        if (ownWritesEchoed) {
+            keys.forEach(key -> ownWrites.get(key, k -> new AtomicInteger()).incrementAndGet());
+        }
+    }
+
+    /**
+     * Withdraws {@link #expectOwnWrites} for writes that failed, so no echo is awaited.
+     */
+    public void cancelOwnWrites(Collection<?> keys) {
+        if (ownWritesEchoed) {
+            keys.forEach(this::consumeOwnWrite);
+        }
+    }
+
+    /**
+     * Drops the local copy of a Redis key that changed.
+     *
+     * @param redisKeySuffix the part of the Redis key after {@code name::}
+     */
+    public void invalidateLocal(String redisKeySuffix) {
+        Object key;
+        try {
+            key = keyParser.apply(redisKeySuffix);
+        } catch (RuntimeException e) {
+            invalidations.incrementAndGet();
+            local.clear();
+            return;
+        }
+        if (ownWritesEchoed && consumeOwnWrite(key)) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        local.evict(key);
+    }
+
+    /**
+     * Drops every local entry, e.g. after invalidations may have been missed.
+     */
+    public void invalidateLocal() {
+        invalidations.incrementAndGet();
+        ownWrites.invalidateAll();
+        local.clear();
+    }
+
+    /**
+     * Shortens the local TTL, for when invalidations cannot be received. With a
+     * per-entry expiry only the current entries are cut back; the expiry itself
+     * has to be limited by its owner.
+     */
+    public void limitLocalTtl(Duration ttl) {
+        if (local.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            caffeine.policy().expireAfterWrite().ifPresent(expiry -> expiry.setExpiresAfter(ttl));
+            limitEntryTtls(caffeine, ttl);
+        }
+    }
+
+    private static <K, V> void limitEntryTtls(com.github.benmanes.caffeine.cache.Cache<K, V> caffeine, Duration ttl) {
+        caffeine.policy().expireVariably().ifPresent(expiry -> caffeine.asMap().keySet().forEach(key ->
+                expiry.getExpiresAfter(key)
+                        .filter(remaining -> remaining.compareTo(ttl) > 0)
+                        .ifPresent(remaining -> expiry.setExpiresAfter(key, ttl))));
+    }
+
+    private ValueWrapper remoteGet(Object key) {
+        try {
+            return remote.get(key);
+        } catch (RuntimeException e) {
+            log.warn("Redis read of {}::{} failed, treating as a miss: {}", getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, Object value) {
+        if (ownWritesEchoed) {
+            // Counted before the write, so the echo cannot arrive first
+            ownWrites.get(key, k -> new AtomicInteger()).incrementAndGet();
+        }
+        if (remote(() -> remote.put(key, value), "put", key)) {
+            failedEvictions.remove(key);
+        } else if (ownWritesEchoed) {
+            consumeOwnWrite(key);
+        }
+    }
+
+    private void remoteEvict(Object key) {
+        if (!remote(() -> remote.evict(key), "evict", key)) {
+            failedEvictions.add(key);
+        }
+    }
+
+    private void remoteClear() {
+        if (!remote(remote::clear, "clear", "*")) {
+            clearFailed = true;
+        }
+    }
+
+    /**
+     * Defers a Redis write to after commit, as evict and put of a transaction-aware cache;
+     * evictIfPresent and invalidate stay immediate, as their contract requires.
+     */
+    private void afterCommit(Runnable operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            operation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                operation.run();
+            }
+        });
+    }
+
+    private boolean consumeOwnWrite(Object key) {
+        AtomicInteger pending = ownWrites.getIfPresent(key);
+        return pending != null && pending.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0;
+    }
+
+    /**
+     * Redis being down must not fail the request; failed evicts are retried.
+     *
+     * @return whether the operation succeeded
+     */
+    private boolean remote(Runnable operation, String name, Object key) {
+        try {
+            operation.run();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Redis {} of {}::{} failed: {}", name, getName(), key, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.eshop.app.service.cache;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes Redis key changes to the {@link NearCache} caches of this node.
+ *
+ * <p>Uses Redis 6 client-side caching: a dedicated RESP3 connection runs
+ * {@code CLIENT TRACKING ON BCAST PREFIX <name>::} for every near cache,
+ * and Redis sends an {@code invalidate} push for each key under those prefixes
+ * that is written, deleted or expires. The writes of this node go through other
+ * connections, so NOLOOP would not filter them; the caches skip the echoes of
+ * their own puts instead ({@link NearCache#setOwnWritesEchoed}). Tracking is enabled again
+ * after a reconnect and the local tiers are cleared, since pushes sent while
+ * disconnected are lost.
+ *
+ * <p>Where tracking is not available (Redis before 6, RESP2, cluster clients) it
+ * falls back to keyspace notifications, which need {@code notify-keyspace-events}
+ * to include {@code K$gx} on the server. These have no NOLOOP, so a node's own
+ * writes also drop its local copy. If neither works, the local TTL of the near
+ * caches is cut back to {@code cache.near-cache.degraded-ttl}.
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true", matchIfMissing = true)
+public class NearCacheInvalidationListener {
+
+    private static final String INVALIDATE = "invalidate";
+
+    private final ObjectProvider<NearCacheManager> nearCacheManager;
+    private final ObjectProvider<RedisConnectionFactory> connectionFactory;
+    private final CacheTuner cacheTuner;
+
+    @Value("${cache.near-cache.degraded-ttl:PT10M}")
+    private Duration degradedTtl = Duration.ofMinutes(10);
+
+    private volatile boolean retryWarned;
+
+    private Map<String, NearCache> caches = Map.of();
+    private StatefulRedisConnection<String, String> trackingConnection;
+    private StatefulRedisPubSubConnection<String, String> notificationConnection;
+
+    public NearCacheInvalidationListener(ObjectProvider<NearCacheManager> nearCacheManager,
+                                         ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                         CacheTuner cacheTuner) {
+        this.nearCacheManager = nearCacheManager;
+        this.connectionFactory = connectionFactory;
+        this.cacheTuner = cacheTuner;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        NearCacheManager manager = nearCacheManager.getIfAvailable();
+        if (manager == null || manager.getCaches().isEmpty()) {
+            return;
+        }
+        caches = manager.getCaches().stream()
+                .collect(Collectors.toMap(NearCache::getName, Function.identity()));
+
+        if (!(connectionFactory.getIfAvailable() instanceof LettuceConnectionFactory lettuce)) {
+            degrade("no Lettuce connection factory");
+            return;
+        }
+        AbstractRedisClient client = lettuce.getNativeClient();
+        if (client instanceof RedisClient redisClient && startTracking(redisClient)) {
+            return;
+        }
+        if (client instanceof RedisClient redisClient && subscribeToKeyspace(redisClient, lettuce.getDatabase())) {
+            return;
+        }
+        degrade("neither client tracking nor keyspace notifications are available");
+    }
+
+    private boolean startTracking(RedisClient client) {
+        if (client.getOptions().getConfiguredProtocolVersion() == ProtocolVersion.RESP2) {
+            // RESP2 connections do not receive invalidation pushes
+            return false;
+        }
+        StatefulRedisConnection<String, String> connection = null;
+        try {
+            connection = client.connect();
+            connection.addListener((PushListener) this::onPush);
+            connection.sync().clientTracking(trackingArgs());
+            trackingConnection = connection;
+            caches.values().forEach(cache -> cache.setOwnWritesEchoed(true));
+            client.addListener(new RedisConnectionStateListener() {
+                @Override
+                public void onRedisConnected(RedisChannelHandler<?, ?> reconnected, SocketAddress address) {
+                    if (reconnected == trackingConnection) {
+                        // Runs on the event loop; CLIENT TRACKING must not block it
+                        trackingConnection.async().clientTracking(trackingArgs()).thenRun(() -> {
+                            caches.values().forEach(NearCache::invalidateLocal);
+                            log.info("Re-enabled Redis client tracking for near caches {}", caches.keySet());
+                        });
+                    }
+                }
+            });
+            log.info("Near caches {} invalidated through Redis client tracking", caches.keySet());
+            return true;
+        } catch (RuntimeException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            log.warn("Redis client tracking unavailable for near caches: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast()
+                .prefixes(caches.keySet().stream().map(name -> name + "::").toArray(String[]::new));
+    }
+
+    private void onPush(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List<?> list) {
+            list.forEach(key -> invalidate(String.valueOf(key)));
+        } else {
+            // A null key list means the database was flushed
+            caches.values().forEach(NearCache::invalidateLocal);
+        }
+    }
+
+    private boolean subscribeToKeyspace(RedisClient client, int database) {
+        try {
+            String channelPrefix = "__keyspace@" + database + "__:";
+            StatefulRedisPubSubConnection<String, String> connection = client.connectPubSub();
+            connection.addListener(new RedisPubSubAdapter<>() {
+                @Override
+                public void message(String pattern, String channel, String event) {
+                    invalidate(channel.substring(channelPrefix.length()));
+                }
+            });
+            connection.sync().psubscribe(caches.keySet().stream()
+                    .map(name -> channelPrefix + name + "::*").toArray(String[]::new));
+            notificationConnection = connection;
+            log.info("Near caches {} invalidated through keyspace notifications; "
+                    + "the server needs notify-keyspace-events with K$gx", caches.keySet());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Keyspace notifications unavailable for near caches: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void invalidate(String redisKey) {
+        int separator = redisKey.indexOf("::");
+        if (separator < 0) {
+            return;
+        }
+        NearCache cache = caches.get(redisKey.substring(0, separator));
+        if (cache != null) {
+            cache.invalidateLocal(redisKey.substring(separator + 2));
+        }
+    }
+
+    /**
+     * Retries Redis evicts that failed, so other nodes get their invalidation and
+     * the stale Redis entry is not served for its whole TTL.
+     */
+    @Scheduled(fixedDelayString = "${cache.near-cache.evict-retry-interval:PT5S}")
+    public void retryFailedEvictions() {
+        int waiting = 0;
+        for (NearCache cache : caches.values()) {
+            waiting += cache.retryFailedEvictions();
+        }
+        if (waiting > 0 && !retryWarned) {
+            log.warn("{} near cache evictions are waiting for Redis", waiting);
+        }
+        retryWarned = waiting > 0;
+    }
+
+    private void degrade(String reason) {
+        caches.forEach((name, cache) -> {
+            cacheTuner.limitTtl(name, degradedTtl);
+            cache.limitLocalTtl(degradedTtl);
+        });
+        log.error("Near caches {} have no cross-node invalidation ({}); local TTL cut to {}",
+                caches.keySet(), reason, degradedTtl);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (trackingConnection != null) {
+            trackingConnection.close();
+        }
+        if (notificationConnection != null) {
+            notificationConnection.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.eshop.app.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves the {@link NearCache} caches. Placed first in the composite cache manager
+ * so those names resolve to L1 backed by L2 instead of L1 alone.
+ *
+ * @since 2.0
+ */
+public class NearCacheManager implements CacheManager {
+
+    private final Map<String, NearCache> caches = new LinkedHashMap<>();
+
+    public NearCacheManager(Collection<NearCache> caches) {
+        caches.forEach(cache -> this.caches.put(cache.getName(), cache));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+
+    public Collection<NearCache> getCaches() {
+        return caches.values();
+    }
+}
@@ -0,0 +1,78 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.config.CacheConfig;
+import com.eshop.app.event.outbox.OutboxEventHandler;
+import com.eshop.app.event.outbox.OutboxMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops product entries from this node's Caffeine (L1) caches when a product
+ * event is relayed, including events committed on other nodes, so L1 does not
+ * serve stale stock until its TTL runs out. Listing caches are keyed by page, not
+ * product, so any stock change clears them. The Redis (L2) entries are shared and
+ * are evicted once, by {@link ProductL2CacheInvalidator} or the writing node.
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class ProductL1CacheInvalidator implements OutboxEventHandler {
+
+    private final CaffeineCacheManager caffeineCacheManager;
+
+    public ProductL1CacheInvalidator(@Qualifier("caffeineCacheManager") CaffeineCacheManager caffeineCacheManager) {
+        this.caffeineCacheManager = caffeineCacheManager;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return switch (eventType) {
+            case OutboxMessage.PRODUCT_CREATED, OutboxMessage.STOCK_CHANGED, OutboxMessage.LOW_STOCK,
+                 OutboxMessage.PRODUCTS_REPRICED -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public boolean onEveryNode() {
+        return true;
+    }
+
+    @Override
+    public void handle(OutboxMessage message) {
+        if (OutboxMessage.PRODUCTS_REPRICED.equals(message.eventType())) {
+            // One event per job, so drop every cached product price at once
+            CacheConfig.PRODUCT_PRICE_CACHES.forEach(this::clear);
+            log.debug("Cleared L1 product price caches after repricing job {}", message.aggregateId());
+            return;
+        }
+        Long productId = message.longValue("productId");
+        if (productId != null) {
+            evict(CacheConfig.PRODUCT_CACHE, productId);
+            evict(CacheConfig.PRODUCTS_CACHE, productId);
+        }
+        CacheConfig.PRODUCT_LIST_CACHES.forEach(this::clear);
+        if (OutboxMessage.PRODUCT_CREATED.equals(message.eventType())) {
+            clear(CacheConfig.PRODUCT_COUNT_CACHE);
+        }
+        log.debug("Invalidated L1 product caches for {} of product {}", message.eventType(), productId);
+    }
+
+    private void evict(String cacheName, Long productId) {
+        Cache cache = caffeineCacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(productId);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = caffeineCacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
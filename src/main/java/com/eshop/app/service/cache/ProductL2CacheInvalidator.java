@@ -0,0 +1,43 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.dto.response.ProductResponse;
+import com.eshop.app.event.outbox.OutboxEventHandler;
+import com.eshop.app.event.outbox.OutboxMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops a product's shared Redis (L2) entry written by batch lookups when its
+ * stock changes. Runs once per event; the L1 copies on every node are handled by
+ * {@link ProductL1CacheInvalidator}, and repricing clears the Redis price caches
+ * itself.
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class ProductL2CacheInvalidator implements OutboxEventHandler {
+
+    private final BatchCache<Long, ProductResponse> productBatchCache;
+
+    public ProductL2CacheInvalidator(BatchCache<Long, ProductResponse> productBatchCache) {
+        this.productBatchCache = productBatchCache;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxMessage.STOCK_CHANGED.equals(eventType) || OutboxMessage.LOW_STOCK.equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxMessage message) {
+        Long productId = message.longValue("productId");
+        if (productId != null) {
+            productBatchCache.evictAll(List.of(productId));
+            log.debug("Evicted L2 {} entry of product {} after {}", productBatchCache.getName(), productId,
+                    message.eventType());
+        }
+    }
+}
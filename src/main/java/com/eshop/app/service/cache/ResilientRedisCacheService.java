@@ -5,17 +5,29 @@ import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Resilient Redis cache service with circuit breaker and fallback.
+ *
+ * <p>The multi-key operations cost one round trip each: {@link #getAll} is a
+ * single MGET, {@link #putAll} pipelines one SET per entry and {@link #evictAll}
+ * is a single DEL.
  */
 @Service
-@ConditionalOnProperty(name = "spring.data.redis.repositories.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true", matchIfMissing = true)
 public class ResilientRedisCacheService {
 
     private static final Logger log = LoggerFactory.getLogger(ResilientRedisCacheService.class);
@@ -52,6 +64,72 @@ public class ResilientRedisCacheService {
         return redisTemplate.delete(key);
     }
 
+    /**
+     * Reads several keys with one MGET.
+     *
+     * @return the values found, keyed by key; missing keys and values of another type are left out
+     */
+    @CircuitBreaker(name = REDIS_CB, fallbackMethod = "getAllFallback")
+    @Retry(name = "redisRetry")
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> type) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        List<Object> values = redisTemplate.opsForValue().multiGet(keyList);
+        if (values == null) {
+            return Map.of();
+        }
+        Map<String, T> found = new HashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            Object value = values.get(i);
+            if (type.isInstance(value)) {
+                found.put(keyList.get(i), type.cast(value));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes several entries in one pipeline.
+     *
+     * @return whether the entries were written
+     */
+    @CircuitBreaker(name = REDIS_CB, fallbackMethod = "putAllFallback")
+    @Retry(name = "redisRetry")
+    public boolean putAll(Map<String, ?> entries, Duration ttl) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                entries.forEach((key, value) -> {
+                    if (ttl == null) {
+                        ops.opsForValue().set(key, value);
+                    } else {
+                        ops.opsForValue().set(key, value, ttl);
+                    }
+                });
+                return null;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Deletes several keys with one DEL.
+     */
+    @CircuitBreaker(name = REDIS_CB, fallbackMethod = "evictAllFallback")
+    public Long evictAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0L;
+        }
+        return redisTemplate.delete(keys);
+    }
+
     // Fallback methods (invoked by Resilience4j via reflection)
     @SuppressWarnings("unused")
     private <T> Optional<T> getFallback(String key, Class<T> type, Throwable t) {
@@ -70,4 +148,22 @@ public class ResilientRedisCacheService {
         log.warn("Redis DELETE fallback triggered for key={}, error={}", key, t.getMessage());
         return false;
     }
+
+    @SuppressWarnings("unused")
+    private <T> Map<String, T> getAllFallback(Collection<String> keys, Class<T> type, Throwable t) {
+        log.warn("Redis MGET fallback triggered for {} keys, error={}", keys.size(), t.getMessage());
+        return Map.of();
+    }
+
+    @SuppressWarnings("unused")
+    private boolean putAllFallback(Map<String, ?> entries, Duration ttl, Throwable t) {
+        log.warn("Redis pipelined SET fallback triggered for {} keys, error={}", entries.size(), t.getMessage());
+        return false;
+    }
+
+    @SuppressWarnings("unused")
+    private Long evictAllFallback(Collection<String> keys, Throwable t) {
+        log.warn("Redis DEL fallback triggered for {} keys, error={}", keys.size(), t.getMessage());
+        return 0L;
+    }
 }
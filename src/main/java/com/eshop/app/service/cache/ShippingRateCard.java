@@ -0,0 +1,487 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.Shipping;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable, in-memory shipping rate card: geo zones, weight breaks and warehouse origins.
+ *
+ * <p>A destination resolves to its geo zones through a trie keyed by country,
+ * then state (or any state), then the characters of the postal code, so the walk
+ * costs one step per postal character. Zone {@code zipCodePattern}s contribute
+ * their literal prefix to the trie; a pattern with more than a literal prefix is
+ * additionally checked against the postal code. Matching zones are ordered most
+ * specific first (longer postal prefix, full pattern, then state, then city).
+ *
+ * <p>Each (zone, warehouse, shipping class) combination owns one weight-break
+ * table per method: sorted {@code long} arrays of grams and cents, searched with a
+ * binary search. For a method, the most specific table that defines it decides
+ * its price and availability, falling back to rows without zone, warehouse or
+ * class. When no rate rows are configured at all, the historic flat rates
+ * (base price plus 1.50 per kg) are used.
+ */
+public final class ShippingRateCard {
+
+    static final int AMOUNT_SCALE = 2;
+    /** Id used for "any" zone, warehouse or shipping class. */
+    static final long ANY = 0L;
+
+    private static final Shipping.ShippingMethod[] METHODS = Shipping.ShippingMethod.values();
+    private static final Map<Shipping.ShippingMethod, Integer> DEFAULT_TRANSIT_DAYS = new EnumMap<>(Map.of(
+            Shipping.ShippingMethod.STANDARD, 7,
+            Shipping.ShippingMethod.EXPEDITED, 3,
+            Shipping.ShippingMethod.TWO_DAY, 2,
+            Shipping.ShippingMethod.OVERNIGHT, 1,
+            Shipping.ShippingMethod.SAME_DAY, 0,
+            Shipping.ShippingMethod.PICKUP, 0));
+    private static final List<Rate> DEFAULT_RATES = List.of(
+            flatRate(Shipping.ShippingMethod.STANDARD, "5.00"),
+            flatRate(Shipping.ShippingMethod.EXPEDITED, "10.00"),
+            flatRate(Shipping.ShippingMethod.TWO_DAY, "12.00"),
+            flatRate(Shipping.ShippingMethod.OVERNIGHT, "20.00"),
+            flatRate(Shipping.ShippingMethod.SAME_DAY, "25.00"),
+            new Rate(null, null, null, Shipping.ShippingMethod.PICKUP, BigDecimal.ZERO, null,
+                    BigDecimal.ZERO, BigDecimal.ZERO, null));
+
+    /** Built after the defaults it depends on. */
+    public static final ShippingRateCard EMPTY = build(List.of(), List.of(), List.of(), 0L);
+
+    /**
+     * Builder input: an active geo zone. Null state, city and pattern match any value.
+     */
+    public record Zone(long id, String country, String state, String city, String zipCodePattern) {
+    }
+
+    /**
+     * Builder input: one active weight break. Null zone, warehouse and class match any value.
+     */
+    public record Rate(Long geoZoneId, Long warehouseId, Long shippingClassId, Shipping.ShippingMethod method,
+                       BigDecimal minWeightKg, BigDecimal maxWeightKg, BigDecimal baseCost, BigDecimal perKgCost,
+                       Integer transitDays) {
+    }
+
+    /**
+     * Builder input: an active warehouse, in priority order.
+     */
+    public record Origin(long warehouseId, String name) {
+    }
+
+    /**
+     * Where a package goes. Parsed from {@code "country[,state[,city[,postalCode]]]"}.
+     */
+    public record Destination(String country, String state, String city, String postalCode) {
+
+        public static Destination parse(String destination) {
+            if (destination == null || destination.isBlank()) {
+                throw new IllegalArgumentException("Destination is required");
+            }
+            String[] parts = destination.split(",", -1);
+            return new Destination(part(parts, 0), part(parts, 1), part(parts, 2), part(parts, 3));
+        }
+
+        private static String part(String[] parts, int i) {
+            if (i >= parts.length || parts[i].isBlank()) {
+                return null;
+            }
+            return parts[i].trim();
+        }
+    }
+
+    /**
+     * Geo zones of one destination, most specific first, always ending with {@link #ANY}.
+     * Used as (part of) a quote cache key.
+     */
+    public record ZoneChain(long[] zoneIds) {
+
+        public long primaryZoneId() {
+            return zoneIds[0];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ZoneChain c && Arrays.equals(c.zoneIds, zoneIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(zoneIds);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(zoneIds);
+        }
+    }
+
+    /**
+     * Price and transit time of one method; {@code cost} is {@code null} when the
+     * method is not available for the destination and weight.
+     */
+    public record Quote(Shipping.ShippingMethod method, BigDecimal cost, int transitDays) {
+
+        public boolean isAvailable() {
+            return cost != null;
+        }
+    }
+
+    private record RateKey(long zoneId, long warehouseId, long shippingClassId) {
+    }
+
+    /**
+     * Weight breaks of one method, sorted by minimum weight.
+     */
+    private record WeightBreaks(long[] minGrams, long[] maxGrams, long[] baseCents, long[] perKgCents,
+                                int[] transitDays) {
+
+        int find(long grams) {
+            int i = Arrays.binarySearch(minGrams, grams);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return i >= 0 && grams <= maxGrams[i] ? i : -1;
+        }
+    }
+
+    private static final class ZoneEntry {
+        final long id;
+        final String city;
+        final Pattern postalPattern;
+        final int specificity;
+
+        ZoneEntry(long id, String city, Pattern postalPattern, int specificity) {
+            this.id = id;
+            this.city = city;
+            this.postalPattern = postalPattern;
+            this.specificity = specificity;
+        }
+    }
+
+    private static final class PostalNode {
+        final Map<Character, PostalNode> children = new HashMap<>(4);
+        final List<ZoneEntry> zones = new ArrayList<>(1);
+    }
+
+    private static final class CountryNode {
+        final PostalNode anyState = new PostalNode();
+        final Map<String, PostalNode> byState = new HashMap<>();
+    }
+
+    private final long version;
+    private final boolean defaults;
+    private final Map<String, CountryNode> zoneTrie;
+    private final Map<RateKey, WeightBreaks[]> tables;
+    private final List<Origin> origins;
+    private final int zoneCount;
+    private final int rateCount;
+
+    private ShippingRateCard(long version, boolean defaults, Map<String, CountryNode> zoneTrie,
+                             Map<RateKey, WeightBreaks[]> tables, List<Origin> origins, int zoneCount, int rateCount) {
+        this.version = version;
+        this.defaults = defaults;
+        this.zoneTrie = zoneTrie;
+        this.tables = tables;
+        this.origins = origins;
+        this.zoneCount = zoneCount;
+        this.rateCount = rateCount;
+    }
+
+    /**
+     * @param rates active weight breaks; when empty, the built-in flat rates are used
+     */
+    public static ShippingRateCard build(List<Zone> zones, List<Rate> rates, List<Origin> origins, long version) {
+        Map<String, CountryNode> trie = new HashMap<>();
+        for (Zone zone : zones) {
+            insert(trie, zone);
+        }
+        boolean defaults = rates.isEmpty();
+        Map<RateKey, Map<Shipping.ShippingMethod, List<Rate>>> grouped = new HashMap<>();
+        for (Rate rate : defaults ? DEFAULT_RATES : rates) {
+            RateKey key = new RateKey(idOrAny(rate.geoZoneId()), idOrAny(rate.warehouseId()),
+                    idOrAny(rate.shippingClassId()));
+            grouped.computeIfAbsent(key, k -> new EnumMap<>(Shipping.ShippingMethod.class))
+                    .computeIfAbsent(rate.method(), k -> new ArrayList<>())
+                    .add(rate);
+        }
+        Map<RateKey, WeightBreaks[]> tables = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, byMethod) -> {
+            WeightBreaks[] table = new WeightBreaks[METHODS.length];
+            byMethod.forEach((method, breaks) -> table[method.ordinal()] = compile(breaks));
+            tables.put(key, table);
+        });
+        return new ShippingRateCard(version, defaults, Collections.unmodifiableMap(trie),
+                Collections.unmodifiableMap(tables), List.copyOf(origins), zones.size(), rates.size());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * {@code true} when no rate rows are configured and the built-in flat rates apply.
+     */
+    public boolean usesDefaultRates() {
+        return defaults;
+    }
+
+    public int zoneCount() {
+        return zoneCount;
+    }
+
+    public int rateCount() {
+        return rateCount;
+    }
+
+    /**
+     * Active warehouses in priority order.
+     */
+    public List<Origin> origins() {
+        return origins;
+    }
+
+    /**
+     * Resolves the destination to its matching geo zones, most specific first.
+     */
+    public ZoneChain resolve(Destination destination) {
+        CountryNode country = destination.country() != null
+                ? zoneTrie.get(normalize(destination.country()))
+                : null;
+        if (country == null) {
+            return new ZoneChain(new long[] {ANY});
+        }
+        String postal = normalizePostal(destination.postalCode());
+        String city = destination.city();
+        List<ZoneEntry> matches = new ArrayList<>();
+        if (destination.state() != null) {
+            collect(country.byState.get(normalize(destination.state())), postal, city, matches);
+        }
+        collect(country.anyState, postal, city, matches);
+        matches.sort(Comparator.comparingInt((ZoneEntry e) -> e.specificity).reversed()
+                .thenComparingLong(e -> e.id));
+        long[] ids = new long[matches.size() + 1];
+        int n = 0;
+        for (ZoneEntry entry : matches) {
+            ids[n++] = entry.id;
+        }
+        ids[n++] = ANY;
+        return new ZoneChain(Arrays.copyOf(ids, n));
+    }
+
+    /**
+     * Quotes every method for one package.
+     *
+     * @param grams           billable weight in grams
+     * @param warehouseId     origin warehouse, or {@code null} for any
+     * @param shippingClassId shipping class, or {@code null} for any
+     * @return one quote per {@link Shipping.ShippingMethod}, in declaration order
+     */
+    public Quote[] quoteAll(ZoneChain zones, long grams, Long warehouseId, Long shippingClassId) {
+        long[] warehouses = warehouseId != null ? new long[] {warehouseId, ANY} : new long[] {ANY};
+        long[] classes = shippingClassId != null ? new long[] {shippingClassId, ANY} : new long[] {ANY};
+        Quote[] quotes = new Quote[METHODS.length];
+        for (Shipping.ShippingMethod method : METHODS) {
+            quotes[method.ordinal()] = quote(zones, grams, warehouses, classes, method);
+        }
+        return quotes;
+    }
+
+    private Quote quote(ZoneChain zones, long grams, long[] warehouses, long[] classes,
+                        Shipping.ShippingMethod method) {
+        WeightBreaks breaks = lookup(zones, warehouses, classes, method);
+        int i = breaks != null ? breaks.find(grams) : -1;
+        if (i < 0) {
+            return new Quote(method, null, defaultTransitDays(method));
+        }
+        long cents = Math.addExact(breaks.baseCents()[i], perKgCharge(breaks.perKgCents()[i], grams));
+        int days = breaks.transitDays()[i] >= 0 ? breaks.transitDays()[i] : defaultTransitDays(method);
+        return new Quote(method, BigDecimal.valueOf(cents, AMOUNT_SCALE), days);
+    }
+
+    private WeightBreaks lookup(ZoneChain zones, long[] warehouses, long[] classes, Shipping.ShippingMethod method) {
+        for (long zone : zones.zoneIds()) {
+            for (long w : warehouses) {
+                for (long c : classes) {
+                    WeightBreaks[] table = tables.get(new RateKey(zone, w, c));
+                    if (table != null && table[method.ordinal()] != null) {
+                        return table[method.ordinal()];
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public static int defaultTransitDays(Shipping.ShippingMethod method) {
+        return DEFAULT_TRANSIT_DAYS.getOrDefault(method, 5);
+    }
+
+    /**
+     * Converts kilograms to whole grams, rounding up.
+     */
+    public static long toGrams(BigDecimal weightKg) {
+        if (weightKg == null || weightKg.signum() <= 0) {
+            return 0L;
+        }
+        return weightKg.movePointRight(3).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    /**
+     * {@code perKgCents * grams / 1000}, rounded half-up to cents.
+     */
+    static long perKgCharge(long perKgCents, long grams) {
+        try {
+            return divideHalfUp(Math.multiplyExact(perKgCents, grams), 1_000L);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(perKgCents).multiply(BigDecimal.valueOf(grams))
+                    .divide(BigDecimal.valueOf(1_000L), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static WeightBreaks compile(List<Rate> rates) {
+        List<Rate> sorted = new ArrayList<>(rates);
+        sorted.sort(Comparator.comparing(r -> r.minWeightKg() != null ? r.minWeightKg() : BigDecimal.ZERO));
+        int n = sorted.size();
+        long[] minGrams = new long[n];
+        long[] maxGrams = new long[n];
+        long[] baseCents = new long[n];
+        long[] perKgCents = new long[n];
+        int[] transitDays = new int[n];
+        for (int i = 0; i < n; i++) {
+            Rate rate = sorted.get(i);
+            minGrams[i] = toGrams(rate.minWeightKg());
+            maxGrams[i] = rate.maxWeightKg() != null ? toGrams(rate.maxWeightKg()) : Long.MAX_VALUE;
+            baseCents[i] = toCents(rate.baseCost());
+            perKgCents[i] = toCents(rate.perKgCost());
+            transitDays[i] = rate.transitDays() != null ? rate.transitDays() : -1;
+        }
+        return new WeightBreaks(minGrams, maxGrams, baseCents, perKgCents, transitDays);
+    }
+
+    private static void insert(Map<String, CountryNode> trie, Zone zone) {
+        if (zone.country() == null) {
+            return;
+        }
+        CountryNode country = trie.computeIfAbsent(normalize(zone.country()), k -> new CountryNode());
+        PostalNode node = zone.state() != null
+                ? country.byState.computeIfAbsent(normalize(zone.state()), k -> new PostalNode())
+                : country.anyState;
+        String pattern = zone.zipCodePattern() != null && !zone.zipCodePattern().isBlank()
+                ? zone.zipCodePattern().trim()
+                : null;
+        String prefix = pattern != null ? literalPrefix(pattern) : "";
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), k -> new PostalNode());
+        }
+        Pattern residual = pattern != null && !isPrefixOnly(pattern, prefix) ? compile(pattern) : null;
+        int specificity = prefix.length() * 8
+                + (residual != null ? 4 : 0)
+                + (zone.state() != null ? 2 : 0)
+                + (zone.city() != null ? 1 : 0);
+        node.zones.add(new ZoneEntry(zone.id(), zone.city(), residual, specificity));
+    }
+
+    private static void collect(PostalNode node, String postal, String city, List<ZoneEntry> out) {
+        for (int i = 0; node != null; i++) {
+            for (ZoneEntry entry : node.zones) {
+                if ((entry.city == null || entry.city.equalsIgnoreCase(city))
+                        && (entry.postalPattern == null || (postal != null && entry.postalPattern.matcher(postal).lookingAt()))) {
+                    out.add(entry);
+                }
+            }
+            if (postal == null || i >= postal.length()) {
+                break;
+            }
+            node = node.children.get(postal.charAt(i));
+        }
+    }
+
+    /**
+     * Leading literal characters of a postal regex (matched against the postal code
+     * upper-cased, with spaces and dashes removed) ({@code "^902.*"} gives {@code "902"});
+     * a character followed by a quantifier is not part of the literal prefix.
+     */
+    static String literalPrefix(String pattern) {
+        int i = pattern.startsWith("^") ? 1 : 0;
+        StringBuilder prefix = new StringBuilder();
+        for (; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                break;
+            }
+            if (i + 1 < pattern.length() && "*?+{".indexOf(pattern.charAt(i + 1)) >= 0) {
+                break;
+            }
+            prefix.append(Character.toUpperCase(c));
+        }
+        return prefix.toString();
+    }
+
+    private static boolean isPrefixOnly(String pattern, String prefix) {
+        String rest = pattern.substring(pattern.startsWith("^") ? 1 : 0).substring(prefix.length());
+        return rest.isEmpty() || rest.equals(".*") || rest.equals("*");
+    }
+
+    private static Pattern compile(String pattern) {
+        try {
+            return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            // Not a valid regex: treat it as a plain prefix (already encoded in the trie)
+            return null;
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String normalizePostal(String postalCode) {
+        if (postalCode == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(postalCode.length());
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.isEmpty() ? null : normalized.toString();
+    }
+
+    private static long idOrAny(Long id) {
+        return id != null ? id : ANY;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null
+                ? amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                : 0L;
+    }
+
+    private static Rate flatRate(Shipping.ShippingMethod method, String baseCost) {
+        return new Rate(null, null, null, method, BigDecimal.ZERO, null,
+                new BigDecimal(baseCost), new BigDecimal("1.50"), null);
+    }
+}
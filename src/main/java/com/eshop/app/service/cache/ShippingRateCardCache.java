@@ -0,0 +1,137 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.event.TaxConfigurationChangedEvent;
+import com.eshop.app.repository.GeoZoneRepository;
+import com.eshop.app.repository.ShippingRateRepository;
+import com.eshop.app.repository.WarehouseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Holds the current {@link ShippingRateCard} in a {@link VersionedSnapshot} and a
+ * quote cache in front of it.
+ *
+ * <p>The card is loaded with three queries (active geo zones, rate rows and
+ * warehouses) and rebuilt after every committed tax configuration change, since
+ * geo zones are shared with tax. Rate rows and warehouses have no write path in
+ * the application and are maintained in the database directly, so changes to
+ * them show up once the card expires ({@code taxonomyCaffeineBuilder}, 30
+ * minutes after it was loaded), or at once through {@link #rebuild()}. Quotes
+ * are cached per (card version, zone chain, warehouse, shipping class, billable
+ * weight).
+ *
+ * <p>With configured rate rows, billable weight is rounded up to
+ * {@code app.shipping.weight-bucket-grams} (100 g by default, 1 for exact
+ * weight), so nearby weights share one entry and are charged the same. The
+ * built-in flat rates always use the exact weight, so their prices are the
+ * same as before the rate card existed.
+ */
+@Slf4j
+@Component
+public class ShippingRateCardCache {
+
+    private record QuoteKey(long version, ShippingRateCard.ZoneChain zones, Long warehouseId,
+                            Long shippingClassId, long grams) {
+    }
+
+    private final GeoZoneRepository geoZoneRepository;
+    private final ShippingRateRepository shippingRateRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final VersionedSnapshot<ShippingRateCard> card;
+    private final Cache<QuoteKey, ShippingRateCard.Quote[]> quotes;
+    private final long bucketGrams;
+
+    public ShippingRateCardCache(GeoZoneRepository geoZoneRepository,
+                                 ShippingRateRepository shippingRateRepository,
+                                 WarehouseRepository warehouseRepository,
+                                 @Qualifier("taxonomyCaffeineBuilder") Caffeine<Object, Object> taxonomyCaffeineBuilder,
+                                 @Value("${app.shipping.quote-cache-size:20000}") long quoteCacheSize,
+                                 @Value("${app.shipping.weight-bucket-grams:100}") long bucketGrams) {
+        this.geoZoneRepository = geoZoneRepository;
+        this.shippingRateRepository = shippingRateRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.card = new VersionedSnapshot<>(taxonomyCaffeineBuilder, ShippingRateCard::version, this::load);
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(quoteCacheSize)
+                .recordStats()
+                .build();
+        this.bucketGrams = Math.max(1L, bucketGrams);
+    }
+
+    public ShippingRateCard card() {
+        return card.get();
+    }
+
+    /**
+     * Quotes every method for one package of {@code grams} billable grams.
+     *
+     * @return one quote per method, in declaration order; the array must not be modified
+     */
+    public ShippingRateCard.Quote[] quoteAll(ShippingRateCard card, ShippingRateCard.ZoneChain zones, long grams,
+                                             Long warehouseId, Long shippingClassId) {
+        long billable = billableGrams(card, grams);
+        return quotes.get(new QuoteKey(card.version(), zones, warehouseId, shippingClassId, billable),
+                key -> card.quoteAll(zones, billable, warehouseId, shippingClassId));
+    }
+
+    /**
+     * Rounds a weight up to the next bucket boundary, unless the card uses the built-in flat rates.
+     */
+    public long billableGrams(ShippingRateCard card, long grams) {
+        if (card.usesDefaultRates()) {
+            return Math.max(grams, 0L);
+        }
+        long buckets = (grams + bucketGrams - 1) / bucketGrams;
+        return Math.max(buckets, 0L) * bucketGrams;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaxConfigurationChanged(TaxConfigurationChangedEvent event) {
+        log.debug("Geo zones may have changed, rebuilding shipping rate card");
+        rebuild();
+    }
+
+    public ShippingRateCard rebuild() {
+        ShippingRateCard current = card.rebuild();
+        // Entries of older versions can no longer be hit; drop them instead of waiting for eviction
+        quotes.asMap().keySet().removeIf(key -> key.version() < current.version());
+        return current;
+    }
+
+    private ShippingRateCard load(long version) {
+        long start = System.nanoTime();
+        List<ShippingRateCard.Zone> zones = geoZoneRepository.findByActiveTrue().stream()
+                .map(z -> new ShippingRateCard.Zone(z.getId(), z.getCountry(), z.getState(), z.getCity(),
+                        z.getZipCodePattern()))
+                .toList();
+        List<ShippingRateCard.Rate> rates = shippingRateRepository.findActiveForRateCard().stream()
+                // Reading ids of lazy proxies does not initialize them, so this stays one query
+                .map(r -> new ShippingRateCard.Rate(
+                        r.getGeoZone() != null ? r.getGeoZone().getId() : null,
+                        r.getWarehouse() != null ? r.getWarehouse().getId() : null,
+                        r.getShippingClass() != null ? r.getShippingClass().getId() : null,
+                        r.getMethod(),
+                        r.getMinWeightKg(),
+                        r.getMaxWeightKg(),
+                        r.getBaseCost(),
+                        r.getPerKgCost(),
+                        r.getTransitDays()))
+                .toList();
+        List<ShippingRateCard.Origin> origins = warehouseRepository.findByActiveTrueOrderByPriorityAscIdAsc().stream()
+                .map(w -> new ShippingRateCard.Origin(w.getId(), w.getName()))
+                .toList();
+        ShippingRateCard built = ShippingRateCard.build(zones, rates, origins, version);
+        log.info("Built shipping rate card v{} with {} zones, {} rates{} and {} warehouses in {} ms",
+                version, built.zoneCount(), built.rateCount(), built.usesDefaultRates() ? " (default rates)" : "",
+                origins.size(), (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+}
@@ -0,0 +1,249 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.TaxRate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, precompiled view of the tax configuration (geo zones, rates and rules).
+ *
+ * <p>A location resolves to its matching geo zones with at most four hash lookups
+ * (country only, country + state, country + city, country + state + city), which
+ * mirrors the null-means-any matching of {@code GeoZoneRepository.findMatchingGeoZones}.
+ * The ordered rate chain for a (tax class, zone set) pair is compiled once and
+ * memoized, so taxing an order is pure CPU work.
+ *
+ * <p>Money is computed in scaled longs: amounts in hundredths, rates in
+ * ten-thousandths (the {@code tax_rates.rate} column scale). Each tax is rounded
+ * half-up to hundredths, as before; compound taxes add their amount to the base
+ * of the taxes after them.
+ */
+public final class TaxRuleMatrix {
+
+    public static final TaxRuleMatrix EMPTY = build(List.of(), List.of(), 0L);
+
+    static final int AMOUNT_SCALE = 2;
+    static final int RATE_SCALE = 4;
+    private static final long RATE_ONE = 10_000L;
+    private static final long PERCENT_DIVISOR = 100L * RATE_ONE;
+    private static final String ANY = "\u0000*";
+
+    /**
+     * Builder input: an active geo zone. Null state/city match any value.
+     */
+    public record Zone(long id, String country, String state, String city) {
+    }
+
+    /**
+     * Builder input: an active tax rule joined to its active rate, in priority order.
+     */
+    public record Rule(long taxClassId, long taxRateId, String name, TaxRate.TaxType type,
+                       BigDecimal rate, boolean compound, long geoZoneId) {
+    }
+
+    /**
+     * Compiled rate, rate scaled by 10^4.
+     */
+    public record Rate(long taxRateId, String name, boolean percentage, long scaledRate, boolean compound) {
+    }
+
+    /**
+     * Tax applied by one rate to one amount.
+     */
+    public record AppliedTax(long taxRateId, String name, BigDecimal amount) {
+    }
+
+    /**
+     * Result of taxing one amount: the total and its per-rate breakdown.
+     */
+    public record TaxResult(BigDecimal total, List<AppliedTax> taxes) {
+        public static final TaxResult NONE = new TaxResult(BigDecimal.ZERO.setScale(AMOUNT_SCALE), List.of());
+    }
+
+    private record ChainKey(long taxClassId, long[] zoneIds) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ChainKey k && k.taxClassId == taxClassId && Arrays.equals(k.zoneIds, zoneIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(taxClassId) + Arrays.hashCode(zoneIds);
+        }
+    }
+
+    private static final Rate[] NO_RATES = new Rate[0];
+    private static final long[] NO_ZONES = new long[0];
+
+    private final long version;
+    private final Map<String, long[]> zonesByLocation;
+    private final Map<Long, List<Rule>> rulesByClass;
+    private final Map<ChainKey, Rate[]> chains = new ConcurrentHashMap<>();
+
+    private TaxRuleMatrix(long version, Map<String, long[]> zonesByLocation, Map<Long, List<Rule>> rulesByClass) {
+        this.version = version;
+        this.zonesByLocation = zonesByLocation;
+        this.rulesByClass = rulesByClass;
+    }
+
+    /**
+     * @param rules active rules in application order (rule priority ascending)
+     */
+    public static TaxRuleMatrix build(List<Zone> zones, List<Rule> rules, long version) {
+        Map<String, List<Long>> grouped = new HashMap<>();
+        for (Zone zone : zones) {
+            grouped.computeIfAbsent(locationKey(zone.country(), zone.state(), zone.city()), k -> new ArrayList<>())
+                    .add(zone.id());
+        }
+        Map<String, long[]> zonesByLocation = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, ids) -> zonesByLocation.put(key, ids.stream().mapToLong(Long::longValue).toArray()));
+
+        Map<Long, List<Rule>> rulesByClass = new HashMap<>();
+        for (Rule rule : rules) {
+            rulesByClass.computeIfAbsent(rule.taxClassId(), k -> new ArrayList<>()).add(rule);
+        }
+        rulesByClass.replaceAll((k, v) -> List.copyOf(v));
+        return new TaxRuleMatrix(version, Collections.unmodifiableMap(zonesByLocation),
+                Collections.unmodifiableMap(rulesByClass));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int zoneCount() {
+        return zonesByLocation.values().stream().mapToInt(ids -> ids.length).sum();
+    }
+
+    public int ruleCount() {
+        return rulesByClass.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Ordered rate chain for a tax class at a location; empty if nothing applies.
+     */
+    public List<Rate> rateChain(Long taxClassId, String country, String state, String city) {
+        return List.of(chain(taxClassId, country, state, city));
+    }
+
+    /**
+     * Taxes {@code amount} for a tax class at a location.
+     */
+    public TaxResult calculate(Long taxClassId, String country, String state, String city, BigDecimal amount) {
+        Rate[] chain = chain(taxClassId, country, state, city);
+        if (chain.length == 0 || amount == null) {
+            return TaxResult.NONE;
+        }
+        long base = toScaled(amount);
+        long total = 0;
+        List<AppliedTax> applied = new ArrayList<>(chain.length);
+        for (Rate rate : chain) {
+            long tax = rate.percentage()
+                    ? percentOf(base, rate.scaledRate())
+                    : divideHalfUp(rate.scaledRate(), RATE_ONE / 100);
+            total = Math.addExact(total, tax);
+            if (rate.compound()) {
+                base = Math.addExact(base, tax);
+            }
+            applied.add(new AppliedTax(rate.taxRateId(), rate.name(), fromScaled(tax)));
+        }
+        return new TaxResult(fromScaled(total), applied);
+    }
+
+    private Rate[] chain(Long taxClassId, String country, String state, String city) {
+        if (taxClassId == null || country == null) {
+            return NO_RATES;
+        }
+        List<Rule> rules = rulesByClass.get(taxClassId);
+        if (rules == null) {
+            return NO_RATES;
+        }
+        long[] zoneIds = matchingZones(country, state, city);
+        if (zoneIds.length == 0) {
+            return NO_RATES;
+        }
+        return chains.computeIfAbsent(new ChainKey(taxClassId, zoneIds), key -> compile(rules, key.zoneIds()));
+    }
+
+    private long[] matchingZones(String country, String state, String city) {
+        long[] result = NO_ZONES;
+        result = append(result, zonesByLocation.get(locationKey(country, null, null)));
+        if (state != null) {
+            result = append(result, zonesByLocation.get(locationKey(country, state, null)));
+        }
+        if (city != null) {
+            result = append(result, zonesByLocation.get(locationKey(country, null, city)));
+        }
+        if (state != null && city != null) {
+            result = append(result, zonesByLocation.get(locationKey(country, state, city)));
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static Rate[] compile(List<Rule> rules, long[] zoneIds) {
+        List<Rate> chain = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (Arrays.binarySearch(zoneIds, rule.geoZoneId()) >= 0) {
+                chain.add(new Rate(rule.taxRateId(), rule.name(), rule.type() == TaxRate.TaxType.PERCENTAGE,
+                        rule.rate().setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                        rule.compound()));
+            }
+        }
+        return chain.isEmpty() ? NO_RATES : chain.toArray(Rate[]::new);
+    }
+
+    private static long[] append(long[] a, long[] b) {
+        if (b == null || b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b.clone();
+        }
+        long[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return merged;
+    }
+
+    private static String locationKey(String country, String state, String city) {
+        return country + '\u0000' + (state != null ? state : ANY) + '\u0000' + (city != null ? city : ANY);
+    }
+
+    /**
+     * {@code base * rate / 100}, both scaled, rounded half-up to hundredths.
+     */
+    static long percentOf(long scaledAmount, long scaledRate) {
+        try {
+            return divideHalfUp(Math.multiplyExact(scaledAmount, scaledRate), PERCENT_DIVISOR);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(scaledAmount).multiply(BigDecimal.valueOf(scaledRate))
+                    .divide(BigDecimal.valueOf(PERCENT_DIVISOR), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+    }
+
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    static long toScaled(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromScaled(long scaled) {
+        return BigDecimal.valueOf(scaled, AMOUNT_SCALE);
+    }
+}
@@ -0,0 +1,72 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.event.TaxConfigurationChangedEvent;
+import com.eshop.app.repository.GeoZoneRepository;
+import com.eshop.app.repository.TaxRuleRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Holds the current {@link TaxRuleMatrix} in a {@link VersionedSnapshot} expiring
+ * after the taxonomy TTL. The matrix is loaded with two queries (active geo zones,
+ * active rules fetch-joined to their active rates) and rebuilt after every
+ * committed {@link TaxConfigurationChangedEvent}.
+ */
+@Slf4j
+@Component
+public class TaxRuleMatrixCache {
+
+    private final GeoZoneRepository geoZoneRepository;
+    private final TaxRuleRepository taxRuleRepository;
+    private final VersionedSnapshot<TaxRuleMatrix> matrix;
+
+    public TaxRuleMatrixCache(GeoZoneRepository geoZoneRepository,
+                              TaxRuleRepository taxRuleRepository,
+                              @Qualifier("taxonomyCaffeineBuilder") Caffeine<Object, Object> taxonomyCaffeineBuilder) {
+        this.geoZoneRepository = geoZoneRepository;
+        this.taxRuleRepository = taxRuleRepository;
+        this.matrix = new VersionedSnapshot<>(taxonomyCaffeineBuilder, TaxRuleMatrix::version, this::load);
+    }
+
+    public TaxRuleMatrix matrix() {
+        return matrix.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaxConfigurationChanged(TaxConfigurationChangedEvent event) {
+        log.debug("Tax configuration changed, rebuilding tax rule matrix");
+        rebuild();
+    }
+
+    public TaxRuleMatrix rebuild() {
+        return matrix.rebuild();
+    }
+
+    private TaxRuleMatrix load(long version) {
+        long start = System.nanoTime();
+        List<TaxRuleMatrix.Zone> zones = geoZoneRepository.findByActiveTrue().stream()
+                .map(z -> new TaxRuleMatrix.Zone(z.getId(), z.getCountry(), z.getState(), z.getCity()))
+                .toList();
+        List<TaxRuleMatrix.Rule> rules = taxRuleRepository.findActiveWithRates().stream()
+                // Reading ids of lazy proxies does not initialize them, so this stays one query
+                .map(r -> new TaxRuleMatrix.Rule(
+                        r.getTaxClass().getId(),
+                        r.getTaxRate().getId(),
+                        r.getTaxRate().getName(),
+                        r.getTaxRate().getType(),
+                        r.getTaxRate().getRate(),
+                        Boolean.TRUE.equals(r.getTaxRate().getCompound()),
+                        r.getTaxRate().getGeoZone().getId()))
+                .toList();
+        TaxRuleMatrix built = TaxRuleMatrix.build(zones, rules, version);
+        log.info("Built tax rule matrix v{} with {} zones and {} rules in {} ms",
+                version, built.zoneCount(), built.ruleCount(), (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+}
@@ -0,0 +1,66 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Holds the current instance of an immutable, versioned snapshot that is always
+ * rebuilt as a whole, such as {@link CategoryTreeSnapshot} or {@link CouponRuleIndex}.
+ *
+ * <p>Readers always get a complete snapshot, loaded on first use or after the
+ * entry expires. {@link #rebuild()} loads a fresh one and publishes it with one
+ * atomic map operation. Versions are handed out when a load starts, so a slow
+ * rebuild that started earlier never replaces the result of a later one. The
+ * expiry of the Caffeine builder bounds how long changes committed on other
+ * nodes, which raise no local event, stay invisible.
+ *
+ * @param <T> snapshot type
+ * @since 2.0
+ */
+public final class VersionedSnapshot<T> {
+
+    private static final String KEY = "snapshot";
+
+    private final Cache<String, T> cache;
+    private final ToLongFunction<T> versionOf;
+    private final LongFunction<T> loader;
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * @param builder   Caffeine settings, typically just an expiry
+     * @param versionOf reads the version a snapshot was loaded with
+     * @param loader    loads a snapshot carrying the given version
+     */
+    public VersionedSnapshot(Caffeine<Object, Object> builder, ToLongFunction<T> versionOf, LongFunction<T> loader) {
+        this.cache = builder.build();
+        this.versionOf = versionOf;
+        this.loader = loader;
+    }
+
+    /**
+     * Current snapshot, loading it if there is none.
+     */
+    public T get() {
+        return cache.get(KEY, key -> load());
+    }
+
+    /**
+     * Loads a fresh snapshot and publishes it unless a newer one is already present.
+     *
+     * @return the snapshot now current
+     */
+    public T rebuild() {
+        T fresh = load();
+        return cache.asMap().merge(KEY, fresh,
+                (current, candidate) -> versionOf.applyAsLong(candidate) >= versionOf.applyAsLong(current)
+                        ? candidate : current);
+    }
+
+    private T load() {
+        return loader.apply(versions.incrementAndGet());
+    }
+}
@@ -0,0 +1,237 @@
+package com.eshop.app.service.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows the latency of the calls it admits
+ * (gradient algorithm, after Netflix's Gradient2).
+ *
+ * <p>Latency samples are averaged per window. The window average (short RTT) is
+ * compared to a slow moving average of past windows (long RTT):
+ * <pre>
+ * gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1.0)
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ * While latency stays within {@code tolerance} of the baseline the limit grows by
+ * about {@code sqrt(limit)} per window. When requests start queueing in the
+ * database, latency rises and the limit shrinks toward the concurrency the
+ * database can serve without queueing. The limit does not grow in windows where
+ * fewer than half the permits were used. A timeout or connection failure
+ * ({@link Permit#dropped()}) cuts the limit by 10% at once.
+ *
+ * <p>Callers over the limit wait up to {@code maxWait} on a {@link ReentrantLock}
+ * condition, which parks virtual threads without pinning their carrier, and are
+ * rejected after that.
+ *
+ * @since 2.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * @param initialLimit     concurrency allowed before the first window completes
+     * @param minLimit         lower bound of the limit
+     * @param maxLimit         upper bound of the limit
+     * @param rttTolerance     how much slower than the baseline a window may be before the limit shrinks
+     * @param smoothing        weight of each new estimate
+     * @param window           minimum duration of a sample window
+     * @param minWindowSamples minimum samples of a sample window
+     * @param longWindows      number of windows the baseline averages over
+     * @param maxWait          how long a caller over the limit waits for a permit
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing,
+                           Duration window, int minWindowSamples, int longWindows, Duration maxWait) {
+    }
+
+    /**
+     * An admitted call. Exactly one of the completion methods must be called.
+     */
+    public final class Permit {
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /** The call completed; its latency is sampled. */
+        public void success() {
+            release(this, Outcome.SUCCESS);
+        }
+
+        /** The call timed out or could not reach the database. */
+        public void dropped() {
+            release(this, Outcome.DROPPED);
+        }
+
+        /** The call failed for a reason unrelated to load; no sample is taken. */
+        public void ignore() {
+            release(this, Outcome.IGNORED);
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    private static final double DROP_BACKOFF = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final long windowNanos;
+    private final long maxWaitNanos;
+    private final double longRttSmoothing;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private double longRtt;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowPeakInFlight;
+    private long rejected;
+
+    public AdaptiveConcurrencyLimiter(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(Settings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.windowNanos = settings.window().toNanos();
+        this.maxWaitNanos = settings.maxWait().toNanos();
+        this.longRttSmoothing = 2.0 / (Math.max(1, settings.longWindows()) + 1);
+        this.limit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * Admits a call, waiting up to {@code maxWait} for a permit.
+     *
+     * @return the permit, or {@code null} if the limit was still reached after waiting
+     */
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    rejected++;
+                    return null;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            windowPeakInFlight = Math.max(windowPeakInFlight, inFlight);
+        } finally {
+            lock.unlock();
+        }
+        return new Permit(nanoClock.getAsLong());
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Baseline latency in milliseconds, 0 before the first window.
+     */
+    public double getLongRttMillis() {
+        lock.lock();
+        try {
+            return longRtt / TimeUnit.MILLISECONDS.toNanos(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            if (permit.released) {
+                return;
+            }
+            permit.released = true;
+            inFlight--;
+            int before = (int) limit;
+            switch (outcome) {
+                case SUCCESS -> sample(now - permit.startNanos, now);
+                case DROPPED -> limit = Math.max(settings.minLimit(), limit * DROP_BACKOFF);
+                case IGNORED -> { }
+            }
+            if ((int) limit > before) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long rtt, long now) {
+        windowRttSum += rtt;
+        windowSamples++;
+        if (now - windowStart < windowNanos || windowSamples < settings.minWindowSamples()) {
+            return;
+        }
+        double shortRtt = Math.max(1.0, (double) windowRttSum / windowSamples);
+        int peak = windowPeakInFlight;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowPeakInFlight = inFlight;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * longRttSmoothing;
+        }
+        // After a long slowdown the baseline lags behind; let it catch up once latency recovers
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // The limit was not the bottleneck in this window, so the sample says nothing about it
+        if (peak < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(settings.rttTolerance() * longRtt / shortRtt, MIN_GRADIENT, 1.0);
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.clamp(limit * (1 - settings.smoothing()) + estimate * settings.smoothing(),
+                settings.minLimit(), settings.maxLimit());
+    }
+}
@@ -0,0 +1,83 @@
+package com.eshop.app.service.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per endpoint group, created on first use.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.concurrency.adaptive.initial-limit=20
+ * app.concurrency.adaptive.min-limit=4
+ * app.concurrency.adaptive.max-limit=200
+ * app.concurrency.adaptive.rtt-tolerance=1.5
+ * app.concurrency.adaptive.smoothing=0.2
+ * app.concurrency.adaptive.window=PT1S
+ * app.concurrency.adaptive.min-window-samples=10
+ * app.concurrency.adaptive.long-windows=60
+ * app.concurrency.adaptive.max-wait=PT0.2S
+ * </pre>
+ *
+ * <h2>Metrics (tag {@code group}):</h2>
+ * <pre>
+ * eshop.concurrency.limit, eshop.concurrency.in_flight,
+ * eshop.concurrency.rejected, eshop.concurrency.baseline_rtt_ms
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiters {
+
+    private final AdaptiveConcurrencyLimiter.Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiters(MeterRegistry meterRegistry,
+                                       @Value("${app.concurrency.adaptive.initial-limit:20}") int initialLimit,
+                                       @Value("${app.concurrency.adaptive.min-limit:4}") int minLimit,
+                                       @Value("${app.concurrency.adaptive.max-limit:200}") int maxLimit,
+                                       @Value("${app.concurrency.adaptive.rtt-tolerance:1.5}") double rttTolerance,
+                                       @Value("${app.concurrency.adaptive.smoothing:0.2}") double smoothing,
+                                       @Value("${app.concurrency.adaptive.window:PT1S}") Duration window,
+                                       @Value("${app.concurrency.adaptive.min-window-samples:10}") int minWindowSamples,
+                                       @Value("${app.concurrency.adaptive.long-windows:60}") int longWindows,
+                                       @Value("${app.concurrency.adaptive.max-wait:PT0.2S}") Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.settings = new AdaptiveConcurrencyLimiter.Settings(initialLimit, minLimit, maxLimit, rttTolerance,
+                smoothing, window, minWindowSamples, longWindows, maxWait);
+    }
+
+    public AdaptiveConcurrencyLimiter get(String group) {
+        return limiters.computeIfAbsent(group, this::create);
+    }
+
+    private AdaptiveConcurrencyLimiter create(String group) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        Gauge.builder("eshop.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("group", group)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("eshop.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("group", group)
+                .register(meterRegistry);
+        Gauge.builder("eshop.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .tag("group", group)
+                .description("Calls rejected since startup")
+                .register(meterRegistry);
+        Gauge.builder("eshop.concurrency.baseline_rtt_ms", limiter, AdaptiveConcurrencyLimiter::getLongRttMillis)
+                .tag("group", group)
+                .register(meterRegistry);
+        log.info("Adaptive concurrency limiter '{}' created with limit {}", group, limiter.getLimit());
+        return limiter;
+    }
+}
@@ -0,0 +1,349 @@
+package com.eshop.app.service.concurrency;
+
+import com.eshop.app.config.WorkloadContext;
+import com.eshop.app.exception.ServiceException;
+import com.eshop.app.exception.ServiceTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent subqueries concurrently, one virtual thread each, and
+ * joins them under a common deadline.
+ *
+ * <pre>
+ * try (FanOut fanOut = fanOuts.open("admin-overview", deadline)) {
+ *     FanOut.Subtask&lt;Long&gt; users = fanOut.fork("users", userService::getTotalUserCount, 0L);
+ *     FanOut.Subtask&lt;Long&gt; orders = fanOut.fork("orders", orderService::getTotalOrderCount, 0L);
+ *     fanOut.join();
+ *     return new Overview(users.get(), orders.get());
+ * }
+ * </pre>
+ *
+ * <p>The scope follows {@code StructuredTaskScope.ShutdownOnFailure}, which is
+ * still a preview API on JDK 21:
+ * <ul>
+ * <li>Subtasks forked without a fallback are required. When one fails, the
+ * others are cancelled at once and {@link #join()} rethrows its exception.</li>
+ * <li>Subtasks forked with a fallback are optional. When one fails or misses
+ * its deadline, it is cancelled and {@link Subtask#get()} returns the
+ * fallback.</li>
+ * <li>Every subtask is bounded by the scope deadline and, optionally, its own
+ * shorter timeout. A required subtask missing its deadline fails the scope
+ * with {@link ServiceTimeoutException}.</li>
+ * <li>{@link #close()} cancels whatever is still running and waits for it to stop.</li>
+ * </ul>
+ * Since the subtasks run concurrently, the scope takes as long as its slowest
+ * subtask rather than the sum of all of them.
+ *
+ * <p>Scopes are opened through {@link FanOuts}. At most its
+ * {@code max-concurrency} subtasks of all scopes run at once; the others wait
+ * for a permit within their deadline. A subtask that opens and joins a nested
+ * scope gives its permit back while joining, so nesting cannot exhaust the
+ * permits.
+ *
+ * <p>Subtasks run with the caller's security context, MDC and
+ * {@link WorkloadContext} workload, installed on their thread and cleared when
+ * they finish. They do not run in the caller's transaction: each repository
+ * call opens its own read-only transaction and connection, so subtasks do not
+ * see the caller's uncommitted writes and are not rolled back with it. Only
+ * fork reads, or writes that must commit on their own. A scope of {@code n}
+ * subtasks can hold {@code n} connections at once, up to the concurrency limit.
+ * Cancelling a subtask interrupts its virtual thread, which aborts blocking
+ * socket reads; the pool discards such a connection.
+ *
+ * @since 2.0
+ */
+@Slf4j
+public final class FanOut implements AutoCloseable {
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    // Permit held by the subtask running on this thread
+    private static final ThreadLocal<Semaphore> HELD = new ThreadLocal<>();
+
+    public enum State {
+        /** Not joined yet. */
+        PENDING,
+        /** Completed within its deadline. */
+        SUCCESS,
+        /** Failed or timed out; the fallback is used. */
+        FALLBACK,
+        /** Failed or timed out without a fallback, or cancelled by a failed sibling. */
+        FAILED
+    }
+
+    /**
+     * Handle of a forked subtask. Its result is available after {@link #join()}.
+     */
+    public final class Subtask<T> implements Supplier<T> {
+        private final String name;
+        private final long deadlineNanos;
+        private final T fallback;
+        private final boolean required;
+        private FutureTask<T> future;
+        private volatile T result;
+        private volatile State state = State.PENDING;
+
+        private Subtask(String name, long deadlineNanos, T fallback, boolean required) {
+            this.name = name;
+            this.deadlineNanos = deadlineNanos;
+            this.fallback = fallback;
+            this.required = required;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        /**
+         * @return the result, or the fallback if the subtask failed or timed out
+         * @throws IllegalStateException if the scope was not joined successfully
+         */
+        @Override
+        public T get() {
+            return switch (state) {
+                case SUCCESS, FALLBACK -> result;
+                case PENDING -> throw new IllegalStateException("Fan-out " + FanOut.this.name + " not joined");
+                case FAILED -> throw new IllegalStateException("Subtask " + name + " of fan-out "
+                        + FanOut.this.name + " failed");
+            };
+        }
+    }
+
+    /**
+     * Context of the forking thread, installed on the subtask's thread.
+     */
+    private record Context(SecurityContext security, Map<String, String> mdc,
+                           WorkloadContext.Workload workload) {
+
+        static Context capture() {
+            return new Context(SecurityContextHolder.getContext(), MDC.getCopyOfContextMap(),
+                    WorkloadContext.current());
+        }
+
+        <T> T call(Callable<T> task) throws Exception {
+            SecurityContextHolder.setContext(security);
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            WorkloadContext.Workload previous = WorkloadContext.enter(workload);
+            try {
+                return task.call();
+            } finally {
+                WorkloadContext.restore(previous);
+                MDC.clear();
+                SecurityContextHolder.clearContext();
+            }
+        }
+    }
+
+    private final String name;
+    private final long deadlineNanos;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final List<Subtask<?>> subtasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean joined;
+
+    FanOut(String name, Duration deadline, Semaphore permits) {
+        this.name = name;
+        this.deadlineNanos = System.nanoTime() + deadline.toNanos();
+        this.permits = permits;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("fanout-" + name + "-", 0).factory());
+    }
+
+    /**
+     * Forks a required subtask.
+     */
+    public <T> Subtask<T> fork(String name, Callable<T> task) {
+        return fork(name, null, task, null, true);
+    }
+
+    /**
+     * Forks an optional subtask that yields {@code fallback} if it fails or
+     * misses the scope deadline.
+     */
+    public <T> Subtask<T> fork(String name, Callable<T> task, T fallback) {
+        return fork(name, null, task, fallback, false);
+    }
+
+    /**
+     * Forks an optional subtask with its own deadline, capped by the scope deadline.
+     */
+    public <T> Subtask<T> fork(String name, Duration timeout, Callable<T> task, T fallback) {
+        return fork(name, timeout, task, fallback, false);
+    }
+
+    /**
+     * Waits for every subtask, up to its deadline.
+     *
+     * @return this scope
+     * @throws ServiceTimeoutException if a required subtask missed its deadline
+     * @throws RuntimeException the exception of a failed required subtask; checked
+     *                          exceptions are wrapped in {@link ServiceException}
+     */
+    public FanOut join() {
+        joined = true;
+        Semaphore held = HELD.get();
+        if (held != null) {
+            // Nested scope: let the children have this subtask's permit while it waits
+            HELD.remove();
+            held.release();
+        }
+        try {
+            // Earliest deadline first, so a subtask is cancelled when its own deadline passes
+            List<Subtask<?>> byDeadline = subtasks.stream()
+                    .sorted(Comparator.comparingLong(subtask -> subtask.deadlineNanos))
+                    .toList();
+            for (Subtask<?> subtask : byDeadline) {
+                throwIfFailed();
+                await(subtask);
+            }
+            throwIfFailed();
+        } catch (RuntimeException e) {
+            cancelAll();
+            throw e;
+        } finally {
+            if (held != null) {
+                held.acquireUninterruptibly();
+                HELD.set(held);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Cancels the subtasks still running and waits up to five seconds for them to stop.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Fan-out {}: subtasks still running {} s after cancellation", name,
+                        CLOSE_TIMEOUT.toSeconds());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> Subtask<T> fork(String name, Duration timeout, Callable<T> task, T fallback, boolean required) {
+        if (joined) {
+            throw new IllegalStateException("Fan-out " + this.name + " already joined");
+        }
+        long deadline = timeout != null
+                ? Math.min(deadlineNanos, System.nanoTime() + timeout.toNanos())
+                : deadlineNanos;
+        Subtask<T> subtask = new Subtask<>(name, deadline, fallback, required);
+        Context context = Context.capture();
+        subtask.future = new FutureTask<>(() -> {
+            try {
+                if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new ServiceTimeoutException("Subtask " + name + " of fan-out " + this.name
+                            + " found no free permit in time");
+                }
+                HELD.set(permits);
+                try {
+                    return context.call(task);
+                } finally {
+                    if (HELD.get() != null) {
+                        HELD.remove();
+                        permits.release();
+                    }
+                }
+            } catch (Exception | Error e) {
+                if (required && failure.compareAndSet(null, e)) {
+                    // Fail fast: siblings cannot make this scope succeed any more
+                    cancelAll();
+                }
+                throw e;
+            }
+        });
+        subtasks.add(subtask);
+        executor.execute(subtask.future);
+        return subtask;
+    }
+
+    private <T> void await(Subtask<T> subtask) {
+        long remaining = subtask.deadlineNanos - System.nanoTime();
+        try {
+            subtask.result = subtask.future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            subtask.state = State.SUCCESS;
+        } catch (TimeoutException e) {
+            subtask.future.cancel(true);
+            if (subtask.required) {
+                subtask.state = State.FAILED;
+                throw new ServiceTimeoutException("Subtask " + subtask.name + " of fan-out " + name
+                        + " did not complete in time");
+            }
+            fallBack(subtask, "timed out");
+        } catch (ExecutionException e) {
+            if (subtask.required) {
+                subtask.state = State.FAILED;
+                throw rethrow(e.getCause());
+            }
+            fallBack(subtask, e.getCause().toString());
+        } catch (CancellationException e) {
+            // Cancelled because a required sibling failed
+            subtask.state = State.FAILED;
+            throwIfFailed();
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subtask.state = State.FAILED;
+            throw new ServiceException("Interrupted while joining fan-out " + name, e);
+        }
+    }
+
+    private <T> void fallBack(Subtask<T> subtask, String reason) {
+        subtask.result = subtask.fallback;
+        subtask.state = State.FALLBACK;
+        log.warn("Fan-out {}: subtask {} {}, using fallback", name, subtask.name, reason);
+    }
+
+    private void throwIfFailed() {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw rethrow(cause);
+        }
+    }
+
+    private void cancelAll() {
+        subtasks.forEach(subtask -> subtask.future.cancel(true));
+    }
+
+    private RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new ServiceException("Subtask of fan-out " + name + " failed", cause);
+    }
+}
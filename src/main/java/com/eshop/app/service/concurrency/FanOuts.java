@@ -0,0 +1,41 @@
+package com.eshop.app.service.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Opens {@link FanOut} scopes that share one concurrency limit, the dashboard
+ * executor's former cap.
+ *
+ * <p>See {@link FanOut} for which of the caller's context its subtasks inherit;
+ * the caller's transaction is not part of it.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.dashboard.fan-out-max-concurrency=8
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Component
+public class FanOuts {
+
+    private final Semaphore permits;
+
+    /**
+     * @param maxConcurrency subtasks of all scopes that may run at once
+     */
+    public FanOuts(@Value("${app.dashboard.fan-out-max-concurrency:8}") int maxConcurrency) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Opens a scope whose subtasks must all complete within {@code deadline}.
+     */
+    public FanOut open(String name, Duration deadline) {
+        return new FanOut(name, deadline, permits);
+    }
+}
@@ -5,19 +5,25 @@ import com.eshop.app.dto.response.CategoryResponse;
 import com.eshop.app.dto.response.CategoryTreeResponse;
 import com.eshop.app.dto.response.PageResponse;
 import com.eshop.app.entity.Category;
+import com.eshop.app.event.CategoryChangedEvent;
 import com.eshop.app.exception.ResourceAlreadyExistsException;
 import com.eshop.app.exception.ResourceNotFoundException;
 import com.eshop.app.mapper.CategoryMapper;
 import com.eshop.app.repository.CategoryRepository;
+import com.eshop.app.service.CategoryClosureService;
 import com.eshop.app.service.CategoryService;
+import com.eshop.app.service.cache.CategoryTreeCache;
+import com.eshop.app.service.cache.CategoryTreeSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import static com.eshop.app.config.CacheConfig.CATEGORY_LIST_CACHE;
 import static com.eshop.app.config.CacheConfig.CATEGORIES_CACHE;
+import static com.eshop.app.config.CacheConfig.PRODUCT_LIST_CACHE;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -35,6 +41,9 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryTreeCache categoryTreeCache;
+    private final CategoryClosureService categoryClosureService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     @Transactional
@@ -52,6 +61,8 @@ public class CategoryServiceImpl implements CategoryService {
             category.setParent(parent);
         }
         category = categoryRepository.save(category);
+        categoryClosureService.link(category);
+        publishCategoryChanged(category.getId());
         log.info("Category created successfully with id: {}", category.getId());
         return categoryMapper.toCategoryResponse(category);
     }
@@ -66,7 +77,11 @@ public class CategoryServiceImpl implements CategoryService {
     @Transactional
     @Caching(
         put = @CachePut(value = CATEGORIES_CACHE, key = "#id"),
-        evict = @CacheEvict(value = CATEGORY_LIST_CACHE, allEntries = true)
+        evict = {
+            @CacheEvict(value = CATEGORY_LIST_CACHE, allEntries = true),
+            // Subtree listings change when a category moves
+            @CacheEvict(value = PRODUCT_LIST_CACHE, allEntries = true, condition = "#request.parentId != null")
+        }
     )
     public CategoryResponse updateCategory(Long id, CategoryRequest request) {
         log.info("Updating category with id: {}", id);
@@ -78,7 +93,22 @@ public class CategoryServiceImpl implements CategoryService {
             throw new ResourceAlreadyExistsException("Category with name '" + newName + "' already exists");
         }
         updateCategoryFromRequest(category, request);
+        Long newParentId = request.getParentId();
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        boolean moved = newParentId != null && !newParentId.equals(currentParentId);
+        if (moved) {
+            if (categoryClosureService.isAncestorOrSelf(id, newParentId)) {
+                throw new IllegalArgumentException("Category " + id + " cannot be moved under its own subtree");
+            }
+            Category parent = findCategoryByIdOrThrow(newParentId);
+            category.setParent(parent);
+            category.setDepth(parent.getDepth() != null ? parent.getDepth() + 1 : 1);
+        }
         category = categoryRepository.save(category);
+        if (moved) {
+            categoryClosureService.move(id, newParentId);
+        }
+        publishCategoryChanged(id);
         log.info("Category updated successfully: {}", id);
         return categoryMapper.toCategoryResponse(category);
     }
@@ -95,6 +125,7 @@ public class CategoryServiceImpl implements CategoryService {
         // Soft delete
         category.setActive(false);
         categoryRepository.save(category);
+        publishCategoryChanged(id);
         log.info("Category soft-deleted successfully: {}", id);
     }
     
@@ -217,7 +248,9 @@ public class CategoryServiceImpl implements CategoryService {
             log.warn("Attempt to hard-delete non-existent category id={}", id);
             throw new ResourceNotFoundException("Category not found with id: " + id);
         }
+        categoryClosureService.unlink(id);
         categoryRepository.deleteById(id);
+        publishCategoryChanged(id);
     }
 
     @Override
@@ -239,50 +272,44 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         category.setActive(true);
         category = categoryRepository.save(category);
+        publishCategoryChanged(id);
         return categoryMapper.toCategoryResponse(category);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CategoryTreeResponse> getCategoryTree() {
-        List<Category> allCategories = categoryRepository.findAll();
-        // Filter roots (parent is null)
-        return allCategories.stream()
-                .filter(c -> c.getParent() == null)
-                .map(this::toCategoryTreeResponse)
-                .toList();
-    }
-
-    private CategoryTreeResponse toCategoryTreeResponse(Category category) {
-        CategoryTreeResponse response = new CategoryTreeResponse(category.getId(), category.getName());
-        if (category.getSubCategories() != null && !category.getSubCategories().isEmpty()) {
-            response.setChildren(category.getSubCategories().stream()
-                    .map(this::toCategoryTreeResponse)
-                    .toList());
-        }
-        return response;
+        return categoryTreeCache.snapshot().toTree();
     }
 
     @Override
     public List<CategoryResponse> getSubcategories(Long id) {
-        // Model currently has no parent-child relationship; return empty list for compatibility
-        return List.of();
+        return snapshotContaining(id).children(id, true);
     }
 
     @Override
     public List<CategoryResponse> getCategoryPath(Long id) {
-        // No hierarchical parent tracking - return single-element path
-        Category category = findCategoryByIdOrThrow(id);
-        return List.of(categoryMapper.toCategoryResponse(category));
+        return snapshotContaining(id).path(id);
     }
 
     @Override
     public List<CategoryResponse> getRootCategories() {
-        // Without parent relationship, treat all active categories as roots
-        List<Category> all = categoryRepository.findAll();
-        return all.stream()
-                .filter(Category::getActive)
-                .map(categoryMapper::toCategoryResponse)
-                .toList();
+        return categoryTreeCache.snapshot().roots(true);
+    }
+
+    /**
+     * Resolves the tree snapshot for a lookup, refreshing once if the category
+     * was created on another node since the snapshot was built.
+     */
+    private CategoryTreeSnapshot snapshotContaining(Long id) {
+        CategoryTreeSnapshot snapshot = categoryTreeCache.snapshot();
+        if (!snapshot.contains(id)) {
+            findCategoryByIdOrThrow(id);
+            snapshot = categoryTreeCache.rebuild();
+        }
+        return snapshot;
+    }
+
+    private void publishCategoryChanged(Long id) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(this, id));
     }
 }
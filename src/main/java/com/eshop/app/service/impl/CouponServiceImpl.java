@@ -4,14 +4,24 @@ import com.eshop.app.dto.request.CouponRequest;
 import com.eshop.app.dto.request.CouponUsageRequest;
 import com.eshop.app.dto.response.CouponResponse;
 import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.entity.Cart;
+import com.eshop.app.entity.CartItem;
 import com.eshop.app.entity.Category;
 import com.eshop.app.entity.Coupon;
+import com.eshop.app.entity.Product;
 import com.eshop.app.entity.Store;
+import com.eshop.app.event.CouponChangedEvent;
 import com.eshop.app.exception.ResourceNotFoundException;
+import com.eshop.app.mapper.CouponMapper;
+import com.eshop.app.repository.CartRepository;
 import com.eshop.app.repository.CategoryRepository;
 import com.eshop.app.repository.CouponRepository;
 import com.eshop.app.repository.StoreRepository;
 import com.eshop.app.service.CouponService;
+import com.eshop.app.service.cache.CategoryTreeCache;
+import com.eshop.app.service.cache.CouponRuleIndex;
+import com.eshop.app.service.cache.CouponRuleIndexCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
@@ -30,19 +41,35 @@ public class CouponServiceImpl implements CouponService {
     private final CouponRepository couponRepository;
     private final StoreRepository storeRepository;
     private final CategoryRepository categoryRepository;
+    private final CartRepository cartRepository;
+    private final CouponMapper couponMapper;
+    private final CouponRuleIndexCache couponRuleIndexCache;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CouponServiceImpl(CouponRepository couponRepository,
             StoreRepository storeRepository,
-            CategoryRepository categoryRepository) {
+            CategoryRepository categoryRepository,
+            CartRepository cartRepository,
+            CouponMapper couponMapper,
+            CouponRuleIndexCache couponRuleIndexCache,
+            CategoryTreeCache categoryTreeCache,
+            ApplicationEventPublisher eventPublisher) {
         this.couponRepository = couponRepository;
         this.storeRepository = storeRepository;
         this.categoryRepository = categoryRepository;
+        this.cartRepository = cartRepository;
+        this.couponMapper = couponMapper;
+        this.couponRuleIndexCache = couponRuleIndexCache;
+        this.categoryTreeCache = categoryTreeCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public CouponResponse createCoupon(CouponRequest request) {
         Coupon coupon = mapToEntity(new Coupon(), request);
         Coupon saved = couponRepository.save(coupon);
+        publishCouponChanged(saved.getId());
         return mapToResponse(saved);
     }
 
@@ -52,6 +79,7 @@ public class CouponServiceImpl implements CouponService {
                 .orElseThrow(() -> new ResourceNotFoundException("Coupon not found with id: " + couponId));
         coupon = mapToEntity(coupon, request);
         Coupon saved = couponRepository.save(coupon);
+        publishCouponChanged(couponId);
         return mapToResponse(saved);
     }
 
@@ -94,33 +122,21 @@ public class CouponServiceImpl implements CouponService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CouponResponse.ValidationResult validateCoupon(String code, Long userId, BigDecimal orderTotal, Long storeId,
             Long categoryId) {
         LocalDateTime now = LocalDateTime.now();
-        Coupon coupon = couponRepository.findActiveByCode(code, now)
-                .orElseThrow(() -> new ResourceNotFoundException("Active coupon not found with code: " + code));
-
-        if (coupon.getMinimumOrderAmount() != null && orderTotal.compareTo(coupon.getMinimumOrderAmount()) < 0) {
-            return CouponResponse.ValidationResult.builder()
-                    .isValid(false)
-                    .message("Order total is below minimum amount required")
-                    .errorCode("MIN_ORDER_NOT_MET")
-                    .discountAmount(BigDecimal.ZERO)
-                    .coupon(mapToResponse(coupon))
-                    .build();
-        }
-
-        BigDecimal discount = coupon.calculateDiscount(orderTotal);
-
-        return CouponResponse.ValidationResult.builder()
-                .isValid(discount.compareTo(BigDecimal.ZERO) > 0)
-                .message("Coupon validated")
-                .discountAmount(discount)
-                .errorCode(null)
-                .coupon(mapToResponse(coupon))
-                .build();
+        CouponRuleIndex.Rule rule = findActiveRule(code, now);
+        CouponRuleIndex.Evaluation evaluation = couponRuleIndexCache.index().evaluate(rule,
+                CouponRuleIndex.CartContext.of(orderTotal, storeId, categoryId), categoryTreeCache.snapshot(), now);
+        return toValidationResult(evaluation);
     }
 
+    /**
+     * Validates against the in-memory rule index, then redeems with a single conditional
+     * UPDATE. The database row is the only arbiter of the usage limit, so concurrent
+     * redemptions of a popular code cannot exceed it.
+     */
     @Override
     public CouponResponse.ApplicationResult applyCoupon(CouponUsageRequest request) {
         CouponResponse.ValidationResult validation = validateCoupon(
@@ -132,22 +148,18 @@ public class CouponServiceImpl implements CouponService {
                 request.getCategoryId());
 
         if (!Boolean.TRUE.equals(validation.getIsValid())) {
-            return CouponResponse.ApplicationResult.builder()
-                    .success(false)
-                    .message(validation.getMessage())
-                    .appliedDiscount(BigDecimal.ZERO)
-                    .finalTotal(request.getOrderTotal())
-                    .couponCode(request.getCouponCode())
-                    .coupon(validation.getCoupon())
-                    .build();
+            return rejectedApplication(request, validation.getMessage(), validation.getCoupon());
         }
 
-        Coupon coupon = couponRepository.findByCode(request.getCouponCode())
-                .orElseThrow(
-                        () -> new ResourceNotFoundException("Coupon not found with code: " + request.getCouponCode()));
-
-        coupon.use();
-        couponRepository.save(coupon);
+        CouponResponse coupon = validation.getCoupon();
+        if (couponRepository.incrementUsageIfAvailable(coupon.getId(), LocalDateTime.now()) == 0) {
+            // Lost the race for the last use, or the coupon was deactivated since the index was built
+            publishCouponChanged(coupon.getId());
+            return rejectedApplication(request, "Coupon usage limit reached", coupon);
+        }
+        if (coupon.getUsageLimit() != null && couponRepository.deactivateIfExhausted(coupon.getId()) > 0) {
+            publishCouponChanged(coupon.getId());
+        }
 
         BigDecimal finalTotal = request.getOrderTotal().subtract(validation.getDiscountAmount());
 
@@ -157,15 +169,42 @@ public class CouponServiceImpl implements CouponService {
                 .appliedDiscount(validation.getDiscountAmount())
                 .finalTotal(finalTotal)
                 .couponCode(request.getCouponCode())
-                .coupon(mapToResponse(coupon))
+                .coupon(coupon)
                 .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CouponResponse> getApplicableCoupons(Long userId, BigDecimal orderTotal, Long storeId, Long categoryId) {
-        LocalDateTime now = LocalDateTime.now();
-        return couponRepository.findGlobalActiveCoupons(now).stream()
-                .map(this::mapToResponse)
+        return couponRuleIndexCache.index()
+                .applicable(CouponRuleIndex.CartContext.of(orderTotal, storeId, categoryId),
+                        categoryTreeCache.snapshot(), LocalDateTime.now())
+                .stream()
+                .map(evaluation -> evaluation.rule().response())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CouponResponse.ValidationResult> evaluateCart(Long userId) {
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user: " + userId));
+        List<CouponRuleIndex.CartLine> lines = new ArrayList<>(cart.getItems().size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItem item : cart.getItems()) {
+            Product product = item.getProduct();
+            BigDecimal amount = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            total = total.add(amount);
+            lines.add(new CouponRuleIndex.CartLine(
+                    product.getStore() != null ? product.getStore().getId() : null,
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    amount));
+        }
+        return couponRuleIndexCache.index()
+                .applicable(new CouponRuleIndex.CartContext(lines, total, null),
+                        categoryTreeCache.snapshot(), LocalDateTime.now())
+                .stream()
+                .map(this::toValidationResult)
                 .collect(Collectors.toList());
     }
 
@@ -189,6 +228,7 @@ public class CouponServiceImpl implements CouponService {
                 .orElseThrow(() -> new ResourceNotFoundException("Coupon not found with id: " + couponId));
         coupon.setIsActive(false);
         couponRepository.save(coupon);
+        publishCouponChanged(couponId);
     }
 
     @Override
@@ -211,6 +251,9 @@ public class CouponServiceImpl implements CouponService {
         List<Coupon> expired = couponRepository.findExpiredActiveCoupons(now);
         expired.forEach(c -> c.setIsActive(false));
         couponRepository.saveAll(expired);
+        if (!expired.isEmpty()) {
+            publishCouponChanged(null);
+        }
         return expired.size();
     }
 
@@ -282,55 +325,46 @@ public class CouponServiceImpl implements CouponService {
     }
 
     private CouponResponse mapToResponse(Coupon coupon) {
-        Long storeId = coupon.getStore() != null ? coupon.getStore().getId() : null;
-        String storeName = coupon.getStore() != null ? coupon.getStore().getStoreName() : null;
-        Long categoryId = coupon.getCategory() != null ? coupon.getCategory().getId() : null;
-        String categoryName = coupon.getCategory() != null ? coupon.getCategory().getName() : null;
-
-        Integer remainingUses = null;
-        if (coupon.getUsageLimit() != null && coupon.getUsedCount() != null) {
-            remainingUses = Math.max(0, coupon.getUsageLimit() - coupon.getUsedCount());
-        }
+        return couponMapper.toResponse(coupon);
+    }
 
-        boolean isExpiringSoon = coupon.getValidUntil() != null &&
-                coupon.getValidUntil().isBefore(LocalDateTime.now().plusDays(7));
+    /**
+     * Resolves an active coupon rule by code, refreshing the index once if the coupon
+     * was created on another node since the index was built.
+     */
+    private CouponRuleIndex.Rule findActiveRule(String code, LocalDateTime now) {
+        return couponRuleIndexCache.index().byCode(code)
+                .or(() -> couponRepository.findActiveByCode(code, now)
+                        .flatMap(found -> couponRuleIndexCache.rebuild().byCode(code)))
+                .orElseThrow(() -> new ResourceNotFoundException("Active coupon not found with code: " + code));
+    }
 
-        String discountDisplay;
-        if (coupon.getDiscountType() == Coupon.DiscountType.PERCENTAGE) {
-            discountDisplay = coupon.getDiscountValue().stripTrailingZeros().toPlainString() + "% OFF";
-        } else {
-            discountDisplay = coupon.getDiscountValue().stripTrailingZeros().toPlainString() + " OFF";
-        }
+    private CouponResponse.ValidationResult toValidationResult(CouponRuleIndex.Evaluation evaluation) {
+        return CouponResponse.ValidationResult.builder()
+                .isValid(evaluation.isApplicable())
+                .message(evaluation.message())
+                .discountAmount(evaluation.discount())
+                .errorCode(evaluation.errorCode())
+                .coupon(evaluation.rule().response())
+                .build();
+    }
 
-        return CouponResponse.builder()
-                .id(coupon.getId())
-                .code(coupon.getCode())
-                .name(coupon.getName())
-                .description(coupon.getDescription())
-                .discountType(coupon.getDiscountType())
-                .discountValue(coupon.getDiscountValue())
-                .minimumOrderAmount(coupon.getMinimumOrderAmount())
-                .maximumDiscountAmount(coupon.getMaximumDiscountAmount())
-                .usageLimit(coupon.getUsageLimit())
-                .usageLimitPerUser(coupon.getUsageLimitPerUser())
-                .usedCount(coupon.getUsedCount())
-                .validFrom(coupon.getValidFrom())
-                .validUntil(coupon.getValidUntil())
-                .isActive(coupon.getIsActive())
-                .appliesTo(coupon.getAppliesTo())
-                .storeId(storeId)
-                .storeName(storeName)
-                .categoryId(categoryId)
-                .categoryName(categoryName)
-                .firstTimeOnly(coupon.getFirstTimeOnly())
-                .createdAt(coupon.getCreatedAt())
-                .updatedAt(coupon.getUpdatedAt())
-                .remainingUses(remainingUses)
-                .isExpiringSoon(isExpiringSoon)
-                .discountDisplay(discountDisplay)
+    private CouponResponse.ApplicationResult rejectedApplication(CouponUsageRequest request, String message,
+            CouponResponse coupon) {
+        return CouponResponse.ApplicationResult.builder()
+                .success(false)
+                .message(message)
+                .appliedDiscount(BigDecimal.ZERO)
+                .finalTotal(request.getOrderTotal())
+                .couponCode(request.getCouponCode())
+                .coupon(coupon)
                 .build();
     }
 
+    private void publishCouponChanged(Long couponId) {
+        eventPublisher.publishEvent(new CouponChangedEvent(this, couponId));
+    }
+
     private PageResponse<CouponResponse> toPageResponse(Page<Coupon> page) {
         List<CouponResponse> content = page.getContent().stream()
                 .map(this::mapToResponse)
@@ -0,0 +1,369 @@
+package com.eshop.app.service.impl;
+
+import com.eshop.app.dto.request.InventoryAllocationRequest;
+import com.eshop.app.dto.response.InventoryAllocationResponse;
+import com.eshop.app.entity.Cart;
+import com.eshop.app.entity.CartItem;
+import com.eshop.app.entity.Warehouse;
+import com.eshop.app.event.InventoryReservedEvent;
+import com.eshop.app.exception.BusinessException;
+import com.eshop.app.exception.InsufficientStockException;
+import com.eshop.app.exception.ResourceNotFoundException;
+import com.eshop.app.exception.UnauthorizedException;
+import com.eshop.app.repository.ProductInventoryRepository;
+import com.eshop.app.repository.WarehouseRepository;
+import com.eshop.app.service.InventoryAllocationService;
+import com.eshop.app.service.cache.ShippingRateCard;
+import com.eshop.app.service.inventory.AvailabilityMatrix;
+import com.eshop.app.service.inventory.WarehouseAllocator;
+import com.eshop.app.service.inventory.WarehouseRanking;
+import com.eshop.app.util.SecurityUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates orders from the in-memory {@link AvailabilityMatrix}.
+ *
+ * <p>Holds are node-local: they reserve units in this node's matrix only and are
+ * never written to {@code product_inventory}, so a crash or restart loses them
+ * without leaking reserved stock. Each hold belongs to the user who took it, and
+ * a user's active holds are capped at {@code max-held-units} units. A checkout
+ * that lands on another node does not find the hold and allocates afresh; the
+ * stale hold only narrows this node's view until it expires.
+ *
+ * <p>An order's reservation is written to {@code product_inventory.reserved_quantity}
+ * in the order's transaction. The matrix is re-read from the database every
+ * refresh interval to pick up restocks and other nodes' writes.
+ *
+ * <p>Checkout still checks and decrements {@code Product.stockQuantity}, which
+ * remains the cross-node guard against overselling between refreshes. Units
+ * reserved for a committed order stay reserved until payment confirms them or the
+ * reservation expires; both are written straight to the database by
+ * {@link com.eshop.app.service.InventoryReservationService} and the expiry sweep.
+ */
+@Slf4j
+@Service
+public class InventoryAllocationServiceImpl implements InventoryAllocationService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE product_inventory SET reserved_quantity = reserved_quantity + ?, " +
+            "version = COALESCE(version, 0) + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE product_id = ? AND warehouse_id = ?";
+
+    private record Hold(String id, Long ownerId, List<WarehouseAllocator.Pick> picks, int shipmentCount,
+                        Instant expiresAt) {
+
+        int units() {
+            return picks.stream().mapToInt(WarehouseAllocator.Pick::quantity).sum();
+        }
+    }
+
+    private final ProductInventoryRepository productInventoryRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration holdTtl;
+    private final int batchSize;
+    private final int maxHeldUnits;
+
+    private final AvailabilityMatrix matrix = new AvailabilityMatrix();
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<String, Hold> claimed = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> heldUnits = new ConcurrentHashMap<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile List<WarehouseRanking.Location> locations = List.of();
+    private volatile Map<Long, String> warehouseNames = Map.of();
+    private volatile boolean loaded;
+
+    public InventoryAllocationServiceImpl(ProductInventoryRepository productInventoryRepository,
+                                          WarehouseRepository warehouseRepository,
+                                          JdbcTemplate jdbcTemplate,
+                                          ApplicationEventPublisher eventPublisher,
+                                          @Value("${app.inventory.allocation.hold-ttl:PT15M}") Duration holdTtl,
+                                          @Value("${app.inventory.allocation.batch-size:500}") int batchSize,
+                                          @Value("${app.inventory.allocation.max-held-units:50}") int maxHeldUnits) {
+        this.productInventoryRepository = productInventoryRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.holdTtl = holdTtl;
+        this.batchSize = batchSize;
+        this.maxHeldUnits = maxHeldUnits;
+    }
+
+    @Override
+    public InventoryAllocationResponse preview(InventoryAllocationRequest request) {
+        ensureLoaded();
+        WarehouseAllocator.Plan plan = allocate(toLines(request), request.getDestination(), false);
+        return toResponse(null, null, plan.picks(), plan.shipmentCount());
+    }
+
+    @Override
+    public InventoryAllocationResponse hold(InventoryAllocationRequest request) {
+        ensureLoaded();
+        Long ownerId = SecurityUtils.getAuthenticatedUserId();
+        if (ownerId == null) {
+            // Holds are capped per user, so they need a user id (not just a token subject)
+            throw new UnauthorizedException("Holding inventory requires a registered user");
+        }
+        List<WarehouseAllocator.Line> lines = toLines(request);
+        int units = lines.stream().mapToInt(WarehouseAllocator.Line::quantity).sum();
+        takeQuota(ownerId, units);
+        WarehouseAllocator.Plan plan;
+        try {
+            plan = allocate(lines, request.getDestination(), true);
+        } catch (RuntimeException e) {
+            returnQuota(ownerId, units);
+            throw e;
+        }
+        Hold hold = newHold(ownerId, plan);
+        holds.put(hold.id(), hold);
+        return toResponse(hold.id(), hold.expiresAt(), hold.picks(), hold.shipmentCount());
+    }
+
+    @Override
+    public void release(String holdId) {
+        Hold hold = holds.get(holdId);
+        boolean permitted = hold != null
+                && (Objects.equals(hold.ownerId(), SecurityUtils.getAuthenticatedUserId()) || SecurityUtils.hasRole("ADMIN"));
+        // Someone else's hold is reported like a missing one
+        if (!permitted || !holds.remove(holdId, hold)) {
+            throw new ResourceNotFoundException("Inventory hold not found or already expired: " + holdId);
+        }
+        matrix.release(hold.picks());
+        returnQuota(hold.ownerId(), hold.units());
+    }
+
+    @Override
+    public InventoryAllocationResponse reserveForOrder(Cart cart, String destination, String holdId) {
+        ensureLoaded();
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            Long productId = item.getProduct().getId();
+            if (matrix.tracks(productId)) {
+                quantities.merge(productId, item.getQuantity(), Integer::sum);
+            }
+        }
+        if (quantities.isEmpty()) {
+            return null;
+        }
+
+        Long ownerId = cart.getUser() != null ? cart.getUser().getId() : null;
+        if (holdId != null && ownerId != null) {
+            Hold hold = holds.get(holdId);
+            if (hold != null && ownerId.equals(hold.ownerId()) && holds.remove(holdId, hold)) {
+                returnQuota(ownerId, hold.units());
+                if (hold.expiresAt().isAfter(Instant.now()) && quantities.equals(quantitiesOf(hold))) {
+                    return claim(hold, false);
+                }
+                // Expired or the cart changed since the hold was taken: start over
+                matrix.release(hold.picks());
+            }
+        }
+
+        List<WarehouseAllocator.Line> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> lines.add(new WarehouseAllocator.Line(productId, quantity)));
+        return claim(newHold(ownerId, allocate(lines, destination, true)), true);
+    }
+
+    /**
+     * Writes the hold's units to {@code product_inventory} in the order's
+     * transaction; the matrix is settled after commit or released on rollback.
+     */
+    private InventoryAllocationResponse claim(Hold hold, boolean createdForOrder) {
+        try {
+            jdbcTemplate.batchUpdate(RESERVE_SQL, hold.picks(), batchSize, (ps, pick) -> {
+                ps.setInt(1, pick.quantity());
+                ps.setLong(2, pick.productId());
+                ps.setLong(3, pick.warehouseId());
+            });
+        } catch (RuntimeException e) {
+            matrix.release(hold.picks());
+            throw e;
+        }
+        claimed.put(hold.id(), hold);
+        eventPublisher.publishEvent(new InventoryReservedEvent(this, hold.id(), createdForOrder));
+        return toResponse(hold.id(), hold.expiresAt(), hold.picks(), hold.shipmentCount());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderCommitted(InventoryReservedEvent event) {
+        // The units now belong to the order's reservations and stay reserved until paid or expired
+        Hold hold = claimed.remove(event.getHoldId());
+        if (hold != null) {
+            matrix.settle(hold.picks());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onOrderRolledBack(InventoryReservedEvent event) {
+        Hold hold = claimed.remove(event.getHoldId());
+        if (hold == null) {
+            return;
+        }
+        if (event.isCreatedForOrder()) {
+            matrix.release(hold.picks());
+        } else {
+            // Handed back to its owner; may briefly exceed the cap, never the stock
+            heldUnits.merge(hold.ownerId(), hold.units(), Integer::sum);
+            holds.put(hold.id(), hold);
+        }
+    }
+
+    /**
+     * Releases holds that were neither confirmed nor released in time.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.allocation.expiry-sweep-interval:PT5S}")
+    public void releaseExpiredHolds() {
+        Instant now = Instant.now();
+        int released = 0;
+        for (Hold hold : holds.values()) {
+            if (hold.expiresAt().isBefore(now) && holds.remove(hold.id(), hold)) {
+                matrix.release(hold.picks());
+                returnQuota(hold.ownerId(), hold.units());
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.debug("Released {} expired inventory holds", released);
+        }
+    }
+
+    /**
+     * Re-reads stock levels and warehouses, keeping this node's local reservations.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.allocation.refresh-interval:PT5M}")
+    public void refresh() {
+        syncLock.lock();
+        try {
+            long start = System.nanoTime();
+            long readMark = matrix.beginRefresh();
+            List<AvailabilityMatrix.Row> rows = productInventoryRepository.findActiveStockLevels().stream()
+                    .map(r -> new AvailabilityMatrix.Row(r.getProductId(), r.getWarehouseId(),
+                            r.getQuantity() != null ? r.getQuantity() : 0,
+                            r.getReservedQuantity() != null ? r.getReservedQuantity() : 0))
+                    .toList();
+            List<Warehouse> warehouses = warehouseRepository.findByActiveTrueOrderByPriorityAscIdAsc();
+            Map<Long, String> names = new HashMap<>(warehouses.size() * 2);
+            List<WarehouseRanking.Location> fresh = new ArrayList<>(warehouses.size());
+            for (Warehouse w : warehouses) {
+                names.put(w.getId(), w.getName());
+                fresh.add(new WarehouseRanking.Location(w.getId(), w.getCountry(), w.getState(), w.getCity(),
+                        w.getPostalCode(), w.getPriority() != null ? w.getPriority() : Integer.MAX_VALUE));
+            }
+            matrix.refresh(rows, readMark);
+            locations = List.copyOf(fresh);
+            warehouseNames = Map.copyOf(names);
+            loaded = true;
+            log.info("Refreshed inventory availability for {} SKUs in {} warehouses in {} ms",
+                    matrix.skuCount(), fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            refresh();
+        }
+    }
+
+    private WarehouseAllocator.Plan allocate(List<WarehouseAllocator.Line> lines, String destination, boolean reserve) {
+        WarehouseRanking ranking = WarehouseRanking.of(locations,
+                destination != null && !destination.isBlank() ? ShippingRateCard.Destination.parse(destination) : null);
+        WarehouseAllocator.Plan plan = matrix.allocate(lines, ranking, reserve);
+        if (!plan.isComplete()) {
+            int requested = lines.stream()
+                    .filter(l -> l.productId() == plan.shortProductId())
+                    .mapToInt(WarehouseAllocator.Line::quantity)
+                    .sum();
+            throw new InsufficientStockException("Insufficient warehouse stock for product: " + plan.shortProductId(),
+                    plan.shortProductId(), plan.shortAvailable(), requested);
+        }
+        return plan;
+    }
+
+    private Hold newHold(Long ownerId, WarehouseAllocator.Plan plan) {
+        return new Hold(UUID.randomUUID().toString(), ownerId, plan.picks(), plan.shipmentCount(),
+                Instant.now().plus(holdTtl));
+    }
+
+    private void takeQuota(Long ownerId, int units) {
+        int held = heldUnits.merge(ownerId, units, Integer::sum);
+        if (held > maxHeldUnits) {
+            returnQuota(ownerId, units);
+            throw new BusinessException("At most " + maxHeldUnits + " units can be held at a time",
+                    "INVENTORY_HOLD_LIMIT");
+        }
+    }
+
+    private void returnQuota(Long ownerId, int units) {
+        if (ownerId != null) {
+            heldUnits.computeIfPresent(ownerId, (owner, held) -> held > units ? held - units : null);
+        }
+    }
+
+    private static List<WarehouseAllocator.Line> toLines(InventoryAllocationRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (InventoryAllocationRequest.Item item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        List<WarehouseAllocator.Line> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> lines.add(new WarehouseAllocator.Line(productId, quantity)));
+        return lines;
+    }
+
+    private static Map<Long, Integer> quantitiesOf(Hold hold) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (WarehouseAllocator.Pick pick : hold.picks()) {
+            quantities.merge(pick.productId(), pick.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private InventoryAllocationResponse toResponse(String holdId, Instant expiresAt,
+                                                   List<WarehouseAllocator.Pick> picks, int shipmentCount) {
+        Map<Long, List<InventoryAllocationResponse.Item>> byWarehouse = new LinkedHashMap<>();
+        for (WarehouseAllocator.Pick pick : picks) {
+            byWarehouse.computeIfAbsent(pick.warehouseId(), k -> new ArrayList<>())
+                    .add(InventoryAllocationResponse.Item.builder()
+                            .productId(pick.productId())
+                            .quantity(pick.quantity())
+                            .build());
+        }
+        Map<Long, String> names = warehouseNames;
+        List<InventoryAllocationResponse.Shipment> shipments = new ArrayList<>(byWarehouse.size());
+        byWarehouse.forEach((warehouseId, items) -> shipments.add(InventoryAllocationResponse.Shipment.builder()
+                .warehouseId(warehouseId)
+                .warehouseName(names.get(warehouseId))
+                .items(items)
+                .build()));
+        return InventoryAllocationResponse.builder()
+                .holdId(holdId)
+                .expiresAt(expiresAt != null ? LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()) : null)
+                .shipmentCount(shipmentCount)
+                .shipments(shipments)
+                .build();
+    }
+}
@@ -3,15 +3,22 @@ package com.eshop.app.service.impl;
 import com.eshop.app.dto.request.CheckoutRequest;
 import com.eshop.app.enums.UserRole;
 import com.eshop.app.dto.request.OrderCreateRequest;
+import com.eshop.app.dto.response.InventoryAllocationResponse;
 import com.eshop.app.dto.response.OrderResponse;
 import com.eshop.app.dto.response.PageResponse;
 import com.eshop.app.entity.*;
+import com.eshop.app.event.LowStockEvent;
+import com.eshop.app.event.StockChangedEvent;
 import com.eshop.app.exception.EmptyCartException;
 import com.eshop.app.exception.InsufficientStockException;
 import com.eshop.app.exception.ResourceNotFoundException;
 import com.eshop.app.mapper.EntityMapper;
 import com.eshop.app.repository.*;
+import com.eshop.app.service.InventoryAllocationService;
+import com.eshop.app.service.InventoryReservationService;
 import com.eshop.app.service.OrderService;
+import com.eshop.app.service.inventory.LowStockDetector;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -36,19 +43,42 @@ public class OrderServiceImpl implements OrderService {
     @SuppressWarnings("unused") // Reserved for future order item operations
     private final OrderItemRepository orderItemRepository;
     private final EntityMapper entityMapper;
+    private final InventoryAllocationService inventoryAllocationService;
+    private final InventoryReservationService inventoryReservationService;
+    private final LowStockDetector lowStockDetector;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderServiceImpl(OrderRepository orderRepository,
             CartRepository cartRepository,
             ProductRepository productRepository,
             UserRepository userRepository,
             OrderItemRepository orderItemRepository,
-            EntityMapper entityMapper) {
+            EntityMapper entityMapper,
+            InventoryAllocationService inventoryAllocationService,
+            InventoryReservationService inventoryReservationService,
+            LowStockDetector lowStockDetector,
+            ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.orderItemRepository = orderItemRepository;
         this.entityMapper = entityMapper;
+        this.inventoryAllocationService = inventoryAllocationService;
+        this.inventoryReservationService = inventoryReservationService;
+        this.lowStockDetector = lowStockDetector;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private void decrementStock(Product product, int quantity) {
+        int oldStock = product.getStockQuantity();
+        int newStock = oldStock - quantity;
+        product.setStockQuantity(newStock);
+        productRepository.save(product);
+        eventPublisher.publishEvent(new StockChangedEvent(this, product.getId(), oldStock, newStock, -quantity, "ORDER"));
+        if (lowStockDetector.crossesThreshold(product, oldStock, newStock)) {
+            eventPublisher.publishEvent(new LowStockEvent(this, product));
+        }
     }
 
     private Long getCurrentUserId() {
@@ -82,6 +112,9 @@ public class OrderServiceImpl implements OrderService {
             }
         }
 
+        // Reserve warehouse stock; held until the order is paid or the payment window expires
+        InventoryAllocationResponse allocation = inventoryAllocationService.reserveForOrder(cart, null, null);
+
         // Create order
         Order order = Order.builder()
                 .orderNumber(generateOrderNumber())
@@ -114,8 +147,7 @@ public class OrderServiceImpl implements OrderService {
             totalAmount = totalAmount.add(orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
 
             // Update product stock
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
+            decrementStock(product, cartItem.getQuantity());
         }
 
         order.setItems(orderItems);
@@ -124,6 +156,7 @@ public class OrderServiceImpl implements OrderService {
         order.setTaxAmount(totalAmount.multiply(BigDecimal.valueOf(0.1))); // 10% tax
 
         order = orderRepository.save(order);
+        inventoryReservationService.track(order, allocation);
 
         // Clear cart
         cart.getItems().clear();
@@ -197,8 +230,13 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
         Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+        boolean cancelled = orderStatus == Order.OrderStatus.CANCELLED
+                && order.getOrderStatus() != Order.OrderStatus.CANCELLED;
         order.setOrderStatus(orderStatus);
         order = orderRepository.save(order);
+        if (cancelled) {
+            inventoryReservationService.release(order.getId());
+        }
 
         return entityMapper.toOrderResponse(order);
     }
@@ -211,6 +249,9 @@ public class OrderServiceImpl implements OrderService {
         Order.PaymentStatus paymentStatus = Order.PaymentStatus.valueOf(status.toUpperCase());
         order.setPaymentStatus(paymentStatus);
         order = orderRepository.save(order);
+        if (paymentStatus == Order.PaymentStatus.PAID) {
+            inventoryReservationService.confirm(order.getId());
+        }
 
         return entityMapper.toOrderResponse(order);
     }
@@ -298,6 +339,10 @@ public class OrderServiceImpl implements OrderService {
             }
         }
 
+        // Reserve warehouse stock (reusing an earlier hold if any); held until paid or expired
+        InventoryAllocationResponse allocation = inventoryAllocationService.reserveForOrder(cart,
+                request.getDestination(), request.getReservationId());
+
         // Calculate totals (using basic calculation since CheckoutRequest doesn't have
         // tax/shipping fields)
         BigDecimal subtotal = cart.getItems().stream()
@@ -335,8 +380,7 @@ public class OrderServiceImpl implements OrderService {
             Product product = cartItem.getProduct();
 
             // Update product stock
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
+            decrementStock(product, cartItem.getQuantity());
 
             // Create order item
             OrderItem orderItem = new OrderItem();
@@ -351,6 +395,7 @@ public class OrderServiceImpl implements OrderService {
 
         order.setItems(orderItems);
         Order savedOrder = orderRepository.save(order);
+        inventoryReservationService.track(savedOrder, allocation);
 
         // Clear the cart after successful checkout
         cart.getItems().clear();
@@ -1,10 +1,12 @@
 package com.eshop.app.service.impl;
 
+import com.eshop.app.aspect.AnalyticsWorkload;
 import com.eshop.app.entity.Payment;
 import com.eshop.app.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -21,6 +23,8 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
+@AnalyticsWorkload
 public class PaymentAnalyticsService {
     
     private final PaymentRepository paymentRepository;
@@ -11,7 +11,10 @@ import com.eshop.app.exception.PaymentException;
 import com.eshop.app.mapper.PaymentMapper;
 import com.eshop.app.repository.OrderRepository;
 import com.eshop.app.repository.PaymentRepository;
+import com.eshop.app.service.InventoryReservationService;
 import com.eshop.app.service.PaymentService;
+import com.eshop.app.service.webhook.PaymentWebhookInbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -52,16 +55,25 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final PaymentMapper paymentMapper;
+    private final InventoryReservationService inventoryReservationService;
+    private final PaymentWebhookInbox webhookInbox;
+    private final ObjectMapper objectMapper;
     // Payment gateway is optional in tests; allow null and provide fallback
     private PaymentGatewayService paymentGatewayService;
 
     public PaymentServiceImpl(PaymentRepository paymentRepository,
                               OrderRepository orderRepository,
                               PaymentMapper paymentMapper,
+                              InventoryReservationService inventoryReservationService,
+                              PaymentWebhookInbox webhookInbox,
+                              ObjectMapper objectMapper,
                               java.util.Optional<PaymentGatewayService> paymentGatewayService) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.paymentMapper = paymentMapper;
+        this.inventoryReservationService = inventoryReservationService;
+        this.webhookInbox = webhookInbox;
+        this.objectMapper = objectMapper;
         this.paymentGatewayService = paymentGatewayService.orElse(null);
     }
     
@@ -116,6 +128,7 @@ public class PaymentServiceImpl implements PaymentService {
                 payment.markAsProcessed(Payment.PaymentStatus.COMPLETED, result.getGatewayTransactionId());
                 order.setPaymentStatus(Order.PaymentStatus.PAID);
                 orderRepository.save(order);
+                inventoryReservationService.confirm(order.getId());
                 
                 log.info("Payment processed successfully: {}", payment.getTransactionId());
             } else {
@@ -265,27 +278,21 @@ public class PaymentServiceImpl implements PaymentService {
     public void handlePaymentWebhook(String payload, String signature, Payment.PaymentGateway gateway) {
         log.info("Handling payment webhook for gateway: {}", gateway);
         
+        // Validate webhook signature
+        if (!validateWebhookSignature(payload, signature, gateway)) {
+            log.warn("Invalid webhook signature for gateway: {}", gateway);
+            return;
+        }
+        
+        // Store for asynchronous processing; a retried delivery is dropped as a duplicate
+        String transactionId = null;
         try {
-            // Validate webhook signature
-            if (!validateWebhookSignature(payload, signature, gateway)) {
-                log.warn("Invalid webhook signature for gateway: {}", gateway);
-                return;
-            }
-            
-            // Parse webhook payload
-            WebhookEvent event = parseWebhookPayload(payload, gateway);
-            
-            // Find payment by gateway transaction ID
-            Payment payment = paymentRepository.findByGatewayTransactionId(event.getTransactionId())
-                    .orElse(null);
-            
-            if (payment != null) {
-                updatePaymentFromWebhook(payment, event);
-            }
-            
+            Object value = objectMapper.readValue(payload, java.util.Map.class).get("transactionId");
+            transactionId = value != null ? value.toString() : null;
         } catch (Exception e) {
-            log.error("Error processing webhook for gateway: {}", gateway, e);
+            log.warn("Could not read transactionId from {} webhook: {}", gateway, e.getMessage());
         }
+        webhookInbox.accept(gateway.name(), null, null, transactionId, payload);
     }
     
     @Override
@@ -471,19 +478,6 @@ public class PaymentServiceImpl implements PaymentService {
         return true; // Mock implementation
     }
     
-    private WebhookEvent parseWebhookPayload(String payload, Payment.PaymentGateway gateway) {
-        // Parse webhook payload based on gateway format
-        return WebhookEvent.builder()
-                .transactionId("mock-transaction-id")
-                .status(Payment.PaymentStatus.COMPLETED)
-                .build();
-    }
-    
-    private void updatePaymentFromWebhook(Payment payment, WebhookEvent event) {
-        payment.setStatus(event.getStatus());
-        paymentRepository.save(payment);
-    }
-    
     // Helper classes
     @lombok.Data
     @lombok.Builder
@@ -508,13 +502,6 @@ public class PaymentServiceImpl implements PaymentService {
         private String gatewayResponse;
     }
     
-    @lombok.Data
-    @lombok.Builder
-    private static class WebhookEvent {
-        private String transactionId;
-        private Payment.PaymentStatus status;
-    }
-    
     @lombok.Data
     @lombok.Builder
     private static class PaymentStatistics {
@@ -11,28 +11,80 @@ import com.eshop.app.mapper.EntityMapper;
 import com.eshop.app.repository.ProductImageRepository;
 import com.eshop.app.repository.ProductRepository;
 import com.eshop.app.service.ProductImageService;
-import lombok.RequiredArgsConstructor;
+import com.eshop.app.storage.ImageDerivativeService;
+import com.eshop.app.storage.ImageStorageFactory;
+import com.eshop.app.storage.ImageStorageService;
+import com.eshop.app.storage.ImageUploadResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 // Cloudinary is used via ImageStorageService implementations
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class ProductImageServiceImpl implements ProductImageService {
     
     private final ProductImageRepository imageRepository;
     private final ProductRepository productRepository;
     private final EntityMapper entityMapper;
-    private final com.eshop.app.storage.ImageStorageFactory storageFactory;
+    private final ImageStorageFactory storageFactory;
+    private final ImageDerivativeService derivativeService;
+    private final Executor imageProcessingExecutor;
+    private final TransactionTemplate writes;
+    private final TransactionTemplate referenceCheck;
+    private final ConcurrentMap<String, CompletableFuture<ImageUploadResult>> inFlightUploads = new ConcurrentHashMap<>();
+    // Uploads per content hash whose rows are not committed yet; a rollback leaves a shared object alone
+    private final ConcurrentMap<String, Integer> uncommittedUploads = new ConcurrentHashMap<>();
+
+    public ProductImageServiceImpl(ProductImageRepository imageRepository,
+                                   ProductRepository productRepository,
+                                   EntityMapper entityMapper,
+                                   ImageStorageFactory storageFactory,
+                                   ImageDerivativeService derivativeService,
+                                   @Qualifier("imageProcessingExecutor") Executor imageProcessingExecutor,
+                                   PlatformTransactionManager transactionManager) {
+        this.imageRepository = imageRepository;
+        this.productRepository = productRepository;
+        this.entityMapper = entityMapper;
+        this.storageFactory = storageFactory;
+        this.derivativeService = derivativeService;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.writes = new TransactionTemplate(transactionManager);
+        this.referenceCheck = new TransactionTemplate(transactionManager);
+        this.referenceCheck.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.referenceCheck.setReadOnly(true);
+    }
     
     @Override
     public ProductImageResponse addProductImage(ProductImageRequest request) {
@@ -92,15 +144,16 @@ public class ProductImageServiceImpl implements ProductImageService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product image not found with id: " + imageId));
         // Attempt to delete remote asset if we have provider and publicId
         try {
-            if (image.getProvider() != null && image.getPublicId() != null) {
-                com.eshop.app.storage.ImageStorageService storage = storageFactory.get();
+            // Deduplicated images share one stored object; only delete it with its last reference
+            if (image.getProvider() != null && image.getPublicId() != null
+                    && imageRepository.countByPublicIdAndActiveTrue(image.getPublicId()) <= 1) {
+                ImageStorageService storage = storageFactory.get();
                 // For Bunny provider we stored path as publicId; for Cloudinary it's the public id
                 storage.delete(image.getPublicId(), "products/" + image.getProduct().getId());
             }
         } catch (Exception e) {
             // Log and continue with soft-delete; do not fail user request because remote deletion failed
-            // Use System.err here to avoid adding a logger in this patch
-            System.err.println("Failed to delete remote image: " + e.getMessage());
+            log.warn("Failed to delete remote image {}: {}", image.getPublicId(), e.getMessage());
         }
 
         image.setActive(false); // Soft delete
@@ -181,43 +234,353 @@ public class ProductImageServiceImpl implements ProductImageService {
                 .orElse(1);
     }
 
+    /**
+     * Uploads one image. The transfer runs without a transaction, so no
+     * connection is held while the storage backend receives the file; the row
+     * is written in a short transaction afterwards.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductImageResponse uploadProductImage(Long productId, MultipartFile file, String altText, Boolean isPrimary) {
-        Product product = productRepository.findById(productId)
+        requireProduct(productId);
+
+        ImageStorageService storage = storageFactory.get();
+        StagedUpload staged = stageAndUpload(storage, productId, file);
+
+        ProductImage savedImage = persist(storage, productId, List.of(staged), () -> {
+            Product product = requireProduct(productId);
+            if (isPrimary != null && isPrimary) {
+                unsetOtherPrimaryImages(product.getId());
+            }
+
+            Integer displayOrder = getNextDisplayOrder(product.getId());
+            ProductImage image = imageRepository.save(
+                    toProductImage(product, storage, staged, altText, isPrimary != null && isPrimary, displayOrder));
+            scheduleDerivatives(storage, List.of(image), List.of(staged));
+            return image;
+        });
+        return entityMapper.toProductImageResponse(savedImage);
+    }
+
+    /**
+     * Uploads several images concurrently, one virtual thread per file, and
+     * persists them in a single batch. Total latency is roughly that of the
+     * slowest single upload. If any upload fails, the ones that succeeded are
+     * removed from storage and nothing is persisted. As with
+     * {@link #uploadProductImage}, only the batch insert runs in a transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductImageResponse> uploadProductImages(Long productId, List<MultipartFile> files, String altText) {
+        requireProduct(productId);
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+
+        ImageStorageService storage = storageFactory.get();
+        List<CompletableFuture<StagedUpload>> futures = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(
+                        () -> stageAndUpload(storage, productId, file), imageProcessingExecutor))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .exceptionally(ex -> null)
+                .join();
+
+        List<StagedUpload> staged = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        for (CompletableFuture<StagedUpload> future : futures) {
+            try {
+                staged.add(future.join());
+            } catch (CompletionException e) {
+                failure = failure != null ? failure : e.getCause();
+            }
+        }
+        if (failure != null) {
+            staged.forEach(s -> discard(storage, productId, s));
+            throw failure instanceof ImageUploadException iue
+                    ? iue
+                    : new ImageUploadException("Failed to upload image: " + failure.getMessage(), failure);
+        }
+
+        List<ProductImage> saved = persist(storage, productId, staged, () -> {
+            Product product = requireProduct(productId);
+            boolean firstIsPrimary = !imageRepository.existsByProductIdAndIsPrimaryTrueAndActiveTrue(productId);
+            int displayOrder = getNextDisplayOrder(productId);
+            List<ProductImage> images = new ArrayList<>(staged.size());
+            for (int i = 0; i < staged.size(); i++) {
+                images.add(toProductImage(product, storage, staged.get(i), altText, firstIsPrimary && i == 0,
+                        displayOrder + i));
+            }
+            List<ProductImage> inserted = imageRepository.saveAll(images);
+            scheduleDerivatives(storage, inserted, staged);
+            return inserted;
+        });
+        return saved.stream()
+                .map(entityMapper::toProductImageResponse)
+                .collect(Collectors.toList());
+    }
+
+    private Product requireProduct(Long productId) {
+        return productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+    }
 
-        if (isPrimary != null && isPrimary) {
-            unsetOtherPrimaryImages(product.getId());
+    /**
+     * Writes the rows of finished uploads in a transaction of their own. The
+     * uploads are tied to that transaction first (see {@link #completeUploads});
+     * if it cannot even begin, they are discarded here.
+     */
+    private <T> T persist(ImageStorageService storage, Long productId, List<StagedUpload> staged, Supplier<T> write) {
+        boolean[] handedOver = {false};
+        try {
+            return writes.execute(status -> {
+                completeUploads(storage, productId, staged);
+                handedOver[0] = true;
+                return write.get();
+            });
+        } catch (RuntimeException e) {
+            if (!handedOver[0]) {
+                staged.forEach(s -> discard(storage, productId, s));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Spools the multipart body to a temp file (streamed, never fully in heap)
+     * while computing its SHA-256, then either reuses an existing stored object
+     * with the same content or streams the file to the storage backend under a
+     * content-addressed name. The temp file is kept so that derivatives can be
+     * rendered from it without downloading the original.
+     */
+    private StagedUpload stageAndUpload(ImageStorageService storage, Long productId, MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile("product-image-", extensionOf(filename));
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+
+            ImageUploadResult existing = findStoredDuplicate(storage, contentHash);
+            if (existing != null) {
+                log.debug("Reusing stored object {} for duplicate upload {}", existing.getPublicId(), filename);
+                return new StagedUpload(tmp, filename, existing, false);
+            }
+            return new StagedUpload(tmp, filename, uploadOnce(storage, tmp, contentHash + extensionOf(filename),
+                    productFolder(productId), contentHash), true);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(tmp);
+            throw new ImageUploadException("Failed to upload image: " + e.getMessage(), e);
         }
+    }
 
-        Integer displayOrder = getNextDisplayOrder(product.getId());
+    private ImageUploadResult findStoredDuplicate(ImageStorageService storage, String contentHash) {
+        return imageRepository.findFirstByContentHashAndProviderAndActiveTrue(contentHash, storage.getClass().getSimpleName())
+                .map(image -> ImageUploadResult.builder()
+                        .publicId(image.getPublicId())
+                        .url(image.getUrl())
+                        .thumbnailUrl(image.getThumbnailUrl())
+                        .width(image.getWidth())
+                        .height(image.getHeight())
+                        .fileSize(image.getFileSize())
+                        .contentHash(contentHash)
+                        .deduplicated(true)
+                        .build())
+                .orElse(null);
+    }
 
+    /**
+     * Uploads content that is not yet stored. Concurrent uploads of the same
+     * bytes (e.g. the same photo twice in one batch) share a single transfer.
+     * Every caller holds the content in {@code uncommittedUploads} until its
+     * transaction completes, see {@link #completeUploads}.
+     */
+    private ImageUploadResult uploadOnce(ImageStorageService storage, Path file, String objectName,
+                                         String folder, String contentHash) throws IOException {
+        uncommittedUploads.merge(contentHash, 1, Integer::sum);
+        CompletableFuture<ImageUploadResult> mine = new CompletableFuture<>();
+        CompletableFuture<ImageUploadResult> inFlight = inFlightUploads.putIfAbsent(contentHash, mine);
+        if (inFlight != null) {
+            try {
+                ImageUploadResult shared = inFlight.join();
+                return shared.toBuilder().deduplicated(true).build();
+            } catch (CompletionException e) {
+                releaseHold(contentHash);
+                throw new IOException("Concurrent upload of identical content failed", e.getCause());
+            }
+        }
         try {
-                byte[] bytes = file.getBytes();
-                String folder = "products/" + productId;
-                com.eshop.app.storage.ImageStorageService storage = storageFactory.get();
-                com.eshop.app.storage.ImageUploadResult r = storage.upload(bytes, file.getOriginalFilename(), folder);
-
-                    ProductImage image = ProductImage.builder()
-                        .product(product)
-                        .url(r.getUrl())
-                        .thumbnailUrl(r.getThumbnailUrl())
-                        .publicId(r.getPublicId())
-                        .provider(storage.getClass().getSimpleName())
-                        .width(r.getWidth())
-                        .height(r.getHeight())
-                        .fileSize(r.getFileSize())
-                        .altText(altText)
-                        .isPrimary(isPrimary != null ? isPrimary : false)
-                        .sortOrder(displayOrder)
-                        .active(true)
-                        .build();
-
-                ProductImage savedImage = imageRepository.save(image);
-                return entityMapper.toProductImageResponse(savedImage);
+            ImageUploadResult result = storage.upload(file, objectName, folder);
+            result.setContentHash(contentHash);
+            mine.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            releaseHold(contentHash);
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightUploads.remove(contentHash, mine);
+        }
+    }
 
+    /**
+     * @return whether other uploads of the content are still uncommitted
+     */
+    private boolean releaseHold(String contentHash) {
+        return uncommittedUploads.computeIfPresent(contentHash, (hash, holders) -> holders > 1 ? holders - 1 : null) != null;
+    }
+
+    private ProductImage toProductImage(Product product, ImageStorageService storage, StagedUpload staged,
+                                        String altText, boolean isPrimary, Integer displayOrder) {
+        ImageUploadResult r = staged.result();
+        return ProductImage.builder()
+                .product(product)
+                .url(r.getUrl())
+                .thumbnailUrl(r.getThumbnailUrl())
+                .publicId(r.getPublicId())
+                .provider(storage.getClass().getSimpleName())
+                .width(r.getWidth())
+                .height(r.getHeight())
+                .fileSize(r.getFileSize())
+                .contentHash(r.getContentHash())
+                .altText(altText)
+                .isPrimary(isPrimary)
+                .sortOrder(displayOrder)
+                .active(true)
+                .build();
+    }
+
+    /**
+     * Objects are uploaded before their rows are written, so if the transaction
+     * rolls back nothing may refer to them: remove the ones this request uploaded,
+     * unless another upload of the same content is still uncommitted or an active
+     * row already uses the object. On commit the uploads just stop holding it.
+     */
+    private void completeUploads(ImageStorageService storage, Long productId, List<StagedUpload> staged) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            staged.stream().filter(StagedUpload::held).forEach(s -> releaseHold(s.result().getContentHash()));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    staged.stream().filter(StagedUpload::held).forEach(s -> releaseHold(s.result().getContentHash()));
+                } else {
+                    staged.forEach(s -> discard(storage, productId, s));
+                }
+            }
+        });
+    }
+
+    /**
+     * Generates thumbnails once the surrounding transaction has committed, so
+     * the background update never races the insert. Backends that transform
+     * on the fly (Cloudinary) already returned a thumbnail URL and are skipped,
+     * as are deduplicated uploads whose derivatives already exist.
+     */
+    private void scheduleDerivatives(ImageStorageService storage, List<ProductImage> images, List<StagedUpload> staged) {
+        if (storage.supportsOnTheFlyTransformations()) {
+            staged.forEach(s -> deleteQuietly(s.localCopy()));
+            return;
+        }
+
+        Runnable generate = () -> {
+            for (int i = 0; i < images.size(); i++) {
+                Long imageId = images.get(i).getId();
+                StagedUpload s = staged.get(i);
+                String contentHash = s.result().getContentHash();
+                if (s.result().isDeduplicated()) {
+                    deleteQuietly(s.localCopy());
+                    continue;
+                }
+                derivativeService.generate(s.localCopy(), contentHash + extensionOf(s.filename()),
+                                productFolder(images.get(i).getProduct().getId()), storage, contentHash)
+                        .whenComplete((derivatives, ex) -> {
+                            try {
+                                if (ex != null) {
+                                    log.warn("Thumbnail generation failed for image {}: {}", imageId, ex.getMessage());
+                                } else if (!derivatives.isEmpty()) {
+                                    // Smallest size is the list thumbnail; larger sizes follow the naming convention.
+                                    // Updating by hash also covers duplicates saved while derivatives were rendering.
+                                    imageRepository.updateThumbnailUrlByContentHash(contentHash,
+                                            storage.getClass().getSimpleName(),
+                                            derivatives.values().iterator().next().getUrl());
+                                }
+                            } finally {
+                                deleteQuietly(s.localCopy());
+                            }
+                        });
+            }
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generate.run();
+            return;
+        }
+        // On rollback the local copies go with the uploads, see completeUploads
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generate.run();
+            }
+        });
+    }
+
+    private void discard(ImageStorageService storage, Long productId, StagedUpload staged) {
+        deleteQuietly(staged.localCopy());
+        if (!staged.held()) {
+            return;
+        }
+        String contentHash = staged.result().getContentHash();
+        if (releaseHold(contentHash)) {
+            return;
+        }
+        try {
+            if (isReferenced(storage, contentHash)) {
+                log.debug("Keeping uploaded image {}: an active image uses it", staged.result().getPublicId());
+                return;
+            }
+            storage.delete(staged.result().getPublicId(), productFolder(productId));
+        } catch (Exception e) {
+            log.warn("Failed to roll back uploaded image {}: {}", staged.result().getPublicId(), e.getMessage());
+        }
+    }
+
+    private boolean isReferenced(ImageStorageService storage, String contentHash) {
+        // Runs after rollback, so read in a transaction of its own
+        Boolean referenced = referenceCheck.execute(status -> imageRepository
+                .findFirstByContentHashAndProviderAndActiveTrue(contentHash, storage.getClass().getSimpleName())
+                .isPresent());
+        return Boolean.TRUE.equals(referenced);
+    }
+
+    private static String productFolder(Long productId) {
+        return "products/" + productId;
+    }
+
+    private static String extensionOf(String filename) {
+        int dot = filename != null ? filename.lastIndexOf('.') : -1;
+        return dot > 0 ? filename.substring(dot) : ".img";
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            throw new ImageUploadException("Failed to upload image: " + e.getMessage(), e);
+            log.debug("Could not delete temp file {}: {}", path, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @param held whether the upload holds its content in {@code uncommittedUploads}
+     */
+    private record StagedUpload(Path localCopy, String filename, ImageUploadResult result, boolean held) {
+    }
+}
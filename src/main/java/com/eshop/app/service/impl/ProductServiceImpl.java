@@ -10,6 +10,7 @@ import com.eshop.app.repository.TagRepository;
 import com.eshop.app.repository.OrderItemRepository;
 import com.eshop.app.mapper.ProductMapper;
 import com.eshop.app.service.AttributeValidatorService;
+import com.eshop.app.service.CategoryClosureService;
 import com.eshop.app.dto.request.ProductCreateRequest;
 import com.eshop.app.dto.request.ProductUpdateRequest;
 import com.eshop.app.dto.request.BatchProductCreateRequest;
@@ -22,6 +23,7 @@ import com.eshop.app.dto.response.BatchOperationResult;
 import com.eshop.app.dto.response.TopSellingProductResponse;
 import com.eshop.app.dto.response.ProductStatistics;
 import com.eshop.app.dto.response.SellerProductDashboard;
+import com.eshop.app.dto.response.ReorderSuggestionResponse;
 import com.eshop.app.entity.Product;
 import com.eshop.app.entity.Category;
 import com.eshop.app.entity.Brand;
@@ -29,8 +31,13 @@ import com.eshop.app.entity.Store;
 import com.eshop.app.entity.Tag;
 import com.eshop.app.entity.OrderItem;
 import com.eshop.app.entity.enums.ProductStatus;
+import com.eshop.app.event.CategoryChangedEvent;
 import com.eshop.app.event.ProductCreatedEvent;
 import com.eshop.app.event.LowStockEvent;
+import com.eshop.app.event.StockChangedEvent;
+import com.eshop.app.service.cache.BatchCache;
+import com.eshop.app.service.inventory.LowStockDetector;
+import com.eshop.app.service.pricing.PriceHistoryService;
 import com.eshop.app.exception.DuplicateResourceException;
 import com.eshop.app.exception.ResourceNotFoundException;
 import com.eshop.app.exception.ProductNotFoundException;
@@ -81,9 +88,6 @@ public class ProductServiceImpl implements ProductService {
     /** Maximum batch size for bulk operations (CRITICAL-001) */
     private static final int MAX_BATCH_SIZE = 100;
 
-    // Adding a constant for LOW_STOCK_THRESHOLD
-    private static final int LOW_STOCK_THRESHOLD = 10;
-
     // ═══════════════════════════════════════════════════════════════
     // DEPENDENCIES
     // ═══════════════════════════════════════════════════════════════
@@ -98,6 +102,10 @@ public class ProductServiceImpl implements ProductService {
     private final ProductProperties productProperties;
     private final ApplicationEventPublisher eventPublisher;
     private final ProductServiceHelper helper;
+    private final CategoryClosureService categoryClosureService;
+    private final LowStockDetector lowStockDetector;
+    private final PriceHistoryService priceHistoryService;
+    private final BatchCache<Long, ProductResponse> productBatchCache;
 
     // ═══════════════════════════════════════════════════════════════
     // LIFECYCLE
@@ -284,6 +292,9 @@ public class ProductServiceImpl implements ProductService {
             product.setFriendlyUrl(newFriendlyUrl);
         }
 
+        PriceHistoryService.PriceChange priceChange = new PriceHistoryService.PriceChange(id,
+                product.getPrice(), request.getPrice(), product.getDiscountPrice(), request.getDiscountPrice(),
+                "Product update");
         product.setPrice(request.getPrice());
         product.setDiscountPrice(request.getDiscountPrice());
         product.setStockQuantity(request.getStockQuantity());
@@ -321,6 +332,8 @@ public class ProductServiceImpl implements ProductService {
         }
 
         product = productRepository.save(product);
+        priceHistoryService.record(List.of(priceChange));
+        productBatchCache.evictAll(List.of(id));
         return productMapper.toProductResponse(product);
     }
 
@@ -346,6 +359,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productRepository.deleteById(id);
+        productBatchCache.evictAll(List.of(id));
     }
 
     /**
@@ -366,7 +380,12 @@ public class ProductServiceImpl implements ProductService {
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
         } else if (request.getNewCategoryName() != null && !request.getNewCategoryName().isEmpty()) {
             category = categoryRepository.findByName(request.getNewCategoryName())
-                    .orElseGet(() -> categoryRepository.save(new Category(request.getNewCategoryName())));
+                    .orElseGet(() -> {
+                        Category created = categoryRepository.save(new Category(request.getNewCategoryName()));
+                        categoryClosureService.link(created);
+                        eventPublisher.publishEvent(new CategoryChangedEvent(this, created.getId()));
+                        return created;
+                    });
         } else {
             throw new IllegalArgumentException("Either categoryId or newCategoryName must be provided");
         }
@@ -432,7 +451,9 @@ public class ProductServiceImpl implements ProductService {
      * Get multiple products by IDs in batch.
      * 
      * <p>
-     * Performance: O(n) where n = ids.size()
+     * Reads the {@code products} cache with one lookup per tier: L1, one Redis
+     * MGET for the L1 misses, one query for the rest, written back to Redis in
+     * one pipeline.
      * 
      * @param ids set of product IDs (max 100)
      * @return map of ID to ProductResponse
@@ -450,11 +471,10 @@ public class ProductServiceImpl implements ProductService {
                     "Batch size " + ids.size() + " exceeds maximum " + MAX_BATCH_SIZE);
         }
 
-        List<Product> products = productRepository.findAllById(ids);
-        return products.stream()
+        return productBatchCache.getAll(ids, missing -> productRepository.findAllById(missing).stream()
                 .collect(Collectors.toMap(
                         Product::getId,
-                        productMapper::toProductResponse));
+                        productMapper::toProductResponse)));
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -558,7 +578,8 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasAnyRole('ADMIN','SELLER','CUSTOMER','DELIVERY_AGENT')")
     public PageResponse<ProductListResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
-        var page = productRepository.findSummariesByCategory(categoryId, pageable);
+        // Includes products of all subcategories via the category closure table
+        var page = productRepository.findSummariesByCategorySubtree(categoryId, pageable);
         return PageResponse.of(page, productMapper::toProductListResponse);
     }
 
@@ -790,9 +811,11 @@ public class ProductServiceImpl implements ProductService {
 
         product.setStockQuantity(newStock);
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new StockChangedEvent(this, id, oldStock, newStock, newStock - oldStock,
+                request.operation().name()));
 
-        // Publish event for low stock alert
-        if (newStock < productProperties.getLowStockThreshold()) {
+        // Publish event for low stock alert when the product drops below its threshold
+        if (lowStockDetector.crossesThreshold(saved, oldStock, newStock)) {
             eventPublisher.publishEvent(new LowStockEvent(this, saved));
         }
 
@@ -812,13 +835,18 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findByIdForUpdate(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
-        int newStock = product.getStockQuantity() + quantity;
+        int oldStock = product.getStockQuantity();
+        int newStock = oldStock + quantity;
         if (newStock < 0) {
             throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
         }
 
         product.setStockQuantity(newStock);
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new StockChangedEvent(this, productId, oldStock, newStock, quantity, "UPDATE"));
+        if (lowStockDetector.crossesThreshold(saved, oldStock, newStock)) {
+            eventPublisher.publishEvent(new LowStockEvent(this, saved));
+        }
     }
 
     /**
@@ -832,12 +860,17 @@ public class ProductServiceImpl implements ProductService {
     public void adjustStock(Long productId, int delta) {
         Product product = productRepository.findByIdForUpdate(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
-        int newStock = product.getStockQuantity() + delta;
+        int oldStock = product.getStockQuantity();
+        int newStock = oldStock + delta;
         if (newStock < 0) {
             throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
         }
         product.setStockQuantity(newStock);
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new StockChangedEvent(this, productId, oldStock, newStock, delta, "ADJUST"));
+        if (lowStockDetector.crossesThreshold(saved, oldStock, newStock)) {
+            eventPublisher.publishEvent(new LowStockEvent(this, saved));
+        }
     }
 
     /**
@@ -914,9 +947,12 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public long getLowStockCountBySellerId(Long sellerId) {
+        return lowStockDetector.lowStockCount(sellerId);
+    }
 
-        // Real implementation
-        return productRepository.countByStoreSellerIdAndStockQuantityLessThan(sellerId, LOW_STOCK_THRESHOLD);
+    @Override
+    public List<ReorderSuggestionResponse> getReorderSuggestionsBySellerId(Long sellerId) {
+        return lowStockDetector.reorderSuggestions(sellerId);
     }
 
     @Override
@@ -950,7 +986,7 @@ public class ProductServiceImpl implements ProductService {
         long inactiveProducts = productRepository.countByStatus(ProductStatus.INACTIVE);
         long featuredProducts = productRepository.countByFeatured(true);
         long outOfStock = productRepository.countByStockQuantity(0);
-        long lowStock = productRepository.countByStockQuantityLessThan(LOW_STOCK_THRESHOLD);
+        long lowStock = productRepository.countLowStock(productProperties.getLowStockThreshold());
         long totalInventoryUnits = productRepository.sumStockQuantity();
         double avgStock = totalProducts > 0 ? (double) totalInventoryUnits / totalProducts : 0.0;
         BigDecimal avgPrice = productRepository.avgPrice();
@@ -993,7 +1029,7 @@ public class ProductServiceImpl implements ProductService {
         long totalProducts = productRepository.countByStoreSellerId(sellerId);
         long activeProducts = productRepository.countByStoreSellerIdAndStatus(sellerId, ProductStatus.ACTIVE);
         long outOfStock = productRepository.countByStoreSellerIdAndStockQuantity(sellerId, 0);
-        long lowStock = productRepository.countByStoreSellerIdAndStockQuantityLessThan(sellerId, LOW_STOCK_THRESHOLD);
+        long lowStock = lowStockDetector.lowStockCount(sellerId);
         long featuredProducts = productRepository.countByStoreSellerIdAndFeaturedTrue(sellerId);
         long totalInventoryUnits = productRepository.sumStockQuantityBySellerId(sellerId);
         double avgStock = totalProducts > 0 ? (double) totalInventoryUnits / totalProducts : 0.0;
@@ -1069,7 +1105,7 @@ public class ProductServiceImpl implements ProductService {
                     .reviewCount(0L)
                     .currentStock(p.getStockQuantity())
                     .stockStatus(p.getStockQuantity() == 0 ? "OUT_OF_STOCK"
-                            : (p.getStockQuantity() < LOW_STOCK_THRESHOLD ? "LOW_STOCK" : "IN_STOCK"))
+                            : (lowStockDetector.isLowStock(p) ? "LOW_STOCK" : "IN_STOCK"))
                     .sellerId(
                             p.getStore() != null && p.getStore().getSeller() != null ? p.getStore().getSeller().getId()
                                     : null)
@@ -3,18 +3,31 @@ package com.eshop.app.service.impl;
 import com.eshop.app.dto.request.ShippingRequest;
 import com.eshop.app.dto.request.TrackingUpdateRequest;
 import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ShippingQuoteResponse;
 import com.eshop.app.dto.response.ShippingResponse;
+import com.eshop.app.entity.Cart;
+import com.eshop.app.entity.CartItem;
 import com.eshop.app.entity.Order;
+import com.eshop.app.entity.Product;
 import com.eshop.app.entity.Shipping;
+import com.eshop.app.entity.enums.WeightUnit;
+import com.eshop.app.repository.CartRepository;
 import com.eshop.app.repository.OrderRepository;
 import com.eshop.app.repository.ShippingRepository;
 import com.eshop.app.service.ShippingService;
+import com.eshop.app.service.cache.ShippingRateCard;
+import com.eshop.app.service.cache.ShippingRateCardCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.List;
 import java.util.UUID;
@@ -25,10 +38,15 @@ public class ShippingServiceImpl implements ShippingService {
 
     private final ShippingRepository shippingRepository;
     private final OrderRepository orderRepository;
+    private final CartRepository cartRepository;
+    private final ShippingRateCardCache rateCardCache;
 
-    public ShippingServiceImpl(ShippingRepository shippingRepository, OrderRepository orderRepository) {
+    public ShippingServiceImpl(ShippingRepository shippingRepository, OrderRepository orderRepository,
+                               CartRepository cartRepository, ShippingRateCardCache rateCardCache) {
         this.shippingRepository = shippingRepository;
         this.orderRepository = orderRepository;
+        this.cartRepository = cartRepository;
+        this.rateCardCache = rateCardCache;
     }
 
     @Override
@@ -138,24 +156,20 @@ public class ShippingServiceImpl implements ShippingService {
     }
 
     @Override
-    public java.math.BigDecimal calculateShippingCost(Shipping.ShippingMethod method, java.math.BigDecimal weight, String destination) {
-        // Simple rate table: base + per-kg multiplier
-        java.math.BigDecimal base = switch (method) {
-            case STANDARD -> java.math.BigDecimal.valueOf(5);
-            case EXPEDITED -> java.math.BigDecimal.valueOf(10);
-            case TWO_DAY -> java.math.BigDecimal.valueOf(12);
-            case OVERNIGHT -> java.math.BigDecimal.valueOf(20);
-            case SAME_DAY -> java.math.BigDecimal.valueOf(25);
-            case PICKUP -> java.math.BigDecimal.ZERO;
-        };
-        java.math.BigDecimal perKg = java.math.BigDecimal.valueOf(1.5);
-        java.math.BigDecimal w = weight != null ? weight : java.math.BigDecimal.ZERO;
-        return base.add(perKg.multiply(w)).setScale(2, java.math.RoundingMode.HALF_UP);
+    @Transactional(readOnly = true)
+    public BigDecimal calculateShippingCost(Shipping.ShippingMethod method, BigDecimal weight, String destination) {
+        ShippingRateCard.Quote quote = quoteAnyOrigin(destination, weight)[method.ordinal()];
+        if (!quote.isAvailable()) {
+            throw new IllegalArgumentException("Shipping method " + method + " is not available for " + destination);
+        }
+        return quote.cost();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public LocalDateTime getEstimatedDeliveryDate(Shipping.ShippingMethod method, String destination) {
-        return estimateDeliveryDate(method);
+        int days = quoteAnyOrigin(destination, BigDecimal.ZERO)[method.ordinal()].transitDays();
+        return LocalDateTime.now().plusDays(days);
     }
 
     @Override
@@ -189,33 +203,126 @@ public class ShippingServiceImpl implements ShippingService {
     }
 
     @Override
-    public java.util.List<Object> getAvailableShippingMethods(String destination, java.math.BigDecimal weight) {
-        // Minimal stub: return all methods
-        return java.util.List.of(Shipping.ShippingMethod.STANDARD,
-                Shipping.ShippingMethod.EXPEDITED,
-                Shipping.ShippingMethod.TWO_DAY,
-                Shipping.ShippingMethod.OVERNIGHT,
-                Shipping.ShippingMethod.SAME_DAY,
-                Shipping.ShippingMethod.PICKUP);
+    @Transactional(readOnly = true)
+    public List<Object> getAvailableShippingMethods(String destination, BigDecimal weight) {
+        List<Object> methods = new ArrayList<>();
+        for (ShippingRateCard.Quote quote : quoteAnyOrigin(destination, weight)) {
+            if (quote.isAvailable()) {
+                methods.add(quote.method());
+            }
+        }
+        return methods;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShippingQuoteResponse> quoteShipping(String destination, BigDecimal weight, Long shippingClassId) {
+        Map<Long, Long> gramsByClass = new HashMap<>();
+        gramsByClass.put(shippingClassId, ShippingRateCard.toGrams(weight));
+        return quote(destination, gramsByClass);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShippingQuoteResponse> quoteCart(Long userId, String destination) {
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Cart not found for user: " + userId));
+        // One parcel per shipping class; the class is only read by id, so its proxy stays uninitialized
+        Map<Long, Long> gramsByClass = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            Product product = item.getProduct();
+            BigDecimal weight = product.getBillableWeight();
+            if (weight == null || item.getQuantity() == null) {
+                continue;
+            }
+            WeightUnit unit = product.getWeightUnit() != null ? product.getWeightUnit() : WeightUnit.KG;
+            long grams = ShippingRateCard.toGrams(unit.convertToKg(weight).multiply(BigDecimal.valueOf(item.getQuantity())));
+            Long shippingClassId = product.getShippingClass() != null ? product.getShippingClass().getId() : null;
+            gramsByClass.merge(shippingClassId, grams, Long::sum);
+        }
+        if (gramsByClass.isEmpty()) {
+            gramsByClass.put(null, 0L);
+        }
+        return quote(destination, gramsByClass);
     }
 
     // Helpers
+    private ShippingRateCard.Quote[] quoteAnyOrigin(String destination, BigDecimal weight) {
+        ShippingRateCard card = rateCardCache.card();
+        ShippingRateCard.ZoneChain zones = card.resolve(ShippingRateCard.Destination.parse(destination));
+        return rateCardCache.quoteAll(card, zones, ShippingRateCard.toGrams(weight), null, null);
+    }
+
+    /**
+     * Quotes every method from every active warehouse (or from anywhere when none is set up).
+     * Parcels of different shipping classes are priced separately and summed; a method is
+     * offered only if it can carry every parcel, and takes as long as its slowest parcel.
+     */
+    private List<ShippingQuoteResponse> quote(String destination, Map<Long, Long> gramsByClass) {
+        ShippingRateCard card = rateCardCache.card();
+        ShippingRateCard.ZoneChain zones = card.resolve(ShippingRateCard.Destination.parse(destination));
+        long billableGrams = 0;
+        for (long grams : gramsByClass.values()) {
+            billableGrams += rateCardCache.billableGrams(card, grams);
+        }
+        BigDecimal billableWeightKg = BigDecimal.valueOf(billableGrams, 3);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ShippingQuoteResponse> result = new ArrayList<>();
+        if (card.origins().isEmpty()) {
+            addQuotes(card, zones, gramsByClass, null, null, billableWeightKg, now, result);
+        }
+        for (ShippingRateCard.Origin origin : card.origins()) {
+            addQuotes(card, zones, gramsByClass, origin.warehouseId(), origin.name(), billableWeightKg, now, result);
+        }
+        result.sort(Comparator.comparing(ShippingQuoteResponse::getCost)
+                .thenComparing(ShippingQuoteResponse::getTransitDays));
+        return result;
+    }
+
+    private void addQuotes(ShippingRateCard card, ShippingRateCard.ZoneChain zones, Map<Long, Long> gramsByClass,
+                           Long warehouseId, String warehouseName, BigDecimal billableWeightKg, LocalDateTime now,
+                           List<ShippingQuoteResponse> out) {
+        int methodCount = Shipping.ShippingMethod.values().length;
+        BigDecimal[] costs = new BigDecimal[methodCount];
+        int[] transitDays = new int[methodCount];
+        boolean[] unavailable = new boolean[methodCount];
+        for (Map.Entry<Long, Long> parcel : gramsByClass.entrySet()) {
+            ShippingRateCard.Quote[] quotes = rateCardCache.quoteAll(card, zones, parcel.getValue(), warehouseId, parcel.getKey());
+            for (ShippingRateCard.Quote quote : quotes) {
+                int m = quote.method().ordinal();
+                if (!quote.isAvailable()) {
+                    unavailable[m] = true;
+                    continue;
+                }
+                costs[m] = costs[m] != null ? costs[m].add(quote.cost()) : quote.cost();
+                transitDays[m] = Math.max(transitDays[m], quote.transitDays());
+            }
+        }
+        for (Shipping.ShippingMethod method : Shipping.ShippingMethod.values()) {
+            int m = method.ordinal();
+            if (unavailable[m] || costs[m] == null) {
+                continue;
+            }
+            out.add(ShippingQuoteResponse.builder()
+                    .method(method)
+                    .warehouseId(warehouseId)
+                    .warehouseName(warehouseName)
+                    .geoZoneId(zones.primaryZoneId() != 0 ? zones.primaryZoneId() : null)
+                    .billableWeightKg(billableWeightKg)
+                    .cost(costs[m])
+                    .transitDays(transitDays[m])
+                    .estimatedDeliveryDate(now.plusDays(transitDays[m]))
+                    .build());
+        }
+    }
+
     private String generateTrackingNumber() {
         return "TRK-" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
     }
 
     private LocalDateTime estimateDeliveryDate(Shipping.ShippingMethod method) {
-        int days;
-        switch (method) {
-            case STANDARD -> days = 7;
-            case EXPEDITED -> days = 3;
-            case OVERNIGHT -> days = 1;
-            case TWO_DAY -> days = 2;
-            case SAME_DAY -> days = 0;
-            case PICKUP -> days = 0;
-            default -> days = 5;
-        }
-        return LocalDateTime.now().plusDays(days);
+        return LocalDateTime.now().plusDays(ShippingRateCard.defaultTransitDays(method));
     }
 
     private Shipping.Address mapAddress(ShippingRequest.Address address) {
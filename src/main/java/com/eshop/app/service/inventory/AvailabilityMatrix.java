@@ -0,0 +1,238 @@
+package com.eshop.app.service.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory availability of every SKU in every warehouse that stocks it.
+ *
+ * <p>Each SKU holds parallel arrays (warehouse id, quantity, reserved) mirroring
+ * its {@code product_inventory} rows, plus the units this node reserved on top of
+ * them ({@code local}): its holds and the reservations of orders not yet
+ * committed. Allocation locks only the SKUs of the order, always in product-id
+ * order, so concurrent checkouts of different products never contend and cannot
+ * deadlock.
+ *
+ * <p>Local units never reach the database from here. Once an order commits, its
+ * units are in {@code product_inventory} and {@link #settle} marks them; they
+ * leave the local count at the first {@link #refresh} whose rows were read after
+ * the commit, so a refresh racing the commit counts them twice for one interval
+ * rather than not at all.
+ */
+public final class AvailabilityMatrix {
+
+    /**
+     * Builder input: one {@code product_inventory} row.
+     */
+    public record Row(long productId, long warehouseId, int quantity, int reserved) {
+    }
+
+    private record Settlement(long warehouseId, int units, long stamp) {
+    }
+
+    private static final class SkuStock {
+        final ReentrantLock lock = new ReentrantLock();
+        final List<Settlement> settlements = new ArrayList<>();
+        long[] warehouseIds;
+        int[] quantity;
+        int[] reserved;
+        int[] local;
+
+        SkuStock(List<Row> rows) {
+            reset(rows, Long.MIN_VALUE);
+        }
+
+        void reset(List<Row> rows, long readMark) {
+            Map<Long, Integer> carried = new HashMap<>();
+            for (int i = 0; warehouseIds != null && i < warehouseIds.length; i++) {
+                if (local[i] != 0) {
+                    carried.put(warehouseIds[i], local[i]);
+                }
+            }
+            for (Iterator<Settlement> it = settlements.iterator(); it.hasNext(); ) {
+                Settlement settlement = it.next();
+                if (settlement.stamp() < readMark) {
+                    // Committed before the rows were read, so they contain these units
+                    carried.merge(settlement.warehouseId(), -settlement.units(), Integer::sum);
+                    it.remove();
+                }
+            }
+
+            List<Row> sorted = new ArrayList<>(rows);
+            sorted.sort((a, b) -> Long.compare(a.warehouseId(), b.warehouseId()));
+            int n = sorted.size();
+            warehouseIds = new long[n];
+            quantity = new int[n];
+            reserved = new int[n];
+            local = new int[n];
+            for (int i = 0; i < n; i++) {
+                Row row = sorted.get(i);
+                warehouseIds[i] = row.warehouseId();
+                quantity[i] = row.quantity();
+                reserved[i] = row.reserved();
+                local[i] = Math.max(0, carried.getOrDefault(row.warehouseId(), 0));
+            }
+        }
+
+        int indexOf(long warehouseId) {
+            return Arrays.binarySearch(warehouseIds, warehouseId);
+        }
+
+        WarehouseAllocator.Stock available(long productId) {
+            int[] available = new int[warehouseIds.length];
+            for (int i = 0; i < available.length; i++) {
+                available[i] = Math.max(0, quantity[i] - reserved[i] - local[i]);
+            }
+            return new WarehouseAllocator.Stock(productId, warehouseIds, available);
+        }
+
+        void reserve(long warehouseId, int units) {
+            int i = indexOf(warehouseId);
+            if (i >= 0) {
+                local[i] = Math.max(0, local[i] + units);
+            }
+        }
+    }
+
+    private final Map<Long, SkuStock> skus = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    public boolean tracks(long productId) {
+        return skus.containsKey(productId);
+    }
+
+    public int skuCount() {
+        return skus.size();
+    }
+
+    /**
+     * Total available units of a SKU across warehouses, or -1 if it is not tracked.
+     */
+    public int available(long productId) {
+        SkuStock sku = skus.get(productId);
+        if (sku == null) {
+            return -1;
+        }
+        sku.lock.lock();
+        try {
+            int total = 0;
+            for (int units : sku.available(productId).available()) {
+                total += units;
+            }
+            return total;
+        } finally {
+            sku.lock.unlock();
+        }
+    }
+
+    /**
+     * Allocates the lines (tracked products only) and, if {@code reserve}, reserves
+     * the picked units locally, atomically with the allocation.
+     */
+    public WarehouseAllocator.Plan allocate(List<WarehouseAllocator.Line> lines, WarehouseRanking ranking,
+                                            boolean reserve) {
+        List<WarehouseAllocator.Line> sorted = new ArrayList<>(lines);
+        sorted.sort((a, b) -> Long.compare(a.productId(), b.productId()));
+        List<SkuStock> locked = new ArrayList<>(sorted.size());
+        try {
+            List<WarehouseAllocator.Stock> stocks = new ArrayList<>(sorted.size());
+            for (WarehouseAllocator.Line line : sorted) {
+                SkuStock sku = skus.get(line.productId());
+                if (sku == null) {
+                    throw new IllegalArgumentException("Product is not stocked in any warehouse: " + line.productId());
+                }
+                sku.lock.lock();
+                locked.add(sku);
+                stocks.add(sku.available(line.productId()));
+            }
+            WarehouseAllocator.Plan plan = WarehouseAllocator.allocate(sorted, stocks, ranking);
+            if (reserve && plan.isComplete()) {
+                for (WarehouseAllocator.Pick pick : plan.picks()) {
+                    skus.get(pick.productId()).reserve(pick.warehouseId(), pick.quantity());
+                }
+            }
+            return plan;
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns locally reserved units to stock (hold released or expired, order rolled back).
+     */
+    public void release(Collection<WarehouseAllocator.Pick> picks) {
+        for (WarehouseAllocator.Pick pick : picks) {
+            SkuStock sku = skus.get(pick.productId());
+            if (sku == null) {
+                continue;
+            }
+            sku.lock.lock();
+            try {
+                sku.reserve(pick.warehouseId(), -pick.quantity());
+            } finally {
+                sku.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Records that locally reserved units were committed to {@code product_inventory}.
+     */
+    public void settle(Collection<WarehouseAllocator.Pick> picks) {
+        long stamp = clock.get();
+        for (WarehouseAllocator.Pick pick : picks) {
+            SkuStock sku = skus.get(pick.productId());
+            if (sku == null) {
+                continue;
+            }
+            sku.lock.lock();
+            try {
+                sku.settlements.add(new Settlement(pick.warehouseId(), pick.quantity(), stamp));
+            } finally {
+                sku.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Call right before reading the rows for {@link #refresh}.
+     *
+     * @return the mark to pass to {@link #refresh}
+     */
+    public long beginRefresh() {
+        return clock.incrementAndGet();
+    }
+
+    /**
+     * Replaces the stored levels with rows read after {@code readMark} was taken,
+     * keeping the local units on top. SKUs missing from the rows are dropped.
+     */
+    public void refresh(List<Row> rows, long readMark) {
+        Map<Long, List<Row>> byProduct = new HashMap<>();
+        for (Row row : rows) {
+            byProduct.computeIfAbsent(row.productId(), k -> new ArrayList<>()).add(row);
+        }
+        byProduct.forEach((productId, productRows) -> {
+            SkuStock existing = skus.putIfAbsent(productId, new SkuStock(productRows));
+            if (existing != null) {
+                existing.lock.lock();
+                try {
+                    existing.reset(productRows, readMark);
+                } finally {
+                    existing.lock.unlock();
+                }
+            }
+        });
+        skus.keySet().removeIf(productId -> !byProduct.containsKey(productId));
+    }
+}
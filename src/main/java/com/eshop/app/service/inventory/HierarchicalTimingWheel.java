@@ -0,0 +1,184 @@
+package com.eshop.app.service.inventory;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel of {@code long} keys (order ids) with millisecond
+ * deadlines.
+ *
+ * <p>Four levels of 64 slots each; a slot of level {@code L} spans
+ * {@code 64^L} ticks, so with one-second ticks the wheel covers about 194 days
+ * before entries are parked in the last level and re-filed on cascade.
+ * Scheduling is O(1); advancing costs O(1) per elapsed tick plus the entries
+ * that expire or move down a level, so the sweep never scans pending keys that
+ * are not due. Keys are stored in growable primitive arrays, not boxed.
+ *
+ * <p>{@link #cancel(long)} leaves the entry in its slot and records a tombstone
+ * that the entry's expiry consumes, so it must only be called for a key that is
+ * scheduled once and has not expired yet.
+ */
+public final class HierarchicalTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * Keys and deadline ticks of one slot, in parallel arrays.
+     */
+    private static final class Bucket {
+        long[] keys = new long[4];
+        long[] ticks = new long[4];
+        int size;
+
+        void add(long key, long tick) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ticks = Arrays.copyOf(ticks, size * 2);
+            }
+            keys[size] = key;
+            ticks[size] = tick;
+            size++;
+        }
+    }
+
+    private final long tickMillis;
+    private final Bucket[][] wheels = new Bucket[LEVELS][SLOTS];
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+    private Bucket overdue = new Bucket();
+    private final Set<Long> cancelled = new HashSet<>();
+
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis}. A deadline that
+     * has already passed is returned by the next {@link #advance(long)}.
+     */
+    public void schedule(long key, long deadlineMillis) {
+        // Round up so a key never expires before its deadline
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        lock.lock();
+        try {
+            place(key, tick);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a scheduled key; it is not returned by {@link #advance(long)}.
+     */
+    public void cancel(long key) {
+        lock.lock();
+        try {
+            if (cancelled.add(key)) {
+                size--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns every key whose deadline
+     * has passed, in no particular order.
+     */
+    public long[] advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        lock.lock();
+        try {
+            Bucket expired = overdue;
+            overdue = new Bucket();
+            while (currentTick < target) {
+                currentTick++;
+                // Re-file the higher-level slots that start at this tick, top level first
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    long shift = (long) SLOT_BITS * level;
+                    if ((currentTick & ((1L << shift) - 1)) == 0) {
+                        int slot = (int) ((currentTick >>> shift) & SLOT_MASK);
+                        Bucket bucket = wheels[level][slot];
+                        if (bucket != null) {
+                            wheels[level][slot] = null;
+                            for (int i = 0; i < bucket.size; i++) {
+                                place(bucket.keys[i], bucket.ticks[i]);
+                            }
+                        }
+                    }
+                }
+                int slot = (int) (currentTick & SLOT_MASK);
+                Bucket due = wheels[0][slot];
+                if (due != null) {
+                    wheels[0][slot] = null;
+                    for (int i = 0; i < due.size; i++) {
+                        expired.add(due.keys[i], due.ticks[i]);
+                    }
+                }
+            }
+            // Keys re-filed during the last cascade may already be due
+            Bucket late = overdue;
+            overdue = new Bucket();
+            for (int i = 0; i < late.size; i++) {
+                expired.add(late.keys[i], late.ticks[i]);
+            }
+            if (cancelled.isEmpty()) {
+                size -= expired.size;
+                return Arrays.copyOf(expired.keys, expired.size);
+            }
+            long[] keys = new long[expired.size];
+            int count = 0;
+            for (int i = 0; i < expired.size; i++) {
+                if (!cancelled.remove(expired.keys[i])) {
+                    keys[count++] = expired.keys[i];
+                }
+            }
+            size -= count;
+            return Arrays.copyOf(keys, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void place(long key, long tick) {
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            overdue.add(key, tick);
+            return;
+        }
+        // Park keys beyond the horizon in the last slot they can reach; the cascade re-files them
+        long slotTick = delta < SPAN ? tick : currentTick + SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && (slotTick - currentTick) >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Bucket bucket = wheels[level][slot];
+        if (bucket == null) {
+            bucket = new Bucket();
+            wheels[level][slot] = bucket;
+        }
+        bucket.add(key, tick);
+    }
+}
@@ -0,0 +1,293 @@
+package com.eshop.app.service.inventory;
+
+import com.eshop.app.config.ProductProperties;
+import com.eshop.app.dto.response.ReorderSuggestionResponse;
+import com.eshop.app.entity.Product;
+import com.eshop.app.event.outbox.OutboxEventHandler;
+import com.eshop.app.event.outbox.OutboxMessage;
+import com.eshop.app.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the low-stock products of every seller in memory.
+ *
+ * <p>The state is loaded with one query on startup and every resync interval and
+ * is kept current in between from the {@code StockChanged} outbox events, which
+ * carry the new absolute stock, so applying one is a map update instead of an
+ * aggregate query. Seller counts are read from a per-seller set in O(1).
+ *
+ * <p>A product is low on stock when it is below its {@code reorderLevel}, or the
+ * configured default threshold when it has none. {@link #crossesThreshold} is what
+ * the stock writers use to raise {@code LowStockEvent} once, when a product drops
+ * below its threshold, rather than on every update below it.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.inventory.low-stock.velocity-window=P28D
+ * app.inventory.low-stock.lead-time=P7D
+ * app.inventory.low-stock.cover=P14D
+ * app.inventory.low-stock.resync-interval=PT15M
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Component
+public class LowStockDetector implements OutboxEventHandler {
+
+    private record Position(long sellerId, int stock, Integer reorderLevel, Integer reorderQuantity,
+                            long unitsSold, LocalDateTime lastSoldAt, long lastEventId) {
+    }
+
+    private record State(Map<Long, Position> products, Map<Long, Set<Long>> lowStockBySeller) {
+
+        static State empty() {
+            return new State(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductProperties productProperties;
+    private final Duration velocityWindow;
+    private final Duration leadTime;
+    private final Duration cover;
+
+    /**
+     * An event with the row of its product when the state did not know it yet.
+     */
+    private record Pending(OutboxMessage message, ProductRepository.StockPosition row) {
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state = State.empty();
+    // Events applied while a rebuild query runs, replayed onto the fresh state
+    private List<Pending> duringRebuild;
+    // Products not found since the last rebuild (deleted or untracked), so their events skip the lookup
+    private volatile Set<Long> untracked = ConcurrentHashMap.newKeySet();
+
+    public LowStockDetector(ProductRepository productRepository,
+                            ProductProperties productProperties,
+                            @Value("${app.inventory.low-stock.velocity-window:P28D}") Duration velocityWindow,
+                            @Value("${app.inventory.low-stock.lead-time:P7D}") Duration leadTime,
+                            @Value("${app.inventory.low-stock.cover:P14D}") Duration cover) {
+        this.productRepository = productRepository;
+        this.productProperties = productProperties;
+        this.velocityWindow = velocityWindow;
+        this.leadTime = leadTime;
+        this.cover = cover;
+    }
+
+    /**
+     * Whether a stock change takes the product from at or above its low-stock
+     * threshold to below it.
+     */
+    public boolean crossesThreshold(Product product, int previousStock, int newStock) {
+        int threshold = thresholdOf(product.getReorderLevel());
+        return previousStock >= threshold && newStock < threshold;
+    }
+
+    /**
+     * Whether the product's current stock is below its low-stock threshold.
+     */
+    public boolean isLowStock(Product product) {
+        int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        return stock < thresholdOf(product.getReorderLevel());
+    }
+
+    public long lowStockCount(Long sellerId) {
+        Set<Long> lowStock = state.lowStockBySeller().get(sellerId);
+        return lowStock != null ? lowStock.size() : 0;
+    }
+
+    /**
+     * Reorder suggestions for the seller's low-stock products, the ones that run
+     * out soonest first. The quantity covers the lead time plus the cover period
+     * at the current sell-through rate, and is at least the product's
+     * {@code reorderQuantity}.
+     */
+    public List<ReorderSuggestionResponse> reorderSuggestions(Long sellerId) {
+        State current = state;
+        Set<Long> lowStock = current.lowStockBySeller().get(sellerId);
+        if (lowStock == null || lowStock.isEmpty()) {
+            return List.of();
+        }
+        double windowDays = Math.max(1.0, velocityWindow.toHours() / 24.0);
+        double horizonDays = (leadTime.toHours() + cover.toHours()) / 24.0;
+        List<ReorderSuggestionResponse> suggestions = new ArrayList<>(lowStock.size());
+        for (Long productId : lowStock) {
+            Position position = current.products().get(productId);
+            if (position == null) {
+                continue;
+            }
+            int threshold = thresholdOf(position.reorderLevel());
+            double unitsPerDay = position.unitsSold() / windowDays;
+            int target = threshold + (int) Math.ceil(unitsPerDay * horizonDays);
+            int minimum = position.reorderQuantity() != null ? position.reorderQuantity() : 1;
+            suggestions.add(ReorderSuggestionResponse.builder()
+                    .productId(productId)
+                    .stockQuantity(position.stock())
+                    .lowStockThreshold(threshold)
+                    .unitsPerDay(unitsPerDay)
+                    .daysOfCover(unitsPerDay > 0 ? position.stock() / unitsPerDay : null)
+                    .lastSoldAt(position.lastSoldAt())
+                    .suggestedQuantity(Math.max(minimum, target - position.stock()))
+                    .build());
+        }
+        suggestions.sort(Comparator.comparing(ReorderSuggestionResponse::getDaysOfCover,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return suggestions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.low-stock.resync-interval:PT15M}",
+            initialDelayString = "${app.inventory.low-stock.resync-interval:PT15M}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            duringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        State fresh = State.empty();
+        try {
+            for (ProductRepository.StockPosition row : productRepository.findStockPositions(velocitySince())) {
+                put(fresh, row.getProductId(), toPosition(row, 0));
+            }
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            for (Pending pending : duringRebuild) {
+                apply(fresh, pending.message(), pending.row());
+            }
+            duringRebuild = null;
+            state = fresh;
+            untracked = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Rebuilt low-stock state for {} products in {} ms",
+                fresh.products().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxMessage.STOCK_CHANGED.equals(eventType);
+    }
+
+    @Override
+    public boolean onEveryNode() {
+        return true;
+    }
+
+    /**
+     * Applies a stock change. A product the state does not know yet, i.e. created
+     * since the last rebuild, is looked up before taking the lock.
+     */
+    @Override
+    public void handle(OutboxMessage message) {
+        Long productId = message.longValue("productId");
+        if (productId == null || message.intValue("newStock") == null) {
+            return;
+        }
+        ProductRepository.StockPosition row = null;
+        if (!state.products().containsKey(productId) && !untracked.contains(productId)) {
+            row = productRepository.findStockPosition(productId, velocitySince()).orElse(null);
+            if (row == null) {
+                untracked.add(productId);
+            }
+        }
+        lock.lock();
+        try {
+            if (duringRebuild != null) {
+                duringRebuild.add(new Pending(message, row));
+            }
+            apply(state, message, row);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(State target, OutboxMessage message, ProductRepository.StockPosition row) {
+        Long productId = message.longValue("productId");
+        Integer newStock = message.intValue("newStock");
+        Position current = target.products().get(productId);
+        if (current == null) {
+            if (row != null) {
+                put(target, productId, toPosition(row, message.id()));
+            }
+            return;
+        }
+        if (message.id() <= current.lastEventId()) {
+            return;
+        }
+        Integer delta = message.intValue("delta");
+        boolean sold = "ORDER".equals(message.stringValue("reason")) && delta != null && delta < 0;
+        put(target, productId, new Position(current.sellerId(), newStock, current.reorderLevel(),
+                current.reorderQuantity(), sold ? current.unitsSold() - delta : current.unitsSold(),
+                sold ? message.occurredAt() : current.lastSoldAt(), message.id()));
+    }
+
+    private void put(State target, Long productId, Position position) {
+        Position previous = target.products().put(productId, position);
+        if (previous != null && previous.sellerId() != position.sellerId()) {
+            removeLowStock(target, previous.sellerId(), productId);
+        }
+        if (position.stock() < thresholdOf(position.reorderLevel())) {
+            target.lowStockBySeller().computeIfAbsent(position.sellerId(), id -> ConcurrentHashMap.newKeySet())
+                    .add(productId);
+        } else {
+            removeLowStock(target, position.sellerId(), productId);
+        }
+    }
+
+    private static void removeLowStock(State target, long sellerId, Long productId) {
+        Set<Long> lowStock = target.lowStockBySeller().get(sellerId);
+        if (lowStock != null) {
+            lowStock.remove(productId);
+        }
+    }
+
+    private int thresholdOf(Integer reorderLevel) {
+        return reorderLevel != null ? reorderLevel : productProperties.getLowStockThreshold();
+    }
+
+    private LocalDateTime velocitySince() {
+        return LocalDateTime.now().minus(velocityWindow);
+    }
+
+    private static Position toPosition(ProductRepository.StockPosition row, long lastEventId) {
+        return new Position(row.getSellerId(), row.getStockQuantity(), row.getReorderLevel(),
+                row.getReorderQuantity(), row.getUnitsSold() != null ? row.getUnitsSold() : 0,
+                row.getLastSoldAt(), lastEventId);
+    }
+}
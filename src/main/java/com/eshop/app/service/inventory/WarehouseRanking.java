@@ -0,0 +1,80 @@
+package com.eshop.app.service.inventory;
+
+import com.eshop.app.service.cache.ShippingRateCard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Proximity ranking of warehouses for one destination.
+ *
+ * <p>Warehouses carry postal addresses rather than coordinates, so distance is
+ * approximated by address tiers: same postal area (first three characters), same
+ * city, same state, same country, elsewhere. Within a tier the configured
+ * warehouse priority decides. Lower ranks are nearer.
+ */
+public final class WarehouseRanking {
+
+    /**
+     * Warehouse address and priority (lower priority values are preferred).
+     */
+    public record Location(long warehouseId, String country, String state, String city, String postalCode,
+                           int priority) {
+    }
+
+    private static final int POSTAL_AREA_LENGTH = 3;
+    private static final int TIERS = 5;
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private final Map<Long, Integer> ranks;
+
+    private WarehouseRanking(Map<Long, Integer> ranks) {
+        this.ranks = ranks;
+    }
+
+    /**
+     * @param destination buyer destination, or {@code null} to rank by priority only
+     */
+    public static WarehouseRanking of(List<Location> locations, ShippingRateCard.Destination destination) {
+        Map<Long, Integer> ranks = new HashMap<>(locations.size() * 2);
+        for (Location location : locations) {
+            int tier = destination != null ? tier(location, destination) : TIERS - 1;
+            // Tier dominates; priority is clamped so it can never cross a tier boundary
+            int priority = Math.max(0, Math.min(location.priority(), 1_000_000));
+            ranks.put(location.warehouseId(), tier * 1_000_001 + priority);
+        }
+        return new WarehouseRanking(ranks);
+    }
+
+    public int rankOf(long warehouseId) {
+        return ranks.getOrDefault(warehouseId, UNKNOWN);
+    }
+
+    private static int tier(Location location, ShippingRateCard.Destination destination) {
+        if (!same(location.country(), destination.country())) {
+            return 4;
+        }
+        String area = postalArea(destination.postalCode());
+        if (area != null && area.equals(postalArea(location.postalCode()))) {
+            return 0;
+        }
+        if (same(location.state(), destination.state())) {
+            return same(location.city(), destination.city()) ? 1 : 2;
+        }
+        return 3;
+    }
+
+    private static boolean same(String a, String b) {
+        return a != null && b != null && a.trim().equalsIgnoreCase(b.trim());
+    }
+
+    private static String postalArea(String postalCode) {
+        if (postalCode == null) {
+            return null;
+        }
+        String normalized = postalCode.replaceAll("[^A-Za-z0-9]", "").toUpperCase(Locale.ROOT);
+        return normalized.length() >= POSTAL_AREA_LENGTH ? normalized.substring(0, POSTAL_AREA_LENGTH) : null;
+    }
+}
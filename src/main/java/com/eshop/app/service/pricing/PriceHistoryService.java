@@ -0,0 +1,216 @@
+package com.eshop.app.service.pricing;
+
+import com.eshop.app.dto.response.PriceSeriesResponse;
+import com.eshop.app.exception.ResourceNotFoundException;
+import com.eshop.app.repository.ProductPriceHistoryRepository;
+import com.eshop.app.util.SecurityUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes product price history and serves daily price series.
+ *
+ * <p>History rows are inserted with one JDBC batch per call, in the caller's
+ * transaction; the entity's identity ids would otherwise make Hibernate insert
+ * them one statement at a time. Series are read from the
+ * {@code (product_id, changed_at)} index and kept in a size-bounded cache of
+ * recently requested products. Each entry holds only the days that had changes
+ * and is expanded to one point per day on request. Entries of repriced products
+ * are dropped after commit; the TTL bounds staleness for changes made on other
+ * nodes.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.pricing.history.max-days=365
+ * app.pricing.history.series-cache-size=10000
+ * app.pricing.history.series-cache-ttl=PT10M
+ * app.pricing.history.batch-size=500
+ * </pre>
+ */
+@Slf4j
+@Service
+public class PriceHistoryService {
+
+    /**
+     * One price change to record.
+     */
+    public record PriceChange(Long productId, BigDecimal oldPrice, BigDecimal newPrice,
+                              BigDecimal oldDiscountPrice, BigDecimal newDiscountPrice, String reason) {
+
+        public boolean isChange() {
+            return !same(oldPrice, newPrice) || !same(oldDiscountPrice, newDiscountPrice);
+        }
+
+        private static boolean same(BigDecimal a, BigDecimal b) {
+            return a == null ? b == null : b != null && a.compareTo(b) == 0;
+        }
+    }
+
+    private record Series(BigDecimal openingPrice, LocalDate firstDay,
+                          List<ProductPriceHistoryRepository.DailyPrice> days) {
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_price_history (product_id, old_price, new_price, old_discount_price, " +
+            "new_discount_price, changed_by, changed_at, change_reason, created_at, updated_at, created_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final ProductPriceHistoryRepository priceHistoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxDays;
+    private final int batchSize;
+    private final Cache<Long, Series> seriesCache;
+
+    public PriceHistoryService(ProductPriceHistoryRepository priceHistoryRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${app.pricing.history.max-days:365}") int maxDays,
+                               @Value("${app.pricing.history.batch-size:500}") int batchSize,
+                               @Value("${app.pricing.history.series-cache-size:10000}") long seriesCacheSize,
+                               @Value("${app.pricing.history.series-cache-ttl:PT10M}") Duration seriesCacheTtl) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxDays = Math.max(1, maxDays);
+        this.batchSize = Math.max(1, batchSize);
+        this.seriesCache = Caffeine.newBuilder()
+                .maximumSize(seriesCacheSize)
+                .expireAfterWrite(seriesCacheTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Records the given changes; entries whose prices did not change are skipped.
+     *
+     * @return number of history rows written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int record(Collection<PriceChange> changes) {
+        return record(changes, SecurityUtils.getCurrentUsername().orElse("system"));
+    }
+
+    /**
+     * Records the given changes on behalf of {@code changedBy}, for writers that
+     * run outside the request thread.
+     *
+     * @return number of history rows written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int record(Collection<PriceChange> changes, String changedBy) {
+        List<PriceChange> effective = changes.stream().filter(PriceChange::isChange).toList();
+        if (effective.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, effective, batchSize, (ps, change) -> {
+            ps.setLong(1, change.productId());
+            ps.setBigDecimal(2, change.oldPrice());
+            ps.setBigDecimal(3, change.newPrice());
+            ps.setBigDecimal(4, change.oldDiscountPrice());
+            ps.setBigDecimal(5, change.newDiscountPrice());
+            ps.setString(6, changedBy);
+            ps.setTimestamp(7, now);
+            ps.setString(8, change.reason());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+            ps.setString(11, changedBy);
+        });
+
+        Set<Long> productIds = effective.stream().map(PriceChange::productId).collect(Collectors.toSet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    seriesCache.invalidateAll(productIds);
+                }
+            });
+        } else {
+            seriesCache.invalidateAll(productIds);
+        }
+        log.debug("Recorded {} price changes", effective.size());
+        return effective.size();
+    }
+
+    /**
+     * Daily price series of the last {@code days} days, ending today.
+     *
+     * @throws ResourceNotFoundException if the product does not exist
+     */
+    @Transactional(readOnly = true)
+    public PriceSeriesResponse series(Long productId, int days) {
+        int window = Math.clamp(days, 1, maxDays);
+        Series series = seriesCache.get(productId, this::load);
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(window - 1L);
+        if (from.isBefore(series.firstDay())) {
+            from = series.firstDay();
+        }
+
+        List<PriceSeriesResponse.Point> points = new ArrayList<>(window);
+        BigDecimal current = series.openingPrice();
+        int next = 0;
+        List<ProductPriceHistoryRepository.DailyPrice> changed = series.days();
+        // Carry the price forward through the days before the window
+        while (next < changed.size() && changed.get(next).getDay().isBefore(from)) {
+            current = changed.get(next++).getLastPrice();
+        }
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (next < changed.size() && changed.get(next).getDay().equals(day)) {
+                ProductPriceHistoryRepository.DailyPrice row = changed.get(next++);
+                BigDecimal opening = current != null ? current : row.getOpeningPrice();
+                points.add(PriceSeriesResponse.Point.builder()
+                        .day(day)
+                        .minPrice(opening != null ? opening.min(row.getMinPrice()) : row.getMinPrice())
+                        .maxPrice(opening != null ? opening.max(row.getMaxPrice()) : row.getMaxPrice())
+                        .lastPrice(row.getLastPrice())
+                        .changes(row.getChanges().intValue())
+                        .build());
+                current = row.getLastPrice();
+            } else if (current != null) {
+                points.add(PriceSeriesResponse.Point.builder()
+                        .day(day)
+                        .minPrice(current)
+                        .maxPrice(current)
+                        .lastPrice(current)
+                        .changes(0)
+                        .build());
+            }
+        }
+        return PriceSeriesResponse.builder()
+                .productId(productId)
+                .from(from)
+                .to(to)
+                .points(points)
+                .build();
+    }
+
+    private Series load(Long productId) {
+        BigDecimal currentPrice = priceHistoryRepository.findCurrentPrice(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        LocalDate firstDay = LocalDate.now().minusDays(maxDays - 1L);
+        LocalDateTime since = firstDay.atStartOfDay();
+        List<ProductPriceHistoryRepository.DailyPrice> days = priceHistoryRepository.findDailyPrices(productId, since);
+        BigDecimal opening = priceHistoryRepository.findPriceBefore(productId, since)
+                .orElseGet(() -> days.isEmpty() ? currentPrice : days.get(0).getOpeningPrice());
+        return new Series(opening, firstDay, List.copyOf(days));
+    }
+}
@@ -0,0 +1,63 @@
+package com.eshop.app.service.pricing;
+
+import com.eshop.app.dto.request.RepricingRequest;
+import com.eshop.app.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Price expression of a {@link RepricingRequest}, evaluated per product.
+ *
+ * @since 2.0
+ */
+public record RepricingRule(RepricingRequest.Adjustment adjustment, BigDecimal value, BigDecimal floorPrice,
+                            BigDecimal ceilingPrice, RepricingRequest.Rounding rounding,
+                            RepricingRequest.Target target) {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    public static RepricingRule of(RepricingRequest request) {
+        if (request.floorPrice() != null && request.ceilingPrice() != null
+                && request.floorPrice().compareTo(request.ceilingPrice()) > 0) {
+            throw new ValidationException("Floor price must not exceed ceiling price");
+        }
+        if (request.adjustment() == RepricingRequest.Adjustment.SET && request.value().signum() <= 0) {
+            throw new ValidationException("Fixed price must be positive");
+        }
+        return new RepricingRule(request.adjustment(), request.value(), request.floorPrice(), request.ceilingPrice(),
+                Objects.requireNonNullElse(request.rounding(), RepricingRequest.Rounding.NONE),
+                Objects.requireNonNullElse(request.target(), RepricingRequest.Target.PRICE));
+    }
+
+    /**
+     * Computes the new value of the target field.
+     *
+     * @param listPrice current list price of the product
+     * @return the new price, or {@code null} if the rule yields no valid positive price
+     */
+    public BigDecimal apply(BigDecimal listPrice) {
+        if (listPrice == null) {
+            return null;
+        }
+        BigDecimal result = switch (adjustment) {
+            case PERCENT -> listPrice.add(listPrice.multiply(value).divide(HUNDRED, 4, RoundingMode.HALF_UP));
+            case AMOUNT -> listPrice.add(value);
+            case SET -> value;
+        };
+        result = switch (rounding) {
+            case NONE -> result.setScale(2, RoundingMode.HALF_UP);
+            case WHOLE -> result.setScale(0, RoundingMode.HALF_UP).setScale(2, RoundingMode.UNNECESSARY);
+            case ENDING_99 -> result.setScale(0, RoundingMode.CEILING).subtract(CENT);
+        };
+        if (floorPrice != null && result.compareTo(floorPrice) < 0) {
+            result = floorPrice.setScale(2, RoundingMode.HALF_UP);
+        }
+        if (ceilingPrice != null && result.compareTo(ceilingPrice) > 0) {
+            result = ceilingPrice.setScale(2, RoundingMode.HALF_UP);
+        }
+        return result.signum() > 0 ? result : null;
+    }
+}
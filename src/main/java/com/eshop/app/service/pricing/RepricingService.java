@@ -0,0 +1,329 @@
+package com.eshop.app.service.pricing;
+
+import com.eshop.app.config.CacheConfig;
+import com.eshop.app.dto.request.RepricingRequest;
+import com.eshop.app.dto.response.RepricingJobResponse;
+import com.eshop.app.event.ProductsRepricedEvent;
+import com.eshop.app.exception.ResourceNotFoundException;
+import com.eshop.app.repository.ProductRepository;
+import com.eshop.app.util.SecurityUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bulk repricing jobs.
+ *
+ * <p>A job loads the id and current prices of the matching products with one
+ * query, then evaluates the {@link RepricingRule} over chunks of
+ * {@code chunk-size} products in a dedicated fork/join pool. Each chunk is
+ * written in its own transaction: one JDBC batch of guarded updates plus one
+ * batch of price history rows. A product whose price changed since it was read
+ * is skipped rather than overwritten. A failed chunk rolls back on its own
+ * and the job continues.
+ *
+ * <p>Product caches are not touched per product. When the job is done one
+ * {@link ProductsRepricedEvent} goes through the outbox and clears the product
+ * price caches on every node; the shared Redis entries are cleared here.
+ *
+ * <p>Job progress is kept in memory on the node that runs the job for
+ * {@code job-retention}.
+ *
+ * <h2>Configuration:</h2>
+ * <pre>
+ * app.pricing.repricing.parallelism=4
+ * app.pricing.repricing.chunk-size=1000
+ * app.pricing.repricing.job-retention=PT24H
+ * </pre>
+ *
+ * @since 2.0
+ */
+@Slf4j
+@Service
+public class RepricingService {
+
+    private static final String UPDATE_SQL =
+            "UPDATE products SET price = ?, discount_price = ?, version = COALESCE(version, 0) + 1, updated_at = ? " +
+            "WHERE id = ? AND price = ? AND discount_price IS NOT DISTINCT FROM ?";
+
+    private record Update(Long productId, BigDecimal oldPrice, BigDecimal newPrice,
+                          BigDecimal oldDiscountPrice, BigDecimal newDiscountPrice) {
+    }
+
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final Long sellerId;
+        private final String submittedBy;
+        private final String reason;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger repriced = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile String status = "QUEUED";
+        private volatile int total;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(Long sellerId, String submittedBy, String reason) {
+            this.sellerId = sellerId;
+            this.submittedBy = submittedBy;
+            this.reason = reason != null && !reason.isBlank() ? reason : "Repricing job " + id;
+        }
+
+        private RepricingJobResponse toResponse() {
+            return RepricingJobResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .totalProducts(total)
+                    .processedProducts(processed.get())
+                    .repricedProducts(repriced.get())
+                    .skippedProducts(skipped.get())
+                    .failedProducts(failed.get())
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final PriceHistoryService priceHistoryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<RedisCacheManager> redisCacheManager;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final Cache<String, Job> jobs;
+
+    public RepricingService(ProductRepository productRepository,
+                            PriceHistoryService priceHistoryService,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectProvider<RedisCacheManager> redisCacheManager,
+                            @Value("${app.pricing.repricing.parallelism:4}") int parallelism,
+                            @Value("${app.pricing.repricing.chunk-size:1000}") int chunkSize,
+                            @Value("${app.pricing.repricing.job-retention:PT24H}") Duration jobRetention) {
+        this.productRepository = productRepository;
+        this.priceHistoryService = priceHistoryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.redisCacheManager = redisCacheManager;
+        this.chunkSize = Math.max(1, chunkSize);
+        // Bounded well below the connection pool; every worker holds a connection while it writes
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    /**
+     * Starts a repricing job and returns immediately.
+     *
+     * @param sellerId seller whose products to reprice, or {@code null} for all sellers (admins)
+     */
+    public RepricingJobResponse submit(RepricingRequest request, Long sellerId) {
+        RepricingRule rule = RepricingRule.of(request);
+        Job job = new Job(sellerId, SecurityUtils.getCurrentUsername().orElse("system"), request.reason());
+        jobs.put(job.id, job);
+        pool.execute(() -> run(job, request, rule));
+        log.info("Repricing job {} submitted by {} for seller {}", job.id, job.submittedBy, sellerId);
+        return job.toResponse();
+    }
+
+    /**
+     * @param sellerId the caller's seller id, or {@code null} for admins who may see every job
+     * @throws ResourceNotFoundException if the job is unknown, expired or belongs to another seller
+     */
+    public RepricingJobResponse status(String jobId, Long sellerId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null || (sellerId != null && !sellerId.equals(job.sellerId))) {
+            throw new ResourceNotFoundException("Repricing job not found: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void run(Job job, RepricingRequest request, RepricingRule rule) {
+        long start = System.nanoTime();
+        job.status = "RUNNING";
+        try {
+            List<ProductRepository.PricePosition> candidates = request.productIds() != null
+                    && !request.productIds().isEmpty()
+                    ? productRepository.findPricePositionsIn(new HashSet<>(request.productIds()),
+                            job.sellerId, request.brandId(), request.categoryId())
+                    : productRepository.findPricePositions(job.sellerId, request.brandId(), request.categoryId());
+            job.total = candidates.size();
+
+            List<List<ProductRepository.PricePosition>> chunks = new ArrayList<>();
+            for (int from = 0; from < candidates.size(); from += chunkSize) {
+                chunks.add(candidates.subList(from, Math.min(candidates.size(), from + chunkSize)));
+            }
+            if (!chunks.isEmpty()) {
+                new ChunkTask(job, rule, chunks, 0, chunks.size()).invoke();
+            }
+
+            if (job.repriced.get() > 0) {
+                transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(
+                        new ProductsRepricedEvent(this, job.id, job.sellerId, job.repriced.get())));
+                clearSharedCaches();
+            }
+            job.status = "COMPLETED";
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            job.status = "FAILED";
+            log.error("Repricing job {} failed", job.id, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+        log.info("Repricing job {} {}: {} products, {} repriced, {} skipped, {} failed in {} ms",
+                job.id, job.status, job.total, job.repriced.get(), job.skipped.get(), job.failed.get(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void repriceChunk(Job job, RepricingRule rule, List<ProductRepository.PricePosition> chunk) {
+        List<Update> updates = new ArrayList<>(chunk.size());
+        for (ProductRepository.PricePosition position : chunk) {
+            Update update = evaluate(rule, position);
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+        int unchanged = chunk.size() - updates.size();
+        try {
+            int applied = updates.isEmpty() ? 0 : transactionTemplate.execute(status -> write(job, updates));
+            job.repriced.addAndGet(applied);
+            job.skipped.addAndGet(unchanged + updates.size() - applied);
+        } catch (RuntimeException e) {
+            job.skipped.addAndGet(unchanged);
+            job.failed.addAndGet(updates.size());
+            log.warn("Repricing job {}: chunk of {} products failed: {}", job.id, chunk.size(), e.getMessage());
+        }
+        job.processed.addAndGet(chunk.size());
+    }
+
+    /**
+     * @return the update for the product, or {@code null} if the rule leaves it unchanged or invalid
+     */
+    private static Update evaluate(RepricingRule rule, ProductRepository.PricePosition position) {
+        BigDecimal price = position.getPrice();
+        BigDecimal discountPrice = position.getDiscountPrice();
+        BigDecimal result = rule.apply(price);
+        if (result == null) {
+            return null;
+        }
+        if (rule.target() == RepricingRequest.Target.DISCOUNT_PRICE) {
+            // Discount must stay below the list price (Product#validate)
+            if (result.compareTo(price) >= 0 || (discountPrice != null && discountPrice.compareTo(result) == 0)) {
+                return null;
+            }
+            return new Update(position.getProductId(), price, price, discountPrice, result);
+        }
+        if (result.compareTo(price) == 0 || (discountPrice != null && discountPrice.compareTo(result) >= 0)) {
+            return null;
+        }
+        return new Update(position.getProductId(), price, result, discountPrice, discountPrice);
+    }
+
+    private int write(Job job, List<Update> updates) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setBigDecimal(1, update.newPrice());
+            ps.setBigDecimal(2, update.newDiscountPrice());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, update.productId());
+            ps.setBigDecimal(5, update.oldPrice());
+            if (update.oldDiscountPrice() != null) {
+                ps.setBigDecimal(6, update.oldDiscountPrice());
+            } else {
+                ps.setNull(6, Types.NUMERIC);
+            }
+        });
+
+        List<PriceHistoryService.PriceChange> changes = new ArrayList<>(updates.size());
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Update update = updates.get(i++);
+                // 0 rows: the price changed since the job read it
+                if (count != 0) {
+                    changes.add(new PriceHistoryService.PriceChange(update.productId(), update.oldPrice(),
+                            update.newPrice(), update.oldDiscountPrice(), update.newDiscountPrice(),
+                            job.reason));
+                }
+            }
+        }
+        priceHistoryService.record(changes, job.submittedBy);
+        return changes.size();
+    }
+
+    private void clearSharedCaches() {
+        RedisCacheManager redis = redisCacheManager.getIfAvailable();
+        if (redis == null) {
+            return;
+        }
+        for (String name : CacheConfig.PRODUCT_PRICE_CACHES) {
+            org.springframework.cache.Cache cache = redis.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private final class ChunkTask extends RecursiveAction {
+
+        private final Job job;
+        private final RepricingRule rule;
+        private final List<List<ProductRepository.PricePosition>> chunks;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(Job job, RepricingRule rule, List<List<ProductRepository.PricePosition>> chunks,
+                          int from, int to) {
+            this.job = job;
+            this.rule = rule;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                repriceChunk(job, rule, chunks.get(from));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(job, rule, chunks, from, mid), new ChunkTask(job, rule, chunks, mid, to));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.eshop.app.service.webhook;
+
+import com.eshop.app.entity.PaymentWebhookEvent;
+import com.eshop.app.repository.PaymentWebhookEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the payment webhook inbox.
+ *
+ * <p>Each round reads a batch of due events in arrival order and splits it into
+ * lanes by (gateway, reference), so all events of one payment land in the same
+ * lane and are applied in order while different payments run in parallel on
+ * {@code webhookExecutor}. Every event is applied and marked processed in one
+ * transaction. A failure is retried with exponential backoff; the rest of that
+ * reference's events wait behind it, both in this batch and in later ones. An
+ * event the processor rejects is parked as failed right away and does not hold
+ * back later events.
+ *
+ * <p>Rounds run under a ShedLock lock, so one node drains at a time and a new
+ * round starts only after the previous batch is done, which keeps the
+ * per-payment order across nodes.
+ */
+@Slf4j
+@Component
+public class PaymentWebhookDispatcher {
+
+    private static final int MAX_ROUNDS_PER_RUN = 20;
+
+    private final PaymentWebhookEventRepository webhookEventRepository;
+    private final PaymentWebhookProcessor processor;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor webhookExecutor;
+    private final int lanes;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    public PaymentWebhookDispatcher(PaymentWebhookEventRepository webhookEventRepository,
+                                    PaymentWebhookProcessor processor,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("webhookExecutor") Executor webhookExecutor,
+                                    @Value("${app.payment.webhook.lanes:8}") int lanes,
+                                    @Value("${app.payment.webhook.batch-size:500}") int batchSize,
+                                    @Value("${app.payment.webhook.max-attempts:10}") int maxAttempts,
+                                    @Value("${app.payment.webhook.retention:P7D}") Duration retention) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.processor = processor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.webhookExecutor = webhookExecutor;
+        this.lanes = Math.max(1, lanes);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.poll-interval:PT0.2S}")
+    @SchedulerLock(name = "paymentWebhookDispatch", lockAtMostFor = "PT5M")
+    public void dispatch() {
+        // Keep draining while batches come back full, so a burst is not paced by the poll interval
+        for (int round = 0; round < MAX_ROUNDS_PER_RUN; round++) {
+            if (dispatchBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes processed events once gateways have stopped retrying them.
+     */
+    @Scheduled(cron = "${app.payment.webhook.purge-cron:0 30 3 * * *}")
+    @SchedulerLock(name = "paymentWebhookPurge", lockAtMostFor = "PT30M")
+    public void purgeProcessed() {
+        int deleted = webhookEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} processed payment webhook events", deleted);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<PaymentWebhookEvent> due = webhookEventRepository.findDue(LocalDateTime.now(), batchSize);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        List<List<PaymentWebhookEvent>> byLane = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            byLane.add(new ArrayList<>());
+        }
+        for (PaymentWebhookEvent event : due) {
+            byLane.get(laneOf(event)).add(event);
+        }
+
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> running = new ArrayList<>(lanes);
+        for (List<PaymentWebhookEvent> lane : byLane) {
+            if (!lane.isEmpty()) {
+                running.add(CompletableFuture.runAsync(() -> runLane(lane, failed), webhookExecutor));
+            }
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        log.debug("Processed {} payment webhook events ({} failed) in {} ms",
+                due.size(), failed.get(), (System.nanoTime() - start) / 1_000_000);
+        return due.size();
+    }
+
+    private void runLane(List<PaymentWebhookEvent> lane, AtomicInteger failed) {
+        Set<String> blocked = new HashSet<>();
+        for (PaymentWebhookEvent event : lane) {
+            String key = orderingKey(event);
+            if (blocked.contains(key)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        processor.process(event);
+                    } catch (RejectedWebhookException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new WebhookProcessingException(e);
+                    }
+                    webhookEventRepository.markProcessed(event.getId(), LocalDateTime.now());
+                });
+            } catch (RejectedWebhookException e) {
+                failed.incrementAndGet();
+                reject(event, e);
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof WebhookProcessingException ? e.getCause() : e;
+                blocked.add(key);
+                failed.incrementAndGet();
+                recordFailure(event, cause);
+            }
+        }
+    }
+
+    private void reject(PaymentWebhookEvent event, RejectedWebhookException cause) {
+        try {
+            // One attempt is the limit, so the event is parked as FAILED
+            webhookEventRepository.markFailed(event.getId(), 1, LocalDateTime.now(), describe(cause));
+        } catch (RuntimeException e) {
+            log.error("Could not record rejection of payment webhook event {}", event.getId(), e);
+        }
+        log.error("Payment webhook event {} ({} {}) rejected: {}",
+                event.getId(), event.getGateway(), event.getEventType(), cause.getMessage());
+    }
+
+    private void recordFailure(PaymentWebhookEvent event, Throwable cause) {
+        int attempt = event.getAttempts() + 1;
+        Duration backoff = Duration.ofSeconds(1L << Math.min(attempt, 10));
+        String error = describe(cause);
+        try {
+            webhookEventRepository.markFailed(event.getId(), maxAttempts, LocalDateTime.now().plus(backoff), error);
+        } catch (RuntimeException e) {
+            log.error("Could not record failure of payment webhook event {}", event.getId(), e);
+        }
+        if (attempt >= maxAttempts) {
+            log.error("Payment webhook event {} ({} {}) failed {} times, giving up: {}",
+                    event.getId(), event.getGateway(), event.getEventType(), attempt, error);
+        } else {
+            log.warn("Payment webhook event {} ({} {}) failed, retrying in {}s: {}",
+                    event.getId(), event.getGateway(), event.getEventType(), backoff.toSeconds(), error);
+        }
+    }
+
+    private static String describe(Throwable cause) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    private int laneOf(PaymentWebhookEvent event) {
+        return Math.floorMod(orderingKey(event).hashCode(), lanes);
+    }
+
+    private static String orderingKey(PaymentWebhookEvent event) {
+        // Events without a reference have nothing to be ordered against
+        return event.getGateway() + ':' + Objects.requireNonNullElse(event.getReference(), event.getEventId());
+    }
+
+    private static final class WebhookProcessingException extends RuntimeException {
+        WebhookProcessingException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
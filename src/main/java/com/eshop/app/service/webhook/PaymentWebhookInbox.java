@@ -0,0 +1,52 @@
+package com.eshop.app.service.webhook;
+
+import com.eshop.app.repository.PaymentWebhookEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Entry point of the payment webhook inbox.
+ *
+ * <p>Webhook handlers verify the signature, extract the event id, type and
+ * payment reference, and call {@link #accept} before acknowledging; one insert
+ * is all the request thread does. Processing happens later in
+ * {@link PaymentWebhookDispatcher}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentWebhookInbox {
+
+    private final PaymentWebhookEventRepository webhookEventRepository;
+
+    /**
+     * Stores a delivery.
+     *
+     * @param eventId the gateway's event id; when the gateway sends none, a hash of
+     *                the payload is used, so identical retries still deduplicate
+     * @return {@code false} if the event was already received
+     */
+    public boolean accept(String gateway, String eventId, String eventType, String reference, String payload) {
+        String id = eventId != null && !eventId.isBlank() ? eventId : sha256(payload);
+        boolean inserted = webhookEventRepository.insertIfAbsent(gateway, id, eventType, reference, payload) > 0;
+        if (!inserted) {
+            log.debug("Duplicate {} webhook {} ignored", gateway, id);
+        }
+        return inserted;
+    }
+
+    private static String sha256(String payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return "sha256:" + HexFormat.of().formatHex(digest.digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.eshop.app.service.webhook;
+
+import com.eshop.app.entity.Order;
+import com.eshop.app.entity.Payment;
+import com.eshop.app.entity.PaymentWebhookEvent;
+import com.eshop.app.repository.OrderRepository;
+import com.eshop.app.repository.PaymentRepository;
+import com.eshop.app.service.InventoryReservationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Applies one stored webhook event to its payment.
+ *
+ * <p>Called by {@link PaymentWebhookDispatcher} inside the transaction that marks
+ * the event processed; an exception rolls both back and schedules a retry, except
+ * a {@link RejectedWebhookException}, which parks the event. A completed payment
+ * marks its order paid and confirms the order's stock reservations in the same
+ * transaction, so the expiry sweep does not cancel it.
+ * Gateways other than the dedicated Stripe, Razorpay, PayU, Cashfree and UPI
+ * endpoints use the generic {@code {"transactionId", "status"}} format.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentWebhookProcessor {
+
+    public static final String UPI = "UPI";
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final ObjectMapper objectMapper;
+
+    @SuppressWarnings("unchecked")
+    public void process(PaymentWebhookEvent event) throws JsonProcessingException {
+        String type = event.getEventType() != null ? event.getEventType() : "";
+        switch (event.getGateway()) {
+            case "STRIPE" -> {
+                Map<String, Object> payload = objectMapper.readValue(event.getPayload(), Map.class);
+                Map<String, Object> object = (Map<String, Object>) ((Map<String, Object>) payload.get("data")).get("object");
+                switch (type) {
+                    case "payment_intent.succeeded" -> handlePaymentSuccess(event.getReference(), "STRIPE", object);
+                    case "payment_intent.payment_failed" -> handlePaymentFailure(event.getReference(), "STRIPE", object);
+                    case "payment_intent.requires_action" -> handlePaymentRequiresAction(event.getReference(), "STRIPE", object);
+                    case "payment_intent.canceled" -> handlePaymentCanceled(event.getReference(), "STRIPE", object);
+                    default -> log.info("Unhandled Stripe event type: {}", type);
+                }
+            }
+            case "RAZORPAY" -> {
+                Map<String, Object> payload = objectMapper.readValue(event.getPayload(), Map.class);
+                Map<String, Object> payloadData = (Map<String, Object>) payload.get("payload");
+                Map<String, Object> payment = (Map<String, Object>) payloadData.get("payment");
+                Map<String, Object> entity = payment != null ? payment : (Map<String, Object>) payloadData.get("order");
+                switch (type) {
+                    case "payment.captured", "order.paid" -> handlePaymentSuccess(event.getReference(), "RAZORPAY", entity);
+                    case "payment.failed" -> handlePaymentFailure(event.getReference(), "RAZORPAY", entity);
+                    default -> log.info("Unhandled Razorpay event type: {}", type);
+                }
+            }
+            case "PAYU" -> {
+                Map<String, Object> params = new HashMap<>(parseFormData(event.getPayload()));
+                switch (type) {
+                    case "success" -> handlePaymentSuccess(event.getReference(), "PAYU", params);
+                    case "failure" -> handlePaymentFailure(event.getReference(), "PAYU", params);
+                    case "pending" -> handlePaymentPending(event.getReference(), "PAYU", params);
+                    default -> log.info("Unhandled PayU status: {}", type);
+                }
+            }
+            case "CASHFREE" -> {
+                Map<String, Object> payload = objectMapper.readValue(event.getPayload(), Map.class);
+                Map<String, Object> data = (Map<String, Object>) payload.get("data");
+                switch (type) {
+                    case "PAYMENT_SUCCESS_WEBHOOK" -> handlePaymentSuccess(event.getReference(), "CASHFREE", data);
+                    case "PAYMENT_FAILED_WEBHOOK" -> handlePaymentFailure(event.getReference(), "CASHFREE", data);
+                    case "PAYMENT_USER_DROPPED_WEBHOOK" -> handlePaymentCanceled(event.getReference(), "CASHFREE", data);
+                    default -> log.info("Unhandled Cashfree event type: {}", type);
+                }
+            }
+            case UPI -> {
+                Map<String, Object> payload = objectMapper.readValue(event.getPayload(), Map.class);
+                switch (type) {
+                    case "success" -> handleUpiPaymentSuccess(event.getReference(), payload);
+                    case "failed" -> handleUpiPaymentFailure(event.getReference(), payload);
+                    case "pending" -> handleUpiPaymentPending(event.getReference(), payload);
+                    default -> log.info("Unhandled UPI status: {}", type);
+                }
+            }
+            default -> handleGenericEvent(event);
+        }
+    }
+
+    /**
+     * Parses {@code application/x-www-form-urlencoded} bodies (PayU).
+     */
+    public static Map<String, String> parseFormData(String formData) {
+        Map<String, String> params = new HashMap<>();
+        String[] pairs = formData.split("&");
+        for (String pair : pairs) {
+            String[] keyValue = pair.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], keyValue[1]);
+            }
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleGenericEvent(PaymentWebhookEvent event) throws JsonProcessingException {
+        Map<String, Object> payload = objectMapper.readValue(event.getPayload(), Map.class);
+        Object status = payload.get("status");
+        if (event.getReference() == null || status == null) {
+            log.info("Ignoring {} webhook without transactionId or status", event.getGateway());
+            return;
+        }
+        Payment.PaymentStatus paymentStatus = parseStatus(status.toString());
+        Optional<Payment> paymentOpt = paymentRepository.findByGatewayTransactionId(event.getReference());
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(paymentStatus);
+            paymentRepository.save(payment);
+            if (paymentStatus == Payment.PaymentStatus.COMPLETED) {
+                markOrderPaid(payment);
+            }
+            log.info("Payment {} updated to {} from {} webhook", payment.getId(), payment.getStatus(), event.getGateway());
+        }
+    }
+
+    private static Payment.PaymentStatus parseStatus(String status) {
+        try {
+            return Payment.PaymentStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RejectedWebhookException("Unknown payment status: " + status);
+        }
+    }
+
+    /**
+     * Marks the payment's order paid and confirms its reservations, once.
+     */
+    private void markOrderPaid(Payment payment) {
+        Order order = payment.getOrder();
+        if (order == null || order.getPaymentStatus() == Order.PaymentStatus.PAID) {
+            return;
+        }
+        order.setPaymentStatus(Order.PaymentStatus.PAID);
+        orderRepository.save(order);
+        inventoryReservationService.confirm(order.getId());
+        if (order.getOrderStatus() == Order.OrderStatus.CANCELLED) {
+            // Paid after the reservation expired; its stock is gone, so this needs a refund
+            log.warn("Payment {} completed for cancelled order {}", payment.getId(), order.getId());
+        } else {
+            log.info("Order {} marked as paid by payment {}", order.getId(), payment.getId());
+        }
+    }
+
+    private void handlePaymentSuccess(String paymentRef, String gateway, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = findPaymentByReference(paymentRef, gateway);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            payment.setGatewayTransactionId((String) data.get("id"));
+            payment.setResponseCode("SUCCESS");
+            payment.setResponseMessage("Payment completed successfully");
+            payment.setCompletedAt(LocalDateTime.now());
+
+            // Extract additional payment details
+            extractPaymentDetails(payment, data, gateway);
+
+            paymentRepository.save(payment);
+            markOrderPaid(payment);
+            log.info("Payment {} marked as completed", payment.getId());
+        }
+    }
+
+    private void handlePaymentFailure(String paymentRef, String gateway, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = findPaymentByReference(paymentRef, gateway);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.FAILED);
+            payment.setResponseCode((String) data.get("failure_code"));
+            payment.setResponseMessage((String) data.get("failure_reason"));
+            payment.setFailedAt(LocalDateTime.now());
+
+            paymentRepository.save(payment);
+            log.info("Payment {} marked as failed", payment.getId());
+        }
+    }
+
+    private void handlePaymentRequiresAction(String paymentRef, String gateway, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = findPaymentByReference(paymentRef, gateway);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.PROCESSING);
+            payment.setResponseMessage("Payment requires additional authentication");
+
+            paymentRepository.save(payment);
+            log.info("Payment {} requires action", payment.getId());
+        }
+    }
+
+    private void handlePaymentCanceled(String paymentRef, String gateway, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = findPaymentByReference(paymentRef, gateway);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.CANCELLED);
+            payment.setResponseMessage("Payment canceled by user");
+            payment.setCancelledAt(LocalDateTime.now());
+
+            paymentRepository.save(payment);
+            log.info("Payment {} canceled", payment.getId());
+        }
+    }
+
+    private void handlePaymentPending(String paymentRef, String gateway, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = findPaymentByReference(paymentRef, gateway);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.PENDING);
+            payment.setResponseMessage("Payment is pending");
+
+            paymentRepository.save(payment);
+            log.info("Payment {} is pending", payment.getId());
+        }
+    }
+
+    private void handleUpiPaymentSuccess(String transactionId, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = paymentRepository.findByUpiTransactionId(transactionId);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            payment.setUpiTransactionId((String) data.get("upiTransactionRef"));
+            payment.setResponseCode("SUCCESS");
+            payment.setResponseMessage("UPI payment successful");
+            payment.setCompletedAt(LocalDateTime.now());
+
+            paymentRepository.save(payment);
+            markOrderPaid(payment);
+            log.info("UPI payment {} completed", payment.getId());
+        }
+    }
+
+    private void handleUpiPaymentFailure(String transactionId, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = paymentRepository.findByUpiTransactionId(transactionId);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.FAILED);
+            payment.setResponseCode((String) data.get("errorCode"));
+            payment.setResponseMessage((String) data.get("errorMessage"));
+            payment.setFailedAt(LocalDateTime.now());
+
+            paymentRepository.save(payment);
+            log.info("UPI payment {} failed", payment.getId());
+        }
+    }
+
+    private void handleUpiPaymentPending(String transactionId, Map<String, Object> data) {
+        Optional<Payment> paymentOpt = paymentRepository.findByUpiTransactionId(transactionId);
+        if (paymentOpt.isPresent()) {
+            Payment payment = paymentOpt.get();
+            payment.setStatus(Payment.PaymentStatus.PENDING);
+            payment.setResponseMessage("UPI payment pending");
+
+            paymentRepository.save(payment);
+            log.info("UPI payment {} is pending", payment.getId());
+        }
+    }
+
+    private Optional<Payment> findPaymentByReference(String reference, String gateway) {
+        return paymentRepository.findByGatewayTransactionIdAndGateway(reference,
+            Payment.PaymentGateway.valueOf(gateway));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void extractPaymentDetails(Payment payment, Map<String, Object> data, String gateway) {
+        switch (gateway) {
+            case "STRIPE" -> {
+                Map<String, Object> charges = (Map<String, Object>) data.get("charges");
+                if (charges != null && charges.get("data") instanceof java.util.List) {
+                    java.util.List<Map<String, Object>> chargesList =
+                        (java.util.List<Map<String, Object>>) charges.get("data");
+                    if (!chargesList.isEmpty()) {
+                        Map<String, Object> charge = chargesList.get(0);
+                        Map<String, Object> paymentMethod = (Map<String, Object>) charge.get("payment_method_details");
+                        if (paymentMethod != null && paymentMethod.get("card") != null) {
+                            Map<String, Object> card = (Map<String, Object>) paymentMethod.get("card");
+                            payment.setCardLastFour((String) card.get("last4"));
+                            payment.setCardBrand((String) card.get("brand"));
+                        }
+                    }
+                }
+            }
+            case "RAZORPAY" -> {
+                payment.setGatewayTransactionId((String) data.get("id"));
+                if (data.get("card") != null) {
+                    Map<String, Object> card = (Map<String, Object>) data.get("card");
+                    payment.setCardLastFour((String) card.get("last4"));
+                    payment.setCardBrand((String) card.get("network"));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+}
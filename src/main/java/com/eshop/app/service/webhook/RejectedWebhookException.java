@@ -0,0 +1,12 @@
+package com.eshop.app.service.webhook;
+
+/**
+ * A webhook event that can never be applied, e.g. one with a status the payment
+ * model does not know. The dispatcher parks it as failed instead of retrying it.
+ */
+public class RejectedWebhookException extends RuntimeException {
+
+    public RejectedWebhookException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.io.OutputStream;
@@ -11,6 +12,8 @@ import java.io.OutputStream;
 @Service("bunnyStorageService")
 public class BunnyNetStorageService implements ImageStorageService {
 
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
     @Value("${bunny.storage.zone:}")
     private String storageZone;
 
@@ -32,7 +35,7 @@ public class BunnyNetStorageService implements ImageStorageService {
     }
 
     @Override
-    public ImageUploadResult upload(byte[] bytes, String filename, String folder) throws IOException {
+    public ImageUploadResult upload(InputStream in, long contentLength, String filename, String folder) throws IOException {
         String path = (folder != null && !folder.isEmpty() ? folder + "/" : "") + filename;
         URL url = java.net.URI.create(storageBase() + path).toURL();
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
@@ -40,9 +43,14 @@ public class BunnyNetStorageService implements ImageStorageService {
         conn.setRequestMethod("PUT");
         conn.setRequestProperty("AccessKey", apiKey);
         conn.setRequestProperty("Content-Type", "application/octet-stream");
-        conn.setFixedLengthStreamingMode(bytes.length);
+        if (contentLength >= 0) {
+            conn.setFixedLengthStreamingMode(contentLength);
+        } else {
+            conn.setChunkedStreamingMode(STREAM_CHUNK_SIZE);
+        }
+        long written;
         try (OutputStream os = conn.getOutputStream()) {
-            os.write(bytes);
+            written = in.transferTo(os);
         }
         int code = conn.getResponseCode();
         if (code >= 200 && code < 300) {
@@ -54,7 +62,7 @@ public class BunnyNetStorageService implements ImageStorageService {
                     .thumbnailUrl(urlPublic)
                     .width(null)
                     .height(null)
-                    .fileSize((long) bytes.length)
+                    .fileSize(written)
                     .build();
         } else {
             throw new IOException("Bunny.net upload failed with HTTP code: " + code);
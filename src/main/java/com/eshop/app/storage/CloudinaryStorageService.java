@@ -6,6 +6,10 @@ import com.cloudinary.utils.ObjectUtils;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 @Service("cloudinaryStorageService")
 public class CloudinaryStorageService implements ImageStorageService {
@@ -17,7 +21,29 @@ public class CloudinaryStorageService implements ImageStorageService {
     }
 
     @Override
-        public ImageUploadResult upload(byte[] bytes, String filename, String folder) throws IOException {
+    public ImageUploadResult upload(Path file, String filename, String folder) throws IOException {
+        // The SDK streams File bodies from disk, so the image is never buffered on the heap
+        return doUpload(file.toFile(), folder);
+    }
+
+    @Override
+    public ImageUploadResult upload(byte[] bytes, String filename, String folder) throws IOException {
+        return doUpload(bytes, folder);
+    }
+
+    @Override
+    public ImageUploadResult upload(InputStream in, long contentLength, String filename, String folder) throws IOException {
+        // The SDK only accepts File/byte[] bodies; spool to disk rather than into memory
+        Path tmp = Files.createTempFile("cloudinary-", ".upload");
+        try {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            return upload(tmp, filename, folder);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private ImageUploadResult doUpload(Object file, String folder) throws IOException {
         @SuppressWarnings("unchecked")
         java.util.Map<String, Object> options = (java.util.Map<String, Object>) ObjectUtils.asMap(
             "folder", folder,
@@ -26,7 +52,7 @@ public class CloudinaryStorageService implements ImageStorageService {
         );
 
         @SuppressWarnings("unchecked")
-        java.util.Map<String, Object> result = (java.util.Map<String, Object>) cloudinary.uploader().upload(bytes, options);
+        java.util.Map<String, Object> result = (java.util.Map<String, Object>) cloudinary.uploader().upload(file, options);
 
         String publicId = (String) result.get("public_id");
         String url = (String) result.get("secure_url");
@@ -52,4 +78,9 @@ public class CloudinaryStorageService implements ImageStorageService {
     public void delete(String publicId, String folder) throws IOException {
         cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("resource_type", "image"));
     }
+
+    @Override
+    public boolean supportsOnTheFlyTransformations() {
+        return true;
+    }
 }
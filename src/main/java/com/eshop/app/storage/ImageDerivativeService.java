@@ -0,0 +1,161 @@
+package com.eshop.app.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Generates resized image derivatives (thumbnails) off the request thread.
+ *
+ * <p>Every configured size is rendered and uploaded on its own virtual thread.
+ * Resizing is CPU-bound, so the number of concurrent resize operations is capped
+ * at the number of available processors; uploads of finished derivatives are
+ * not capped since they only wait on I/O.
+ *
+ * <p>When a content hash is supplied, rendered files are kept in the
+ * {@link LocalDerivativeCache} after upload so they can be served locally.
+ *
+ * <p>Configuration:
+ * <pre>
+ * image.thumbnails.sizes=150,400,800   # bounding-box edge lengths in pixels
+ * app.upload.compress-quality=0.85
+ * </pre>
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private static final String THUMBNAIL_FOLDER = "thumbs";
+
+    private final Executor executor;
+    private final LocalDerivativeCache derivativeCache;
+    private final int[] sizes;
+    private final double quality;
+    private final Semaphore resizePermits = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    public ImageDerivativeService(
+            @Qualifier("imageProcessingExecutor") Executor executor,
+            LocalDerivativeCache derivativeCache,
+            @Value("${image.thumbnails.sizes:150,400,800}") int[] sizes,
+            @Value("${app.upload.compress-quality:0.85}") double quality) {
+        this.executor = executor;
+        this.derivativeCache = derivativeCache;
+        this.sizes = Arrays.stream(sizes).filter(s -> s > 0).sorted().distinct().toArray();
+        this.quality = quality;
+    }
+
+    /**
+     * Renders and uploads all configured sizes of {@code source} in parallel.
+     *
+     * <p>The caller owns {@code source} and must keep it until the returned
+     * future completes.
+     *
+     * @param filename    name the derivative names are built from; if {@code null} or blank, one is
+     *                    generated from {@code contentHash}, or at random without it
+     * @param contentHash hash of the source bytes, used as the derivative cache key; may be {@code null}
+     * @return future of size (edge length in px) to upload result, ordered by size ascending
+     */
+    public CompletableFuture<Map<Integer, ImageUploadResult>> generate(
+            Path source, String filename, String folder, ImageStorageService storage, String contentHash) {
+        String name = filename != null && !filename.isBlank() ? filename : generatedName(contentHash);
+        String thumbFolder = (folder != null && !folder.isEmpty() ? folder + "/" : "") + THUMBNAIL_FOLDER;
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<ImageUploadResult>[] futures = new CompletableFuture[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            int size = sizes[i];
+            futures[i] = CompletableFuture.supplyAsync(
+                    () -> renderAndUpload(source, name, thumbFolder, size, storage, contentHash), executor);
+        }
+
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            Map<Integer, ImageUploadResult> results = new TreeMap<>();
+            for (int i = 0; i < sizes.length; i++) {
+                results.put(sizes[i], futures[i].join());
+            }
+            return results;
+        });
+    }
+
+    private ImageUploadResult renderAndUpload(Path source, String filename, String folder, int size,
+                                              ImageStorageService storage, String contentHash) {
+        String derivativeName = derivativeName(filename, size);
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile("thumb-" + size + "-", extensionOf(filename));
+            resizePermits.acquire();
+            try {
+                Thumbnails.of(source.toFile())
+                        .size(size, size)
+                        .keepAspectRatio(true)
+                        .outputQuality(quality)
+                        .toFile(tmp.toFile());
+            } finally {
+                resizePermits.release();
+            }
+            ImageUploadResult result = storage.upload(tmp, derivativeName, folder);
+            if (contentHash != null) {
+                cacheQuietly(LocalDerivativeCache.key(contentHash, size, extensionOf(filename)), tmp);
+            }
+            log.debug("Generated {}px derivative {} ({} bytes)", size, result.getPublicId(), result.getFileSize());
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to generate " + size + "px derivative of " + filename, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating derivative of " + filename, e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    static String derivativeName(String filename, int size) {
+        int dot = filename.lastIndexOf('.');
+        return dot > 0
+                ? filename.substring(0, dot) + "_" + size + filename.substring(dot)
+                : filename + "_" + size;
+    }
+
+    private static String generatedName(String contentHash) {
+        return (contentHash != null ? contentHash : UUID.randomUUID().toString()) + ".jpg";
+    }
+
+    private static String extensionOf(String filename) {
+        int dot = filename != null ? filename.lastIndexOf('.') : -1;
+        return dot > 0 ? filename.substring(dot) : ".jpg";
+    }
+
+    private void cacheQuietly(String key, Path file) {
+        try {
+            derivativeCache.put(key, file);
+        } catch (IOException e) {
+            // The derivative is already uploaded; a cache miss only costs a remote fetch later
+            log.debug("Could not cache derivative {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -8,13 +8,17 @@ public class ImageStorageFactory {
 
     private final CloudinaryStorageService cloudinaryService;
     private final BunnyNetStorageService bunnyService;
+    private final LocalFileSystemStorageService localService;
 
     @Value("${image.storage.provider:cloudinary}")
     private String provider;
 
-    public ImageStorageFactory(CloudinaryStorageService cloudinaryService, BunnyNetStorageService bunnyService) {
+    public ImageStorageFactory(CloudinaryStorageService cloudinaryService,
+                               BunnyNetStorageService bunnyService,
+                               LocalFileSystemStorageService localService) {
         this.cloudinaryService = cloudinaryService;
         this.bunnyService = bunnyService;
+        this.localService = localService;
     }
 
     public ImageStorageService get() {
@@ -24,6 +28,9 @@ public class ImageStorageFactory {
             case "bunny.net":
             case "bunnycdn":
                 return bunnyService;
+            case "local":
+            case "filesystem":
+                return localService;
             case "cloudinary":
             default:
                 return cloudinaryService;
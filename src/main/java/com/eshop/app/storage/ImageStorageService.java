@@ -1,8 +1,46 @@
 package com.eshop.app.storage;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+/**
+ * Storage backend for product images.
+ *
+ * <p>Implementations stream content to the backend; callers should prefer the
+ * {@link Path} or {@link InputStream} variants so large images never have to be
+ * held in memory. The {@code byte[]} variant is kept for small payloads and
+ * backwards compatibility.
+ */
 public interface ImageStorageService {
-    ImageUploadResult upload(byte[] bytes, String filename, String folder) throws IOException;
+
+    /**
+     * Streams {@code contentLength} bytes from {@code in} to the backend.
+     *
+     * @param contentLength number of bytes to read, or {@code -1} if unknown
+     */
+    ImageUploadResult upload(InputStream in, long contentLength, String filename, String folder) throws IOException;
+
     void delete(String publicId, String folder) throws IOException;
+
+    default ImageUploadResult upload(Path file, String filename, String folder) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return upload(in, Files.size(file), filename, folder);
+        }
+    }
+
+    default ImageUploadResult upload(byte[] bytes, String filename, String folder) throws IOException {
+        return upload(new ByteArrayInputStream(bytes), bytes.length, filename, folder);
+    }
+
+    /**
+     * Whether the backend derives resized variants itself (e.g. URL-based
+     * transformations). When {@code false}, thumbnails are generated locally
+     * by {@link ImageDerivativeService} and uploaded as separate objects.
+     */
+    default boolean supportsOnTheFlyTransformations() {
+        return false;
+    }
 }
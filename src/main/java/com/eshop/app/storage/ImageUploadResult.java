@@ -6,7 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ImageUploadResult {
@@ -16,4 +16,8 @@ public class ImageUploadResult {
     private Integer width;
     private Integer height;
     private Long fileSize;
+    /** Hex SHA-256 of the original bytes, when computed by the caller. */
+    private String contentHash;
+    /** True when an existing stored object was reused instead of uploading. */
+    private boolean deduplicated;
 }
@@ -0,0 +1,231 @@
+package com.eshop.app.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded, on-disk LRU cache of generated image derivatives.
+ *
+ * <p>Entries are keyed by content hash and size, so identical uploads share
+ * cached thumbnails. Files are memory-mapped on first read and served straight
+ * from the page cache; the mapping is dropped when the entry is evicted.
+ *
+ * <p>The index is rebuilt from the cache directory on startup (oldest files
+ * first), so warm thumbnails survive restarts.
+ *
+ * <p>Configuration:
+ * <pre>
+ * image.derivative-cache.dir=${java.io.tmpdir}/eshop-derivatives
+ * image.derivative-cache.max-size-mb=512
+ * </pre>
+ */
+@Slf4j
+@Component
+public class LocalDerivativeCache {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_\\-]+(\\.[A-Za-z0-9]+)?");
+
+    private final Path dir;
+    private final long maxBytes;
+
+    // Access-ordered map gives LRU iteration order; guarded by lock (not synchronized, to avoid pinning virtual threads)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long totalBytes;
+
+    public LocalDerivativeCache(
+            @Value("${image.derivative-cache.dir:${java.io.tmpdir}/eshop-derivatives}") String dir,
+            @Value("${image.derivative-cache.max-size-mb:512}") long maxSizeMb) {
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Cache key for a derivative: {@code <contentHash>_<size><.ext>}.
+     */
+    public static String key(String contentHash, int size, String extension) {
+        return contentHash + "_" + size + (extension != null ? extension : "");
+    }
+
+    @PostConstruct
+    void loadIndex() {
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparingLong(LocalDerivativeCache::lastModified))
+                        .forEach(f -> index(f.getFileName().toString(), f, size(f)));
+            }
+            evictIfNeeded();
+            log.info("Derivative cache at {}: {} entries, {} KB (limit {} MB)",
+                    dir, entries.size(), totalBytes / 1024, maxBytes / (1024 * 1024));
+        } catch (IOException e) {
+            log.warn("Derivative cache directory {} unavailable: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Moves {@code file} into the cache under {@code key}, evicting least
+     * recently used entries if the size limit is exceeded.
+     */
+    public void put(String key, Path file) throws IOException {
+        Path target = pathFor(key);
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        index(key, target, Files.size(target));
+        evictIfNeeded();
+    }
+
+    /**
+     * Returns a read-only view of the cached bytes, memory-mapping the file on
+     * first access. Each caller gets an independent position/limit.
+     */
+    public Optional<ByteBuffer> get(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.buffer == null) {
+                try (FileChannel channel = FileChannel.open(entry.path, StandardOpenOption.READ)) {
+                    entry.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, entry.size);
+                } catch (IOException e) {
+                    log.debug("Dropping unreadable cache entry {}: {}", key, e.getMessage());
+                    remove(key);
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(entry.buffer.asReadOnlyBuffer());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(String key) {
+        lock.lock();
+        try {
+            return entries.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long totalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path pathFor(String key) throws IOException {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            throw new IOException("Invalid derivative cache key: " + key);
+        }
+        return dir.resolve(key);
+    }
+
+    private void index(String key, Path path, long size) {
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(path, size));
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIfNeeded() {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                it.remove();
+                totalBytes -= eldest.getValue().size;
+                deleteQuietly(eldest.getValue().path);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.size;
+            deleteQuietly(removed.path);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete evicted cache file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        private final Path path;
+        private final long size;
+        private MappedByteBuffer buffer;
+
+        private Entry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
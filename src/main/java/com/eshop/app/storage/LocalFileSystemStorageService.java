@@ -0,0 +1,124 @@
+package com.eshop.app.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+ * Stores images on the local filesystem. Used for tests and on-prem installs
+ * where no CDN is available; files are served from {@code publicBaseUrl}.
+ *
+ * <p>Writes go to a temp file in the target directory and are then moved into
+ * place, so readers never observe a partially written image.
+ */
+@Slf4j
+@Service("localStorageService")
+public class LocalFileSystemStorageService implements ImageStorageService {
+
+    private final Path baseDir;
+    private final String publicBaseUrl;
+
+    public LocalFileSystemStorageService(
+            @Value("${image.storage.local.base-dir:${java.io.tmpdir}/eshop-images}") String baseDir,
+            @Value("${image.storage.local.public-base-url:/media}") String publicBaseUrl) {
+        this.baseDir = Paths.get(baseDir).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+    }
+
+    @Override
+    public ImageUploadResult upload(InputStream in, long contentLength, String filename, String folder) throws IOException {
+        String relative = relativePath(filename, folder);
+        Path target = resolve(relative);
+        Files.createDirectories(target.getParent());
+
+        Path tmp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long written = Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            if (contentLength >= 0 && written != contentLength) {
+                throw new IOException("Expected " + contentLength + " bytes but received " + written);
+            }
+            moveIntoPlace(tmp, target);
+
+            int[] dimensions = readDimensions(target);
+            String url = publicBaseUrl + "/" + relative;
+            return ImageUploadResult.builder()
+                    .publicId(relative)
+                    .url(url)
+                    .thumbnailUrl(url)
+                    .width(dimensions != null ? dimensions[0] : null)
+                    .height(dimensions != null ? dimensions[1] : null)
+                    .fileSize(written)
+                    .build();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void delete(String publicId, String folder) throws IOException {
+        Files.deleteIfExists(resolve(publicId));
+    }
+
+    /**
+     * Absolute location of a stored object; exposed so callers can serve or
+     * post-process files without another copy.
+     */
+    public Path resolve(String publicId) throws IOException {
+        Path resolved = baseDir.resolve(publicId).normalize();
+        if (!resolved.startsWith(baseDir)) {
+            throw new IOException("Path escapes storage root: " + publicId);
+        }
+        return resolved;
+    }
+
+    private static String relativePath(String filename, String folder) {
+        return (folder != null && !folder.isEmpty() ? folder + "/" : "") + filename;
+    }
+
+    private static void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads width/height from the image header only, without decoding pixels.
+     */
+    private static int[] readDimensions(Path file) {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+            if (iis == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.debug("Could not read image dimensions for {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+}
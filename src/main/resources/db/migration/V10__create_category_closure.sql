@@ -0,0 +1,25 @@
+-- Closure table for the category hierarchy: every (ancestor, descendant) pair, self pairs included.
+-- Subtree product listing joins products to the rows of one ancestor (a PK prefix range scan).
+CREATE TABLE IF NOT EXISTS category_closure (
+    ancestor_id   BIGINT  NOT NULL REFERENCES categories (id) ON DELETE CASCADE,
+    descendant_id BIGINT  NOT NULL REFERENCES categories (id) ON DELETE CASCADE,
+    depth         INTEGER NOT NULL,
+    CONSTRAINT pk_category_closure PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_category_closure_descendant ON category_closure (descendant_id, ancestor_id);
+
+-- Backfill from the existing parent links (depth guard protects against parent cycles)
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM categories
+    UNION ALL
+    SELECT t.ancestor_id, c.id, t.depth + 1
+    FROM tree t
+    JOIN categories c ON c.parent_id = t.descendant_id
+    WHERE t.depth < 64
+)
+SELECT DISTINCT ON (ancestor_id, descendant_id) ancestor_id, descendant_id, depth
+FROM tree
+ORDER BY ancestor_id, descendant_id, depth
+ON CONFLICT DO NOTHING;
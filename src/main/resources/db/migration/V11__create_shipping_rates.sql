@@ -0,0 +1,24 @@
+-- Weight-break shipping rate card. NULL zone / warehouse / shipping class match any value;
+-- the rate-card engine loads all active rows into memory, so only light indexes are needed.
+CREATE TABLE IF NOT EXISTS shipping_rates (
+    id                BIGSERIAL PRIMARY KEY,
+    geo_zone_id       BIGINT REFERENCES geo_zones (id) ON DELETE CASCADE,
+    warehouse_id      BIGINT REFERENCES warehouses (id) ON DELETE CASCADE,
+    shipping_class_id BIGINT REFERENCES shipping_classes (id) ON DELETE CASCADE,
+    method            VARCHAR(50)    NOT NULL,
+    min_weight_kg     NUMERIC(8, 3)  NOT NULL DEFAULT 0,
+    max_weight_kg     NUMERIC(8, 3),
+    base_cost         NUMERIC(10, 2) NOT NULL,
+    per_kg_cost       NUMERIC(10, 2) NOT NULL DEFAULT 0,
+    transit_days      INTEGER,
+    active            BOOLEAN        NOT NULL DEFAULT TRUE,
+    created_at        TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at        TIMESTAMP,
+    created_by        VARCHAR(255),
+    updated_by        VARCHAR(255),
+    version           BIGINT,
+    CONSTRAINT chk_shipping_rate_weights CHECK (max_weight_kg IS NULL OR max_weight_kg >= min_weight_kg)
+);
+
+CREATE INDEX IF NOT EXISTS idx_shipping_rate_zone ON shipping_rates (geo_zone_id);
+CREATE INDEX IF NOT EXISTS idx_shipping_rate_active ON shipping_rates (active);
@@ -0,0 +1,20 @@
+-- Stock held by checkouts until payment completes. The expiry sweep finds due rows
+-- through (status, expires_at) and releases them per order in set-based batches.
+CREATE TABLE IF NOT EXISTS inventory_reservations (
+    id           BIGSERIAL PRIMARY KEY,
+    order_id     BIGINT      NOT NULL REFERENCES orders (id) ON DELETE CASCADE,
+    product_id   BIGINT      NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    warehouse_id BIGINT REFERENCES warehouses (id) ON DELETE CASCADE,
+    quantity     INTEGER     NOT NULL,
+    status       VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    expires_at   TIMESTAMP   NOT NULL,
+    created_at   TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at   TIMESTAMP,
+    created_by   VARCHAR(255),
+    updated_by   VARCHAR(255),
+    version      BIGINT,
+    CONSTRAINT chk_inventory_reservation_quantity CHECK (quantity > 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_reservation_status_expires ON inventory_reservations (status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_inventory_reservation_order ON inventory_reservations (order_id);
@@ -0,0 +1,24 @@
+-- Durable inbox for payment gateway webhooks. The unique (gateway, event_id) key turns
+-- retried deliveries into no-ops; workers pick due rows through idx_webhook_inbox_due.
+CREATE TABLE IF NOT EXISTS payment_webhook_inbox (
+    id              BIGSERIAL PRIMARY KEY,
+    gateway         VARCHAR(20)  NOT NULL,
+    event_id        VARCHAR(255) NOT NULL,
+    event_type      VARCHAR(100),
+    reference       VARCHAR(255),
+    payload         TEXT         NOT NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'RECEIVED',
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at    TIMESTAMP,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP,
+    created_by      VARCHAR(255),
+    updated_by      VARCHAR(255),
+    version         BIGINT,
+    CONSTRAINT uk_webhook_inbox_gateway_event UNIQUE (gateway, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_due ON payment_webhook_inbox (status, next_attempt_at, id);
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_reference ON payment_webhook_inbox (gateway, reference);
@@ -0,0 +1,16 @@
+-- Transactional outbox for domain events. The relay polls undelivered rows in id order
+-- with FOR UPDATE SKIP LOCKED, so the partial index only covers the pending tail.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id             BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50)   NOT NULL,
+    aggregate_id   VARCHAR(100)  NOT NULL,
+    event_type     VARCHAR(100)  NOT NULL,
+    payload        TEXT          NOT NULL,
+    attempts       INTEGER       NOT NULL DEFAULT 0,
+    last_error     VARCHAR(1000),
+    created_at     TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at   TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox_events (id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_published_at ON outbox_events (published_at);
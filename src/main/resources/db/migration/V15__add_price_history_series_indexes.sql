@@ -0,0 +1,8 @@
+-- Per-product price series: index-only scan over one product's changes in a time range
+CREATE INDEX IF NOT EXISTS idx_price_history_product_changed_at
+    ON product_price_history (product_id, changed_at) INCLUDE (new_price, old_price);
+
+-- History is append-only, so changed_at follows the physical row order; a BRIN index
+-- covers cross-product time-range scans (reports, retention) at a fraction of a B-tree's size
+CREATE INDEX IF NOT EXISTS idx_price_history_changed_at_brin
+    ON product_price_history USING brin (changed_at) WITH (pages_per_range = 32);
@@ -0,0 +1,2 @@
+-- Failed outbox events are retried with exponential backoff instead of on every relay round
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
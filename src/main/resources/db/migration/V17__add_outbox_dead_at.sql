@@ -0,0 +1,6 @@
+-- Events that exhausted their attempts are dead-lettered in dead_at instead of being
+-- marked published, so they are neither mistaken for deliveries nor purged with them.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS dead_at TIMESTAMP;
+
+DROP INDEX IF EXISTS idx_outbox_pending;
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox_events (id) WHERE published_at IS NULL AND dead_at IS NULL;
@@ -0,0 +1,4 @@
+-- SHA-256 of the original upload, used to deduplicate identical images across products and stores
+ALTER TABLE product_images ADD COLUMN content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_product_images_content_hash ON product_images(content_hash) WHERE active = true;
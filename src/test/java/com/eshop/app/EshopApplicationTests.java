@@ -1,10 +1,12 @@
 package com.eshop.app;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import com.eshop.app.config.TestSecurityConfig;
 import com.eshop.app.config.TestOAuth2DisabledConfig;
+import com.eshop.app.health.VirtualThreadPinningExtension;
 
 @SpringBootTest(properties = {
 	"spring.main.allow-bean-definition-overriding=true",
@@ -22,6 +24,7 @@ import com.eshop.app.config.TestOAuth2DisabledConfig;
 	"image.storage.provider=local"
 })
 @Import({TestSecurityConfig.class, TestOAuth2DisabledConfig.class})
+@ExtendWith(VirtualThreadPinningExtension.class)
 class EshopApplicationTests {
 
 	@Test
@@ -0,0 +1,206 @@
+package com.eshop.app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replicaA;
+    private DataSource replicaB;
+    private RoutingDataSource router;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = dataSource();
+        replicaA = dataSource();
+        replicaB = dataSource();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("a", replicaA);
+        replicas.put("b", replicaB);
+        router = new RoutingDataSource(primary, replicas, null, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void write_goesToPrimary() throws SQLException {
+        router.getConnection();
+
+        verify(primary).getConnection();
+        verify(replicaA, never()).getConnection();
+        verify(replicaB, never()).getConnection();
+    }
+
+    @Test
+    void read_goesToReplicaWithFewestOpenConnections() throws SQLException {
+        readOnly();
+
+        Connection first = router.getConnection();
+        RoutingDataSource.Replica busy = replica("a").getInFlight() == 1 ? replica("a") : replica("b");
+        RoutingDataSource.Replica idle = busy == replica("a") ? replica("b") : replica("a");
+        Connection second = router.getConnection();
+
+        // Both replicas started idle, so the second read avoids the busy one
+        verify(replicaA).getConnection();
+        verify(replicaB).getConnection();
+        assertEquals(1, busy.getInFlight());
+        assertEquals(1, idle.getInFlight());
+
+        first.close();
+        first.close();
+        assertEquals(0, busy.getInFlight());
+
+        router.getConnection();
+        assertEquals(1, busy.getInFlight());
+        second.close();
+        assertEquals(0, idle.getInFlight());
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void laggingReplica_isEvictedUntilHalfOfMaxLag() throws SQLException {
+        readOnly();
+        lag(replicaA, 5.0);
+        lag(replicaB, 0.0);
+
+        router.probeReplicas();
+
+        assertFalse(replica("a").isAvailable());
+        assertEquals(5000, replica("a").getLagMillis());
+        assertTrue(replica("b").isAvailable());
+        router.getConnection();
+        router.getConnection();
+        // One connection each for the probe, both reads on the replica that kept up
+        verify(replicaA, times(1)).getConnection();
+        verify(replicaB, times(3)).getConnection();
+
+        lag(replicaA, 0.8);
+        router.probeReplicas();
+        assertFalse(replica("a").isAvailable());
+
+        lag(replicaA, 0.4);
+        router.probeReplicas();
+        assertTrue(replica("a").isAvailable());
+        assertEquals(400, replica("a").getLagMillis());
+    }
+
+    @Test
+    void noAvailableReplica_readsFromPrimary() throws SQLException {
+        readOnly();
+        when(replicaA.getConnection()).thenThrow(new SQLException("connection refused"));
+        lag(replicaB, 3.0);
+
+        router.probeReplicas();
+        router.getConnection();
+
+        assertFalse(replica("a").isAvailable());
+        assertFalse(replica("b").isAvailable());
+        verify(primary).getConnection();
+    }
+
+    @Test
+    void failedReplicaConnect_fallsBackToPrimaryAndEvicts() throws SQLException {
+        Map<String, DataSource> replicas = Map.of("a", replicaA);
+        router = new RoutingDataSource(primary, replicas, null, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        when(replicaA.getConnection()).thenThrow(new SQLException("too many connections"));
+        readOnly();
+
+        assertNotNull(router.getConnection());
+
+        verify(primary).getConnection();
+        assertFalse(replica("a").isAvailable());
+        assertEquals(0, replica("a").getInFlight());
+    }
+
+    @Test
+    void readAfterCommittedWrite_isPinnedToPrimaryForThatUser() throws SQLException {
+        authenticate("alice");
+        router.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        readOnly();
+
+        router.getConnection();
+        verify(primary, times(2)).getConnection();
+
+        authenticate("bob");
+        router.getConnection();
+        verify(primary, times(2)).getConnection();
+    }
+
+    @Test
+    void uncommittedWrite_doesNotPinReads() throws SQLException {
+        authenticate("alice");
+        router.getConnection();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        readOnly();
+
+        router.getConnection();
+
+        verify(primary, times(1)).getConnection();
+    }
+
+    private RoutingDataSource.Replica replica(String name) {
+        return router.getReplicas().stream().filter(r -> r.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static void readOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private static void authenticate(String username) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .claim("preferred_username", username)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(jwt, null));
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return dataSource;
+    }
+
+    private static void lag(DataSource dataSource, double seconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(seconds);
+    }
+}
@@ -0,0 +1,75 @@
+package com.eshop.app.config.serializer;
+
+import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ProductResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares size and round-trip time of JSON and compact cache values.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class CompactRedisSerializerBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactRedisSerializerBenchmark.class);
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final JacksonRedisSerializer json = new JacksonRedisSerializer();
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(json, 2048);
+
+    @Test
+    void productResponse() {
+        ProductResponse product = CompactRedisSerializerTest.product("Trail shoe");
+
+        int jsonBytes = report("product", "json", json, product);
+        int compactBytes = report("product", "compact", compact, product);
+
+        assertTrue(compactBytes < jsonBytes, "compact " + compactBytes + " bytes, json " + jsonBytes);
+    }
+
+    @Test
+    void pageOfProducts() {
+        List<ProductResponse> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(CompactRedisSerializerTest.product("Trail shoe " + i));
+        }
+        PageResponse<ProductResponse> page = CompactRedisSerializerTest.page(products);
+
+        int jsonBytes = report("page", "json", json, page);
+        int compactBytes = report("page", "compact", compact, page);
+
+        assertTrue(compactBytes < jsonBytes, "compact " + compactBytes + " bytes, json " + jsonBytes);
+    }
+
+    private static int report(String value, String name, RedisSerializer<Object> serializer, Object sample) {
+        int size = serializer.serialize(sample).length;
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += roundTrip(serializer, sample);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += roundTrip(serializer, sample);
+        }
+        long nanosPerOp = (System.nanoTime() - start) / ITERATIONS;
+        assertEquals((long) (WARMUP + ITERATIONS) * roundTrip(serializer, sample), sink);
+        log.info("{} {}: {} bytes, {} ns/round-trip", value, name, size, nanosPerOp);
+        return size;
+    }
+
+    private static int roundTrip(RedisSerializer<Object> serializer, Object sample) {
+        Object read = serializer.deserialize(serializer.serialize(sample));
+        return read instanceof PageResponse<?> page ? page.getData().size() : ((ProductResponse) read).getName().length();
+    }
+}
@@ -0,0 +1,160 @@
+package com.eshop.app.config.serializer;
+
+import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ProductImageResponse;
+import com.eshop.app.dto.response.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactRedisSerializerTest {
+
+    private final JacksonRedisSerializer json = new JacksonRedisSerializer();
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(json, 2048);
+
+    @Test
+    void productResponse_roundTrips() {
+        ProductResponse product = product("Trail shoe");
+
+        byte[] bytes = serializer.serialize(product);
+        ProductResponse read = (ProductResponse) serializer.deserialize(bytes);
+
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(42L, read.getId());
+        assertEquals("Trail shoe", read.getName());
+        assertEquals(new BigDecimal("129.90"), read.getPrice());
+        assertNull(read.getDiscountPrice());
+        assertEquals(Boolean.TRUE, read.getActive());
+        assertNull(read.getFeatured());
+        assertEquals(List.of("running", "outdoor"), read.getTags());
+        assertEquals(LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_000_000), read.getCreatedAt());
+        assertEquals("https://cdn/1.jpg", read.getImages().get(0).getImageUrl());
+        assertEquals(Map.of("size", "42"), read.getCategoryAttributes());
+    }
+
+    @Test
+    void productResponse_isSmallerThanJson() {
+        ProductResponse product = product("Trail shoe");
+
+        assertTrue(serializer.serialize(product).length < json.serialize(product).length);
+    }
+
+    @Test
+    void largeValue_isDeflated() {
+        ProductResponse product = product("Trail shoe");
+        product.setDescription("Breathable mesh upper. ".repeat(200));
+
+        byte[] bytes = serializer.serialize(product);
+        ProductResponse read = (ProductResponse) serializer.deserialize(bytes);
+
+        assertEquals(1, bytes[2]);
+        assertTrue(bytes.length < product.getDescription().length());
+        assertEquals(product.getDescription(), read.getDescription());
+    }
+
+    @Test
+    void typeWithoutCodec_isWrittenAsJson() {
+        List<String> value = new ArrayList<>(List.of("a", "b"));
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertArrayEquals(json.serialize(value), bytes);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void legacyJsonEntry_isRead() {
+        ProductResponse read = (ProductResponse) serializer.deserialize(json.serialize(product("Legacy")));
+
+        assertEquals("Legacy", read.getName());
+    }
+
+    @Test
+    void unknownFormatVersionOrCodec_isCacheMiss() {
+        byte[] bytes = serializer.serialize(product("Trail shoe"));
+        CompactRedisSerializer withoutCodecs = new CompactRedisSerializer(json, 2048, List.of());
+
+        assertNull(withoutCodecs.deserialize(bytes));
+        bytes[1] = (byte) (CompactRedisSerializer.FORMAT_VERSION + 1);
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    @Test
+    void pageOfProducts_roundTrips() {
+        PageResponse<ProductResponse> page = page(List.of(product("Trail shoe"), product("Road shoe")));
+
+        byte[] bytes = serializer.serialize(page);
+        PageResponse<?> read = (PageResponse<?>) serializer.deserialize(bytes);
+
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0]);
+        assertTrue(bytes.length < json.serialize(page).length);
+        assertEquals("Road shoe", ((ProductResponse) read.getData().get(1)).getName());
+        assertEquals(new BigDecimal("129.90"), ((ProductResponse) read.getData().get(0)).getPrice());
+        assertEquals(page.getPagination(), read.getPagination());
+    }
+
+    @Test
+    void pageOfTypeWithoutCodec_embedsItemsAsJson() {
+        ProductImageResponse image = ProductImageResponse.builder().id(1L).imageUrl("https://cdn/1.jpg").build();
+        PageResponse<ProductImageResponse> page = PageResponse.<ProductImageResponse>builder()
+                .data(List.of(image))
+                .build();
+
+        PageResponse<?> read = (PageResponse<?>) serializer.deserialize(serializer.serialize(page));
+
+        assertEquals("https://cdn/1.jpg", ((ProductImageResponse) read.getData().get(0)).getImageUrl());
+        assertNull(read.getPagination());
+    }
+
+    static <T> PageResponse<T> page(List<T> items) {
+        return PageResponse.<T>builder()
+                .data(items)
+                .pagination(PageResponse.PageMetadata.builder()
+                        .page(1)
+                        .size(20)
+                        .totalElements(45)
+                        .totalPages(3)
+                        .hasNext(true)
+                        .hasPrevious(true)
+                        .isFirst(false)
+                        .isLast(false)
+                        .isEmpty(false)
+                        .sort("createdAt,desc")
+                        .numberOfElements(items.size())
+                        .build())
+                .build();
+    }
+
+    static ProductResponse product(String name) {
+        ProductResponse product = new ProductResponse();
+        product.setId(42L);
+        product.setName(name);
+        product.setDescription("Lightweight trail running shoe");
+        product.setSku("SKU-42");
+        product.setFriendlyUrl("trail-shoe");
+        product.setPrice(new BigDecimal("129.90"));
+        product.setStockQuantity(17);
+        product.setActive(true);
+        product.setCategoryId(3L);
+        product.setCategoryName("Shoes");
+        product.setBrandId(5L);
+        product.setBrandName("Acme");
+        product.setStoreId(9L);
+        product.setStoreName("Acme Store");
+        product.setTags(new ArrayList<>(List.of("running", "outdoor")));
+        product.setAverageRating(4.5);
+        product.setReviewCount(12L);
+        product.setCreatedAt(LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_000_000));
+        product.setImages(new ArrayList<>(List.of(ProductImageResponse.builder()
+                .id(1L).imageUrl("https://cdn/1.jpg").isPrimary(true).build())));
+        product.setCategoryAttributes(new HashMap<>(Map.of("size", "42")));
+        return product;
+    }
+}
@@ -0,0 +1,116 @@
+package com.eshop.app.event.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxStreamConsumerTest {
+
+    private static final String NODE = "node-a";
+
+    @Mock
+    private OutboxStream outboxStream;
+
+    @Mock
+    private OutboxEventHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        when(outboxStream.isEnabled()).thenReturn(true);
+        lenient().when(outboxStream.nodeId()).thenReturn(NODE);
+        when(handler.onEveryNode()).thenReturn(true);
+        lenient().when(handler.supports(any())).thenReturn(true);
+    }
+
+    @Test
+    void poll_startsWithPendingEntriesThenReadsNewOnes() {
+        OutboxStreamConsumer consumer = new OutboxStreamConsumer(outboxStream, List.of(handler), 100);
+        when(outboxStream.readPending(100, null)).thenReturn(List.of(delivery("1-0", "node-b", 1)));
+        when(outboxStream.readNew(100)).thenReturn(List.of(delivery("2-0", "node-b", 2)));
+
+        consumer.poll();
+        consumer.poll();
+
+        verify(handler, times(2)).handle(any());
+        verify(outboxStream).acknowledge(List.of(RecordId.of("1-0")));
+        verify(outboxStream).acknowledge(List.of(RecordId.of("2-0")));
+        verify(outboxStream, times(1)).readPending(anyInt(), any());
+    }
+
+    @Test
+    void poll_acknowledgesOwnEventsWithoutApplyingThem() {
+        OutboxStreamConsumer consumer = new OutboxStreamConsumer(outboxStream, List.of(handler), 100);
+        when(outboxStream.readPending(100, null)).thenReturn(List.of(delivery("1-0", NODE, 1)));
+
+        consumer.poll();
+
+        verify(handler, never()).handle(any());
+        verify(outboxStream).acknowledge(List.of(RecordId.of("1-0")));
+    }
+
+    @Test
+    void poll_failedEntry_isNotRetriedImmediately() {
+        OutboxStreamConsumer consumer = new OutboxStreamConsumer(outboxStream, List.of(handler), 100);
+        when(outboxStream.readPending(100, null)).thenReturn(List.of());
+        when(outboxStream.readNew(100))
+                .thenReturn(List.of(delivery("1-0", "node-b", 1), delivery("2-0", "node-b", 2)))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("boom")).when(handler).handle(argThat(message -> message.id() == 1));
+
+        consumer.poll();
+        consumer.poll();
+        consumer.poll();
+
+        // Left pending, the entry after it is still handled
+        verify(outboxStream).acknowledge(List.of(RecordId.of("2-0")));
+        verify(outboxStream, times(2)).readNew(100);
+        verify(outboxStream, times(1)).readPending(anyInt(), any());
+    }
+
+    @Test
+    void poll_longPendingList_continuesAfterLastEntry() {
+        OutboxStreamConsumer consumer = new OutboxStreamConsumer(outboxStream, List.of(handler), 2);
+        when(outboxStream.readPending(eq(2), isNull()))
+                .thenReturn(List.of(delivery("1-0", "node-b", 1), delivery("2-0", "node-b", 2)));
+        when(outboxStream.readPending(2, RecordId.of("2-0"))).thenReturn(List.of(delivery("3-0", "node-b", 3)));
+
+        consumer.poll();
+        consumer.poll();
+        consumer.poll();
+
+        verify(handler, times(3)).handle(any());
+        verify(outboxStream).readNew(2);
+    }
+
+    @Test
+    void poll_streamFailure_pausesPolling() {
+        OutboxStreamConsumer consumer = new OutboxStreamConsumer(outboxStream, List.of(handler), 100);
+        when(outboxStream.readPending(100, null)).thenThrow(new IllegalStateException("NOGROUP"));
+
+        consumer.poll();
+        consumer.poll();
+
+        verify(outboxStream, times(1)).readPending(anyInt(), any());
+        verify(outboxStream, never()).readNew(anyInt());
+    }
+
+    private static OutboxStream.Delivery delivery(String recordId, String origin, long id) {
+        OutboxMessage message = new OutboxMessage(id, OutboxMessage.STOCK_CHANGED, "Product", "10",
+                Map.of("productId", 10L), LocalDateTime.now());
+        return new OutboxStream.Delivery(RecordId.of(recordId), origin, message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.eshop.app.health;
+
+import com.eshop.app.service.cache.CacheInstrumentation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CacheStatsEndpointTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cache_reportsL2StatisticsBehindTransactionAwareDecorator() {
+        CacheStatistics statistics = mock(CacheStatistics.class);
+        when(statistics.getHits()).thenReturn(7L);
+        when(statistics.getMisses()).thenReturn(3L);
+        RedisCache redisCache = mock(RedisCache.class);
+        when(redisCache.getStatistics()).thenReturn(statistics);
+        RedisCacheManager redis = mock(RedisCacheManager.class);
+        when(redis.getCacheNames()).thenReturn(Set.of("products"));
+        when(redis.getCache("products")).thenReturn(new TransactionAwareCacheDecorator(redisCache));
+        ObjectProvider<RedisCacheManager> redisProvider = mock(ObjectProvider.class);
+        when(redisProvider.getIfAvailable()).thenReturn(redis);
+
+        CacheStatsEndpoint endpoint = new CacheStatsEndpoint(
+                new CacheInstrumentation(new SimpleMeterRegistry(), null, 1, 1, 3),
+                new CaffeineCacheManager("products"), redisProvider);
+
+        Map<String, Object> body = endpoint.cache("products");
+
+        Map<String, Object> l2 = (Map<String, Object>) body.get("l2");
+        assertNotNull(l2, "l2 section missing");
+        assertEquals(7L, l2.get("hits"));
+        assertEquals(3L, l2.get("misses"));
+        assertTrue(body.containsKey("l1"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.eshop.app.health;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Fails a Spring test class when virtual threads were pinned at a site that is
+ * not in the pinning baseline ({@code virtual-thread-pinning-baseline.txt}).
+ *
+ * <pre>
+ * {@code @SpringBootTest}
+ * {@code @ExtendWith(VirtualThreadPinningExtension.class)}
+ * class CheckoutLoadTest { ... }
+ * </pre>
+ *
+ * JFR delivers events about once a second, so pinning in the last moments of a
+ * test class may be reported by the next one.
+ */
+public class VirtualThreadPinningExtension implements AfterAllCallback {
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        VirtualThreadPinningMonitor monitor = SpringExtension.getApplicationContext(context)
+                .getBean(VirtualThreadPinningMonitor.class);
+        List<VirtualThreadPinningMonitor.Site> newSites = monitor.newSites();
+        if (!newSites.isEmpty()) {
+            throw new AssertionError("Virtual threads were pinned at sites missing from the baseline:\n"
+                    + newSites.stream()
+                            .map(site -> site.site() + " (" + site.count() + " events, max " + site.maxMillis() + " ms)")
+                            .collect(Collectors.joining("\n")));
+        }
+    }
+}
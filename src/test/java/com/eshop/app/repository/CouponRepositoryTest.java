@@ -0,0 +1,88 @@
+package com.eshop.app.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the conditional redemption update against PostgreSQL.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Sql("/sql/coupon-schema.sql")
+class CouponRepositoryTest {
+
+    @Container
+    @SuppressWarnings("resource") // Lifecycle managed by @Testcontainers
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "false");
+    }
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void incrementUsageIfAvailable_stopsAtTheUsageLimit() {
+        coupon(1L, 2, 0, true, now.minusDays(1), now.plusDays(1));
+
+        assertThat(couponRepository.incrementUsageIfAvailable(1L, now)).isEqualTo(1);
+        assertThat(couponRepository.incrementUsageIfAvailable(1L, now)).isEqualTo(1);
+        assertThat(couponRepository.incrementUsageIfAvailable(1L, now)).isZero();
+
+        assertThat(jdbc.queryForObject("SELECT used_count FROM coupons WHERE id = 1", Integer.class)).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT version FROM coupons WHERE id = 1", Long.class)).isEqualTo(2L);
+    }
+
+    @Test
+    void incrementUsageIfAvailable_withoutLimit_countsFromNull() {
+        coupon(1L, null, null, true, now.minusDays(1), now.plusDays(1));
+
+        assertThat(couponRepository.incrementUsageIfAvailable(1L, now)).isEqualTo(1);
+
+        assertThat(jdbc.queryForObject("SELECT used_count FROM coupons WHERE id = 1", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void incrementUsageIfAvailable_skipsInactiveAndOutOfWindowCoupons() {
+        coupon(1L, null, 0, false, now.minusDays(1), now.plusDays(1));
+        coupon(2L, null, 0, true, now.plusDays(1), now.plusDays(2));
+        coupon(3L, null, 0, true, now.minusDays(2), now.minusDays(1));
+
+        assertThat(couponRepository.incrementUsageIfAvailable(1L, now)).isZero();
+        assertThat(couponRepository.incrementUsageIfAvailable(2L, now)).isZero();
+        assertThat(couponRepository.incrementUsageIfAvailable(3L, now)).isZero();
+    }
+
+    private void coupon(long id, Integer usageLimit, Integer usedCount, boolean active,
+                        LocalDateTime validFrom, LocalDateTime validUntil) {
+        jdbc.update("INSERT INTO coupons (id, usage_limit, used_count, is_active, valid_from, valid_until, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 0)", id, usageLimit, usedCount, active, validFrom, validUntil);
+    }
+}
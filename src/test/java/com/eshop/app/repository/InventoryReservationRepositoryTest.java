@@ -0,0 +1,154 @@
+package com.eshop.app.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native reservation statements against PostgreSQL, since they rely on
+ * data-modifying CTEs.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Sql("/sql/inventory-reservation-schema.sql")
+class InventoryReservationRepositoryTest {
+
+    private static final long PRODUCT = 10L;
+    private static final long WAREHOUSE = 20L;
+
+    @Container
+    @SuppressWarnings("resource") // Lifecycle managed by @Testcontainers
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "false");
+    }
+
+    @Autowired
+    private InventoryReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void stock() {
+        jdbc.update("INSERT INTO products (id, stock_quantity, version) VALUES (?, 90, NULL)", PRODUCT);
+        jdbc.update("INSERT INTO product_inventory (product_id, warehouse_id, quantity, reserved_quantity) " +
+                "VALUES (?, ?, 100, 10)", PRODUCT, WAREHOUSE);
+    }
+
+    @Test
+    void releaseExpired_cancelsUnpaidOrderAndRestocks() {
+        order(1L, "PLACED", "PENDING");
+        reservation(1L, 4, now.minusMinutes(1));
+
+        int cancelled = reservationRepository.releaseExpired(List.of(1L), now);
+
+        assertThat(cancelled).isEqualTo(1);
+        assertThat(orderStatus(1L)).isEqualTo("CANCELLED");
+        assertThat(reservationStatus(1L)).isEqualTo("RELEASED");
+        assertThat(reservedQuantity()).isEqualTo(6);
+        assertThat(jdbc.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, PRODUCT))
+                .isEqualTo(94);
+        assertThat(jdbc.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, PRODUCT))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void releaseExpired_keepsStockOfConfirmedOrder() {
+        order(2L, "CONFIRMED", "PENDING");
+        reservation(2L, 4, now.minusMinutes(1));
+
+        int cancelled = reservationRepository.releaseExpired(List.of(2L), now);
+
+        assertThat(cancelled).isZero();
+        assertThat(orderStatus(2L)).isEqualTo("CONFIRMED");
+        assertThat(reservationStatus(2L)).isEqualTo("ACTIVE");
+        assertThat(reservedQuantity()).isEqualTo(10);
+        assertThat(jdbc.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, PRODUCT))
+                .isEqualTo(90);
+    }
+
+    @Test
+    void releaseExpired_keepsReservationsNotYetDue() {
+        order(3L, "PLACED", "PENDING");
+        reservation(3L, 4, now.plusMinutes(5));
+
+        assertThat(reservationRepository.releaseExpired(List.of(3L), now)).isZero();
+        assertThat(reservationStatus(3L)).isEqualTo("ACTIVE");
+        assertThat(reservedQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void releaseExpired_reclaimsReservationsOfCancelledOrder() {
+        order(4L, "CANCELLED", "PENDING");
+        reservation(4L, 4, now.minusMinutes(1));
+
+        assertThat(reservationRepository.releaseExpired(List.of(4L), now)).isZero();
+        assertThat(reservationStatus(4L)).isEqualTo("RELEASED");
+        assertThat(reservedQuantity()).isEqualTo(6);
+    }
+
+    @Test
+    void releaseOrder_restocksBeforeExpiry() {
+        order(5L, "CANCELLED", "PENDING");
+        reservation(5L, 4, now.plusMinutes(30));
+
+        assertThat(reservationRepository.releaseOrder(5L)).isEqualTo(1);
+        assertThat(reservationStatus(5L)).isEqualTo("RELEASED");
+        assertThat(reservedQuantity()).isEqualTo(6);
+        assertThat(jdbc.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, PRODUCT))
+                .isEqualTo(94);
+
+        // Nothing left to release
+        assertThat(reservationRepository.releaseOrder(5L)).isZero();
+        assertThat(reservedQuantity()).isEqualTo(6);
+    }
+
+    private void order(long id, String orderStatus, String paymentStatus) {
+        jdbc.update("INSERT INTO orders (id, order_status, payment_status) VALUES (?, ?, ?)",
+                id, orderStatus, paymentStatus);
+    }
+
+    private void reservation(long orderId, int quantity, LocalDateTime expiresAt) {
+        jdbc.update("INSERT INTO inventory_reservations (order_id, product_id, warehouse_id, quantity, expires_at) " +
+                "VALUES (?, ?, ?, ?, ?)", orderId, PRODUCT, WAREHOUSE, quantity, expiresAt);
+    }
+
+    private String orderStatus(long id) {
+        return jdbc.queryForObject("SELECT order_status FROM orders WHERE id = ?", String.class, id);
+    }
+
+    private String reservationStatus(long orderId) {
+        return jdbc.queryForObject("SELECT status FROM inventory_reservations WHERE order_id = ?", String.class, orderId);
+    }
+
+    private int reservedQuantity() {
+        return jdbc.queryForObject("SELECT reserved_quantity FROM product_inventory WHERE product_id = ?",
+                Integer.class, PRODUCT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.eshop.app.repository;
+
+import com.eshop.app.entity.PaymentWebhookEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native inbox statements against PostgreSQL, since deduplication
+ * relies on {@code ON CONFLICT}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Sql("/sql/payment-webhook-inbox-schema.sql")
+class PaymentWebhookEventRepositoryTest {
+
+    @Container
+    @SuppressWarnings("resource") // Lifecycle managed by @Testcontainers
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "false");
+    }
+
+    @Autowired
+    private PaymentWebhookEventRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void insertIfAbsent_storesEachGatewayEventOnce() {
+        assertThat(repository.insertIfAbsent("STRIPE", "evt_1", "payment_intent.succeeded", "pi_1", "{}")).isEqualTo(1);
+        assertThat(repository.insertIfAbsent("STRIPE", "evt_1", "payment_intent.succeeded", "pi_1", "{}")).isEqualTo(0);
+        // Event ids are only unique per gateway
+        assertThat(repository.insertIfAbsent("RAZORPAY", "evt_1", "payment.captured", "pay_1", "{}")).isEqualTo(1);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM payment_webhook_inbox", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void markFailed_retriesUntilTheAttemptCap() {
+        repository.insertIfAbsent("STRIPE", "evt_1", "payment_intent.succeeded", "pi_1", "{}");
+        Long id = idOf("evt_1");
+
+        repository.markFailed(id, 2, now.plusSeconds(2), "IllegalStateException: down");
+        assertThat(status(id)).isEqualTo("RECEIVED");
+        assertThat(attempts(id)).isEqualTo(1);
+
+        repository.markFailed(id, 2, now.plusSeconds(4), "IllegalStateException: down");
+        assertThat(status(id)).isEqualTo("FAILED");
+        assertThat(attempts(id)).isEqualTo(2);
+        assertThat(repository.findDue(now.plusDays(1), 10)).isEmpty();
+    }
+
+    @Test
+    void findDue_holdsBackEventsBehindARetryOfTheSameReference() {
+        repository.insertIfAbsent("STRIPE", "evt_1", "payment_intent.created", "pi_1", "{}");
+        repository.insertIfAbsent("STRIPE", "evt_2", "payment_intent.succeeded", "pi_1", "{}");
+        repository.insertIfAbsent("STRIPE", "evt_3", "payment_intent.succeeded", "pi_2", "{}");
+        repository.markFailed(idOf("evt_1"), 10, now.plusMinutes(1), "IllegalStateException: down");
+
+        assertThat(repository.findDue(now.plusSeconds(1), 10))
+                .extracting(PaymentWebhookEvent::getEventId)
+                .containsExactly("evt_3");
+        assertThat(repository.findDue(now.plusMinutes(2), 10))
+                .extracting(PaymentWebhookEvent::getEventId)
+                .containsExactly("evt_1", "evt_2", "evt_3");
+    }
+
+    private Long idOf(String eventId) {
+        return jdbc.queryForObject("SELECT id FROM payment_webhook_inbox WHERE event_id = ?", Long.class, eventId);
+    }
+
+    private String status(Long id) {
+        return jdbc.queryForObject("SELECT status FROM payment_webhook_inbox WHERE id = ?", String.class, id);
+    }
+
+    private int attempts(Long id) {
+        return jdbc.queryForObject("SELECT attempts FROM payment_webhook_inbox WHERE id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,81 @@
+package com.eshop.app.service;
+
+import com.eshop.app.repository.CategoryClosureRepository;
+import com.eshop.app.repository.CategoryRepository;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryClosureServiceTest {
+
+    @Mock
+    private CategoryClosureRepository closureRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private LockProvider lockProvider;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SimpleLock lock;
+
+    private CategoryClosureService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CategoryClosureService(closureRepository, categoryRepository, lockProvider, transactionManager);
+    }
+
+    @Test
+    void ensureInitialized_outOfSync_rebuildsUnderLock() {
+        when(lockProvider.lock(any(LockConfiguration.class))).thenReturn(Optional.of(lock));
+        when(categoryRepository.count()).thenReturn(3L);
+        when(closureRepository.countByDepth(0)).thenReturn(0L);
+
+        service.ensureInitialized();
+
+        var order = inOrder(lockProvider, closureRepository, transactionManager, lock);
+        order.verify(lockProvider).lock(any(LockConfiguration.class));
+        order.verify(closureRepository).deleteAllRows();
+        order.verify(closureRepository).insertFromParentLinks();
+        order.verify(transactionManager).commit(any());
+        order.verify(lock).unlock();
+    }
+
+    @Test
+    void ensureInitialized_inSync_leavesTableAlone() {
+        when(lockProvider.lock(any(LockConfiguration.class))).thenReturn(Optional.of(lock));
+        when(categoryRepository.count()).thenReturn(3L);
+        when(closureRepository.countByDepth(0)).thenReturn(3L);
+
+        service.ensureInitialized();
+
+        verify(closureRepository, never()).deleteAllRows();
+        verify(lock).unlock();
+    }
+
+    @Test
+    void ensureInitialized_lockedByAnotherNode_skips() {
+        when(lockProvider.lock(any(LockConfiguration.class))).thenReturn(Optional.empty());
+
+        service.ensureInitialized();
+
+        verifyNoInteractions(categoryRepository, closureRepository, transactionManager);
+    }
+}
@@ -0,0 +1,102 @@
+package com.eshop.app.service;
+
+import com.eshop.app.dto.response.PageResponse;
+import com.eshop.app.dto.response.ProductListResponse;
+import com.eshop.app.entity.Currency;
+import com.eshop.app.exception.ResourceNotFoundException;
+import com.eshop.app.repository.CurrencyRepository;
+import com.eshop.app.service.cache.CurrencyRateTable;
+import com.eshop.app.service.cache.CurrencyRateTableCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyServiceTest {
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private CurrencyRateTableCache currencyRateTableCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CurrencyService currencyService;
+
+    private final CurrencyRateTable table = CurrencyRateTable.build(List.of(
+            new CurrencyRateTable.Rate("USD", BigDecimal.ONE, 2),
+            new CurrencyRateTable.Rate("EUR", new BigDecimal("0.5"), 2)), "USD", 1L);
+
+    @BeforeEach
+    void setUp() {
+        when(currencyRateTableCache.table()).thenReturn(table);
+    }
+
+    @Test
+    void convertAmount_knownCodes_usesRateTableOnly() {
+        assertEquals(new BigDecimal("5.00"), currencyService.convertAmount(new BigDecimal("10"), "USD", "EUR"));
+
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    void convertAmount_unknownCode_throwsNotFound() {
+        when(currencyRepository.findByCode("ZZZ")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> currencyService.convertAmount(BigDecimal.ONE, "USD", "ZZZ"));
+        verify(currencyRateTableCache, never()).rebuild();
+    }
+
+    @Test
+    void convertAmount_currencyAddedElsewhere_rebuildsTable() {
+        Currency gbp = Currency.builder().code("GBP").exchangeRate(new BigDecimal("0.8")).build();
+        when(currencyRepository.findByCode("GBP")).thenReturn(Optional.of(gbp));
+        when(currencyRateTableCache.rebuild()).thenReturn(CurrencyRateTable.build(List.of(
+                new CurrencyRateTable.Rate("USD", BigDecimal.ONE, 2),
+                new CurrencyRateTable.Rate("GBP", new BigDecimal("0.8"), 2)), "USD", 2L));
+
+        assertEquals(new BigDecimal("8.00"), currencyService.convertAmount(new BigDecimal("10"), "USD", "GBP"));
+    }
+
+    @Test
+    void convertProductPage_convertsCopiesFromBaseCurrency() {
+        ProductListResponse item = ProductListResponse.builder()
+                .price(new BigDecimal("10.00"))
+                .discountPrice(new BigDecimal("8.00"))
+                .build();
+        PageResponse<ProductListResponse> page = PageResponse.<ProductListResponse>builder()
+                .data(List.of(item))
+                .build();
+
+        PageResponse<ProductListResponse> converted = currencyService.convertProductPage(page, "EUR");
+
+        assertEquals(new BigDecimal("5.00"), converted.getData().get(0).getPrice());
+        assertEquals(new BigDecimal("4.00"), converted.getData().get(0).getDiscountPrice());
+        assertEquals(new BigDecimal("10.00"), item.getPrice());
+    }
+
+    @Test
+    void convertProductPage_unknownCurrency_throwsNotFound() {
+        when(currencyRepository.findByCode("ZZZ")).thenReturn(Optional.empty());
+        PageResponse<ProductListResponse> page = PageResponse.<ProductListResponse>builder()
+                .data(List.of(ProductListResponse.builder().price(BigDecimal.ONE).build()))
+                .build();
+
+        assertThrows(ResourceNotFoundException.class, () -> currencyService.convertProductPage(page, "ZZZ"));
+    }
+}
@@ -4,11 +4,13 @@ import com.eshop.app.dto.response.HomeResponse;
 import com.eshop.app.entity.User;
 import com.eshop.app.enums.UserRole;
 import com.eshop.app.repository.UserRepository;
+import com.eshop.app.service.concurrency.FanOuts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,6 +21,9 @@ class HomeServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private FanOuts fanOuts = new FanOuts(8);
+
     @InjectMocks
     private HomeService homeService;
 
@@ -5,12 +5,14 @@ import com.eshop.app.service.OrderService;
 import com.eshop.app.service.ProductService;
 import com.eshop.app.service.StoreService;
 import com.eshop.app.service.UserService;
+import com.eshop.app.service.concurrency.FanOuts;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.concurrent.Executor;
@@ -36,6 +38,9 @@ public class AdminAggregationServiceTest {
 
     Executor dashboardExecutor = r -> r.run();
 
+    @Spy
+    FanOuts fanOuts = new FanOuts(8);
+
     @InjectMocks
     AdminAggregationService aggregationService;
 
@@ -4,10 +4,12 @@ import com.eshop.app.dto.response.SellerDashboardResponse;
 import com.eshop.app.service.OrderService;
 import com.eshop.app.service.ProductService;
 import com.eshop.app.service.StoreService;
+import com.eshop.app.service.concurrency.FanOuts;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.concurrent.Executor;
@@ -29,6 +31,9 @@ public class SellerAggregationServiceTest {
 
     Executor dashboardExecutor = r -> r.run();
 
+    @Spy
+    FanOuts fanOuts = new FanOuts(8);
+
     @InjectMocks
     SellerAggregationService aggregationService;
 
@@ -0,0 +1,58 @@
+package com.eshop.app.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveExpiryTest {
+
+    private static final Duration BASE = Duration.ofMinutes(10);
+    private static final Duration MIN = Duration.ofSeconds(30);
+    private static final Duration MAX = Duration.ofMinutes(40);
+
+    private final AdaptiveExpiry expiry = new AdaptiveExpiry(BASE, MIN, MAX, 100, 1, 3);
+
+    @Test
+    void unknownKey_getsBaseTtl() {
+        assertEquals(BASE.toNanos(), expiry.expireAfterCreate(1L, "product", 0));
+    }
+
+    @Test
+    void frequentlyChangedKey_getsShortTtl() {
+        expiry.recordChange(1L);
+        expiry.recordChange(1L);
+        expiry.recordChange(1L);
+
+        assertEquals(MIN.toNanos(), expiry.expireAfterUpdate(1L, "product", 0, BASE.toNanos()));
+    }
+
+    @Test
+    void hotUnchangedKey_getsLongTtl() {
+        for (int i = 0; i < 3; i++) {
+            expiry.expireAfterRead(1L, "product", 0, BASE.toNanos());
+        }
+
+        assertEquals(MAX.toNanos(), expiry.expireAfterCreate(1L, "product", 0));
+
+        expiry.decayReads();
+        assertEquals(BASE.toNanos(), expiry.expireAfterCreate(1L, "product", 0));
+    }
+
+    @Test
+    void readsDoNotExtendLifetime() {
+        assertEquals(42, expiry.expireAfterRead(1L, "product", 0, 42));
+    }
+
+    @Test
+    void limitTtl_capsEveryKey() {
+        for (int i = 0; i < 3; i++) {
+            expiry.expireAfterRead(1L, "product", 0, BASE.toNanos());
+        }
+        expiry.limitTtl(Duration.ofMinutes(5));
+
+        assertEquals(Duration.ofMinutes(5).toNanos(), expiry.expireAfterCreate(1L, "product", 0));
+        assertEquals(Duration.ofMinutes(5).toNanos(), expiry.expireAfterCreate(2L, "product", 0));
+    }
+}
@@ -0,0 +1,81 @@
+package com.eshop.app.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BatchCacheTest {
+
+    private final ConcurrentMapCache local = new ConcurrentMapCache("products");
+    private ResilientRedisCacheService redis;
+    private BatchCache<Long, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(ResilientRedisCacheService.class);
+        cache = new BatchCache<>("products", String.class, Duration.ofMinutes(30), local, redis);
+    }
+
+    @Test
+    void getAll_readsEachTierOnce_andBackfillsRedis() {
+        local.put(1L, "one");
+        when(redis.getAll(anyCollection(), eq(String.class))).thenReturn(Map.of("products::2", "two"));
+        AtomicReference<Set<Long>> loaded = new AtomicReference<>();
+
+        Map<Long, String> result = cache.getAll(List.of(1L, 2L, 3L, 4L), missing -> {
+            loaded.set(Set.copyOf(missing));
+            return Map.of(3L, "three");
+        });
+
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(result.keySet()));
+        assertEquals(Set.of(3L, 4L), loaded.get());
+        verify(redis).getAll(Set.of("products::2", "products::3", "products::4"), String.class);
+        verify(redis).putAll(Map.of("products::3", "three"), Duration.ofMinutes(30));
+        assertEquals("two", local.get(2L, String.class));
+        assertEquals("three", local.get(3L, String.class));
+    }
+
+    @Test
+    void getAll_allInL1_skipsRedisAndLoader() {
+        local.put(1L, "one");
+
+        Map<Long, String> result = cache.getAll(List.of(1L), missing -> fail("loader called"));
+
+        assertEquals(Map.of(1L, "one"), result);
+        verifyNoInteractions(redis);
+    }
+
+    @Test
+    void getAll_announcesRedisWritesToNearCache() {
+        NearCache nearCache = mock(NearCache.class);
+        BatchCache<Long, String> near = new BatchCache<>("products", String.class, Duration.ofMinutes(30),
+                local, redis, nearCache);
+        when(redis.getAll(anyCollection(), eq(String.class))).thenReturn(Map.of());
+        when(redis.putAll(any(), any())).thenReturn(false);
+
+        near.getAll(List.of(3L), missing -> Map.of(3L, "three"));
+
+        verify(nearCache).expectOwnWrites(Set.of(3L));
+        verify(nearCache).cancelOwnWrites(Set.of(3L));
+    }
+
+    @Test
+    void evictAll_withoutTransaction_deletesAtOnce() {
+        cache.evictAll(List.of(5L, 6L));
+
+        verify(redis).evictAll(List.of("products::5", "products::6"));
+        verify(redis, never()).putAll(any(), any());
+    }
+}
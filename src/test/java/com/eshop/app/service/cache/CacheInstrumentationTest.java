@@ -0,0 +1,133 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheInstrumentationTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RedisSerializer<Object> sizer = new RedisSerializer<>() {
+        @Override
+        public byte[] serialize(Object value) {
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return null;
+        }
+    };
+    private final CacheInstrumentation instrumentation = new CacheInstrumentation(registry, sizer, 1, 1, 3);
+
+    @Test
+    void missThenPut_recordsLoadAndSize() {
+        Cache cache = instrumentation.instrument(new ConcurrentMapCache("products"));
+
+        assertNull(cache.get(1L));
+        cache.put(1L, "product");
+        assertNotNull(cache.get(1L));
+
+        CacheInstrumentation.Snapshot usage = instrumentation.snapshot("products");
+        assertEquals(1, usage.hits());
+        assertEquals(1, usage.misses());
+        assertEquals(0.5, usage.hitRatio());
+        assertEquals(1, usage.loads());
+        assertEquals(1, usage.sizeSamples());
+        assertEquals(7.0, usage.entryMeanBytes());
+        assertEquals(2.0, registry.get("eshop.cache.gets").tag("cache", "products").counters().stream()
+                .mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    void typedMissThenPut_recordsLoad() {
+        Cache cache = instrumentation.instrument(new ConcurrentMapCache("products"));
+
+        assertNull(cache.get(1L, String.class));
+        cache.put(1L, "product");
+        assertEquals("product", cache.get(1L, String.class));
+
+        CacheInstrumentation.Snapshot usage = instrumentation.snapshot("products");
+        assertEquals(1, usage.loads());
+        assertEquals(1, usage.hits());
+        assertEquals(1, usage.misses());
+    }
+
+    @Test
+    void missWithoutPut_isNotCountedLater() {
+        Cache cache = instrumentation.instrument(new ConcurrentMapCache("products"));
+
+        // Miss that is never filled, then other traffic on the same thread
+        assertNull(cache.get(1L));
+        cache.put(2L, "other");
+        cache.put(1L, "product");
+
+        assertNull(cache.get(3L));
+        assertNotNull(cache.get(2L));
+        cache.put(3L, "product");
+
+        assertEquals(0, instrumentation.snapshot("products").loads());
+    }
+
+    @Test
+    void getWithLoader_timesTheLoader() {
+        Cache cache = instrumentation.instrument(new ConcurrentMapCache("products"));
+
+        assertEquals("loaded", cache.get(1L, () -> "loaded"));
+        assertEquals("loaded", cache.get(1L, () -> fail("loaded twice")));
+
+        CacheInstrumentation.Snapshot usage = instrumentation.snapshot("products");
+        assertEquals(1, usage.loads());
+        assertEquals(1, usage.hits());
+        assertEquals(1, usage.misses());
+    }
+
+    @Test
+    void hotKeys_areRankedByReads() {
+        Cache cache = instrumentation.instrument(new ConcurrentMapCache("products"));
+        for (int i = 0; i < 5; i++) {
+            cache.get(1L);
+        }
+        cache.get(2L);
+        cache.get(2L);
+        cache.get(3L);
+
+        List<HotKeySampler.HotKey> hot = instrumentation.snapshot("products").hotKeys();
+
+        assertEquals(List.of("1", "2", "3"), hot.stream().map(HotKeySampler.HotKey::key).toList());
+        assertEquals(5, hot.get(0).count());
+    }
+
+    @Test
+    void hotKeySampler_keepsFrequentKeysWhenFull() {
+        HotKeySampler sampler = new HotKeySampler(2);
+        for (int i = 0; i < 10; i++) {
+            sampler.record("hot");
+        }
+        sampler.record("a");
+        sampler.record("b");
+        sampler.record("c");
+
+        HotKeySampler.HotKey top = sampler.top(1).get(0);
+        assertEquals("hot", top.key());
+        assertEquals(10, top.count());
+        assertEquals(0, top.maxError());
+    }
+
+    @Test
+    void removalListener_countsByCause() {
+        instrumentation.removalListener("products")
+                .onRemoval(1L, "product", RemovalCause.SIZE);
+
+        assertEquals(1, instrumentation.snapshot("products").evictions().get("size"));
+    }
+}
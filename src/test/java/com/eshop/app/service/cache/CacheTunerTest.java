@@ -0,0 +1,133 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheTunerTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final CacheInstrumentation instrumentation =
+            new CacheInstrumentation(new SimpleMeterRegistry(), null, 1, 1, 3);
+
+    @Test
+    void resize_followsHitRatio() {
+        CacheTuner tuner = tuner(DataSize.ofMegabytes(64));
+        Cache<Object, Object> cache = cache(tuner, "products");
+
+        round(tuner, cache, 500, 500, 10);
+        assertEquals(125, maximum(cache));
+
+        round(tuner, cache, 700, 300, 10);
+        assertEquals(156, maximum(cache));
+
+        // Growing no longer pays: shrink
+        round(tuner, cache, 700, 300, 10);
+        assertEquals(124, maximum(cache));
+
+        // Shrinking cost hits: grow again
+        round(tuner, cache, 500, 500, 10);
+        assertEquals(155, maximum(cache));
+    }
+
+    @Test
+    void resize_leavesCacheWithoutSizeEvictions() {
+        CacheTuner tuner = tuner(DataSize.ofMegabytes(64));
+        Cache<Object, Object> cache = cache(tuner, "products");
+
+        round(tuner, cache, 500, 500, 0);
+
+        assertEquals(100, maximum(cache));
+    }
+
+    @Test
+    void resize_waitsForEnoughRequests() {
+        CacheTuner tuner = tuner(DataSize.ofMegabytes(64));
+        Cache<Object, Object> cache = cache(tuner, "products");
+
+        round(tuner, cache, 10, 10, 10);
+
+        assertEquals(100, maximum(cache));
+    }
+
+    @Test
+    void resize_staysWithinMaxGrowth() {
+        CacheTuner tuner = tuner(DataSize.ofMegabytes(64));
+        Cache<Object, Object> cache = cache(tuner, "products");
+
+        for (int i = 0; i < 10; i++) {
+            round(tuner, cache, 100 + 80 * i, 900 - 80 * i, 10);
+        }
+
+        assertEquals(400, maximum(cache));
+    }
+
+    @Test
+    void resize_doesNotGrowPastBudget() {
+        // Room for 10 more entries of the assumed size
+        CacheTuner tuner = tuner(DataSize.ofBytes(10 * 2_048));
+        Cache<Object, Object> cache = cache(tuner, "products");
+
+        round(tuner, cache, 500, 500, 10);
+        assertEquals(100, maximum(cache));
+
+        round(tuner, cache, 500, 500, 10);
+        assertEquals(80, maximum(cache));
+    }
+
+    @Test
+    void expiry_extendsHotKeysOnlyWhenAllowed() {
+        CacheTuner tuner = tuner(DataSize.ofMegabytes(64));
+        AdaptiveExpiry local = tuner.expiry("productList", TTL, false);
+        AdaptiveExpiry near = tuner.expiry("products", TTL, true);
+
+        for (int i = 0; i < 10_000; i++) {
+            local.expireAfterRead(1L, "page", 0, TTL.toNanos());
+            near.expireAfterRead(1L, "product", 0, TTL.toNanos());
+        }
+
+        assertEquals(TTL.toNanos(), local.expireAfterCreate(1L, "page", 0));
+        assertEquals(TTL.multipliedBy(4).toNanos(), near.expireAfterCreate(1L, "product", 0));
+    }
+
+    private CacheTuner tuner(DataSize growthBudget) {
+        return new CacheTuner(instrumentation, true, Duration.ofSeconds(30), 4, 100, 1_000, 4, growthBudget);
+    }
+
+    private Cache<Object, Object> cache(CacheTuner tuner, String name) {
+        Cache<Object, Object> cache = Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfter(tuner.expiry(name, TTL, true))
+                .recordStats()
+                .build();
+        tuner.register(name, cache);
+        cache.put(1L, "product");
+        return cache;
+    }
+
+    private void round(CacheTuner tuner, Cache<Object, Object> cache, int hits, int misses, int sizeEvictions) {
+        for (int i = 0; i < hits; i++) {
+            cache.getIfPresent(1L);
+        }
+        for (int i = 0; i < misses; i++) {
+            cache.getIfPresent(-1L - i);
+        }
+        for (int i = 0; i < sizeEvictions; i++) {
+            tuner.recordRemoval("products", (long) i, RemovalCause.SIZE);
+        }
+        tuner.tune();
+    }
+
+    private long maximum(Cache<Object, Object> cache) {
+        return cache.policy().eviction().map(Policy.Eviction::getMaximum).orElseThrow();
+    }
+}
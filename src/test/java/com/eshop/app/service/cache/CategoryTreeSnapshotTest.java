@@ -0,0 +1,88 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.dto.response.CategoryResponse;
+import com.eshop.app.dto.response.CategoryTreeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryTreeSnapshotTest {
+
+    //  1 Electronics
+    //  ├─ 2 Phones
+    //  │   └─ 4 Smartphones
+    //  └─ 3 Laptops (inactive)
+    //      └─ 6 Ultrabooks
+    //  5 Books
+    private final CategoryTreeSnapshot snapshot = CategoryTreeSnapshot.build(List.of(
+            node(4, 2L, true, "Smartphones"),
+            node(1, null, true, "Electronics"),
+            node(3, 1L, false, "Laptops"),
+            node(2, 1L, true, "Phones"),
+            node(5, null, true, "Books"),
+            node(6, 3L, true, "Ultrabooks")
+    ), 1L);
+
+    @Test
+    void ancestorChecks_useNestedSetBounds() {
+        assertTrue(snapshot.isAncestorOrSelf(1, 4));
+        assertTrue(snapshot.isAncestorOrSelf(2, 2));
+        assertFalse(snapshot.isAncestorOrSelf(4, 1));
+        assertFalse(snapshot.isAncestorOrSelf(5, 4));
+        assertFalse(snapshot.isAncestorOrSelf(99, 4));
+    }
+
+    @Test
+    void subtreeIds_areContiguousPreorderSlice() {
+        assertArrayEquals(new long[] {1, 3, 6, 2, 4}, snapshot.subtreeIds(1));
+        assertEquals(5, snapshot.subtreeRange(1).size());
+        assertArrayEquals(new long[] {5}, snapshot.subtreeIds(5));
+    }
+
+    @Test
+    void activeSubtreeIds_skipInactiveBranches() {
+        assertEquals(List.of(1L, 2L, 4L), snapshot.activeSubtreeIds(1));
+    }
+
+    @Test
+    void path_runsFromRootToNode() {
+        assertEquals(List.of("Electronics", "Phones", "Smartphones"),
+                snapshot.path(4).stream().map(CategoryResponse::getName).toList());
+        assertEquals(2, snapshot.depthOf(4));
+    }
+
+    @Test
+    void childrenAndRoots_respectActiveFilter() {
+        assertEquals(List.of("Phones"),
+                snapshot.children(1, true).stream().map(CategoryResponse::getName).toList());
+        assertEquals(2, snapshot.children(1, false).size());
+        assertEquals(List.of("Books", "Electronics"),
+                snapshot.roots(true).stream().map(CategoryResponse::getName).toList());
+    }
+
+    @Test
+    void toTree_nestsChildren() {
+        List<CategoryTreeResponse> tree = snapshot.toTree();
+        assertEquals(2, tree.size());
+        CategoryTreeResponse electronics = tree.get(1);
+        assertEquals("Electronics", electronics.getName());
+        assertEquals(2, electronics.getChildren().size());
+    }
+
+    @Test
+    void parentCycle_isPromotedToRoot() {
+        CategoryTreeSnapshot cyclic = CategoryTreeSnapshot.build(List.of(
+                node(1, 2L, true, "A"),
+                node(2, 1L, true, "B")
+        ), 1L);
+        assertEquals(2, cyclic.size());
+        assertEquals(2, cyclic.toTree().stream().mapToInt(t -> 1 + t.getChildren().size()).sum());
+    }
+
+    private static CategoryTreeSnapshot.Node node(long id, Long parentId, boolean active, String name) {
+        CategoryResponse response = CategoryResponse.builder().id(id).name(name).active(active).build();
+        return new CategoryTreeSnapshot.Node(id, parentId, 0, active, response);
+    }
+}
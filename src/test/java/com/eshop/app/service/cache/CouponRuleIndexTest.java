@@ -0,0 +1,165 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.dto.response.CategoryResponse;
+import com.eshop.app.entity.Coupon;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CouponRuleIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    //  1 Electronics
+    //  └─ 2 Phones
+    //      └─ 4 Smartphones
+    //  5 Books
+    private final CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(List.of(
+            node(1, null), node(2, 1L), node(4, 2L), node(5, null)), 1L);
+
+    @Test
+    void applicable_scoresTheBucketsTheCartTouches_largestDiscountFirst() {
+        CouponRuleIndex index = CouponRuleIndex.build(List.of(
+                rule(1, "SITE10", percent("10"), null, null),
+                rule(2, "STORE7", fixed("5"), 7L, null),
+                rule(3, "STORE8", fixed("50"), 8L, null),
+                rule(4, "PHONES20", percent("20"), null, 2L),
+                rule(5, "BOOKS", fixed("40"), null, 5L)
+        ), 3L);
+        CouponRuleIndex.CartContext cart = cart(
+                line(7L, 4L, "100.00"),
+                line(9L, 5L, "50.00"));
+
+        List<CouponRuleIndex.Evaluation> applicable = index.applicable(cart, tree, NOW);
+
+        assertEquals(List.of("BOOKS", "PHONES20", "SITE10", "STORE7"),
+                applicable.stream().map(e -> e.rule().code()).toList());
+        assertAmount("40", applicable.get(0).discount());
+        assertAmount("20", applicable.get(1).discount());
+        assertAmount("15", applicable.get(2).discount());
+        assertAmount("5", applicable.get(3).discount());
+    }
+
+    @Test
+    void eligibleAmount_categoryCoversItsSubtree_storeCategoryNeedsBoth() {
+        CouponRuleIndex.Rule electronics = rule(1, "ELEC", percent("10"), null, 1L);
+        CouponRuleIndex.Rule storeElectronics = rule(2, "S7ELEC", percent("10"), 7L, 1L);
+        CouponRuleIndex.Rule store = rule(3, "S7", percent("10"), 7L, null);
+        CouponRuleIndex index = CouponRuleIndex.build(List.of(electronics, storeElectronics, store), 1L);
+        CouponRuleIndex.CartContext cart = cart(
+                line(7L, 4L, "100.00"),
+                line(9L, 2L, "30.00"),
+                line(7L, 5L, "20.00"));
+
+        assertAmount("130", index.evaluate(electronics, cart, tree, NOW).eligibleAmount());
+        assertAmount("100", index.evaluate(storeElectronics, cart, tree, NOW).eligibleAmount());
+        assertAmount("120", index.evaluate(store, cart, tree, NOW).eligibleAmount());
+    }
+
+    @Test
+    void eligibleAmount_shippingOnly_needsAShippingQuote() {
+        CouponRuleIndex.Rule freeShipping = new CouponRuleIndex.Rule(1, "SHIP", Coupon.DiscountType.PERCENTAGE,
+                new BigDecimal("100"), null, null, null, 0, NOW.minusDays(1), NOW.plusDays(1),
+                Coupon.AppliesTo.SHIPPING_ONLY, null, null, null);
+        CouponRuleIndex index = CouponRuleIndex.build(List.of(freeShipping), 1L);
+        List<CouponRuleIndex.CartLine> lines = List.of(line(7L, 4L, "100.00"));
+
+        CouponRuleIndex.Evaluation unquoted = index.evaluate(freeShipping,
+                new CouponRuleIndex.CartContext(lines, new BigDecimal("100.00"), null), tree, NOW);
+        CouponRuleIndex.Evaluation quoted = index.evaluate(freeShipping,
+                new CouponRuleIndex.CartContext(lines, new BigDecimal("100.00"), new BigDecimal("12.50")), tree, NOW);
+
+        assertEquals("NOT_APPLICABLE", unquoted.errorCode());
+        assertAmount("12.50", quoted.discount());
+    }
+
+    @Test
+    void discountFor_clampsToMaximumAndEligibleAmount() {
+        CouponRuleIndex.Rule capped = new CouponRuleIndex.Rule(1, "PCT", Coupon.DiscountType.PERCENTAGE,
+                new BigDecimal("15"), null, new BigDecimal("50.00"), null, 0, NOW.minusDays(1), NOW.plusDays(1),
+                Coupon.AppliesTo.ALL_ORDERS, null, null, null);
+        CouponRuleIndex.Rule fixed = rule(2, "FIX", fixed("30"), null, null);
+
+        assertAmount("12", capped.discountFor(new BigDecimal("80.00")));
+        assertAmount("50", capped.discountFor(new BigDecimal("1000.00")));
+        assertAmount("30", fixed.discountFor(new BigDecimal("80.00")));
+        assertAmount("20", fixed.discountFor(new BigDecimal("20.00")));
+    }
+
+    @Test
+    void evaluate_rejectsExpiredExhaustedAndBelowMinimum() {
+        CouponRuleIndex.Rule expired = new CouponRuleIndex.Rule(1, "OLD", Coupon.DiscountType.FIXED_AMOUNT,
+                BigDecimal.TEN, null, null, null, 0, NOW.minusDays(10), NOW.minusDays(1),
+                Coupon.AppliesTo.ALL_ORDERS, null, null, null);
+        CouponRuleIndex.Rule exhausted = new CouponRuleIndex.Rule(2, "USED", Coupon.DiscountType.FIXED_AMOUNT,
+                BigDecimal.TEN, null, null, 5, 5, NOW.minusDays(1), NOW.plusDays(1),
+                Coupon.AppliesTo.ALL_ORDERS, null, null, null);
+        CouponRuleIndex.Rule minimum = new CouponRuleIndex.Rule(3, "MIN", Coupon.DiscountType.FIXED_AMOUNT,
+                BigDecimal.TEN, new BigDecimal("200.00"), null, null, 0, NOW.minusDays(1), NOW.plusDays(1),
+                Coupon.AppliesTo.ALL_ORDERS, null, null, null);
+        CouponRuleIndex index = CouponRuleIndex.build(List.of(expired, exhausted, minimum), 1L);
+        CouponRuleIndex.CartContext cart = cart(line(7L, 4L, "100.00"));
+
+        assertEquals("COUPON_NOT_ACTIVE", index.evaluate(expired, cart, tree, NOW).errorCode());
+        assertEquals("USAGE_LIMIT_REACHED", index.evaluate(exhausted, cart, tree, NOW).errorCode());
+        assertEquals("MIN_ORDER_NOT_MET", index.evaluate(minimum, cart, tree, NOW).errorCode());
+        assertTrue(index.applicable(cart, tree, NOW).isEmpty());
+    }
+
+    @Test
+    void byCode_findsRulesInEveryBucket() {
+        CouponRuleIndex index = CouponRuleIndex.build(List.of(
+                rule(1, "SITE", fixed("1"), null, null),
+                rule(2, "STORE", fixed("1"), 7L, null),
+                rule(3, "CAT", fixed("1"), null, 2L)), 1L);
+
+        assertEquals(3, index.size());
+        assertEquals(2L, index.byCode("STORE").orElseThrow().id());
+        assertEquals(3L, index.byCode("CAT").orElseThrow().id());
+        assertTrue(index.byCode("NONE").isEmpty());
+        assertTrue(index.byCode(null).isEmpty());
+    }
+
+    private record Discount(Coupon.DiscountType type, BigDecimal value) {
+    }
+
+    private static Discount percent(String value) {
+        return new Discount(Coupon.DiscountType.PERCENTAGE, new BigDecimal(value));
+    }
+
+    private static Discount fixed(String value) {
+        return new Discount(Coupon.DiscountType.FIXED_AMOUNT, new BigDecimal(value));
+    }
+
+    private static CouponRuleIndex.Rule rule(long id, String code, Discount discount, Long storeId, Long categoryId) {
+        Coupon.AppliesTo appliesTo = categoryId != null ? Coupon.AppliesTo.SPECIFIC_CATEGORY
+                : storeId != null ? Coupon.AppliesTo.SPECIFIC_STORE : Coupon.AppliesTo.ALL_ORDERS;
+        return new CouponRuleIndex.Rule(id, code, discount.type(), discount.value(), null, null, null, 0,
+                NOW.minusDays(1), NOW.plusDays(1), appliesTo, storeId, categoryId, null);
+    }
+
+    private static CouponRuleIndex.CartLine line(Long storeId, Long categoryId, String amount) {
+        return new CouponRuleIndex.CartLine(storeId, categoryId, new BigDecimal(amount));
+    }
+
+    private static CouponRuleIndex.CartContext cart(CouponRuleIndex.CartLine... lines) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CouponRuleIndex.CartLine line : lines) {
+            total = total.add(line.amount());
+        }
+        return new CouponRuleIndex.CartContext(List.of(lines), total, null);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    private static CategoryTreeSnapshot.Node node(long id, Long parentId) {
+        CategoryResponse response = CategoryResponse.builder().id(id).name("c" + id).active(true).build();
+        return new CategoryTreeSnapshot.Node(id, parentId, 0, true, response);
+    }
+}
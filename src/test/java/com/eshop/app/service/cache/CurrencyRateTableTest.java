@@ -0,0 +1,55 @@
+package com.eshop.app.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrencyRateTableTest {
+
+    private final CurrencyRateTable table = CurrencyRateTable.build(List.of(
+            new CurrencyRateTable.Rate("USD", BigDecimal.ONE, 2),
+            new CurrencyRateTable.Rate("EUR", new BigDecimal("0.5"), 2),
+            new CurrencyRateTable.Rate("JPY", new BigDecimal("150"), 0),
+            new CurrencyRateTable.Rate("IDR", new BigDecimal("15000"), 2)), "USD", 1L);
+
+    @Test
+    void convert_usesCrossRate() {
+        assertEquals(new BigDecimal("5.00"), table.convert(new BigDecimal("10"), "USD", "EUR"));
+        assertEquals(new BigDecimal("3000"), table.convert(new BigDecimal("10"), "EUR", "JPY"));
+        assertEquals(new BigDecimal("0.07"), table.convert(new BigDecimal("10"), "JPY", "USD"));
+    }
+
+    @Test
+    void convert_sameCurrency_returnsAmount() {
+        BigDecimal amount = new BigDecimal("12.345");
+        assertSame(amount, table.convert(amount, "EUR", "EUR"));
+    }
+
+    @Test
+    void convert_overflowingAmount_fallsBackToBigDecimal() {
+        assertEquals(new BigDecimal("15000000000000000000.00"),
+                table.convert(new BigDecimal("1000000000000000"), "USD", "IDR"));
+    }
+
+    @Test
+    void convert_unknownCode_throws() {
+        assertThrows(IllegalArgumentException.class, () -> table.convert(BigDecimal.ONE, "USD", "GBP"));
+    }
+
+    @Test
+    void build_skipsCurrenciesWithoutPositiveRate() {
+        CurrencyRateTable partial = CurrencyRateTable.build(List.of(
+                new CurrencyRateTable.Rate("USD", BigDecimal.ONE, 2),
+                new CurrencyRateTable.Rate("XAU", null, 2),
+                new CurrencyRateTable.Rate("XAG", BigDecimal.ZERO, 2),
+                new CurrencyRateTable.Rate("EUR", new BigDecimal("0.5"), 2)), "USD", 2L);
+
+        assertEquals(2, partial.size());
+        assertFalse(partial.contains("XAU"));
+        assertFalse(partial.contains("XAG"));
+        assertEquals(new BigDecimal("5.00"), partial.convert(new BigDecimal("10"), "USD", "EUR"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.eshop.app.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NearCacheTest {
+
+    private final ConcurrentMapCache local = new ConcurrentMapCache("products");
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("products");
+    private final NearCache cache = new NearCache(local, remote, Long::valueOf);
+
+    @Test
+    void get_fallsThroughToRedis_andCopiesLocally() {
+        remote.put(42L, "product");
+
+        assertEquals("product", cache.get(42L, String.class));
+        assertEquals("product", local.get(42L, String.class));
+    }
+
+    @Test
+    void putAndEvict_reachBothTiers() {
+        cache.put(42L, "product");
+        assertEquals("product", remote.get(42L, String.class));
+
+        cache.evict(42L);
+        assertNull(local.get(42L));
+        assertNull(remote.get(42L));
+    }
+
+    @Test
+    void invalidateLocal_dropsOnlyTheLocalCopy() {
+        cache.put(42L, "product");
+
+        cache.invalidateLocal("42");
+
+        assertNull(local.get(42L));
+        assertEquals("product", remote.get(42L, String.class));
+    }
+
+    @Test
+    void invalidateLocal_withUnparsableKey_clearsLocalTier() {
+        cache.put(42L, "product");
+
+        cache.invalidateLocal("SimpleKey [a,b]");
+
+        assertNull(local.get(42L));
+    }
+
+    @Test
+    void redisReadRacingWithInvalidation_isNotCopiedLocally() {
+        ConcurrentMapCache racingRemote = spy(new ConcurrentMapCache("products"));
+        NearCache racing = new NearCache(local, racingRemote, Long::valueOf);
+        racingRemote.put(42L, "old");
+        doAnswer(invocation -> {
+            racing.invalidateLocal("42");
+            return invocation.callRealMethod();
+        }).when(racingRemote).get(any());
+
+        assertEquals("old", racing.get(42L, String.class));
+        assertNull(local.get(42L));
+    }
+
+    @Test
+    void redisFailure_isAMiss() {
+        ConcurrentMapCache failingRemote = spy(new ConcurrentMapCache("products"));
+        doThrow(new IllegalStateException("down")).when(failingRemote).get(any());
+        doThrow(new IllegalStateException("down")).when(failingRemote).evict(any());
+        NearCache failing = new NearCache(local, failingRemote, Long::valueOf);
+
+        assertNull(failing.get(42L));
+        assertDoesNotThrow(() -> failing.evict(42L));
+    }
+
+    @Test
+    void failedEvict_bypassesRedisUntilRetried() {
+        ConcurrentMapCache failingRemote = spy(new ConcurrentMapCache("products"));
+        NearCache failing = new NearCache(local, failingRemote, Long::valueOf);
+        failing.put(42L, "old");
+        doThrow(new IllegalStateException("down")).when(failingRemote).evict(any());
+
+        failing.evict(42L);
+
+        assertNull(failing.get(42L), "the stale Redis entry must not be read back");
+        assertEquals(1, failing.retryFailedEvictions());
+
+        doCallRealMethod().when(failingRemote).evict(any());
+        assertEquals(0, failing.retryFailedEvictions());
+        assertNull(failingRemote.get(42L));
+    }
+
+    @Test
+    void putAfterFailedEvict_replacesTheRedisEntry() {
+        ConcurrentMapCache failingRemote = spy(new ConcurrentMapCache("products"));
+        NearCache failing = new NearCache(local, failingRemote, Long::valueOf);
+        failing.put(42L, "old");
+        doThrow(new IllegalStateException("down")).when(failingRemote).evict(any());
+        failing.evict(42L);
+
+        failing.put(42L, "new");
+
+        assertEquals(0, failing.retryFailedEvictions());
+        assertEquals("new", failing.get(42L, String.class));
+    }
+
+    @Test
+    void echoOfOwnPut_keepsTheLocalCopy() {
+        cache.setOwnWritesEchoed(true);
+        cache.put(42L, "product");
+
+        cache.invalidateLocal("42");
+        assertEquals("product", local.get(42L, String.class));
+
+        // A second invalidation is another node's write
+        cache.invalidateLocal("42");
+        assertNull(local.get(42L));
+    }
+
+    @Test
+    void evictInTransaction_reachesRedisAfterCommit_andFailureIsRetried() {
+        ConcurrentMapCache failingRemote = spy(new ConcurrentMapCache("products"));
+        NearCache failing = new NearCache(local, failingRemote, Long::valueOf);
+        failing.put(42L, "old");
+        doThrow(new IllegalStateException("down")).when(failingRemote).evict(any());
+        TransactionSynchronizationManager.initSynchronization();
+
+        failing.evict(42L);
+        verify(failingRemote, never()).evict(any());
+        assertDoesNotThrow(TransactionSynchronizationManager.getSynchronizations().get(0)::afterCommit);
+
+        assertNull(failing.get(42L));
+        assertEquals(1, failing.retryFailedEvictions());
+    }
+
+    @Test
+    void failedPutAfterCommit_doesNotSwallowTheNextInvalidation() {
+        ConcurrentMapCache failingRemote = spy(new ConcurrentMapCache("products"));
+        NearCache failing = new NearCache(local, failingRemote, Long::valueOf);
+        failing.setOwnWritesEchoed(true);
+        doThrow(new IllegalStateException("down")).when(failingRemote).put(any(), any());
+        TransactionSynchronizationManager.initSynchronization();
+
+        failing.put(42L, "product");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        // Another node's write
+        failing.invalidateLocal("42");
+        assertNull(local.get(42L));
+    }
+
+    @Test
+    void expectedOwnWrites_keepTheLocalCopy_untilCancelled() {
+        cache.setOwnWritesEchoed(true);
+        local.put(42L, "product");
+        local.put(43L, "other");
+
+        cache.expectOwnWrites(List.of(42L, 43L));
+        cache.cancelOwnWrites(List.of(43L));
+        cache.invalidateLocal("42");
+        cache.invalidateLocal("43");
+
+        assertEquals("product", local.get(42L, String.class));
+        assertNull(local.get(43L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
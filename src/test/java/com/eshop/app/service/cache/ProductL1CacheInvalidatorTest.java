@@ -0,0 +1,57 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.config.CacheConfig;
+import com.eshop.app.event.outbox.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductL1CacheInvalidatorTest {
+
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final ProductL1CacheInvalidator invalidator = new ProductL1CacheInvalidator(cacheManager);
+
+    @Test
+    void stockChanged_evictsProductAndClearsListings() {
+        put(CacheConfig.PRODUCT_CACHE, 10L);
+        put(CacheConfig.PRODUCT_CACHE, 11L);
+        put(CacheConfig.PRODUCT_LIST_CACHE, "category:1:0:20");
+        put(CacheConfig.PRODUCT_SEARCH_CACHE, "phone:0:20");
+        put(CacheConfig.LOW_STOCK_PRODUCTS_CACHE, "seller:7");
+        put(CacheConfig.PRODUCT_COUNT_CACHE, "all");
+
+        invalidator.handle(message(OutboxMessage.STOCK_CHANGED, 10L));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(10L));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCT_CACHE).get(11L));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_LIST_CACHE).get("category:1:0:20"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_SEARCH_CACHE).get("phone:0:20"));
+        assertNull(cacheManager.getCache(CacheConfig.LOW_STOCK_PRODUCTS_CACHE).get("seller:7"));
+        // Stock changes do not change the number of products
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCT_COUNT_CACHE).get("all"));
+    }
+
+    @Test
+    void productCreated_alsoClearsCounts() {
+        put(CacheConfig.PRODUCT_LIST_CACHE, "brand:2:0:20");
+        put(CacheConfig.PRODUCT_COUNT_CACHE, "all");
+
+        invalidator.handle(message(OutboxMessage.PRODUCT_CREATED, 12L));
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_LIST_CACHE).get("brand:2:0:20"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_COUNT_CACHE).get("all"));
+    }
+
+    private void put(String cacheName, Object key) {
+        cacheManager.getCache(cacheName).put(key, "cached");
+    }
+
+    private static OutboxMessage message(String eventType, long productId) {
+        return new OutboxMessage(1, eventType, "Product", String.valueOf(productId),
+                Map.of("productId", productId), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,107 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.Shipping;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShippingRateCardTest {
+
+    private static final List<ShippingRateCard.Zone> ZONES = List.of(
+            new ShippingRateCard.Zone(1, "US", null, null, null),
+            new ShippingRateCard.Zone(2, "US", "CA", null, null),
+            new ShippingRateCard.Zone(3, "US", "CA", null, "^902.*"),
+            new ShippingRateCard.Zone(4, "US", "CA", null, "^9021[0-2]"),
+            new ShippingRateCard.Zone(5, "US", "NY", "New York", null),
+            new ShippingRateCard.Zone(6, "GB", null, null, "SW1"));
+
+    private static final List<ShippingRateCard.Rate> RATES = List.of(
+            rate(null, Shipping.ShippingMethod.STANDARD, "0", "0.999", "5.00", "0"),
+            rate(null, Shipping.ShippingMethod.STANDARD, "1", "4.999", "4.00", "2.00"),
+            rate(null, Shipping.ShippingMethod.STANDARD, "5", "20", "10.00", "0.50"),
+            rate(2L, Shipping.ShippingMethod.EXPEDITED, "0", "10", "15.00", "0"),
+            rate(3L, Shipping.ShippingMethod.STANDARD, "0", "20", "3.00", "0"));
+
+    private final ShippingRateCard card = ShippingRateCard.build(ZONES, RATES, List.of(), 1L);
+    private final ShippingRateCard defaults = ShippingRateCard.build(ZONES, List.of(), List.of(), 2L);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "US                        | [1, 0]",
+            "US,CA                     | [2, 1, 0]",
+            "US,CA,Los Angeles,90210   | [4, 3, 2, 1, 0]",
+            "US,CA,Los Angeles,90215   | [3, 2, 1, 0]",
+            "US,CA,San Diego,92101     | [2, 1, 0]",
+            "us,ca,Beverly Hills,90212 | [4, 3, 2, 1, 0]",
+            "US,NY,New York,10001      | [5, 1, 0]",
+            "US,NY,Buffalo,14201       | [1, 0]",
+            "GB,,London,SW1A 1AA       | [6, 0]",
+            "GB,,London,SE1 7PB        | [0]",
+            "FR,,Paris,75001           | [0]"
+    })
+    void resolve_ordersZonesMostSpecificFirst(String destination, String zones) {
+        assertEquals(zones, card.resolve(ShippingRateCard.Destination.parse(destination)).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "US                      | STANDARD  | 500   | 5.00",
+            "US                      | STANDARD  | 999   | 5.00",
+            "US                      | STANDARD  | 1000  | 6.00",
+            "US                      | STANDARD  | 2500  | 9.00",
+            "US                      | STANDARD  | 5000  | 12.50",
+            "US                      | STANDARD  | 20000 | 20.00",
+            "US                      | STANDARD  | 20001 |",
+            "US                      | EXPEDITED | 3000  |",
+            "US,CA                   | EXPEDITED | 3000  | 15.00",
+            "US,CA                   | EXPEDITED | 10001 |",
+            "US,CA,Los Angeles,90210 | STANDARD  | 2500  | 3.00",
+            "US,CA,Los Angeles,90210 | OVERNIGHT | 2500  |"
+    })
+    void quoteAll_usesMostSpecificWeightBreak(String destination, Shipping.ShippingMethod method, long grams,
+                                              BigDecimal expected) {
+        ShippingRateCard.ZoneChain zones = card.resolve(ShippingRateCard.Destination.parse(destination));
+
+        ShippingRateCard.Quote quote = card.quoteAll(zones, grams, null, null)[method.ordinal()];
+
+        assertEquals(expected, quote.cost());
+        assertEquals(expected != null, quote.isAvailable());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "STANDARD  | 0    | 5.00",
+            "STANDARD  | 2550 | 8.83",
+            "EXPEDITED | 1000 | 11.50",
+            "OVERNIGHT | 3333 | 25.00",
+            "PICKUP    | 2550 | 0.00"
+    })
+    void defaultRates_matchFlatRatesAtExactWeight(Shipping.ShippingMethod method, long grams, BigDecimal expected) {
+        ShippingRateCardCache cache = new ShippingRateCardCache(null, null, null, Caffeine.newBuilder(), 100, 100);
+        ShippingRateCard.ZoneChain zones = defaults.resolve(ShippingRateCard.Destination.parse("US,CA"));
+
+        assertEquals(expected, cache.quoteAll(defaults, zones, grams, null, null)[method.ordinal()].cost());
+    }
+
+    @Test
+    void billableGrams_bucketsConfiguredRatesOnly() {
+        ShippingRateCardCache cache = new ShippingRateCardCache(null, null, null, Caffeine.newBuilder(), 100, 100);
+
+        assertEquals(2600, cache.billableGrams(card, 2550));
+        assertEquals(2500, cache.billableGrams(card, 2500));
+        assertEquals(2550, cache.billableGrams(defaults, 2550));
+        assertEquals(0, cache.billableGrams(defaults, 0));
+    }
+
+    private static ShippingRateCard.Rate rate(Long zoneId, Shipping.ShippingMethod method, String minKg, String maxKg,
+                                              String base, String perKg) {
+        return new ShippingRateCard.Rate(zoneId, null, null, method, new BigDecimal(minKg), new BigDecimal(maxKg),
+                new BigDecimal(base), new BigDecimal(perKg), null);
+    }
+}
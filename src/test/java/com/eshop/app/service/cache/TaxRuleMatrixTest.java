@@ -0,0 +1,133 @@
+package com.eshop.app.service.cache;
+
+import com.eshop.app.entity.TaxRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaxRuleMatrixTest {
+
+    private static final long STANDARD = 1L;
+    private static final long REDUCED = 2L;
+
+    // Zones from broad to narrow: 10 US, 11 US/CA, 12 US/*/Austin, 13 US/CA/San Francisco, 20 DE
+    private static final List<TaxRuleMatrix.Zone> ZONES = List.of(
+            new TaxRuleMatrix.Zone(10, "US", null, null),
+            new TaxRuleMatrix.Zone(11, "US", "CA", null),
+            new TaxRuleMatrix.Zone(12, "US", null, "Austin"),
+            new TaxRuleMatrix.Zone(13, "US", "CA", "San Francisco"),
+            new TaxRuleMatrix.Zone(20, "DE", null, null));
+
+    @Test
+    void rateChain_collectsEveryMatchingZoneInRuleOrder() {
+        TaxRuleMatrix matrix = TaxRuleMatrix.build(ZONES, List.of(
+                percent(STANDARD, 100, "US city", "1.0000", 13),
+                percent(STANDARD, 101, "US state", "6.0000", 11),
+                percent(STANDARD, 102, "US federal", "1.0000", 10),
+                percent(STANDARD, 103, "Austin", "2.0000", 12),
+                percent(STANDARD, 104, "DE VAT", "19.0000", 20)), 1L);
+
+        assertEquals(List.of(100L, 101L, 102L), rateIds(matrix.rateChain(STANDARD, "US", "CA", "San Francisco")));
+        assertEquals(List.of(101L, 102L), rateIds(matrix.rateChain(STANDARD, "US", "CA", "Los Angeles")));
+        // A city zone without a state matches that city in any state
+        assertEquals(List.of(102L, 103L), rateIds(matrix.rateChain(STANDARD, "US", "TX", "Austin")));
+        assertEquals(List.of(102L), rateIds(matrix.rateChain(STANDARD, "US", null, null)));
+        assertEquals(List.of(104L), rateIds(matrix.rateChain(STANDARD, "DE", "BY", "Munich")));
+    }
+
+    @Test
+    void rateChain_isEmptyForUnknownClassOrLocation() {
+        TaxRuleMatrix matrix = TaxRuleMatrix.build(ZONES, List.of(percent(STANDARD, 100, "US", "5.0000", 10)), 1L);
+
+        assertTrue(matrix.rateChain(REDUCED, "US", "CA", null).isEmpty());
+        assertTrue(matrix.rateChain(STANDARD, "FR", null, null).isEmpty());
+        assertTrue(matrix.rateChain(null, "US", null, null).isEmpty());
+        assertTrue(matrix.rateChain(STANDARD, null, "CA", null).isEmpty());
+        assertEquals(TaxRuleMatrix.TaxResult.NONE, matrix.calculate(REDUCED, "US", null, null, new BigDecimal("10.00")));
+    }
+
+    @Test
+    void calculate_roundsEachTaxHalfUpToCents() {
+        TaxRuleMatrix matrix = TaxRuleMatrix.build(ZONES, List.of(
+                percent(STANDARD, 100, "State", "7.2500", 11),
+                percent(STANDARD, 101, "District", "0.1250", 10)), 1L);
+
+        // 7.25% of 10.10 = 0.73225 -> 0.73; 0.125% of 10.10 = 0.012625 -> 0.01
+        TaxRuleMatrix.TaxResult result = matrix.calculate(STANDARD, "US", "CA", null, new BigDecimal("10.10"));
+        assertEquals(new BigDecimal("0.73"), result.taxes().get(0).amount());
+        assertEquals(new BigDecimal("0.01"), result.taxes().get(1).amount());
+        assertEquals(new BigDecimal("0.74"), result.total());
+
+        // 7.25% of 2.00 = 0.145 -> 0.15 (half up, not half even)
+        assertEquals(new BigDecimal("0.15"),
+                matrix.calculate(STANDARD, "US", "CA", null, new BigDecimal("2.00")).taxes().get(0).amount());
+        // Amounts with more than two decimals are rounded half up first: 9.995 -> 10.00
+        assertEquals(new BigDecimal("0.73"),
+                matrix.calculate(STANDARD, "US", "CA", null, new BigDecimal("9.995")).taxes().get(0).amount());
+    }
+
+    @Test
+    void calculate_resultsAlwaysHaveTwoDecimals() {
+        TaxRuleMatrix matrix = TaxRuleMatrix.build(ZONES, List.of(percent(STANDARD, 100, "VAT", "20", 20)), 1L);
+
+        TaxRuleMatrix.TaxResult result = matrix.calculate(STANDARD, "DE", null, null, new BigDecimal("5"));
+
+        assertEquals(2, result.total().scale());
+        assertEquals(new BigDecimal("1.00"), result.total());
+        assertEquals(2, TaxRuleMatrix.TaxResult.NONE.total().scale());
+    }
+
+    @Test
+    void calculate_compoundTaxIsIncludedInTheBaseOfLaterTaxes() {
+        TaxRuleMatrix simple = TaxRuleMatrix.build(ZONES, List.of(
+                percent(STANDARD, 100, "GST", "5.0000", 10),
+                percent(STANDARD, 101, "PST", "10.0000", 11)), 1L);
+        TaxRuleMatrix compound = TaxRuleMatrix.build(ZONES, List.of(
+                new TaxRuleMatrix.Rule(STANDARD, 100, "GST", TaxRate.TaxType.PERCENTAGE, new BigDecimal("5.0000"), true, 10),
+                percent(STANDARD, 101, "PST", "10.0000", 11)), 1L);
+        BigDecimal amount = new BigDecimal("100.00");
+
+        // Simple: 5.00 + 10.00; compound: 5.00 + 10% of 105.00
+        assertEquals(new BigDecimal("15.00"), simple.calculate(STANDARD, "US", "CA", null, amount).total());
+        TaxRuleMatrix.TaxResult result = compound.calculate(STANDARD, "US", "CA", null, amount);
+        assertEquals(new BigDecimal("10.50"), result.taxes().get(1).amount());
+        assertEquals(new BigDecimal("15.50"), result.total());
+    }
+
+    @Test
+    void calculate_fixedRateIgnoresTheAmount() {
+        TaxRuleMatrix matrix = TaxRuleMatrix.build(ZONES, List.of(
+                new TaxRuleMatrix.Rule(STANDARD, 100, "Fee", TaxRate.TaxType.FIXED, new BigDecimal("1.2550"), false, 10),
+                percent(STANDARD, 101, "Sales", "10.0000", 10)), 1L);
+
+        TaxRuleMatrix.TaxResult small = matrix.calculate(STANDARD, "US", null, null, new BigDecimal("1.00"));
+        TaxRuleMatrix.TaxResult large = matrix.calculate(STANDARD, "US", null, null, new BigDecimal("1000.00"));
+
+        // 1.2550 rounds half up to 1.26
+        assertEquals(new BigDecimal("1.26"), small.taxes().get(0).amount());
+        assertEquals(new BigDecimal("1.26"), large.taxes().get(0).amount());
+        assertEquals(new BigDecimal("1.36"), small.total());
+        assertEquals(new BigDecimal("101.26"), large.total());
+    }
+
+    @Test
+    void scaledArithmetic_roundsHalfUpAndSurvivesOverflow() {
+        assertEquals(3, TaxRuleMatrix.divideHalfUp(5, 2));
+        assertEquals(2, TaxRuleMatrix.divideHalfUp(9, 4));
+        assertEquals(-3, TaxRuleMatrix.divideHalfUp(-5, 2));
+        // 10% of an amount whose scaled product overflows a long
+        assertEquals(92_233_720_368_547_758L, TaxRuleMatrix.percentOf(922_337_203_685_477_580L, 100_000L));
+    }
+
+    private static TaxRuleMatrix.Rule percent(long taxClassId, long taxRateId, String name, String rate, long zoneId) {
+        return new TaxRuleMatrix.Rule(taxClassId, taxRateId, name, TaxRate.TaxType.PERCENTAGE,
+                new BigDecimal(rate), false, zoneId);
+    }
+
+    private static List<Long> rateIds(List<TaxRuleMatrix.Rate> chain) {
+        return chain.stream().map(TaxRuleMatrix.Rate::taxRateId).toList();
+    }
+}
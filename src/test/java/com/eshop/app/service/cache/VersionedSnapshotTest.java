@@ -0,0 +1,54 @@
+package com.eshop.app.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedSnapshotTest {
+
+    private record Snapshot(long version) {
+    }
+
+    @Test
+    void get_loadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        VersionedSnapshot<Snapshot> holder = new VersionedSnapshot<>(Caffeine.newBuilder(), Snapshot::version,
+                version -> {
+                    loads.incrementAndGet();
+                    return new Snapshot(version);
+                });
+
+        assertEquals(1, holder.get().version());
+        assertEquals(1, holder.get().version());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void rebuild_replacesTheCurrentSnapshot() {
+        VersionedSnapshot<Snapshot> holder = new VersionedSnapshot<>(Caffeine.newBuilder(), Snapshot::version,
+                Snapshot::new);
+        holder.get();
+
+        assertEquals(2, holder.rebuild().version());
+        assertEquals(2, holder.get().version());
+    }
+
+    @Test
+    void slowerOlderRebuild_doesNotReplaceANewerOne() {
+        AtomicReference<VersionedSnapshot<Snapshot>> holder = new AtomicReference<>();
+        holder.set(new VersionedSnapshot<>(Caffeine.newBuilder(), Snapshot::version, version -> {
+            if (version == 1) {
+                // A second rebuild starts and finishes while the first is still loading
+                holder.get().rebuild();
+            }
+            return new Snapshot(version);
+        }));
+
+        assertEquals(2, holder.get().rebuild().version());
+        assertEquals(2, holder.get().get().version());
+    }
+}
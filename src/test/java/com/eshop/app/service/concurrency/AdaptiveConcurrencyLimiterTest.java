@@ -0,0 +1,160 @@
+package com.eshop.app.service.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void stableLatency_atSaturation_raisesLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 20; i++) {
+            runBatch(limiter, 10);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit was " + limiter.getLimit());
+    }
+
+    @Test
+    void risingLatency_lowersLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        for (int i = 0; i < 10; i++) {
+            runBatch(limiter, 10);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 3; i++) {
+            runBatch(limiter, 100);
+        }
+
+        assertTrue(limiter.getLimit() < before, "limit went from " + before + " to " + limiter.getLimit());
+    }
+
+    @Test
+    void overLimit_isRejected_untilAPermitIsReleased() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+        assertNotNull(limiter.acquire());
+
+        assertNull(limiter.acquire());
+        assertEquals(1, limiter.getRejected());
+
+        first.ignore();
+        assertNotNull(limiter.acquire());
+    }
+
+    @Test
+    void drop_cutsLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        limiter.acquire().dropped();
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void underusedWindows_doNotRaiseLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 20; i++) {
+            runCalls(limiter, 3, 10);
+        }
+
+        assertEquals(10, limiter.getLimit());
+        assertTrue(limiter.getLongRttMillis() > 0);
+    }
+
+    @Test
+    void limit_staysWithinBounds() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 200; i++) {
+            runBatch(limiter, 10);
+        }
+        assertEquals(100, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire().dropped();
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void secondRelease_ofAPermit_isIgnored() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        limiter.acquire();
+
+        permit.dropped();
+        permit.dropped();
+        permit.success();
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void waitingCaller_isAdmittedWhenAPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiter.Settings(1, 1, 10, 1.5, 0.2,
+                        Duration.ofMillis(5), 5, 10, Duration.ofSeconds(5)),
+                clock::get);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        held.ignore();
+
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getRejected());
+    }
+
+    /**
+     * Fills the limit, lets {@code latencyMillis} pass and completes every call.
+     */
+    private void runBatch(AdaptiveConcurrencyLimiter limiter, long latencyMillis) throws InterruptedException {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.acquire()) != null) {
+            permits.add(permit);
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+    }
+
+    /**
+     * Runs {@code calls} concurrent calls of {@code latencyMillis} each, below the limit.
+     */
+    private void runCalls(AdaptiveConcurrencyLimiter limiter, int calls, long latencyMillis)
+            throws InterruptedException {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            permits.add(limiter.acquire());
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiter.Settings(initialLimit, 2, 100, 1.5, 0.2,
+                        Duration.ofMillis(5), 5, 10, Duration.ZERO),
+                clock::get);
+    }
+}
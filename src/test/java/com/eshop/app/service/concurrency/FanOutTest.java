@@ -0,0 +1,161 @@
+package com.eshop.app.service.concurrency;
+
+import com.eshop.app.exception.ServiceTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FanOutTest {
+
+    private final FanOuts fanOuts = new FanOuts(8);
+
+    @Test
+    void subtasksRunConcurrently() {
+        long start = System.nanoTime();
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            FanOut.Subtask<Long> first = fanOut.fork("first", () -> sleep(200));
+            FanOut.Subtask<Long> second = fanOut.fork("second", () -> sleep(200));
+            FanOut.Subtask<Long> third = fanOut.fork("third", () -> sleep(200));
+            fanOut.join();
+
+            assertEquals(600, first.get() + second.get() + third.get());
+        }
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 550);
+    }
+
+    @Test
+    void optionalSubtask_pastItsDeadline_usesFallback() {
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            FanOut.Subtask<Long> fast = fanOut.fork("fast", () -> sleep(10));
+            FanOut.Subtask<Long> slow = fanOut.fork("slow", Duration.ofMillis(50), () -> sleep(5_000), -1L);
+            fanOut.join();
+
+            assertEquals(10, fast.get());
+            assertEquals(-1L, slow.get());
+            assertEquals(FanOut.State.FALLBACK, slow.state());
+        }
+    }
+
+    @Test
+    void optionalSubtask_failing_usesFallback() {
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            FanOut.Subtask<String> failing = fanOut.fork("failing", () -> {
+                throw new IllegalStateException("boom");
+            }, "fallback");
+            fanOut.join();
+
+            assertEquals("fallback", failing.get());
+        }
+    }
+
+    @Test
+    void requiredSubtask_failing_cancelsSiblingsAndRethrows() {
+        long start = System.nanoTime();
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            FanOut.Subtask<Long> slow = fanOut.fork("slow", () -> sleep(3_000));
+            fanOut.fork("failing", () -> {
+                sleep(50);
+                throw new IllegalStateException("boom");
+            });
+
+            IllegalStateException e = assertThrows(IllegalStateException.class, fanOut::join);
+            assertEquals("boom", e.getMessage());
+            assertEquals(FanOut.State.FAILED, slow.state());
+        }
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_000);
+    }
+
+    @Test
+    void requiredSubtask_pastScopeDeadline_timesOut() {
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofMillis(100))) {
+            fanOut.fork("slow", () -> sleep(5_000));
+
+            assertThrows(ServiceTimeoutException.class, fanOut::join);
+        }
+    }
+
+    @Test
+    void subtasksOfAllScopes_shareConcurrencyLimit() {
+        FanOuts fanOuts = new FanOuts(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            for (int i = 0; i < 6; i++) {
+                fanOut.fork("task-" + i, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        return sleep(50);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+            }
+            fanOut.join();
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void nestedScope_doesNotStarveOnPermits() {
+        FanOuts fanOuts = new FanOuts(1);
+        try (FanOut outer = fanOuts.open("outer", Duration.ofSeconds(5))) {
+            FanOut.Subtask<Long> nested = outer.fork("nested", () -> {
+                try (FanOut inner = fanOuts.open("inner", Duration.ofSeconds(5))) {
+                    FanOut.Subtask<Long> first = inner.fork("first", () -> sleep(10));
+                    FanOut.Subtask<Long> second = inner.fork("second", () -> sleep(20));
+                    inner.join();
+                    return first.get() + second.get();
+                }
+            });
+            outer.join();
+
+            assertEquals(30, nested.get());
+        }
+    }
+
+    @Test
+    void subtasks_seeCallersSecurityContext() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            FanOut.Subtask<String> user = fanOut.fork("user",
+                    () -> SecurityContextHolder.getContext().getAuthentication().getName());
+            fanOut.join();
+
+            assertEquals("alice", user.get());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void close_waitsForCancelledSubtasks() {
+        AtomicBoolean stopped = new AtomicBoolean();
+        try (FanOut fanOut = fanOuts.open("test", Duration.ofSeconds(5))) {
+            fanOut.fork("slow", Duration.ofMillis(20), () -> {
+                try {
+                    return sleep(5_000);
+                } finally {
+                    // Cleanup that outlives the cancellation
+                    long end = System.nanoTime() + Duration.ofMillis(100).toNanos();
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                    stopped.set(true);
+                }
+            }, -1L);
+            fanOut.join();
+        }
+        assertTrue(stopped.get());
+    }
+
+    private static long sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return millis;
+    }
+}
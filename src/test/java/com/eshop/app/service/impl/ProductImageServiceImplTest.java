@@ -0,0 +1,245 @@
+package com.eshop.app.service.impl;
+
+import com.eshop.app.entity.Product;
+import com.eshop.app.entity.ProductImage;
+import com.eshop.app.mapper.EntityMapper;
+import com.eshop.app.repository.ProductImageRepository;
+import com.eshop.app.repository.ProductRepository;
+import com.eshop.app.storage.ImageDerivativeService;
+import com.eshop.app.storage.ImageStorageFactory;
+import com.eshop.app.storage.ImageStorageService;
+import com.eshop.app.storage.ImageUploadResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProductImageServiceImplTest {
+
+    private static final long PRODUCT_ID = 5L;
+    private static final byte[] CONTENT = "jpeg bytes".getBytes(StandardCharsets.UTF_8);
+
+    private ProductImageRepository imageRepository;
+    private ImageStorageService storage;
+    private ImageDerivativeService derivativeService;
+    private PlatformTransactionManager transactionManager;
+    private ProductImageServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository = mock(ProductImageRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ImageStorageFactory storageFactory = mock(ImageStorageFactory.class);
+        storage = mock(ImageStorageService.class);
+        derivativeService = mock(ImageDerivativeService.class);
+
+        Product product = Product.builder().id(PRODUCT_ID).build();
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        when(storageFactory.get()).thenReturn(storage);
+        when(imageRepository.save(any(ProductImage.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(derivativeService.generate(any(), anyString(), anyString(), any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        service = new ProductImageServiceImpl(imageRepository, productRepository, mock(EntityMapper.class),
+                storageFactory, derivativeService, Runnable::run, transactionManager);
+    }
+
+    @Test
+    void upload_newContent_isStoredUnderItsHash() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.empty());
+        when(storage.upload(any(Path.class), eq(hash + ".jpg"), eq("products/" + PRODUCT_ID)))
+                .thenReturn(ImageUploadResult.builder().publicId("products/5/" + hash + ".jpg").url("https://cdn/a.jpg").build());
+
+        service.uploadProductImage(PRODUCT_ID, file(), "front", false);
+
+        ProductImage saved = savedImage();
+        assertEquals(hash, saved.getContentHash());
+        assertEquals("products/5/" + hash + ".jpg", saved.getPublicId());
+        verify(derivativeService).generate(any(), eq(hash + ".jpg"), eq("products/" + PRODUCT_ID), eq(storage), eq(hash));
+    }
+
+    @Test
+    void upload_duplicateContent_reusesStoredObject() throws Exception {
+        String hash = sha256(CONTENT);
+        ProductImage existing = ProductImage.builder()
+                .publicId("products/9/" + hash + ".jpg")
+                .url("https://cdn/existing.jpg")
+                .thumbnailUrl("https://cdn/thumbnails/existing.jpg")
+                .contentHash(hash)
+                .build();
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.of(existing));
+
+        service.uploadProductImage(PRODUCT_ID, file(), "front", false);
+
+        ProductImage saved = savedImage();
+        assertEquals(existing.getPublicId(), saved.getPublicId());
+        assertEquals(existing.getUrl(), saved.getUrl());
+        assertEquals(existing.getThumbnailUrl(), saved.getThumbnailUrl());
+        assertEquals(hash, saved.getContentHash());
+        verify(storage, never()).upload(any(Path.class), anyString(), anyString());
+        verifyNoInteractions(derivativeService);
+    }
+
+    @Test
+    void upload_rolledBack_removesUploadedObject() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.empty());
+        when(storage.upload(any(Path.class), anyString(), anyString()))
+                .thenReturn(ImageUploadResult.builder().publicId("products/5/" + hash + ".jpg").build());
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.uploadProductImage(PRODUCT_ID, file(), "front", false);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(storage).delete("products/5/" + hash + ".jpg", "products/" + PRODUCT_ID);
+        verifyNoInteractions(derivativeService);
+    }
+
+    @Test
+    void upload_rolledBack_keepsDeduplicatedObject() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.of(ProductImage.builder().publicId("products/9/" + hash + ".jpg").build()));
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.uploadProductImages(PRODUCT_ID, List.of(file()), "front");
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(storage, never()).delete(anyString(), anyString());
+    }
+
+    @Test
+    void upload_rolledBack_keepsObjectSharedWithUncommittedUpload() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.empty());
+        when(storage.upload(any(Path.class), anyString(), anyString()))
+                .thenReturn(ImageUploadResult.builder().publicId("products/5/" + hash + ".jpg").build());
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.uploadProductImage(PRODUCT_ID, file(), "front", false);
+        List<TransactionSynchronization> first = detachSynchronizations();
+        TransactionSynchronizationManager.initSynchronization();
+        service.uploadProductImage(PRODUCT_ID, file(), "back", false);
+        List<TransactionSynchronization> second = detachSynchronizations();
+
+        complete(first, TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(storage, never()).delete(anyString(), anyString());
+        complete(second, TransactionSynchronization.STATUS_COMMITTED);
+        verify(storage, never()).delete(anyString(), anyString());
+    }
+
+    @Test
+    void upload_rolledBack_keepsObjectReferencedByCommittedImage() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(ProductImage.builder().publicId("products/5/" + hash + ".jpg").build()));
+        when(storage.upload(any(Path.class), anyString(), anyString()))
+                .thenReturn(ImageUploadResult.builder().publicId("products/5/" + hash + ".jpg").build());
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.uploadProductImage(PRODUCT_ID, file(), "front", false);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(storage, never()).delete(anyString(), anyString());
+    }
+
+    @Test
+    void upload_writeTransactionNotStarted_removesUploadedObject() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.empty());
+        when(storage.upload(any(Path.class), anyString(), anyString()))
+                .thenReturn(ImageUploadResult.builder().publicId("products/5/" + hash + ".jpg").build());
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("no connection"))
+                .thenReturn(null);
+
+        assertThrows(CannotCreateTransactionException.class,
+                () -> service.uploadProductImage(PRODUCT_ID, file(), "front", false));
+
+        verify(storage).delete("products/5/" + hash + ".jpg", "products/" + PRODUCT_ID);
+        verify(imageRepository, never()).save(any(ProductImage.class));
+    }
+
+    @Test
+    void upload_committed_keepsObjectAndRendersDerivatives() throws Exception {
+        String hash = sha256(CONTENT);
+        when(imageRepository.findFirstByContentHashAndProviderAndActiveTrue(eq(hash), anyString()))
+                .thenReturn(Optional.empty());
+        when(storage.upload(any(Path.class), anyString(), anyString()))
+                .thenReturn(ImageUploadResult.builder().publicId("products/5/" + hash + ".jpg").build());
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.uploadProductImage(PRODUCT_ID, file(), "front", false);
+        verifyNoInteractions(derivativeService);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(storage, never()).delete(anyString(), anyString());
+        verify(derivativeService).generate(any(), anyString(), anyString(), eq(storage), eq(hash));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void completeTransaction(int status) {
+        complete(detachSynchronizations(), status);
+    }
+
+    private static List<TransactionSynchronization> detachSynchronizations() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private ProductImage savedImage() {
+        ArgumentCaptor<ProductImage> captor = ArgumentCaptor.forClass(ProductImage.class);
+        verify(imageRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "front.jpg", "image/jpeg", CONTENT);
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
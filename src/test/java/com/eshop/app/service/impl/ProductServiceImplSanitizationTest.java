@@ -7,6 +7,10 @@ import com.eshop.app.entity.Product;
 import com.eshop.app.repository.*;
 import com.eshop.app.mapper.ProductMapper;
 import com.eshop.app.service.AttributeValidatorService;
+import com.eshop.app.service.CategoryClosureService;
+import com.eshop.app.service.cache.BatchCache;
+import com.eshop.app.service.inventory.LowStockDetector;
+import com.eshop.app.service.pricing.PriceHistoryService;
 import com.eshop.app.config.ProductProperties;
 import org.springframework.context.ApplicationEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
@@ -61,7 +65,11 @@ public class ProductServiceImplSanitizationTest {
                 attributeValidatorService,
                 productProperties,
                 eventPublisher,
-                helper);
+                helper,
+                mock(CategoryClosureService.class),
+                mock(LowStockDetector.class),
+                mock(PriceHistoryService.class),
+                mock(BatchCache.class));
     }
 
     @Test
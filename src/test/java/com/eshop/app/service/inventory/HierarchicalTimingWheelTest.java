@@ -0,0 +1,98 @@
+package com.eshop.app.service.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1_000L;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void advance_returnsKeysOnceTheirDeadlinePassed() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        wheel.schedule(1L, START + 5_000);
+        // Rounded up to the next tick, never early
+        wheel.schedule(2L, START + 5_001);
+
+        assertArrayEquals(new long[0], wheel.advance(START + 4_999));
+        assertArrayEquals(new long[] {1L}, wheel.advance(START + 5_000));
+        assertArrayEquals(new long[0], wheel.advance(START + 5_999));
+        assertArrayEquals(new long[] {2L}, wheel.advance(START + 6_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_cascadesKeysDownEveryLevel() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        // Level 1 (64+ ticks), level 2 (4096+), level 3 (262144+)
+        long[] ticks = {100, 5_000, 300_000};
+        for (int i = 0; i < ticks.length; i++) {
+            wheel.schedule(i, START + ticks[i] * TICK);
+        }
+
+        for (int i = 0; i < ticks.length; i++) {
+            assertArrayEquals(new long[0], wheel.advance(START + ticks[i] * TICK - 1), "before key " + i);
+            assertArrayEquals(new long[] {i}, wheel.advance(START + ticks[i] * TICK), "at key " + i);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_refilesKeysBeyondTheHorizon() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        // The four levels span 2^24 ticks
+        long deadline = START + 20_000_000L * TICK;
+        wheel.schedule(7L, deadline);
+
+        assertArrayEquals(new long[0], wheel.advance(deadline - TICK));
+        assertArrayEquals(new long[] {7L}, wheel.advance(deadline));
+    }
+
+    @Test
+    void schedule_pastDeadline_expiresOnNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        wheel.schedule(3L, START - 60_000);
+
+        assertEquals(1, wheel.size());
+        assertArrayEquals(new long[] {3L}, wheel.advance(START));
+        assertArrayEquals(new long[0], wheel.advance(START + TICK));
+    }
+
+    @Test
+    void cancel_dropsKeyWithoutTouchingOthers() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        wheel.schedule(1L, START + 70_000);
+        wheel.schedule(2L, START + 70_000);
+        wheel.schedule(3L, START + 90_000);
+
+        wheel.cancel(1L);
+        wheel.cancel(3L);
+
+        assertEquals(1, wheel.size());
+        assertArrayEquals(new long[] {2L}, wheel.advance(START + 100_000));
+        assertEquals(0, wheel.size());
+
+        // The tombstones were consumed, so the keys can be scheduled again
+        wheel.schedule(1L, START + 110_000);
+        assertArrayEquals(new long[] {1L}, wheel.advance(START + 110_000));
+    }
+
+    @Test
+    void advance_returnsEveryKeyOfBusySlots() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        for (long key = 0; key < 1_000; key++) {
+            wheel.schedule(key, START + 10_000 + (key % 3) * TICK);
+        }
+
+        long[] due = wheel.advance(START + 12_000);
+        Arrays.sort(due);
+
+        assertEquals(1_000, due.length);
+        assertEquals(0, due[0]);
+        assertEquals(999, due[999]);
+    }
+}
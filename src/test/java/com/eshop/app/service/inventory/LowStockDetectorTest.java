@@ -0,0 +1,177 @@
+package com.eshop.app.service.inventory;
+
+import com.eshop.app.config.ProductProperties;
+import com.eshop.app.dto.response.ReorderSuggestionResponse;
+import com.eshop.app.entity.Product;
+import com.eshop.app.event.outbox.OutboxMessage;
+import com.eshop.app.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockDetectorTest {
+
+    private static final long SELLER = 7L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private LowStockDetector detector() {
+        return new LowStockDetector(productRepository, new ProductProperties(),
+                Duration.ofDays(28), Duration.ofDays(7), Duration.ofDays(14));
+    }
+
+    @Test
+    void rebuild_usesReorderLevelOrDefaultThreshold() {
+        when(productRepository.findStockPositions(any())).thenReturn(List.of(
+                position(1L, 3, null, 0),
+                position(2L, 15, 20, 0),
+                position(3L, 5, 2, 0)));
+        LowStockDetector detector = detector();
+
+        detector.rebuild();
+
+        assertEquals(2, detector.lowStockCount(SELLER));
+        assertEquals(0, detector.lowStockCount(99L));
+    }
+
+    @Test
+    void stockChanged_movesProductsInAndOutOfLowStock() {
+        when(productRepository.findStockPositions(any())).thenReturn(List.of(
+                position(1L, 3, null, 0),
+                position(3L, 5, 2, 0)));
+        LowStockDetector detector = detector();
+        detector.rebuild();
+
+        detector.handle(stockChanged(10, 3L, 1));
+        assertEquals(2, detector.lowStockCount(SELLER));
+
+        detector.handle(stockChanged(11, 1L, 50));
+        assertEquals(1, detector.lowStockCount(SELLER));
+
+        // Redelivered older event
+        detector.handle(stockChanged(9, 1L, 0));
+        assertEquals(1, detector.lowStockCount(SELLER));
+        verify(productRepository, never()).findStockPosition(any(), any());
+    }
+
+    @Test
+    void stockChanged_newProduct_isLookedUp() {
+        when(productRepository.findStockPositions(any())).thenReturn(List.of());
+        when(productRepository.findStockPosition(eq(4L), any())).thenReturn(Optional.of(position(4L, 2, 5, 0)));
+        LowStockDetector detector = detector();
+        detector.rebuild();
+
+        detector.handle(stockChanged(10, 4L, 2));
+
+        assertEquals(1, detector.lowStockCount(SELLER));
+    }
+
+    @Test
+    void stockChanged_unknownProduct_isLookedUpOncePerRebuild() {
+        when(productRepository.findStockPositions(any())).thenReturn(List.of());
+        when(productRepository.findStockPosition(eq(5L), any())).thenReturn(Optional.empty());
+        LowStockDetector detector = detector();
+        detector.rebuild();
+
+        detector.handle(stockChanged(10, 5L, 1));
+        detector.handle(stockChanged(11, 5L, 0));
+        verify(productRepository, times(1)).findStockPosition(eq(5L), any());
+
+        detector.rebuild();
+        detector.handle(stockChanged(12, 5L, 0));
+        verify(productRepository, times(2)).findStockPosition(eq(5L), any());
+        assertEquals(0, detector.lowStockCount(SELLER));
+    }
+
+    @Test
+    void reorderSuggestions_coverLeadTimeAndCoverPeriod() {
+        when(productRepository.findStockPositions(any())).thenReturn(List.of(
+                position(1L, 3, null, 28),
+                position(2L, 1, null, 0)));
+        LowStockDetector detector = detector();
+        detector.rebuild();
+
+        List<ReorderSuggestionResponse> suggestions = detector.reorderSuggestions(SELLER);
+
+        assertEquals(2, suggestions.size());
+        // 1 unit/day: threshold 10 + 21 days of sales, minus the 3 in stock
+        assertEquals(1L, suggestions.get(0).getProductId());
+        assertEquals(28, suggestions.get(0).getSuggestedQuantity());
+        // Not selling: runs out last, refilled to the threshold
+        assertEquals(2L, suggestions.get(1).getProductId());
+        assertEquals(9, suggestions.get(1).getSuggestedQuantity());
+    }
+
+    @Test
+    void crossesThreshold_onlyWhenDroppingBelowReorderLevel() {
+        LowStockDetector detector = detector();
+        Product product = Product.builder().reorderLevel(5).stockQuantity(4).build();
+
+        assertTrue(detector.crossesThreshold(product, 6, 4));
+        assertFalse(detector.crossesThreshold(product, 4, 3));
+        assertFalse(detector.crossesThreshold(product, 9, 5));
+        assertTrue(detector.isLowStock(product));
+        assertFalse(detector.isLowStock(Product.builder().stockQuantity(10).build()));
+        assertTrue(detector.isLowStock(Product.builder().stockQuantity(9).build()));
+    }
+
+    private static OutboxMessage stockChanged(long id, long productId, int newStock) {
+        return new OutboxMessage(id, OutboxMessage.STOCK_CHANGED, "Product", String.valueOf(productId),
+                Map.of("productId", productId, "newStock", newStock, "delta", 0, "reason", "ADJUSTMENT"),
+                LocalDateTime.now());
+    }
+
+    private static ProductRepository.StockPosition position(long productId, int stock, Integer reorderLevel,
+                                                            long unitsSold) {
+        return new ProductRepository.StockPosition() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getSellerId() {
+                return SELLER;
+            }
+
+            @Override
+            public Integer getStockQuantity() {
+                return stock;
+            }
+
+            @Override
+            public Integer getReorderLevel() {
+                return reorderLevel;
+            }
+
+            @Override
+            public Integer getReorderQuantity() {
+                return null;
+            }
+
+            @Override
+            public Long getUnitsSold() {
+                return unitsSold;
+            }
+
+            @Override
+            public LocalDateTime getLastSoldAt() {
+                return null;
+            }
+        };
+    }
+}
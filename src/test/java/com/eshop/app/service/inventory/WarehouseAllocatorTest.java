@@ -0,0 +1,107 @@
+package com.eshop.app.service.inventory;
+
+import com.eshop.app.service.cache.ShippingRateCard;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseAllocatorTest {
+
+    // 1: Los Angeles, 2: San Francisco, 3: New York (highest priority)
+    private final List<WarehouseRanking.Location> locations = List.of(
+            new WarehouseRanking.Location(1, "US", "CA", "Los Angeles", "90012", 5),
+            new WarehouseRanking.Location(2, "US", "CA", "San Francisco", "94105", 5),
+            new WarehouseRanking.Location(3, "US", "NY", "New York", "10001", 1)
+    );
+
+    @Test
+    void singleWarehouse_prefersNearestThatShipsEverything() {
+        WarehouseRanking ranking = WarehouseRanking.of(locations, ShippingRateCard.Destination.parse("US,CA,Los Angeles,90210"));
+        WarehouseAllocator.Plan plan = WarehouseAllocator.allocate(
+                List.of(new WarehouseAllocator.Line(10, 2), new WarehouseAllocator.Line(11, 1)),
+                List.of(stock(10, new long[] {1, 2, 3}, 5, 5, 5), stock(11, new long[] {2, 3}, 1, 1)),
+                ranking);
+
+        assertTrue(plan.isComplete());
+        assertEquals(1, plan.shipmentCount());
+        assertTrue(plan.picks().stream().allMatch(p -> p.warehouseId() == 2));
+    }
+
+    @Test
+    void withoutDestination_priorityDecides() {
+        WarehouseAllocator.Plan plan = WarehouseAllocator.allocate(
+                List.of(new WarehouseAllocator.Line(10, 1)),
+                List.of(stock(10, new long[] {1, 2, 3}, 5, 5, 5)),
+                WarehouseRanking.of(locations, null));
+
+        assertEquals(3, plan.picks().get(0).warehouseId());
+    }
+
+    @Test
+    void split_usesFewestShipments() {
+        // No warehouse has everything; 3 covers two lines fully, so it goes first
+        WarehouseAllocator.Plan plan = WarehouseAllocator.allocate(
+                List.of(new WarehouseAllocator.Line(10, 4), new WarehouseAllocator.Line(11, 1), new WarehouseAllocator.Line(12, 1)),
+                List.of(stock(10, new long[] {1, 3}, 4, 1), stock(11, new long[] {3}, 1), stock(12, new long[] {3}, 1)),
+                WarehouseRanking.of(locations, ShippingRateCard.Destination.parse("US,CA")));
+
+        assertTrue(plan.isComplete());
+        assertEquals(2, plan.shipmentCount());
+        assertEquals(6, plan.picks().stream().mapToInt(WarehouseAllocator.Pick::quantity).sum());
+    }
+
+    @Test
+    void shortage_reportsProductAndTotalAvailable() {
+        WarehouseAllocator.Plan plan = WarehouseAllocator.allocate(
+                List.of(new WarehouseAllocator.Line(10, 7)),
+                List.of(stock(10, new long[] {1, 2}, 3, 3)),
+                WarehouseRanking.of(locations, null));
+
+        assertFalse(plan.isComplete());
+        assertEquals(10, plan.shortProductId());
+        assertEquals(6, plan.shortAvailable());
+    }
+
+    @Test
+    void matrix_holdsReduceAvailabilityUntilReleased() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix();
+        matrix.refresh(List.of(new AvailabilityMatrix.Row(10, 1, 5, 1), new AvailabilityMatrix.Row(10, 2, 2, 0)),
+                matrix.beginRefresh());
+        WarehouseRanking ranking = WarehouseRanking.of(locations, null);
+
+        WarehouseAllocator.Plan plan = matrix.allocate(List.of(new WarehouseAllocator.Line(10, 4)), ranking, true);
+        assertEquals(2, matrix.available(10));
+
+        // A refresh does not drop units reserved locally
+        matrix.refresh(List.of(new AvailabilityMatrix.Row(10, 1, 5, 1), new AvailabilityMatrix.Row(10, 2, 2, 0)),
+                matrix.beginRefresh());
+        assertEquals(2, matrix.available(10));
+
+        matrix.release(plan.picks());
+        assertEquals(6, matrix.available(10));
+    }
+
+    @Test
+    void matrix_settledUnitsLeaveTheLocalCountOnceTheRowsContainThem() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix();
+        matrix.refresh(List.of(new AvailabilityMatrix.Row(10, 1, 5, 0)), matrix.beginRefresh());
+        WarehouseAllocator.Plan plan = matrix.allocate(List.of(new WarehouseAllocator.Line(10, 2)),
+                WarehouseRanking.of(locations, null), true);
+
+        // Rows read before the commit do not contain the order's units yet
+        long staleMark = matrix.beginRefresh();
+        matrix.settle(plan.picks());
+        matrix.refresh(List.of(new AvailabilityMatrix.Row(10, 1, 5, 0)), staleMark);
+        assertEquals(3, matrix.available(10));
+
+        // Rows read after the commit do
+        matrix.refresh(List.of(new AvailabilityMatrix.Row(10, 1, 5, 2)), matrix.beginRefresh());
+        assertEquals(3, matrix.available(10));
+    }
+
+    private static WarehouseAllocator.Stock stock(long productId, long[] warehouseIds, int... available) {
+        return new WarehouseAllocator.Stock(productId, warehouseIds, available);
+    }
+}
@@ -0,0 +1,171 @@
+package com.eshop.app.service.pricing;
+
+import com.eshop.app.dto.response.PriceSeriesResponse;
+import com.eshop.app.exception.ResourceNotFoundException;
+import com.eshop.app.repository.ProductPriceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PriceHistoryServiceTest {
+
+    private static final Long PRODUCT_ID = 7L;
+    private static final int MAX_DAYS = 30;
+
+    private ProductPriceHistoryRepository repository;
+    private PriceHistoryService service;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductPriceHistoryRepository.class);
+        service = new PriceHistoryService(repository, null, MAX_DAYS, 500, 100, Duration.ofMinutes(10));
+        today = LocalDate.now();
+        when(repository.findCurrentPrice(PRODUCT_ID)).thenReturn(Optional.of(new BigDecimal("70")));
+    }
+
+    @Test
+    void series_bucketsChangesOnWindowEdgesIntoTheirOwnDays() {
+        when(repository.findPriceBefore(eq(PRODUCT_ID), any())).thenReturn(Optional.of(new BigDecimal("100")));
+        when(repository.findDailyPrices(eq(PRODUCT_ID), any())).thenReturn(List.of(
+                day(today.minusDays(7), "90", "90", "90", "100", 1),
+                day(today.minusDays(6), "80", "95", "85", "90", 2),
+                day(today, "70", "70", "70", "85", 1)));
+
+        PriceSeriesResponse series = service.series(PRODUCT_ID, 7);
+
+        assertEquals(today.minusDays(6), series.getFrom());
+        assertEquals(today, series.getTo());
+        assertEquals(7, series.getPoints().size());
+        // The change the day before the window only sets the opening price
+        PriceSeriesResponse.Point first = series.getPoints().get(0);
+        assertEquals(today.minusDays(6), first.getDay());
+        assertEquals(new BigDecimal("80"), first.getMinPrice());
+        assertEquals(new BigDecimal("95"), first.getMaxPrice());
+        assertEquals(new BigDecimal("85"), first.getLastPrice());
+        assertEquals(2, first.getChanges());
+        PriceSeriesResponse.Point last = series.getPoints().get(6);
+        assertEquals(today, last.getDay());
+        assertEquals(new BigDecimal("70"), last.getMinPrice());
+        assertEquals(new BigDecimal("85"), last.getMaxPrice());
+        assertEquals(new BigDecimal("70"), last.getLastPrice());
+        assertEquals(1, last.getChanges());
+    }
+
+    @Test
+    void series_carriesLastPriceIntoDaysWithoutChanges() {
+        when(repository.findPriceBefore(eq(PRODUCT_ID), any())).thenReturn(Optional.of(new BigDecimal("100")));
+        when(repository.findDailyPrices(eq(PRODUCT_ID), any())).thenReturn(List.of(
+                day(today.minusDays(3), "110", "120", "120", "100", 2)));
+
+        List<PriceSeriesResponse.Point> points = service.series(PRODUCT_ID, 5).getPoints();
+
+        assertEquals(5, points.size());
+        assertFlat(points.get(0), today.minusDays(4), "100");
+        assertEquals(new BigDecimal("100"), points.get(1).getMinPrice());
+        assertEquals(new BigDecimal("120"), points.get(1).getLastPrice());
+        for (int i = 2; i < 5; i++) {
+            assertFlat(points.get(i), today.minusDays(4 - i), "120");
+        }
+    }
+
+    @Test
+    void series_rangeStartingBeforeFirstChange_opensWithPriceBeforeThatChange() {
+        when(repository.findPriceBefore(eq(PRODUCT_ID), any())).thenReturn(Optional.empty());
+        when(repository.findDailyPrices(eq(PRODUCT_ID), any())).thenReturn(List.of(
+                day(today.minusDays(2), "45", "45", "45", "50", 1)));
+
+        List<PriceSeriesResponse.Point> points = service.series(PRODUCT_ID, 10).getPoints();
+
+        assertEquals(10, points.size());
+        for (int i = 0; i < 7; i++) {
+            assertFlat(points.get(i), today.minusDays(9 - i), "50");
+        }
+        assertEquals(new BigDecimal("45"), points.get(7).getMinPrice());
+        assertEquals(new BigDecimal("50"), points.get(7).getMaxPrice());
+        assertFlat(points.get(9), today, "45");
+    }
+
+    @Test
+    void series_withoutAnyChange_isFlatAtCurrentPrice() {
+        when(repository.findPriceBefore(eq(PRODUCT_ID), any())).thenReturn(Optional.empty());
+        when(repository.findDailyPrices(eq(PRODUCT_ID), any())).thenReturn(List.of());
+
+        List<PriceSeriesResponse.Point> points = service.series(PRODUCT_ID, 3).getPoints();
+
+        assertEquals(3, points.size());
+        points.forEach(point -> assertEquals(new BigDecimal("70"), point.getLastPrice()));
+    }
+
+    @Test
+    void series_windowIsClampedToMaxDays() {
+        when(repository.findPriceBefore(eq(PRODUCT_ID), any())).thenReturn(Optional.of(new BigDecimal("100")));
+        when(repository.findDailyPrices(eq(PRODUCT_ID), any())).thenReturn(List.of());
+
+        PriceSeriesResponse series = service.series(PRODUCT_ID, 1000);
+
+        assertEquals(today.minusDays(MAX_DAYS - 1L), series.getFrom());
+        assertEquals(MAX_DAYS, series.getPoints().size());
+    }
+
+    @Test
+    void series_unknownProduct_isNotFound() {
+        when(repository.findCurrentPrice(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.series(99L, 7));
+    }
+
+    private static void assertFlat(PriceSeriesResponse.Point point, LocalDate day, String price) {
+        assertEquals(day, point.getDay());
+        assertEquals(new BigDecimal(price), point.getMinPrice());
+        assertEquals(new BigDecimal(price), point.getMaxPrice());
+        assertEquals(new BigDecimal(price), point.getLastPrice());
+        assertEquals(0, point.getChanges());
+    }
+
+    private static ProductPriceHistoryRepository.DailyPrice day(LocalDate day, String min, String max, String last,
+                                                                String opening, long changes) {
+        return new ProductPriceHistoryRepository.DailyPrice() {
+            @Override
+            public LocalDate getDay() {
+                return day;
+            }
+
+            @Override
+            public BigDecimal getMinPrice() {
+                return new BigDecimal(min);
+            }
+
+            @Override
+            public BigDecimal getMaxPrice() {
+                return new BigDecimal(max);
+            }
+
+            @Override
+            public BigDecimal getLastPrice() {
+                return new BigDecimal(last);
+            }
+
+            @Override
+            public BigDecimal getOpeningPrice() {
+                return new BigDecimal(opening);
+            }
+
+            @Override
+            public Long getChanges() {
+                return changes;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.eshop.app.service.pricing;
+
+import com.eshop.app.dto.request.RepricingRequest;
+import com.eshop.app.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepricingRuleTest {
+
+    @Test
+    void percent_withEnding99Rounding() {
+        RepricingRule rule = rule(RepricingRequest.Adjustment.PERCENT, "-10", null, null, RepricingRequest.Rounding.ENDING_99);
+
+        assertEquals(new BigDecimal("89.99"), rule.apply(new BigDecimal("99.50")));
+    }
+
+    @Test
+    void amount_isClampedToFloorAndCeiling() {
+        RepricingRule rule = rule(RepricingRequest.Adjustment.AMOUNT, "-30", "25", "60", null);
+
+        assertEquals(new BigDecimal("25.00"), rule.apply(new BigDecimal("40")));
+        assertEquals(new BigDecimal("60.00"), rule.apply(new BigDecimal("100")));
+        assertEquals(new BigDecimal("45.00"), rule.apply(new BigDecimal("75")));
+    }
+
+    @Test
+    void nonPositiveResult_isRejected() {
+        RepricingRule rule = rule(RepricingRequest.Adjustment.AMOUNT, "-50", null, null, null);
+
+        assertNull(rule.apply(new BigDecimal("20")));
+    }
+
+    @Test
+    void floorAboveCeiling_isInvalid() {
+        assertThrows(ValidationException.class,
+                () -> rule(RepricingRequest.Adjustment.PERCENT, "5", "80", "50", null));
+    }
+
+    private static RepricingRule rule(RepricingRequest.Adjustment adjustment, String value, String floor,
+                                      String ceiling, RepricingRequest.Rounding rounding) {
+        return RepricingRule.of(new RepricingRequest(null, null, null, null, adjustment, new BigDecimal(value),
+                floor != null ? new BigDecimal(floor) : null, ceiling != null ? new BigDecimal(ceiling) : null,
+                rounding, null, null));
+    }
+}
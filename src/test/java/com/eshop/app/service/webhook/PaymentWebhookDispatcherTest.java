@@ -0,0 +1,155 @@
+package com.eshop.app.service.webhook;
+
+import com.eshop.app.entity.PaymentWebhookEvent;
+import com.eshop.app.repository.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PaymentWebhookDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private PaymentWebhookEventRepository repository;
+    private PaymentWebhookProcessor processor;
+    private PaymentWebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PaymentWebhookEventRepository.class);
+        processor = mock(PaymentWebhookProcessor.class);
+        // One lane and a caller-runs executor keep the run deterministic
+        dispatcher = new PaymentWebhookDispatcher(repository, processor, mock(PlatformTransactionManager.class),
+                Runnable::run, 1, 100, MAX_ATTEMPTS, Duration.ofDays(7));
+    }
+
+    @Test
+    void dispatch_appliesEventsOfAReferenceInArrivalOrder() throws Exception {
+        PaymentWebhookEvent created = event(1L, "pi_1", 0);
+        PaymentWebhookEvent succeeded = event(2L, "pi_1", 0);
+        due(created, succeeded);
+
+        dispatcher.dispatch();
+
+        InOrder order = inOrder(processor, repository);
+        order.verify(processor).process(created);
+        order.verify(repository).markProcessed(eq(1L), any());
+        order.verify(processor).process(succeeded);
+        order.verify(repository).markProcessed(eq(2L), any());
+    }
+
+    @Test
+    void dispatch_failureHoldsBackLaterEventsOfTheSameReferenceOnly() throws Exception {
+        PaymentWebhookEvent failing = event(1L, "pi_1", 0);
+        PaymentWebhookEvent waiting = event(2L, "pi_1", 0);
+        PaymentWebhookEvent other = event(3L, "pi_2", 0);
+        due(failing, waiting, other);
+        doThrow(new IllegalStateException("gateway down")).when(processor).process(failing);
+
+        dispatcher.dispatch();
+
+        verify(processor, never()).process(waiting);
+        verify(processor).process(other);
+        verify(repository).markProcessed(eq(3L), any());
+        verify(repository, never()).markProcessed(eq(1L), any());
+        verify(repository).markFailed(eq(1L), eq(MAX_ATTEMPTS), any(), eq("IllegalStateException: gateway down"));
+    }
+
+    @Test
+    void dispatch_retriesWithExponentialBackoff() throws Exception {
+        assertBackoff(0, Duration.ofSeconds(2));
+        assertBackoff(2, Duration.ofSeconds(8));
+        assertBackoff(9, Duration.ofSeconds(1024));
+        // Capped from the tenth attempt on
+        assertBackoff(20, Duration.ofSeconds(1024));
+    }
+
+    @Test
+    void dispatch_parksRejectedEventWithoutBlockingTheReference() throws Exception {
+        PaymentWebhookEvent rejected = event(1L, "pi_1", 0);
+        PaymentWebhookEvent next = event(2L, "pi_1", 0);
+        due(rejected, next);
+        doThrow(new RejectedWebhookException("Unknown payment status: SETTLED")).when(processor).process(rejected);
+
+        dispatcher.dispatch();
+
+        // A limit of one attempt parks the event as FAILED
+        verify(repository).markFailed(eq(1L), eq(1), any(),
+                eq("RejectedWebhookException: Unknown payment status: SETTLED"));
+        verify(repository, never()).markFailed(eq(1L), eq(MAX_ATTEMPTS), any(), anyString());
+        verify(processor).process(next);
+        verify(repository).markProcessed(eq(2L), any());
+    }
+
+    @Test
+    void dispatch_passesTheAttemptCapToEveryFailure() throws Exception {
+        PaymentWebhookEvent lastAttempt = event(1L, "pi_1", MAX_ATTEMPTS - 1);
+        due(lastAttempt);
+        doThrow(new IllegalStateException("still down")).when(processor).process(lastAttempt);
+
+        dispatcher.dispatch();
+
+        verify(repository).markFailed(eq(1L), eq(MAX_ATTEMPTS), any(), anyString());
+    }
+
+    @Test
+    void dispatch_keepsDrainingWhileBatchesComeBackFull() {
+        PaymentWebhookDispatcher small = new PaymentWebhookDispatcher(repository, processor,
+                mock(PlatformTransactionManager.class), Runnable::run, 1, 1, MAX_ATTEMPTS, Duration.ofDays(7));
+        when(repository.findDue(any(), anyInt()))
+                .thenReturn(List.of(event(1L, "pi_1", 0)), List.of(event(2L, "pi_2", 0)), List.of());
+
+        small.dispatch();
+
+        verify(repository, times(3)).findDue(any(), eq(1));
+        verify(repository, times(2)).markProcessed(anyLong(), any());
+    }
+
+    private void assertBackoff(int previousAttempts, Duration expected) throws Exception {
+        reset(repository, processor);
+        PaymentWebhookEvent event = event(1L, "pi_1", previousAttempts);
+        due(event);
+        doThrow(new IllegalStateException("down")).when(processor).process(event);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+        LocalDateTime after = LocalDateTime.now();
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).markFailed(eq(1L), eq(MAX_ATTEMPTS), nextAttempt.capture(), anyString());
+        assertFalse(nextAttempt.getValue().isBefore(before.plus(expected)), "retried too early");
+        assertFalse(nextAttempt.getValue().isAfter(after.plus(expected)), "retried too late");
+    }
+
+    private void due(PaymentWebhookEvent... events) {
+        when(repository.findDue(any(), anyInt())).thenReturn(List.of(events), List.of());
+    }
+
+    private static PaymentWebhookEvent event(long id, String reference, int attempts) {
+        PaymentWebhookEvent event = PaymentWebhookEvent.builder()
+                .gateway("STRIPE")
+                .eventId("evt_" + id)
+                .eventType("payment_intent.succeeded")
+                .reference(reference)
+                .payload("{}")
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        event.setId(id);
+        return event;
+    }
+}
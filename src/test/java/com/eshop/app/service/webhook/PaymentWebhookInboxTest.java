@@ -0,0 +1,41 @@
+package com.eshop.app.service.webhook;
+
+import com.eshop.app.repository.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PaymentWebhookInboxTest {
+
+    private final PaymentWebhookEventRepository repository = mock(PaymentWebhookEventRepository.class);
+    private final PaymentWebhookInbox inbox = new PaymentWebhookInbox(repository);
+
+    @Test
+    void accept_reportsDuplicateDeliveries() {
+        when(repository.insertIfAbsent("STRIPE", "evt_1", "payment_intent.succeeded", "pi_1", "{}"))
+                .thenReturn(1, 0);
+
+        assertTrue(inbox.accept("STRIPE", "evt_1", "payment_intent.succeeded", "pi_1", "{}"));
+        assertFalse(inbox.accept("STRIPE", "evt_1", "payment_intent.succeeded", "pi_1", "{}"));
+    }
+
+    @Test
+    void accept_withoutEventId_keysByPayloadHash() {
+        when(repository.insertIfAbsent(eq("PAYU"), anyString(), any(), any(), anyString())).thenReturn(1);
+
+        inbox.accept("PAYU", null, "success", "tx_1", "txnid=tx_1&status=success");
+        inbox.accept("PAYU", " ", "success", "tx_1", "txnid=tx_1&status=success");
+        inbox.accept("PAYU", null, "failure", "tx_1", "txnid=tx_1&status=failure");
+
+        ArgumentCaptor<String> ids = ArgumentCaptor.forClass(String.class);
+        verify(repository, times(3)).insertIfAbsent(eq("PAYU"), ids.capture(), any(), any(), anyString());
+        assertTrue(ids.getAllValues().get(0).startsWith("sha256:"));
+        assertEquals(ids.getAllValues().get(0), ids.getAllValues().get(1));
+        assertNotEquals(ids.getAllValues().get(0), ids.getAllValues().get(2));
+    }
+}
@@ -0,0 +1,69 @@
+package com.eshop.app.service.webhook;
+
+import com.eshop.app.entity.Order;
+import com.eshop.app.entity.Payment;
+import com.eshop.app.entity.PaymentWebhookEvent;
+import com.eshop.app.repository.OrderRepository;
+import com.eshop.app.repository.PaymentRepository;
+import com.eshop.app.service.InventoryReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PaymentWebhookProcessorTest {
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final InventoryReservationService reservationService = mock(InventoryReservationService.class);
+    private final PaymentWebhookProcessor processor = new PaymentWebhookProcessor(paymentRepository,
+            orderRepository, reservationService, new ObjectMapper());
+
+    @Test
+    void process_unknownStatus_isRejected() {
+        PaymentWebhookEvent event = genericEvent("{\"transactionId\":\"tx_1\",\"status\":\"SETTLED\"}");
+
+        assertThrows(RejectedWebhookException.class, () -> processor.process(event));
+        verifyNoInteractions(paymentRepository, orderRepository, reservationService);
+    }
+
+    @Test
+    void process_completedPayment_marksOrderPaidAndConfirmsReservationsOnce() throws Exception {
+        Order order = Order.builder().paymentStatus(Order.PaymentStatus.PENDING).build();
+        order.setId(7L);
+        Payment payment = Payment.builder().order(order).build();
+        when(paymentRepository.findByGatewayTransactionId("tx_1")).thenReturn(Optional.of(payment));
+        PaymentWebhookEvent event = genericEvent("{\"transactionId\":\"tx_1\",\"status\":\"completed\"}");
+
+        processor.process(event);
+        processor.process(event);
+
+        assertEquals(Payment.PaymentStatus.COMPLETED, payment.getStatus());
+        assertEquals(Order.PaymentStatus.PAID, order.getPaymentStatus());
+        verify(orderRepository).save(order);
+        verify(reservationService).confirm(7L);
+    }
+
+    @Test
+    void process_withoutReference_isIgnored() throws Exception {
+        PaymentWebhookEvent event = genericEvent("{\"status\":\"COMPLETED\"}");
+        event.setReference(null);
+
+        processor.process(event);
+
+        verify(paymentRepository, never()).findByGatewayTransactionId(any());
+    }
+
+    private static PaymentWebhookEvent genericEvent(String payload) {
+        return PaymentWebhookEvent.builder()
+                .gateway("PAYPAL")
+                .eventId("evt_1")
+                .reference("tx_1")
+                .payload(payload)
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+-- Columns of the coupons table that incrementUsageIfAvailable touches; the full
+-- schema is owned by Hibernate.
+DROP TABLE IF EXISTS coupons;
+
+CREATE TABLE coupons (
+    id          BIGINT PRIMARY KEY,
+    used_count  INTEGER DEFAULT 0,
+    usage_limit INTEGER,
+    valid_from  TIMESTAMP NOT NULL,
+    valid_until TIMESTAMP NOT NULL,
+    is_active   BOOLEAN   NOT NULL DEFAULT TRUE,
+    version     BIGINT
+);
@@ -0,0 +1,42 @@
+-- Columns of the tables releaseExpired and confirmOrder touch; the full schema
+-- is owned by Hibernate and Flyway.
+DROP TABLE IF EXISTS inventory_reservations, product_inventory, products, orders;
+
+CREATE TABLE orders (
+    id             BIGINT PRIMARY KEY,
+    order_status   VARCHAR(20) NOT NULL,
+    payment_status VARCHAR(20) NOT NULL,
+    version        BIGINT,
+    updated_at     TIMESTAMP
+);
+
+CREATE TABLE products (
+    id             BIGINT PRIMARY KEY,
+    stock_quantity INTEGER,
+    version        BIGINT
+);
+
+CREATE TABLE product_inventory (
+    id                BIGSERIAL PRIMARY KEY,
+    product_id        BIGINT  NOT NULL,
+    warehouse_id      BIGINT  NOT NULL,
+    quantity          INTEGER NOT NULL,
+    reserved_quantity INTEGER NOT NULL,
+    version           BIGINT,
+    updated_at        TIMESTAMP
+);
+
+CREATE TABLE inventory_reservations (
+    id           BIGSERIAL PRIMARY KEY,
+    order_id     BIGINT      NOT NULL,
+    product_id   BIGINT      NOT NULL,
+    warehouse_id BIGINT,
+    quantity     INTEGER     NOT NULL,
+    status       VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    expires_at   TIMESTAMP   NOT NULL,
+    created_at   TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at   TIMESTAMP,
+    created_by   VARCHAR(255),
+    updated_by   VARCHAR(255),
+    version      BIGINT
+);
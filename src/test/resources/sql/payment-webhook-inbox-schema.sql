@@ -0,0 +1,22 @@
+-- Same table as V13__create_payment_webhook_inbox.sql
+DROP TABLE IF EXISTS payment_webhook_inbox;
+
+CREATE TABLE payment_webhook_inbox (
+    id              BIGSERIAL PRIMARY KEY,
+    gateway         VARCHAR(20)  NOT NULL,
+    event_id        VARCHAR(255) NOT NULL,
+    event_type      VARCHAR(100),
+    reference       VARCHAR(255),
+    payload         TEXT         NOT NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'RECEIVED',
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at    TIMESTAMP,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP,
+    created_by      VARCHAR(255),
+    updated_by      VARCHAR(255),
+    version         BIGINT,
+    CONSTRAINT uk_webhook_inbox_gateway_event UNIQUE (gateway, event_id)
+);